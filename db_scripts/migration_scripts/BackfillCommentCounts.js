@@ -0,0 +1,39 @@
+/* JS code for backfilling reply_cnt and flag_cnt on existing Chatter_Comment items */
+var scanParams = {
+    TableName: 'Chatter_Comment',
+    ProjectionExpression: 'comment_id, replies, flags, reply_cnt, flag_cnt',
+    FilterExpression: 'attribute_not_exists(reply_cnt) OR attribute_not_exists(flag_cnt)'
+};
+
+// Sets a missing count to the size of its id set. The condition leaves
+// counts seeded by the service since the scan untouched.
+function seedCount(commentId, countAttribute, ids) {
+    var params = {
+        TableName: 'Chatter_Comment',
+        Key: { comment_id: { S: commentId } },
+        UpdateExpression: 'SET ' + countAttribute + ' = :cnt',
+        ConditionExpression: 'attribute_exists(comment_id) AND attribute_not_exists(' + countAttribute + ')',
+        ExpressionAttributeValues: { ':cnt': { N: String(ids ? ids.SS.length : 0) } }
+    };
+    dynamodb.updateItem(params, function(err, data) {
+        if (err && err.code !== 'ConditionalCheckFailedException') ppJson(err); // an error occurred
+    });
+}
+
+function scanPage(startKey) {
+    scanParams.ExclusiveStartKey = startKey;
+    dynamodb.scan(scanParams, function(err, data) {
+        if (err) {
+            ppJson(err); // an error occurred
+            return;
+        }
+        data.Items.forEach(function(item) {
+            if (!item.reply_cnt) seedCount(item.comment_id.S, 'reply_cnt', item.replies);
+            if (!item.flag_cnt) seedCount(item.comment_id.S, 'flag_cnt', item.flags);
+        });
+        if (data.LastEvaluatedKey) scanPage(data.LastEvaluatedKey);
+        else ppJson({ done: true });
+    });
+}
+
+scanPage(undefined);
@@ -51,12 +51,16 @@ var params = {
             },
         },
         {
-            IndexName: 'forum_id_index',
+            IndexName: 'forum_time_index',
             KeySchema: [
                 {
                     AttributeName: 'forum_id',
                     KeyType: "HASH"
-                }    
+                },
+                {
+                    AttributeName: 'time_stamp',
+                    KeyType: 'RANGE'
+                }
             ],
             Projection: {
                 ProjectionType: 'ALL'
@@ -65,6 +69,50 @@ var params = {
                 ReadCapacityUnits: 25,
                 WriteCapacityUnits: 25
             }
+        },
+        { // Read by view=summary queries in place of created_by_index
+            IndexName: 'created_by_summary_index',
+            KeySchema: [
+                {
+                    AttributeName: 'created_by',
+                    KeyType: 'HASH'
+                },
+                {
+                    AttributeName: 'time_stamp',
+                    KeyType: 'RANGE'
+                }
+            ],
+            Projection: {
+                ProjectionType: 'INCLUDE',
+                NonKeyAttributes: [ 'forum_id', 'concur_cnt', 's3_bucket', 's3_key',
+                        'reply_cnt', 'flag_cnt' ]
+            },
+            ProvisionedThroughput: {
+                ReadCapacityUnits: 25,
+                WriteCapacityUnits: 25
+            }
+        },
+        { // Read by view=summary queries in place of forum_time_index
+            IndexName: 'forum_time_summary_index',
+            KeySchema: [
+                {
+                    AttributeName: 'forum_id',
+                    KeyType: 'HASH'
+                },
+                {
+                    AttributeName: 'time_stamp',
+                    KeyType: 'RANGE'
+                }
+            ],
+            Projection: {
+                ProjectionType: 'INCLUDE',
+                NonKeyAttributes: [ 'created_by', 'concur_cnt', 's3_bucket', 's3_key',
+                        'reply_cnt', 'flag_cnt' ]
+            },
+            ProvisionedThroughput: {
+                ReadCapacityUnits: 25,
+                WriteCapacityUnits: 25
+            }
         }
     ]
 };
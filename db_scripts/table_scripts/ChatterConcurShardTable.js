@@ -0,0 +1,29 @@
+/* JS code for creating Chatter_Comment_Concur table */
+/* Holds the sharded concur counters of ChatterComment items.  */
+/* Each shard is its own item keyed by '<comment_id>#<shard>'  */
+/* so that increments for one comment spread across partitions. */
+var params = {
+    TableName: 'Chatter_Comment_Concur',
+    KeySchema: [ 
+        { // Required HASH type attribute
+            AttributeName: 'shard_key',
+            KeyType: 'HASH',
+        }
+    ],
+    AttributeDefinitions: [ 
+        {
+            AttributeName: 'shard_key',
+            AttributeType: 'S'
+        }
+    ],
+    ProvisionedThroughput: { 
+        ReadCapacityUnits: 25, 
+        WriteCapacityUnits: 25, 
+    }
+};
+
+dynamodb.createTable(params, function(err, data) {
+    if (err) ppJson(err); // an error occurred
+    else ppJson(data); // successful response
+
+});
@@ -0,0 +1,29 @@
+/* JS code for creating Chatter_Creator_Forum table */
+/* Records the forums counted in the forum_cnt of a creator, one */
+/* item per forum keyed by '<created_by>#<forum_id>', so stream  */
+/* records delivered more than once change the count once.       */
+var params = {
+    TableName: 'Chatter_Creator_Forum',
+    KeySchema: [ 
+        { // Required HASH type attribute
+            AttributeName: 'owner_key',
+            KeyType: 'HASH',
+        }
+    ],
+    AttributeDefinitions: [ 
+        {
+            AttributeName: 'owner_key',
+            AttributeType: 'S'
+        }
+    ],
+    ProvisionedThroughput: { 
+        ReadCapacityUnits: 5, 
+        WriteCapacityUnits: 25, 
+    }
+};
+
+dynamodb.createTable(params, function(err, data) {
+    if (err) ppJson(err); // an error occurred
+    else ppJson(data); // successful response
+
+});
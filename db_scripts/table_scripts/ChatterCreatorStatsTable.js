@@ -0,0 +1,28 @@
+/* JS code for creating Chatter_Creator_Stats table */
+/* Holds per creator aggregates maintained from the    */
+/* Chatter_Forum stream by ChatterForumDBEventHandler. */
+var params = {
+    TableName: 'Chatter_Creator_Stats',
+    KeySchema: [ 
+        { // Required HASH type attribute
+            AttributeName: 'created_by',
+            KeyType: 'HASH',
+        }
+    ],
+    AttributeDefinitions: [ 
+        {
+            AttributeName: 'created_by',
+            AttributeType: 'S'
+        }
+    ],
+    ProvisionedThroughput: { 
+        ReadCapacityUnits: 25, 
+        WriteCapacityUnits: 25, 
+    }
+};
+
+dynamodb.createTable(params, function(err, data) {
+    if (err) ppJson(err); // an error occurred
+    else ppJson(data); // successful response
+
+});
@@ -0,0 +1,29 @@
+/* JS code for creating Chatter_Forum_Cascade table */
+/* Holds pending cascading deletes of removed forums, one item per */
+/* forum. 'start_key' saves the position reached in the comment    */
+/* forum_time_index so that an unfinished cascade can be resumed.  */
+var params = {
+    TableName: 'Chatter_Forum_Cascade',
+    KeySchema: [ 
+        { // Required HASH type attribute
+            AttributeName: 'forum_id',
+            KeyType: 'HASH',
+        }
+    ],
+    AttributeDefinitions: [ 
+        {
+            AttributeName: 'forum_id',
+            AttributeType: 'S'
+        }
+    ],
+    ProvisionedThroughput: { 
+        ReadCapacityUnits: 5, 
+        WriteCapacityUnits: 5, 
+    }
+};
+
+dynamodb.createTable(params, function(err, data) {
+    if (err) ppJson(err); // an error occurred
+    else ppJson(data); // successful response
+
+});
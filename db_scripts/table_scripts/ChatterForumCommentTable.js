@@ -0,0 +1,29 @@
+/* JS code for creating Chatter_Forum_Comment table */
+/* Records the comments counted in the comment_cnt of a forum, one  */
+/* item per comment keyed by '<forum_id>#<comment_id>', so repeated */
+/* ADD_COMMENT and REMOVE_COMMENT requests change the count once.   */
+var params = {
+    TableName: 'Chatter_Forum_Comment',
+    KeySchema: [ 
+        { // Required HASH type attribute
+            AttributeName: 'member_key',
+            KeyType: 'HASH',
+        }
+    ],
+    AttributeDefinitions: [ 
+        {
+            AttributeName: 'member_key',
+            AttributeType: 'S'
+        }
+    ],
+    ProvisionedThroughput: { 
+        ReadCapacityUnits: 5, 
+        WriteCapacityUnits: 10, 
+    }
+};
+
+dynamodb.createTable(params, function(err, data) {
+    if (err) ppJson(err); // an error occurred
+    else ppJson(data); // successful response
+
+});
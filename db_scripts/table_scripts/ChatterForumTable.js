@@ -29,6 +29,11 @@ var params = {
         ReadCapacityUnits: 25, 
         WriteCapacityUnits: 25, 
     },
+    StreamSpecification: {
+        // Consumed by ChatterForumDBEventHandler
+        StreamEnabled: true,
+        StreamViewType: 'NEW_AND_OLD_IMAGES'
+    },
     GlobalSecondaryIndexes: [ 
         { 
             IndexName: 'created_by_index', 
@@ -0,0 +1,165 @@
+package com.chatter.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterForum;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * BenchmarkData
+ * @author coreym
+ *
+ * Builds the requests, items and JSON payloads used by the benchmarks.
+ * Values are sized like production traffic: UUID ids, a handful of
+ * replies and flags per comment and a full query page of results.
+ * A fixed seed keeps every run working on the same data.
+ */
+final class BenchmarkData {
+
+	// Number of results in a query page, matches queryLimit
+	static final int PAGE_SIZE = 30;
+
+	// Bucket files are saved to, matches fileBuckets
+	static final String FILE_BUCKET = "chatter-test-data";
+
+	private BenchmarkData() { }
+
+	/**
+	 * @return an ObjectMapper configured like the Lambda POJO serializer
+	 */
+	static ObjectMapper lambdaObjectMapper() {
+		return new ObjectMapper()
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	}
+
+	static Map<String, Object> createCommentArgs() {
+		Map<String, Object> args = new HashMap<>();
+		args.put("createdBy", "benchmark-user");
+		args.put("forumId", UUID.randomUUID().toString());
+		args.put("bucketName", "chatter-audio");
+		args.put("fileName", UUID.randomUUID().toString() + ".m4a");
+		return args;
+	}
+
+	static Map<String, Object> queryByForumArgs() {
+		Map<String, Object> args = new HashMap<>();
+		args.put("forumId", UUID.randomUUID().toString());
+		args.put("timeStampFrom", 1500000000000L);
+		args.put("timeStampTo", 1600000000000L);
+		args.put("sortOrder", "desc");
+		args.put("maxResults", 100);
+		return args;
+	}
+
+	static Map<String, Object> batchRetrieveArgs() {
+		List<String> commentIds = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			commentIds.add(UUID.randomUUID().toString());
+		}
+		Map<String, Object> args = new HashMap<>();
+		args.put("commentIds", commentIds);
+		return args;
+	}
+
+	static Map<String, Object> createForumArgs() {
+		Map<String, Object> args = new HashMap<>();
+		args.put("createdBy", "benchmark-user");
+		args.put("title", "What is everyone listening to this week?");
+		return args;
+	}
+
+	static Map<String, Object> saveFileArgs() {
+		Map<String, Object> args = new HashMap<>();
+		args.put("createdBy", "benchmark-user");
+		args.put("bucketName", FILE_BUCKET);
+		args.put("keyName", UUID.randomUUID().toString() + ".m4a");
+		args.put("dateCreated", "1500000000000");
+		return args;
+	}
+
+	static byte[] fileData(int size) {
+		byte[] data = new byte[size];
+		new Random(42).nextBytes(data);
+		return data;
+	}
+
+	/**
+	 * @return a JSON request body in the shape API Gateway hands to Lambda
+	 */
+	static String requestJson(String operation, Map<String, Object> args) throws Exception {
+		Map<String, Object> request = new HashMap<>();
+		request.put("operation", operation);
+		request.put("reqDate", 1500000000000L);
+		request.put("args", args);
+		return lambdaObjectMapper().writeValueAsString(request);
+	}
+
+	/**
+	 * @return the request bound from JSON the way Lambda binds it
+	 */
+	static <T> T bind(String json, Class<T> requestType) throws Exception {
+		return lambdaObjectMapper().readValue(json, requestType);
+	}
+
+	static String fileRequestJson(Map<String, Object> args, byte[] fileData) throws Exception {
+		Map<String, Object> request = new HashMap<>();
+		request.put("operation", "SAVE_FILE");
+		request.put("reqDate", 1500000000000L);
+		request.put("args", args);
+		request.put("fileData", Base64.getEncoder().encodeToString(fileData));
+		return lambdaObjectMapper().writeValueAsString(request);
+	}
+
+	static ChatterComment comment(Random random) {
+		ChatterComment comment = new ChatterComment();
+		comment.setCommentId(UUID.randomUUID().toString());
+		comment.setCreatedBy("benchmark-user");
+		comment.setTimeStamp(1500000000000L + random.nextInt(1000000));
+		comment.setForumId(UUID.randomUUID().toString());
+		comment.setReplyIds(ids(5));
+		comment.setFlagIds(ids(1));
+		comment.setReplyCnt(5);
+		comment.setFlagCnt(1);
+		comment.setConcurCnt(random.nextInt(500));
+		comment.setS3BucketName("chatter-audio");
+		comment.setS3KeyName(UUID.randomUUID().toString() + ".m4a");
+		return comment;
+	}
+
+	static ChatterForum forum(Random random) {
+		ChatterForum forum = new ChatterForum();
+		forum.setForumId(UUID.randomUUID().toString());
+		forum.setCreatedBy("benchmark-user");
+		forum.setTimeStamp(1500000000000L + random.nextInt(1000000));
+		forum.setTitle("What is everyone listening to this week?");
+		forum.setCommentCnt(random.nextInt(200));
+		return forum;
+	}
+
+	static List<ChatterComment> commentPage() {
+		Random random = new Random(42);
+		List<ChatterComment> comments = new ArrayList<>(PAGE_SIZE);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			comments.add(comment(random));
+		}
+		return comments;
+	}
+
+	private static Set<String> ids(int count) {
+		Set<String> ids = new HashSet<>();
+		for (int i = 0; i < count; i++) {
+			ids.add(UUID.randomUUID().toString());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,155 @@
+package com.chatter.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * BenchmarkRunner
+ * @author coreym
+ *
+ * Runs every benchmark in this module with the GC profiler attached, so
+ * each result carries its throughput and the bytes allocated per
+ * operation. Results are written to jmh-result.json.
+ *
+ * Usage: java -jar benchmarks.jar [baseline.json] [tolerance]
+ *
+ * When a baseline (the jmh-result.json of an earlier run) is given, each
+ * benchmark is compared against it and the runner exits with status 1 if
+ * throughput dropped, or allocation per operation grew, by more than the
+ * tolerance (default 0.10).
+ */
+public final class BenchmarkRunner {
+
+	// Result written by this run, usable as the baseline of a later run
+	private static final String RESULT_FILE = "jmh-result.json";
+
+	// Label the GC profiler gives to bytes allocated per operation
+	private static final String ALLOC_NORM = "\u00b7gc.alloc.rate.norm";
+
+	// Allocation differences below this many bytes per operation are noise
+	private static final double ALLOC_SLACK_BYTES = 16;
+
+	private BenchmarkRunner() { }
+
+	public static void main(String[] args) throws Exception {
+		double tolerance = args.length > 1 ? Double.parseDouble(args[1]) : 0.10;
+
+		Options options = new OptionsBuilder()
+				.include(BenchmarkRunner.class.getPackage().getName() + "\\..*Benchmark")
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(RESULT_FILE)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		Map<String, double[]> current = new TreeMap<>();
+		for (RunResult result : results) {
+			Result alloc = result.getSecondaryResults().get(ALLOC_NORM);
+			current.put(key(result.getParams()), new double[] {
+					result.getPrimaryResult().getScore(),
+					alloc != null ? alloc.getScore() : Double.NaN });
+		}
+
+		System.out.println();
+		System.out.println(String.format("%-70s %15s %15s", "Benchmark", "ops/s", "B/op"));
+		for (Map.Entry<String, double[]> entry : current.entrySet()) {
+			System.out.println(String.format("%-70s %15.1f %15.1f", entry.getKey(),
+					entry.getValue()[0], entry.getValue()[1]));
+		}
+
+		if (args.length > 0) {
+			List<String> regressions = compare(readBaseline(new File(args[0])), current, tolerance);
+			for (String regression : regressions) {
+				System.out.println("REGRESSION: " + regression);
+			}
+			if (!regressions.isEmpty()) {
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Compares this run against a baseline.
+	 *
+	 * @return a description of every benchmark that got worse
+	 */
+	static List<String> compare(Map<String, double[]> baseline, Map<String, double[]> current,
+			double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		for (Map.Entry<String, double[]> entry : current.entrySet()) {
+			double[] before = baseline.get(entry.getKey());
+			if (before == null) {
+				continue;
+			}
+			double[] after = entry.getValue();
+			if (after[0] < before[0] * (1 - tolerance)) {
+				regressions.add(String.format("%s throughput %.1f -> %.1f ops/s",
+						entry.getKey(), before[0], after[0]));
+			}
+			if (!Double.isNaN(before[1]) && !Double.isNaN(after[1])
+					&& after[1] > before[1] * (1 + tolerance) + ALLOC_SLACK_BYTES) {
+				regressions.add(String.format("%s allocation %.1f -> %.1f B/op",
+						entry.getKey(), before[1], after[1]));
+			}
+		}
+		return regressions;
+	}
+
+	/**
+	 * Reads the throughput and allocation of each benchmark from a JMH
+	 * JSON result file.
+	 */
+	static Map<String, double[]> readBaseline(File file) throws Exception {
+		Map<String, double[]> baseline = new HashMap<>();
+		for (JsonNode run : new ObjectMapper().readTree(file)) {
+			StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+			Map<String, String> params = new TreeMap<>();
+			Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+			while (fields.hasNext()) {
+				Map.Entry<String, JsonNode> param = fields.next();
+				params.put(param.getKey(), param.getValue().asText());
+			}
+			appendParams(key, params);
+
+			JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_NORM).path("score");
+			baseline.put(key.toString(), new double[] {
+					run.path("primaryMetric").path("score").asDouble(),
+					alloc.isMissingNode() ? Double.NaN : alloc.asDouble() });
+		}
+		return baseline;
+	}
+
+	private static String key(BenchmarkParams benchmarkParams) {
+		StringBuilder key = new StringBuilder(benchmarkParams.getBenchmark());
+		Map<String, String> params = new TreeMap<>();
+		for (String name : benchmarkParams.getParamsKeys()) {
+			params.put(name, benchmarkParams.getParam(name));
+		}
+		appendParams(key, params);
+		return key.toString();
+	}
+
+	private static void appendParams(StringBuilder key, Map<String, String> params) {
+		for (Map.Entry<String, String> param : params.entrySet()) {
+			key.append(':').append(param.getKey()).append('=').append(param.getValue());
+		}
+	}
+}
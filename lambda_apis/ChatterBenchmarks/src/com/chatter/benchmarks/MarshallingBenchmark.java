@@ -0,0 +1,122 @@
+package com.chatter.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterForum;
+
+/**
+ * MarshallingBenchmark
+ * @author coreym
+ *
+ * Measures DynamoDBMapper conversion between ChatterComment/ChatterForum
+ * objects and DynamoDB items. Saves run against a client that returns
+ * without a network call, so only the mapper's own work is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarshallingBenchmark {
+
+	private NoOpDynamoDBClient client;
+	private DynamoDBMapper mapper;
+	private ChatterComment comment;
+	private ChatterForum forum;
+	private Map<String, AttributeValue> commentItem;
+	private Map<String, AttributeValue> forumItem;
+	private List<Map<String, AttributeValue>> commentPageItems;
+
+	@Setup
+	public void setUp() {
+		this.client = new NoOpDynamoDBClient();
+		this.mapper = new DynamoDBMapper(this.client);
+
+		Random random = new Random(42);
+		this.comment = BenchmarkData.comment(random);
+		this.forum = BenchmarkData.forum(random);
+		this.commentItem = commentItem(this.comment);
+		this.forumItem = forumItem(this.forum);
+		this.commentPageItems = new ArrayList<>();
+		for (ChatterComment pageComment : BenchmarkData.commentPage()) {
+			this.commentPageItems.add(commentItem(pageComment));
+		}
+	}
+
+	@Benchmark
+	public Object saveComment() {
+		this.mapper.save(this.comment);
+		return this.client.getLastRequest();
+	}
+
+	@Benchmark
+	public Object saveForum() {
+		this.mapper.save(this.forum);
+		return this.client.getLastRequest();
+	}
+
+	@Benchmark
+	public ChatterComment loadComment() {
+		return this.mapper.marshallIntoObject(ChatterComment.class, this.commentItem);
+	}
+
+	@Benchmark
+	public ChatterForum loadForum() {
+		return this.mapper.marshallIntoObject(ChatterForum.class, this.forumItem);
+	}
+
+	@Benchmark
+	public List<ChatterComment> loadCommentPage() {
+		List<ChatterComment> comments = new ArrayList<>(this.commentPageItems.size());
+		for (Map<String, AttributeValue> item : this.commentPageItems) {
+			comments.add(this.mapper.marshallIntoObject(ChatterComment.class, item));
+		}
+		return comments;
+	}
+
+	private static Map<String, AttributeValue> commentItem(ChatterComment comment) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("comment_id", new AttributeValue(comment.getCommentId()));
+		item.put("created_by", new AttributeValue(comment.getCreatedBy()));
+		item.put("time_stamp", new AttributeValue().withN(comment.getTimeStamp().toString()));
+		item.put("forum_id", new AttributeValue(comment.getForumId()));
+		item.put("replies", new AttributeValue().withSS(comment.getReplyIds()));
+		item.put("flags", new AttributeValue().withSS(comment.getFlagIds()));
+		item.put("reply_cnt", new AttributeValue().withN(comment.getReplyCnt().toString()));
+		item.put("flag_cnt", new AttributeValue().withN(comment.getFlagCnt().toString()));
+		item.put("concur_cnt", new AttributeValue().withN(Integer.toString(comment.getConcurCnt())));
+		item.put("s3_bucket", new AttributeValue(comment.getS3BucketName()));
+		item.put("s3_key", new AttributeValue(comment.getS3KeyName()));
+		return item;
+	}
+
+	private static Map<String, AttributeValue> forumItem(ChatterForum forum) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("forum_id", new AttributeValue(forum.getForumId()));
+		item.put("created_by", new AttributeValue(forum.getCreatedBy()));
+		item.put("time_stamp", new AttributeValue().withN(forum.getTimeStamp().toString()));
+		item.put("title", new AttributeValue(forum.getTitle()));
+		item.put("comment_cnt", new AttributeValue().withN(forum.getCommentCnt().toString()));
+		return item;
+	}
+}
@@ -0,0 +1,42 @@
+package com.chatter.benchmarks;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+
+/**
+ * NoOpDynamoDBClient
+ * @author coreym
+ *
+ * DynamoDB client whose item writes return straight away without a
+ * network call, so that DynamoDBMapper.save can be benchmarked down to
+ * the finished request. The last request is kept so that the JIT cannot
+ * drop the marshalling work.
+ */
+class NoOpDynamoDBClient extends AmazonDynamoDBClient {
+
+	private volatile Object lastRequest;
+
+	NoOpDynamoDBClient() {
+		super(new BasicAWSCredentials("benchmark", "benchmark"));
+	}
+
+	@Override
+	public PutItemResult putItem(PutItemRequest request) {
+		this.lastRequest = request;
+		return new PutItemResult();
+	}
+
+	@Override
+	public UpdateItemResult updateItem(UpdateItemRequest request) {
+		this.lastRequest = request;
+		return new UpdateItemResult();
+	}
+
+	Object getLastRequest() {
+		return this.lastRequest;
+	}
+}
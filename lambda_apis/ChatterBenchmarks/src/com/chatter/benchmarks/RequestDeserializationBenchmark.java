@@ -0,0 +1,87 @@
+package com.chatter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.fileservice.requests.ServiceRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * RequestDeserializationBenchmark
+ * @author coreym
+ *
+ * Measures turning a JSON request body into the request objects the
+ * handlers receive, the first step of every invocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestDeserializationBenchmark {
+
+	// Size of the audio file sent with a SAVE_FILE request
+	@Param({"16384", "262144"})
+	public int fileSize;
+
+	private ObjectMapper mapper;
+	private byte[] createCommentJson;
+	private byte[] queryByForumJson;
+	private byte[] batchRetrieveJson;
+	private byte[] createForumJson;
+	private byte[] saveFileJson;
+
+	@Setup
+	public void setUp() throws Exception {
+		this.mapper = BenchmarkData.lambdaObjectMapper();
+		this.createCommentJson = BenchmarkData.requestJson("CREATE",
+				BenchmarkData.createCommentArgs()).getBytes("UTF-8");
+		this.queryByForumJson = BenchmarkData.requestJson("QUERY_BY_FORUM",
+				BenchmarkData.queryByForumArgs()).getBytes("UTF-8");
+		this.batchRetrieveJson = BenchmarkData.requestJson("BATCH_RETRIEVE",
+				BenchmarkData.batchRetrieveArgs()).getBytes("UTF-8");
+		this.createForumJson = BenchmarkData.requestJson("CREATE",
+				BenchmarkData.createForumArgs()).getBytes("UTF-8");
+		this.saveFileJson = BenchmarkData.fileRequestJson(BenchmarkData.saveFileArgs(),
+				BenchmarkData.fileData(this.fileSize)).getBytes("UTF-8");
+	}
+
+	@Benchmark
+	public CommentCRUDRequest createCommentRequest() throws Exception {
+		return this.mapper.readValue(this.createCommentJson, CommentCRUDRequest.class);
+	}
+
+	@Benchmark
+	public CommentCRUDRequest queryByForumRequest() throws Exception {
+		return this.mapper.readValue(this.queryByForumJson, CommentCRUDRequest.class);
+	}
+
+	@Benchmark
+	public CommentCRUDRequest batchRetrieveRequest() throws Exception {
+		return this.mapper.readValue(this.batchRetrieveJson, CommentCRUDRequest.class);
+	}
+
+	@Benchmark
+	public ForumCRUDRequest createForumRequest() throws Exception {
+		return this.mapper.readValue(this.createForumJson, ForumCRUDRequest.class);
+	}
+
+	@Benchmark
+	public ServiceRequest saveFileRequest() throws Exception {
+		return this.mapper.readValue(this.saveFileJson, ServiceRequest.class);
+	}
+}
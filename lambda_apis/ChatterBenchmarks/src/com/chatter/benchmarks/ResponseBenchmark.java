@@ -0,0 +1,108 @@
+package com.chatter.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.responses.CommentResultPage;
+import com.chatter.dbservice.responses.ForumResultPage;
+import com.chatter.dbservice.responses.ServiceResponse;
+import com.chatter.dbservice.util.ServiceMessages;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ResponseBenchmark
+ * @author coreym
+ *
+ * Measures building query result pages and serializing ServiceResponse
+ * objects to the JSON returned to API Gateway, the last step of every
+ * invocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseBenchmark {
+
+	private ObjectMapper mapper;
+	private ChatterComment comment;
+	private List<ChatterComment> comments;
+	private List<ChatterForum> forums;
+	private String cursor;
+	private ServiceResponse<CommentResultPage> commentPageResponse;
+	private com.chatter.fileservice.responses.ServiceResponse<String> fileResponse;
+
+	@Setup
+	public void setUp() {
+		this.mapper = BenchmarkData.lambdaObjectMapper();
+		this.comments = BenchmarkData.commentPage();
+		this.comment = this.comments.get(0);
+
+		Random random = new Random(42);
+		this.forums = new ArrayList<>();
+		for (int i = 0; i < BenchmarkData.PAGE_SIZE; i++) {
+			this.forums.add(BenchmarkData.forum(random));
+		}
+		this.cursor = "eyJzIjoiQ2hhdHRlcl9Db21tZW50L2ZvcnVtX3RpbWVfaW5kZXgifQ.c2lnbmF0dXJl";
+		this.commentPageResponse = success(this.commentPage());
+		this.fileResponse = new com.chatter.fileservice.responses.ServiceResponse<>(
+				"https://chatter-audio.s3.amazonaws.com/benchmark.m4a", true,
+				"Operation completed successfully", false, null);
+	}
+
+	@Benchmark
+	public CommentResultPage commentPage() {
+		return new CommentResultPage(this.comments, this.cursor, this.comments.size());
+	}
+
+	@Benchmark
+	public ForumResultPage forumPage() {
+		return new ForumResultPage(this.forums, this.cursor, this.forums.size());
+	}
+
+	@Benchmark
+	public byte[] serializeComment() throws Exception {
+		return this.mapper.writeValueAsBytes(success(this.comment));
+	}
+
+	@Benchmark
+	public byte[] serializeCommentPage() throws Exception {
+		return this.mapper.writeValueAsBytes(this.commentPageResponse);
+	}
+
+	@Benchmark
+	public byte[] serializeForumPage() throws Exception {
+		return this.mapper.writeValueAsBytes(success(this.forumPage()));
+	}
+
+	@Benchmark
+	public byte[] serializeFileResponse() throws Exception {
+		return this.mapper.writeValueAsBytes(this.fileResponse);
+	}
+
+	private static <E> ServiceResponse<E> success(E payload) {
+		ServiceResponse<E> response = new ServiceResponse<>();
+		response.setPayload(payload);
+		response.setStatus(true);
+		response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
+		response.setExceptionThrown(false);
+		response.setExceptionMessage(null);
+		return response;
+	}
+}
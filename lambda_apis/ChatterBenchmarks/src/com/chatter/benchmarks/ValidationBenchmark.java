@@ -0,0 +1,108 @@
+package com.chatter.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.dbservice.requests.validators.CommentCRUDRequestValidator;
+import com.chatter.dbservice.requests.validators.ForumCRUDRequestValidator;
+import com.chatter.fileservice.requests.BucketPolicy;
+import com.chatter.fileservice.requests.ServiceRequest;
+import com.chatter.fileservice.requests.ServiceRequestValidator;
+
+/**
+ * ValidationBenchmark
+ * @author coreym
+ *
+ * Measures the request validators run before every DAO call, for valid
+ * requests and for a request that fails validation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+	private CommentCRUDRequest createComment;
+	private CommentCRUDRequest queryByForum;
+	private CommentCRUDRequest batchRetrieve;
+	private CommentCRUDRequest invalidCreateComment;
+	private ForumCRUDRequest createForum;
+	private ServiceRequest saveFile;
+	private BucketPolicy fileBuckets;
+
+	@Setup
+	public void setUp() throws Exception {
+		this.createComment = BenchmarkData.bind(BenchmarkData.requestJson("CREATE",
+				BenchmarkData.createCommentArgs()), CommentCRUDRequest.class);
+		this.queryByForum = BenchmarkData.bind(BenchmarkData.requestJson("QUERY_BY_FORUM",
+				BenchmarkData.queryByForumArgs()), CommentCRUDRequest.class);
+		this.batchRetrieve = BenchmarkData.bind(BenchmarkData.requestJson("BATCH_RETRIEVE",
+				BenchmarkData.batchRetrieveArgs()), CommentCRUDRequest.class);
+		this.invalidCreateComment = BenchmarkData.bind(BenchmarkData.requestJson("CREATE",
+				BenchmarkData.queryByForumArgs()), CommentCRUDRequest.class);
+		this.createForum = BenchmarkData.bind(BenchmarkData.requestJson("CREATE",
+				BenchmarkData.createForumArgs()), ForumCRUDRequest.class);
+		this.saveFile = BenchmarkData.bind(BenchmarkData.fileRequestJson(
+				BenchmarkData.saveFileArgs(), BenchmarkData.fileData(16384)),
+				ServiceRequest.class);
+		this.fileBuckets = new BucketPolicy(Collections.singleton(BenchmarkData.FILE_BUCKET));
+	}
+
+	@Benchmark
+	public CommentCRUDRequest validateCreateComment() throws RequestValidationException {
+		CommentCRUDRequestValidator.validateCreateRequest(this.createComment);
+		return this.createComment;
+	}
+
+	@Benchmark
+	public CommentCRUDRequest validateQueryByForum() throws RequestValidationException {
+		CommentCRUDRequestValidator.validateQueryByForumRequest(this.queryByForum);
+		return this.queryByForum;
+	}
+
+	@Benchmark
+	public CommentCRUDRequest validateBatchRetrieve() throws RequestValidationException {
+		CommentCRUDRequestValidator.validateBatchRetrieveRequest(this.batchRetrieve);
+		return this.batchRetrieve;
+	}
+
+	@Benchmark
+	public RequestValidationException rejectCreateComment() {
+		try {
+			CommentCRUDRequestValidator.validateCreateRequest(this.invalidCreateComment);
+			return null;
+		}
+		catch (RequestValidationException rve) {
+			return rve;
+		}
+	}
+
+	@Benchmark
+	public ForumCRUDRequest validateCreateForum() throws RequestValidationException {
+		ForumCRUDRequestValidator.validateCreateForumRequest(this.createForum);
+		return this.createForum;
+	}
+
+	@Benchmark
+	public ServiceRequest validateSaveFile() 
+			throws com.chatter.fileservice.exceptions.RequestValidationException {
+		ServiceRequestValidator.validateCreateCommentRequest(this.saveFile, this.fileBuckets);
+		return this.saveFile;
+	}
+}
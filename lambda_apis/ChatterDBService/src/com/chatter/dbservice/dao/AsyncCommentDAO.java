@@ -0,0 +1,37 @@
+package com.chatter.dbservice.dao;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.responses.CommentResultPage;
+
+/**
+ * AsyncCommentDAO
+ * @author coreym
+ *
+ * Asynchronous counterpart of CommentDAO. Every method returns straight
+ * away, and the returned future completes with the result of the
+ * matching CommentDAO method or with the exception it threw.
+ */
+public interface AsyncCommentDAO {
+
+	public CompletableFuture<ChatterComment> createComment(CommentCRUDRequest request);
+	
+	public CompletableFuture<ChatterComment> createCommentInForum(CommentCRUDRequest request);
+	
+	public CompletableFuture<ChatterComment> retrieveComment(CommentCRUDRequest request);
+	
+	public CompletableFuture<Boolean> deleteComment(CommentCRUDRequest request);
+	
+	public CompletableFuture<CommentResultPage> queryByCreator(CommentCRUDRequest request);
+	
+	public CompletableFuture<CommentResultPage> queryByForum(CommentCRUDRequest request);
+	
+	public CompletableFuture<List<ChatterComment>> batchRetrieve(CommentCRUDRequest request);
+	
+	public CompletableFuture<List<String>> batchDelete(CommentCRUDRequest request);
+	
+	public CompletableFuture<ChatterComment> updateComment(CommentCRUDRequest request);
+}
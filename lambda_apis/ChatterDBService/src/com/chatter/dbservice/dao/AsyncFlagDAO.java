@@ -0,0 +1,30 @@
+package com.chatter.dbservice.dao;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.chatter.dbservice.model.ChatterFlag;
+import com.chatter.dbservice.requests.FlagCRUDRequest;
+
+/**
+ * AsyncFlagDAO
+ * @author coreym
+ *
+ * Asynchronous counterpart of FlagDAO. Every method returns straight
+ * away, and the returned future completes with the result of the
+ * matching FlagDAO method or with the exception it threw.
+ */
+public interface AsyncFlagDAO {
+
+	public CompletableFuture<ChatterFlag> createFlag(FlagCRUDRequest req);
+	
+	public CompletableFuture<ChatterFlag> retrieveFlag(FlagCRUDRequest req);
+	
+	public CompletableFuture<ChatterFlag> updateFlag(FlagCRUDRequest req);
+	
+	public CompletableFuture<Boolean> deleteFlag(FlagCRUDRequest req);
+	
+	public CompletableFuture<List<ChatterFlag>> batchRetrieveFlag(FlagCRUDRequest req);
+	
+	public CompletableFuture<List<String>> batchDeleteFlag(FlagCRUDRequest req);
+}
@@ -0,0 +1,34 @@
+package com.chatter.dbservice.dao;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.dbservice.responses.ForumResultPage;
+
+/**
+ * AsyncForumDAO
+ * @author coreym
+ *
+ * Asynchronous counterpart of ForumDAO. Every method returns straight
+ * away, and the returned future completes with the result of the
+ * matching ForumDAO method or with the exception it threw.
+ */
+public interface AsyncForumDAO {
+
+	public CompletableFuture<ChatterForum> createForum(ForumCRUDRequest req);
+	
+	public CompletableFuture<ChatterForum> retrieveForumById(ForumCRUDRequest req);
+	
+	public CompletableFuture<ChatterForum> updateForum(ForumCRUDRequest req);
+	
+	public CompletableFuture<ChatterForum> addCommentToForum(ForumCRUDRequest req);
+	
+	public CompletableFuture<ChatterForum> removeCommentFromForum(ForumCRUDRequest req);
+	
+	public CompletableFuture<Boolean> deleteForum(ForumCRUDRequest req);
+	
+	public CompletableFuture<ForumResultPage> queryByCreator(ForumCRUDRequest req);
+	
+	public CompletableFuture<ForumResultPage> queryByTitle(ForumCRUDRequest req);
+}
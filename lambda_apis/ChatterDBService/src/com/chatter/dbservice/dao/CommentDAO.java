@@ -1,5 +1,6 @@
 package com.chatter.dbservice.dao;
 
+import java.util.Iterator;
 import java.util.List;
 
 import com.amazonaws.AmazonClientException;
@@ -33,6 +34,21 @@ public interface CommentDAO {
 		AmazonServiceException, AmazonClientException,
 			RequestValidationException, PropertyRetrievalException;
 	
+	/**
+	 * Create and save a new ChatterComment object to database and
+	 * count it on its parent forum.
+	 * 
+	 * @param request the request to process
+	 * @return the created ChatterComment object
+	 * @throws AmazonServiceException
+	 * @throws AmazonClientException
+	 * @throws RequestValidationException if the request is invalid or
+	 * the parent forum does not exist
+	 */
+	public ChatterComment createCommentInForum(CommentCRUDRequest request) throws
+		AmazonServiceException, AmazonClientException,
+			RequestValidationException, PropertyRetrievalException;
+	
 	/**
 	 * Retrieve a ChatterComment object from the database using
 	 * an argument comment id value.
@@ -61,7 +77,8 @@ public interface CommentDAO {
 		RequestValidationException;
 	
 	/**
-	 * Queries ChatterComment DB table using argument creator value
+	 * Queries ChatterComment DB table using argument creator value.
+	 * A view argument of "summary" leaves out the reply and flag id sets.
 	 * 
 	 * @param request the request to process
 	 * @return CommentResultPage object
@@ -75,7 +92,9 @@ public interface CommentDAO {
 			RequestValidationException, PropertyRetrievalException;
 	
 	/**
-	 * Queries ChatterComment DB table using argument forum id value
+	 * Queries ChatterComment DB table using argument forum id value.
+	 * Results are ordered by time stamp and may be limited to a time window.
+	 * A view argument of "summary" leaves out the reply and flag id sets.
 	 * 
 	 * @param request the request to process
 	 * @return CommentResultPage object
@@ -88,6 +107,30 @@ public interface CommentDAO {
 	AmazonServiceException, AmazonClientException,
 		RequestValidationException, PropertyRetrievalException;
 	
+	/**
+	 * Lazily iterates over every ChatterComment in a forum, across all
+	 * query pages. Intended for internal jobs that need the whole
+	 * result set.
+	 * 
+	 * @param forumId the forum whose comments are iterated
+	 * @return an iterator over the forum's comments
+	 * @throws PropertyRetrievalException
+	 */
+	public Iterator<ChatterComment> iterateByForum(String forumId) throws
+		PropertyRetrievalException;
+	
+	/**
+	 * Lazily iterates over every ChatterComment created by a creator,
+	 * across all query pages. Intended for internal jobs that need the
+	 * whole result set.
+	 * 
+	 * @param createdBy the creator whose comments are iterated
+	 * @return an iterator over the creator's comments
+	 * @throws PropertyRetrievalException
+	 */
+	public Iterator<ChatterComment> iterateByCreator(String createdBy) throws
+		PropertyRetrievalException;
+	
 	/**
 	 * Retrieve a batch of ChatterComment objects from database using
 	 * a list of argument comment ids.
@@ -0,0 +1,254 @@
+package com.chatter.dbservice.dao;
+
+import java.util.concurrent.ExecutorService;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.EnvironmentVariableCredentialsProvider;
+import com.amazonaws.auth.profile.ProfileCredentialsProvider;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.chatter.dbservice.dao.impl.AsyncCalls;
+import com.chatter.dbservice.dao.impl.AsyncCommentDAOImpl;
+import com.chatter.dbservice.dao.impl.AsyncFlagDAOImpl;
+import com.chatter.dbservice.dao.impl.AsyncForumDAOImpl;
+import com.chatter.dbservice.dao.impl.BatchItemExecutor;
+import com.chatter.dbservice.dao.impl.CommentDAOImpl;
+import com.chatter.dbservice.dao.impl.FlagDAOImpl;
+import com.chatter.dbservice.dao.impl.ForumDAOImpl;
+import com.chatter.dbservice.dao.impl.InMemoryCommentDAO;
+import com.chatter.dbservice.dao.impl.InMemoryFlagDAO;
+import com.chatter.dbservice.dao.impl.InMemoryForumDAO;
+import com.chatter.dbservice.dao.impl.SimulatedLatency;
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.metrics.ConsumedCapacityHandler;
+import com.chatter.dbservice.metrics.DynamoDBCallCollector;
+import com.chatter.dbservice.metrics.ServiceMetrics;
+import com.chatter.dbservice.metrics.TimedProxy;
+import com.chatter.dbservice.streams.ForumCascadeDeleter;
+import com.chatter.dbservice.util.PropertiesResolver;
+import com.chatter.dbservice.util.RateLimiter;
+
+/**
+ * DAORegistry
+ * @author coreym
+ *
+ * Holds the DynamoDB client, DB mapper, service properties and DAO
+ * instances shared by every handler running in this container. The
+ * registry is created once (on first use or by an explicit call to
+ * initialize) and reused across warm Lambda invocations so that each
+ * request does not pay for re-reading service properties and building
+ * new clients.
+ *
+ * All members are thread safe. Handlers should obtain their DAOs
+ * from this registry instead of constructing DAO implementations
+ * directly. The DAOs handed out are timed, and the DynamoDB client
+ * reports its capacity, retries and throttles, to the ServiceMetrics.
+ *
+ * Setting the daoBackend property to memory swaps the DynamoDB backed
+ * DAOs for in-memory ones with a simulated round trip latency, so that
+ * the handlers can be load tested without a database. Stream processing
+ * and the forum cascade still work against DynamoDB.
+ */
+public final class DAORegistry {
+
+	// The registry instance shared by this container
+	private static volatile DAORegistry instance;
+
+	private final PropertiesResolver propsResolver;
+	private final AmazonDynamoDBClient dbClient;
+	private final DynamoDBMapper dbMapper;
+	private final BatchItemExecutor batchExecutor;
+	private final CommentDAOImpl commentDAOImpl;
+	private final ForumDAOImpl forumDAOImpl;
+	private final CommentDAO commentDAO;
+	private final ForumDAO forumDAO;
+	private final FlagDAO flagDAO;
+	private final AmazonS3Client s3Client;
+	private final ForumCascadeDeleter cascadeDeleter;
+	private final ExecutorService asyncExecutor;
+	private final AsyncCommentDAO asyncCommentDAO;
+	private final AsyncForumDAO asyncForumDAO;
+	private final AsyncFlagDAO asyncFlagDAO;
+
+	private DAORegistry() throws PropertyRetrievalException {
+		// Initialize properties resolver instance
+		this.propsResolver = new PropertiesResolver("service.properties");
+		String env = this.propsResolver.getProperty("service.env");
+		String dbEndpoint = this.propsResolver.getProperty("aws.dynamodb.endpoint");
+		ServiceMetrics metrics = ServiceMetrics.getInstance();
+
+		// Initialize DynamoDB client instance
+		// If the execution environment is local use the
+		// ProfileCredentialsProvider so that the client can
+		// find AWS credentials in the local environment. Otherwise
+		// use the Environment credentials provider.
+		if (env != null && env.equalsIgnoreCase("local")) {
+			this.dbClient = new AmazonDynamoDBClient(new ProfileCredentialsProvider(),
+					new ClientConfiguration(), new DynamoDBCallCollector(metrics));
+			this.dbClient.setEndpoint(dbEndpoint);
+			this.dbMapper = new DynamoDBMapper(this.dbClient, new ProfileCredentialsProvider());
+			this.s3Client = new AmazonS3Client(new ProfileCredentialsProvider());
+		}
+		else {
+			this.dbClient = new AmazonDynamoDBClient(new
+					EnvironmentVariableCredentialsProvider(), new ClientConfiguration(),
+					new DynamoDBCallCollector(metrics));
+			this.dbClient.setEndpoint(dbEndpoint);
+			this.dbMapper = new DynamoDBMapper(this.dbClient,
+					new EnvironmentVariableCredentialsProvider());
+			this.s3Client = new AmazonS3Client(new EnvironmentVariableCredentialsProvider());
+		}
+		this.dbClient.addRequestHandler(new ConsumedCapacityHandler(metrics));
+
+		// Initialize pool shared by batch operations and query prefetching
+		this.batchExecutor = new BatchItemExecutor(this.dbClient, this.dbMapper,
+				Integer.parseInt(this.propsResolver.getProperty("batchParallelism").trim()));
+		
+		// Initialize DAOs on top of the shared client, or in memory when the
+		// memory backend is configured for load tests and benchmarks
+		if ("memory".equalsIgnoreCase(this.propsResolver.getProperty("daoBackend").trim())) {
+			SimulatedLatency latency = SimulatedLatency.fromProperties(this.propsResolver);
+			InMemoryForumDAO memoryForumDAO = new InMemoryForumDAO(this.propsResolver, latency);
+			this.commentDAOImpl = null;
+			this.forumDAOImpl = null;
+			this.forumDAO = TimedProxy.wrap(ForumDAO.class, memoryForumDAO, "ForumDAO", metrics);
+			this.commentDAO = TimedProxy.wrap(CommentDAO.class, new InMemoryCommentDAO(
+					this.propsResolver, this.forumDAO, latency), "CommentDAO", metrics);
+			this.flagDAO = TimedProxy.wrap(FlagDAO.class, new InMemoryFlagDAO(this.propsResolver,
+					latency), "FlagDAO", metrics);
+		}
+		else {
+			this.forumDAOImpl = new ForumDAOImpl(this.propsResolver, this.dbClient, this.dbMapper,
+					this.batchExecutor);
+			this.forumDAO = TimedProxy.wrap(ForumDAO.class, this.forumDAOImpl, "ForumDAO", metrics);
+			this.commentDAOImpl = new CommentDAOImpl(this.propsResolver, this.dbClient, 
+					this.dbMapper, this.batchExecutor, this.forumDAO);
+			this.commentDAO = TimedProxy.wrap(CommentDAO.class, this.commentDAOImpl, 
+					"CommentDAO", metrics);
+			this.flagDAO = TimedProxy.wrap(FlagDAO.class, new FlagDAOImpl(this.propsResolver,
+					this.dbClient, this.dbMapper, this.batchExecutor), "FlagDAO", metrics);
+			metrics.registerCache("commentCache", this.commentDAOImpl.getCommentCache());
+			metrics.registerCache("forumCache", this.forumDAOImpl.getForumCache());
+		}
+		
+		// Initialize async DAOs on a pool of their own, so that async calls
+		// never wait on the batch pool their own batch operations use
+		this.asyncExecutor = AsyncCalls.newBoundedPool(
+				Integer.parseInt(this.propsResolver.getProperty("asyncParallelism").trim()),
+				Integer.parseInt(this.propsResolver.getProperty("asyncQueueSize").trim()));
+		this.asyncCommentDAO = new AsyncCommentDAOImpl(this.commentDAO, this.asyncExecutor);
+		this.asyncForumDAO = new AsyncForumDAOImpl(this.forumDAO, this.asyncExecutor);
+		this.asyncFlagDAO = new AsyncFlagDAOImpl(this.flagDAO, this.asyncExecutor);
+		
+		// Initialize forum cascade, paced across every cascade run in this container
+		this.cascadeDeleter = new ForumCascadeDeleter(this.dbClient, this.dbMapper, 
+				this.s3Client, this.batchExecutor,
+				new RateLimiter(Double.parseDouble(
+						this.propsResolver.getProperty("cascadeDeleteRate").trim())),
+				Integer.parseInt(this.propsResolver.getProperty("cascadePageSize").trim()));
+	}
+
+	/**
+	 * Retrieve the registry shared by this container, creating it
+	 * if it has not been initialized yet.
+	 *
+	 * @return DAORegistry
+	 * @throws PropertyRetrievalException
+	 */
+	public static DAORegistry getInstance() throws PropertyRetrievalException {
+		DAORegistry registry = instance;
+		if (registry == null) {
+			registry = initialize();
+		}
+		return registry;
+	}
+
+	/**
+	 * Eagerly create the registry. Calling this method when the registry
+	 * already exists has no effect.
+	 *
+	 * @return DAORegistry
+	 * @throws PropertyRetrievalException
+	 */
+	public static synchronized DAORegistry initialize() throws PropertyRetrievalException {
+		if (instance == null) {
+			instance = new DAORegistry();
+		}
+		return instance;
+	}
+
+	/**
+	 * Release the resources held by the registry. A subsequent call to
+	 * getInstance will create a fresh registry.
+	 */
+	public static synchronized void shutdown() {
+		if (instance != null) {
+			// Flush buffered writes before the client goes away
+			instance.asyncExecutor.shutdown();
+			if (instance.commentDAOImpl != null) {
+				instance.commentDAOImpl.shutdown();
+			}
+			instance.batchExecutor.shutdown();
+			instance.dbClient.shutdown();
+			instance.s3Client.shutdown();
+			instance = null;
+		}
+	}
+
+	/**
+	 * Discards the registry so that tests can start from a clean state.
+	 * This method should not be called from service code.
+	 */
+	public static synchronized void resetForTesting() {
+		shutdown();
+	}
+
+	public PropertiesResolver getPropertiesResolver() {
+		return propsResolver;
+	}
+
+	public AmazonDynamoDBClient getDBClient() {
+		return dbClient;
+	}
+
+	public DynamoDBMapper getDBMapper() {
+		return dbMapper;
+	}
+
+	public BatchItemExecutor getBatchExecutor() {
+		return batchExecutor;
+	}
+
+	public CommentDAO getCommentDAO() {
+		return commentDAO;
+	}
+
+	public ForumDAO getForumDAO() {
+		return forumDAO;
+	}
+
+	public FlagDAO getFlagDAO() {
+		return flagDAO;
+	}
+
+	public AsyncCommentDAO getAsyncCommentDAO() {
+		return asyncCommentDAO;
+	}
+
+	public AsyncForumDAO getAsyncForumDAO() {
+		return asyncForumDAO;
+	}
+
+	public AsyncFlagDAO getAsyncFlagDAO() {
+		return asyncFlagDAO;
+	}
+
+	public AmazonS3Client getS3Client() {
+		return s3Client;
+	}
+
+	public ForumCascadeDeleter getCascadeDeleter() {
+		return cascadeDeleter;
+	}
+}
@@ -1,5 +1,7 @@
 package com.chatter.dbservice.dao;
 
+import java.util.Iterator;
+
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
@@ -53,11 +55,11 @@ public interface ForumDAO {
 		AmazonClientException;
 	
 	/**
-	 * Update a Chatter Forum instance by adding a new comment id
-	 * to the existing list of comment ids in a Chatter Forum
+	 * Update a Chatter Forum instance by incrementing the count of
+	 * comments added to the Chatter Forum
 	 * 
 	 * @param req the request containing all the data necessary to add
-	 * a comment to a Chatter Forum objects comment id list
+	 * a comment to a Chatter Forum
 	 * 
 	 * @return the update Chatter Forum object
 	 */
@@ -66,11 +68,11 @@ public interface ForumDAO {
 		AmazonClientException;
 	
 	/**
-	 * Update a Chatter Forum instance by removing an existing comment
-	 * id from the existing list of comment ids in a Chatter Forum
+	 * Update a Chatter Forum instance by decrementing the count of
+	 * comments added to the Chatter Forum
 	 * 
 	 * @param req the request containing all the data necessary to remove
-	 * a comment from a Chatter Forum objects comment id list
+	 * a comment from a Chatter Forum
 	 * 
 	 * @return the updated Chatter Forum object
 	 * 
@@ -120,6 +122,17 @@ public interface ForumDAO {
 		RequestValidationException, AmazonServiceException,
 		AmazonClientException, PropertyRetrievalException;
 	
+	/**
+	 * Lazily iterates over every Chatter Forum created by a creator,
+	 * across all query pages. Intended for internal jobs that need the
+	 * whole result set.
+	 * 
+	 * @param createdBy the creator whose forums are iterated
+	 * @return an iterator over the creator's forums
+	 */
+	public Iterator<ChatterForum> iterateByCreator(String createdBy) throws
+		PropertyRetrievalException;
+	
 	/**
 	 * Gathers data about this service and returns in an object wrapper
 	 * @return ServicePropsResponse
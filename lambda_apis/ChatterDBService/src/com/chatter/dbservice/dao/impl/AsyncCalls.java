@@ -0,0 +1,80 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AsyncCalls
+ * @author coreym
+ *
+ * Runs synchronous DAO calls on a bounded pool and exposes their results
+ * as CompletableFutures. A call that throws, including a checked
+ * RequestValidationException or PropertyRetrievalException, completes its
+ * future exceptionally with that exception as the cause.
+ */
+public final class AsyncCalls {
+
+	/**
+	 * A DAO call that may throw checked exceptions
+	 */
+	@FunctionalInterface
+	public interface DAOCall<T> {
+		T call() throws Exception;
+	}
+
+	private AsyncCalls() { }
+
+	/**
+	 * Runs the argument call on the argument executor.
+	 *
+	 * @param executor the pool to run the call on
+	 * @param call the call to run
+	 * @return a future completed with the call's result or failure
+	 */
+	public static <T> CompletableFuture<T> supply(Executor executor, DAOCall<T> call) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				try {
+					future.complete(call.call());
+				}
+				catch (Throwable t) {
+					future.completeExceptionally(t);
+				}
+			});
+		}
+		catch (RejectedExecutionException ree) {
+			future.completeExceptionally(ree);
+		}
+		return future;
+	}
+
+	/**
+	 * Creates the pool used by the async DAOs. Once every thread is busy
+	 * and the queue is full, new calls run on the submitting thread, so a
+	 * caller that fans out faster than the database answers is slowed down
+	 * instead of queueing without limit.
+	 *
+	 * @param threads the number of calls run concurrently
+	 * @param queueSize the number of calls allowed to wait for a thread
+	 * @return ExecutorService
+	 */
+	public static ExecutorService newBoundedPool(int threads, int queueSize) {
+		AtomicInteger threadCount = new AtomicInteger();
+		return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueSize),
+				runnable -> {
+					Thread thread = new Thread(runnable, "chatter-async-dao-"
+							+ threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+}
@@ -0,0 +1,78 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.chatter.dbservice.dao.AsyncCommentDAO;
+import com.chatter.dbservice.dao.CommentDAO;
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.responses.CommentResultPage;
+
+/**
+ * AsyncCommentDAOImpl
+ * @author coreym
+ *
+ * Implements AsyncCommentDAO by running the calls of a CommentDAO on a
+ * bounded pool.
+ */
+public class AsyncCommentDAOImpl implements AsyncCommentDAO {
+
+	private final CommentDAO dao;
+	private final Executor executor;
+
+	/**
+	 * @param dao the synchronous DAO to call
+	 * @param executor the pool to run calls on
+	 */
+	public AsyncCommentDAOImpl(CommentDAO dao, Executor executor) {
+		this.dao = dao;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<ChatterComment> createComment(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.createComment(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterComment> createCommentInForum(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.createCommentInForum(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterComment> retrieveComment(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.retrieveComment(req));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> deleteComment(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.deleteComment(req));
+	}
+
+	@Override
+	public CompletableFuture<CommentResultPage> queryByCreator(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.queryByCreator(req));
+	}
+
+	@Override
+	public CompletableFuture<CommentResultPage> queryByForum(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.queryByForum(req));
+	}
+
+	@Override
+	public CompletableFuture<List<ChatterComment>> batchRetrieve(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.batchRetrieve(req));
+	}
+
+	@Override
+	public CompletableFuture<List<String>> batchDelete(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.batchDelete(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterComment> updateComment(CommentCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.updateComment(req));
+	}
+}
@@ -0,0 +1,62 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.chatter.dbservice.dao.AsyncFlagDAO;
+import com.chatter.dbservice.dao.FlagDAO;
+import com.chatter.dbservice.model.ChatterFlag;
+import com.chatter.dbservice.requests.FlagCRUDRequest;
+
+/**
+ * AsyncFlagDAOImpl
+ * @author coreym
+ *
+ * Implements AsyncFlagDAO by running the calls of a FlagDAO on a
+ * bounded pool.
+ */
+public class AsyncFlagDAOImpl implements AsyncFlagDAO {
+
+	private final FlagDAO dao;
+	private final Executor executor;
+
+	/**
+	 * @param dao the synchronous DAO to call
+	 * @param executor the pool to run calls on
+	 */
+	public AsyncFlagDAOImpl(FlagDAO dao, Executor executor) {
+		this.dao = dao;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<ChatterFlag> createFlag(FlagCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.createFlag(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterFlag> retrieveFlag(FlagCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.retrieveFlag(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterFlag> updateFlag(FlagCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.updateFlag(req));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> deleteFlag(FlagCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.deleteFlag(req));
+	}
+
+	@Override
+	public CompletableFuture<List<ChatterFlag>> batchRetrieveFlag(FlagCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.batchRetrieveFlag(req));
+	}
+
+	@Override
+	public CompletableFuture<List<String>> batchDeleteFlag(FlagCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.batchDeleteFlag(req));
+	}
+}
@@ -0,0 +1,72 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.chatter.dbservice.dao.AsyncForumDAO;
+import com.chatter.dbservice.dao.ForumDAO;
+import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.dbservice.responses.ForumResultPage;
+
+/**
+ * AsyncForumDAOImpl
+ * @author coreym
+ *
+ * Implements AsyncForumDAO by running the calls of a ForumDAO on a
+ * bounded pool.
+ */
+public class AsyncForumDAOImpl implements AsyncForumDAO {
+
+	private final ForumDAO dao;
+	private final Executor executor;
+
+	/**
+	 * @param dao the synchronous DAO to call
+	 * @param executor the pool to run calls on
+	 */
+	public AsyncForumDAOImpl(ForumDAO dao, Executor executor) {
+		this.dao = dao;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<ChatterForum> createForum(ForumCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.createForum(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterForum> retrieveForumById(ForumCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.retrieveForumById(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterForum> updateForum(ForumCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.updateForum(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterForum> addCommentToForum(ForumCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.addCommentToForum(req));
+	}
+
+	@Override
+	public CompletableFuture<ChatterForum> removeCommentFromForum(ForumCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.removeCommentFromForum(req));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> deleteForum(ForumCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.deleteForum(req));
+	}
+
+	@Override
+	public CompletableFuture<ForumResultPage> queryByCreator(ForumCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.queryByCreator(req));
+	}
+
+	@Override
+	public CompletableFuture<ForumResultPage> queryByTitle(ForumCRUDRequest req) {
+		return AsyncCalls.supply(this.executor, () -> this.dao.queryByTitle(req));
+	}
+}
@@ -0,0 +1,403 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.DeleteRequest;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+/**
+ * BatchItemExecutor
+ * @author coreym
+ *
+ * Executes batch reads and deletes against a single table keyed by a
+ * string hash key. Requested ids are de-duplicated and split into chunks
+ * of at most 100 keys for reads (the BatchGetItem limit) and 25 keys for
+ * deletes (the BatchWriteItem limit). The chunks are sent in parallel on a
+ * bounded pool shared by all DAOs. Unprocessed keys and items are
+ * resubmitted with jittered exponential backoff.
+ *
+ * Results are returned in the order the ids were requested. Ids that
+ * do not exist are left out of the read results.
+ */
+public class BatchItemExecutor {
+
+	// Maximum number of keys accepted by a single BatchGetItem call
+	static final int MAX_GET_KEYS = 100;
+
+	// Maximum number of requests accepted by a single BatchWriteItem call
+	static final int MAX_WRITE_ITEMS = 25;
+
+	// Backoff applied while resubmitting unprocessed keys
+	private static final long BASE_BACKOFF_MS = 25;
+	private static final long MAX_BACKOFF_MS = 1000;
+	private static final int MAX_ATTEMPTS = 10;
+
+	private final AmazonDynamoDBClient dbClient;
+	private final DynamoDBMapper dbMapper;
+	private final ExecutorService executor;
+
+	/**
+	 * @param dbClient the DynamoDB client to use
+	 * @param dbMapper the mapper used to convert items into model objects
+	 * @param parallelism the maximum number of chunks sent concurrently
+	 */
+	public BatchItemExecutor(AmazonDynamoDBClient dbClient, DynamoDBMapper dbMapper,
+			int parallelism) {
+		this.dbClient = dbClient;
+		this.dbMapper = dbMapper;
+
+		AtomicInteger threadCnt = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+			Thread thread = new Thread(r, "batch-item-" + threadCnt.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Loads the items with the argument hash key values.
+	 *
+	 * @param clazz the model class mapped to the table to read
+	 * @param hashKeyName the name of the table's hash key attribute
+	 * @param ids the hash key values to load
+	 * @return the loaded objects in request order; never NULL
+	 */
+	public <T> List<T> batchLoad(Class<T> clazz, String hashKeyName, List<String> ids) {
+		List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		Map<String, Map<String, AttributeValue>> items = this.loadKeys(tableName(clazz),
+				hashKeyName, uniqueIds);
+
+		// Rebuild the results in the order the ids were requested
+		List<T> results = new ArrayList<>(items.size());
+		for (String id : uniqueIds) {
+			Map<String, AttributeValue> item = items.get(id);
+			if (item != null) {
+				results.add(this.dbMapper.marshallIntoObject(clazz, item));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Loads the items with the argument hash key values from a table
+	 * that has no mapped model class, in the same way as batchLoad.
+	 *
+	 * @param tableName the table to read
+	 * @param hashKeyName the name of the table's hash key attribute
+	 * @param ids the hash key values to load
+	 * @return the loaded items by hash key value; never NULL
+	 */
+	public Map<String, Map<String, AttributeValue>> loadKeys(String tableName,
+			String hashKeyName, List<String> ids) {
+		List<List<String>> chunks = chunk(new ArrayList<>(new LinkedHashSet<>(ids)),
+				MAX_GET_KEYS);
+
+		// Read every chunk, running all but the first on the shared pool
+		Map<String, Map<String, AttributeValue>> items = new HashMap<>();
+		List<Future<List<Map<String, AttributeValue>>>> pending = new ArrayList<>();
+		for (int i = 1; i < chunks.size(); i++) {
+			List<String> chunk = chunks.get(i);
+			pending.add(this.executor.submit(() -> this.getChunk(tableName, hashKeyName, chunk)));
+		}
+		if (!chunks.isEmpty()) {
+			index(items, hashKeyName, this.getChunk(tableName, hashKeyName, chunks.get(0)));
+		}
+		for (Future<List<Map<String, AttributeValue>>> future : pending) {
+			index(items, hashKeyName, join(future));
+		}
+		return items;
+	}
+
+	/**
+	 * Deletes the items with the argument hash key values by key, without
+	 * reading them first. BatchWriteItem does not report whether an item
+	 * existed, so every requested id is returned.
+	 *
+	 * @param clazz the model class mapped to the table to delete from
+	 * @param hashKeyName the name of the table's hash key attribute
+	 * @param ids the hash key values to delete
+	 * @return the de-duplicated ids in request order; never NULL
+	 */
+	public List<String> batchDelete(Class<?> clazz, String hashKeyName, List<String> ids) {
+		String tableName = tableName(clazz);
+		List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		List<List<String>> chunks = chunk(uniqueIds, MAX_WRITE_ITEMS);
+
+		List<Future<?>> pending = new ArrayList<>();
+		for (int i = 1; i < chunks.size(); i++) {
+			List<String> chunk = chunks.get(i);
+			pending.add(this.executor.submit(() -> this.deleteChunk(tableName, hashKeyName, chunk)));
+		}
+		if (!chunks.isEmpty()) {
+			this.deleteChunk(tableName, hashKeyName, chunks.get(0));
+		}
+		for (Future<?> future : pending) {
+			join(future);
+		}
+		return uniqueIds;
+	}
+
+	/**
+	 * Deletes the items with the argument hash key values using one
+	 * DeleteItem call per id so that the ids of the items that actually
+	 * existed can be reported. Costs one write per id instead of one
+	 * write per 25 ids, so this should only be used when the report is
+	 * needed.
+	 *
+	 * @param clazz the model class mapped to the table to delete from
+	 * @param hashKeyName the name of the table's hash key attribute
+	 * @param ids the hash key values to delete
+	 * @return the ids of the deleted items in request order; never NULL
+	 */
+	public List<String> deleteReportingExisting(Class<?> clazz, String hashKeyName,
+			List<String> ids) {
+		String tableName = tableName(clazz);
+		List<List<String>> chunks = chunk(new ArrayList<>(new LinkedHashSet<>(ids)),
+				MAX_WRITE_ITEMS);
+
+		List<Future<List<String>>> pending = new ArrayList<>();
+		for (int i = 1; i < chunks.size(); i++) {
+			List<String> chunk = chunks.get(i);
+			pending.add(this.executor.submit(() -> this.deleteEach(tableName, hashKeyName, chunk)));
+		}
+		List<String> deletedIds = new ArrayList<>();
+		if (!chunks.isEmpty()) {
+			deletedIds.addAll(this.deleteEach(tableName, hashKeyName, chunks.get(0)));
+		}
+		for (Future<List<String>> future : pending) {
+			deletedIds.addAll(join(future));
+		}
+		return deletedIds;
+	}
+
+	/**
+	 * Reads raw items by key in the calling thread, for tables that
+	 * have no mapped model class. A single call may read from several
+	 * tables, and must stay within the BatchGetItem limit of 100 keys.
+	 *
+	 * @param requestItems the keys to read, by table name
+	 * @return the items read, by table name; tables with no items found
+	 * 		   may be missing
+	 */
+	public Map<String, List<Map<String, AttributeValue>>> getItems(
+			Map<String, KeysAndAttributes> requestItems) {
+		Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+		for (int attempt = 0; requestItems != null && !requestItems.isEmpty(); attempt++) {
+			if (attempt > 0) {
+				backoff(attempt);
+			}
+			BatchGetItemResult result = this.dbClient.batchGetItem(
+					new BatchGetItemRequest().withRequestItems(requestItems));
+			for (Map.Entry<String, List<Map<String, AttributeValue>>> entry :
+					result.getResponses().entrySet()) {
+				responses.computeIfAbsent(entry.getKey(), k -> new ArrayList<>())
+						.addAll(entry.getValue());
+			}
+			requestItems = result.getUnprocessedKeys();
+		}
+		return responses;
+	}
+
+	/**
+	 * Deletes the items with the argument hash key values from a table
+	 * that has no mapped model class, in the same way as batchDelete.
+	 *
+	 * @param tableName the table to delete from
+	 * @param hashKeyName the name of the table's hash key attribute
+	 * @param ids the hash key values to delete
+	 */
+	public void deleteKeys(String tableName, String hashKeyName, List<String> ids) {
+		for (List<String> chunk : chunk(new ArrayList<>(new LinkedHashSet<>(ids)),
+				MAX_WRITE_ITEMS)) {
+			this.deleteChunk(tableName, hashKeyName, chunk);
+		}
+	}
+
+	/**
+	 * Writes raw items to a table that has no mapped model class in
+	 * the calling thread, 25 items per BatchWriteItem call. Existing
+	 * items with the same keys are replaced.
+	 *
+	 * @param tableName the table to write to
+	 * @param items the items to write; keys must be unique
+	 */
+	public void putItems(String tableName, List<Map<String, AttributeValue>> items) {
+		for (List<Map<String, AttributeValue>> chunk : chunk(items, MAX_WRITE_ITEMS)) {
+			List<WriteRequest> puts = new ArrayList<>(chunk.size());
+			for (Map<String, AttributeValue> item : chunk) {
+				puts.add(new WriteRequest().withPutRequest(new PutRequest().withItem(item)));
+			}
+			this.writeChunk(tableName, puts);
+		}
+	}
+
+	/**
+	 * Runs background work, such as prefetching query pages, on the
+	 * shared pool.
+	 *
+	 * @param task the work to run
+	 * @return the pending result of the task
+	 */
+	public <V> Future<V> submit(Callable<V> task) {
+		return this.executor.submit(task);
+	}
+
+	/**
+	 * Stops the shared pool. Chunks already submitted run to completion.
+	 */
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Reads one chunk of keys, resubmitting unprocessed keys until
+	 * every key has been read.
+	 */
+	private List<Map<String, AttributeValue>> getChunk(String tableName, String hashKeyName,
+			List<String> ids) {
+		List<Map<String, AttributeValue>> items = this.getItems(Collections.singletonMap(
+				tableName, new KeysAndAttributes().withKeys(keys(hashKeyName, ids)))).get(tableName);
+		return items != null ? items : new ArrayList<>();
+	}
+
+	/**
+	 * Deletes one chunk of keys, resubmitting unprocessed items until
+	 * every delete has been applied.
+	 */
+	private Void deleteChunk(String tableName, String hashKeyName, List<String> ids) {
+		List<WriteRequest> deletes = new ArrayList<>(ids.size());
+		for (Map<String, AttributeValue> key : keys(hashKeyName, ids)) {
+			deletes.add(new WriteRequest().withDeleteRequest(new DeleteRequest().withKey(key)));
+		}
+		return this.writeChunk(tableName, deletes);
+	}
+
+	/**
+	 * Sends one chunk of write requests, resubmitting unprocessed items
+	 * until every request has been applied.
+	 */
+	private Void writeChunk(String tableName, List<WriteRequest> writes) {
+		Map<String, List<WriteRequest>> requestItems = Collections.singletonMap(tableName, writes);
+		for (int attempt = 0; requestItems != null && !requestItems.isEmpty(); attempt++) {
+			if (attempt > 0) {
+				backoff(attempt);
+			}
+			BatchWriteItemResult result = this.dbClient.batchWriteItem(
+					new BatchWriteItemRequest().withRequestItems(requestItems));
+			requestItems = result.getUnprocessedItems();
+		}
+		return null;
+	}
+
+	/**
+	 * Deletes one chunk of keys one item at a time, returning the ids
+	 * of the items that existed.
+	 */
+	private List<String> deleteEach(String tableName, String hashKeyName, List<String> ids) {
+		List<String> deletedIds = new ArrayList<>();
+		for (String id : ids) {
+			DeleteItemResult result = this.dbClient.deleteItem(new DeleteItemRequest()
+					.withTableName(tableName)
+					.withKey(Collections.singletonMap(hashKeyName, new AttributeValue(id)))
+					.withReturnValues(ReturnValue.ALL_OLD));
+			if (result.getAttributes() != null && !result.getAttributes().isEmpty()) {
+				deletedIds.add(id);
+			}
+		}
+		return deletedIds;
+	}
+
+	/**
+	 * Sleeps before the argument retry attempt using exponential backoff
+	 * with full jitter.
+	 */
+	static void backoff(int attempt) {
+		if (attempt >= MAX_ATTEMPTS) {
+			throw new AmazonClientException("ERROR: Batch request still had unprocessed "
+					+ "items after " + MAX_ATTEMPTS + " attempts.");
+		}
+
+		long cap = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 16));
+		try {
+			TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new AmazonClientException("ERROR: Interrupted while retrying batch request.", ie);
+		}
+	}
+
+	/**
+	 * Waits for a chunk submitted to the shared pool, rethrowing
+	 * its failure in the calling thread.
+	 */
+	static <V> V join(Future<V> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new AmazonClientException("ERROR: Interrupted while waiting for batch request.", ie);
+		}
+		catch (ExecutionException ee) {
+			if (ee.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ee.getCause();
+			}
+			throw new AmazonClientException("ERROR: Batch request failed.", ee.getCause());
+		}
+	}
+
+	static <V> List<List<V>> chunk(List<V> values, int size) {
+		List<List<V>> chunks = new ArrayList<>();
+		for (int i = 0; i < values.size(); i += size) {
+			chunks.add(values.subList(i, Math.min(i + size, values.size())));
+		}
+		return chunks;
+	}
+
+	private static List<Map<String, AttributeValue>> keys(String hashKeyName, List<String> ids) {
+		List<Map<String, AttributeValue>> keys = new ArrayList<>(ids.size());
+		for (String id : ids) {
+			keys.add(Collections.singletonMap(hashKeyName, new AttributeValue(id)));
+		}
+		return keys;
+	}
+
+	static String tableName(Class<?> clazz) {
+		return clazz.getAnnotation(DynamoDBTable.class).tableName();
+	}
+
+	private static void index(Map<String, Map<String, AttributeValue>> items, String hashKeyName,
+			List<Map<String, AttributeValue>> chunkItems) {
+		for (Map<String, AttributeValue> item : chunkItems) {
+			items.put(item.get(hashKeyName).getS(), item);
+		}
+	}
+}
@@ -1,35 +1,45 @@
 package com.chatter.dbservice.dao.impl;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
-import com.amazonaws.auth.EnvironmentVariableCredentialsProvider;
-import com.amazonaws.auth.profile.ProfileCredentialsProvider;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
-import com.amazonaws.services.dynamodbv2.datamodeling.KeyPair;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 import com.chatter.dbservice.dao.CommentDAO;
+import com.chatter.dbservice.dao.DAORegistry;
+import com.chatter.dbservice.dao.ForumDAO;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 import com.chatter.dbservice.exceptions.RequestValidationException;
 import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.requests.CommentArgs;
 import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.ForumArgs;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
 import com.chatter.dbservice.requests.validators.CommentCRUDRequestValidator;
 import com.chatter.dbservice.responses.CommentResultPage;
 import com.chatter.dbservice.responses.ServicePropsResponse;
+import com.chatter.dbservice.util.PageCursor;
 import com.chatter.dbservice.util.PropertiesResolver;
 import com.chatter.dbservice.util.ops.ChatterCommentOps;
+import com.chatter.dbservice.util.ops.ChatterForumOps;
 
 /**
  * CommentDAOImpl
@@ -40,36 +50,90 @@ import com.chatter.dbservice.util.ops.ChatterCommentOps;
  */
 public class CommentDAOImpl implements CommentDAO{
 	
+	// Name of the table ChatterComment objects are mapped to
+	private static final String COMMENT_TABLE = 
+			ChatterComment.class.getAnnotation(DynamoDBTable.class).tableName();
+	
+	// Attributes returned by queries run with the summary view, which
+	// leaves out the unbounded reply and flag id sets
+	private static final String SUMMARY_ATTRIBUTES = "comment_id, created_by, time_stamp, "
+			+ "forum_id, concur_cnt, s3_bucket, s3_key, reply_cnt, flag_cnt";
+	
+	// Indexes projecting exactly the summary attributes, queried by the
+	// summary view in place of the ALL projected index with the same keys
+	private static final Map<String, String> SUMMARY_INDEXES = new HashMap<>();
+	static {
+		SUMMARY_INDEXES.put("created_by_index", "created_by_summary_index");
+		SUMMARY_INDEXES.put("forum_time_index", "forum_time_summary_index");
+	}
+	
 	private AmazonDynamoDBClient dbClient;
 	private PropertiesResolver propsResolver;
 	private DynamoDBMapper dbMapper;
-	private String dbEndpoint;
-	private String env;
+	private ConcurShardCounter concurCounter;
+	private ConcurIncrementBuffer concurBuffer;
+	private BatchItemExecutor batchExecutor;
+	private PageCursor pageCursor;
+	private EntityCache<ChatterComment> commentCache;
+	private ForumDAO forumDAO;
 	
+	/**
+	 * Creates a DAO backed by the DynamoDB client shared through
+	 * the DAORegistry.
+	 * @throws PropertyRetrievalException
+	 */
 	public CommentDAOImpl() throws PropertyRetrievalException {
-		// Initialize properties resolver instance
-		this.propsResolver = new PropertiesResolver("service.properties");
-		this.env = this.propsResolver.getProperty("service.env");
-		this.dbEndpoint = this.propsResolver.getProperty("aws.dynamodb.endpoint");
-		
-		// Initialize DynamoDB client instance
-		// If the execution environment is local use the 
-		// ProfileCredentialsProvider so that the client can
-		// find AWS credentials in the local environment. Otherwise
-		// use the Environment credentials provider.
-		if (this.env.equalsIgnoreCase("local")) {
-			this.dbClient = new AmazonDynamoDBClient(new ProfileCredentialsProvider());
-			this.dbClient.setEndpoint(this.dbEndpoint);
-			this.dbMapper = new DynamoDBMapper(dbClient, new ProfileCredentialsProvider());
-		}
-		else {
-			this.dbClient = new AmazonDynamoDBClient(new 
-					EnvironmentVariableCredentialsProvider());
-			this.dbClient.setEndpoint(this.dbEndpoint);
-			this.dbMapper = new DynamoDBMapper(dbClient, 
-					new EnvironmentVariableCredentialsProvider());
+		this(DAORegistry.getInstance().getPropertiesResolver(),
+				DAORegistry.getInstance().getDBClient(),
+				DAORegistry.getInstance().getDBMapper(),
+				DAORegistry.getInstance().getBatchExecutor(),
+				DAORegistry.getInstance().getForumDAO());
+	}
+	
+	public CommentDAOImpl(PropertiesResolver propsResolver, AmazonDynamoDBClient dbClient,
+			DynamoDBMapper dbMapper, BatchItemExecutor batchExecutor, ForumDAO forumDAO)
+					throws PropertyRetrievalException {
+		this.propsResolver = propsResolver;
+		this.forumDAO = forumDAO;
+		this.dbClient = dbClient;
+		this.dbMapper = dbMapper;
+		this.batchExecutor = batchExecutor;
+		this.pageCursor = PageCursor.fromProperties(propsResolver);
+		this.commentCache = EntityCache.<ChatterComment>fromProperties(propsResolver,
+				"commentCache").withCopier(comment -> ModelCopies.comment(comment, true));
+		
+		// Concur counts are sharded only when a shard count is configured
+		String shardCount = propsResolver.getProperty("concurShardCount");
+		this.concurCounter = new ConcurShardCounter(dbClient, batchExecutor, COMMENT_TABLE,
+				shardCount != null && !shardCount.trim().isEmpty() 
+					? Integer.parseInt(shardCount.trim()) : 0);
+		
+		// Concur increments are coalesced in memory only when enabled. This is
+		// meant for handlers hosted in a long lived process, not for Lambda.
+		if (Boolean.parseBoolean(propsResolver.getProperty("concurBufferEnabled"))) {
+			this.concurBuffer = new ConcurIncrementBuffer(this::addConcurCnt, this::loadComment,
+					Long.parseLong(propsResolver.getProperty("concurFlushIntervalMs").trim()),
+					Long.parseLong(propsResolver.getProperty("concurFlushThreshold").trim()));
+			this.concurBuffer.start();
 		}
 	}
+	
+	/**
+	 * Flushes any buffered concur increments and stops the background
+	 * flusher. Called by the DAORegistry when it is shut down.
+	 */
+	public void shutdown() {
+		if (this.concurBuffer != null) {
+			this.concurBuffer.shutdown();
+		}
+	}
+	
+	/**
+	 * @return the cache serving comment loads by id
+	 */
+	public EntityCache<ChatterComment> getCommentCache() {
+		return this.commentCache;
+	}
 
 	/**
 	 * Create and save a new ChatterComment object to the database.
@@ -84,17 +148,82 @@ public class CommentDAOImpl implements CommentDAO{
 		
 		// Create Chatter Comment object using request parameters
 		ChatterComment comment = new ChatterComment();
-		comment.setCreatedBy((String) request.getArgs().get("createdBy"));
+		comment.setCreatedBy(request.getArgs().getCreatedBy());
 		comment.setTimeStamp(new Date().getTime());
-		comment.setForumId((String) request.getArgs().get("forumId"));
+		comment.setForumId(request.getArgs().getForumId());
 		comment.setReplyIds(null);
 		comment.setFlagIds(null);
+		comment.setReplyCnt(0);
+		comment.setFlagCnt(0);
 		comment.setConcurCnt(0);
-		comment.setS3BucketName((String) request.getArgs().get("bucketName"));
-		comment.setS3KeyName((String) request.getArgs().get("fileName"));
+		comment.setS3BucketName(request.getArgs().getBucketName());
+		comment.setS3KeyName(request.getArgs().getFileName());
 		
 		// Save comment to DB
 		dbMapper.save(comment);
+		this.commentCache.invalidate(comment.getCommentId());
+		return comment;
+	}
+
+	/**
+	 * Create and save a new ChatterComment object and count it on its
+	 * parent forum in one request.
+	 * 
+	 * The forum counter is updated first, with a condition that the
+	 * forum exists, so a comment is never written to a missing forum.
+	 * If the comment cannot be saved afterwards the counter update is
+	 * reverted before the error is rethrown.
+	 * 
+	 * The two writes are not atomic. If the process dies between them,
+	 * the forum keeps a count for a comment that was never saved.
+	 */
+	@Override
+	public ChatterComment createCommentInForum(CommentCRUDRequest request)
+			throws AmazonServiceException, AmazonClientException,
+			RequestValidationException, PropertyRetrievalException {
+		
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateCreateRequest(request);
+		
+		// Generate the comment id up front so the forum update can refer to it
+		ChatterComment comment = new ChatterComment();
+		comment.setCommentId(UUID.randomUUID().toString());
+		comment.setCreatedBy(request.getArgs().getCreatedBy());
+		comment.setTimeStamp(new Date().getTime());
+		comment.setForumId(request.getArgs().getForumId());
+		comment.setReplyIds(null);
+		comment.setFlagIds(null);
+		comment.setReplyCnt(0);
+		comment.setFlagCnt(0);
+		comment.setConcurCnt(0);
+		comment.setS3BucketName(request.getArgs().getBucketName());
+		comment.setS3KeyName(request.getArgs().getFileName());
+		
+		ForumArgs forumArgs = new ForumArgs();
+		forumArgs.setForumId(comment.getForumId());
+		forumArgs.setCommentId(comment.getCommentId());
+		
+		if (this.forumDAO.addCommentToForum(new ForumCRUDRequest(ChatterForumOps.ADD_COMMENT,
+				forumArgs)) == null) {
+			throw new RequestValidationException("Chatter Comment request ERROR: "
+					+ "parent forum " + comment.getForumId() + " does not exist.");
+		}
+		
+		// Save comment to DB, undoing the forum update if the save fails
+		try {
+			dbMapper.save(comment);
+		}
+		catch (RuntimeException re) {
+			try {
+				this.forumDAO.removeCommentFromForum(new ForumCRUDRequest(
+						ChatterForumOps.REMOVE_COMMENT, forumArgs));
+			}
+			catch (RuntimeException compensationFailure) {
+				re.addSuppressed(compensationFailure);
+			}
+			throw re;
+		}
+		this.commentCache.invalidate(comment.getCommentId());
 		return comment;
 	}
 
@@ -110,11 +239,9 @@ public class CommentDAOImpl implements CommentDAO{
 		// Validate incoming request
 		CommentCRUDRequestValidator.validateRetrieveRequest(request);
 		
-		// Attempt to retrieve comment from DB
-		ChatterComment comment = null;
-		comment = dbMapper.load(ChatterComment.class, 
-				(String) request.getArgs().get("commentId"));
-		return comment;
+		// Attempt to retrieve comment from the cache or DB
+		return this.commentCache.load(request.getArgs().getCommentId(),
+				this::loadComment);
 	}
 
 	/**
@@ -132,10 +259,14 @@ public class CommentDAOImpl implements CommentDAO{
 		// Attempt to retrieve comment from DB
 		ChatterComment comment = null;
 		comment = dbMapper.load(ChatterComment.class,
-				(String) request.getArgs().get("commentId"));
+				request.getArgs().getCommentId());
 		
 		if (comment != null) {
 			dbMapper.delete(comment);
+			this.commentCache.invalidate(comment.getCommentId());
+			if (this.concurCounter.isEnabled()) {
+				this.concurCounter.deleteShards(comment.getCommentId());
+			}
 			return true;
 		}
 		
@@ -145,6 +276,8 @@ public class CommentDAOImpl implements CommentDAO{
 	/**
 	 * Query the ChatterComment table using argument
 	 * createdBy value and optional time_stamp conditions.
+	 * Full comments are returned unless the view argument
+	 * is "summary".
 	 */
 	@Override
 	public CommentResultPage queryByCreator(CommentCRUDRequest request)
@@ -154,87 +287,23 @@ public class CommentDAOImpl implements CommentDAO{
 		// Validate incoming request
 		CommentCRUDRequestValidator.validateQueryByCreatorRequest(request);
 		
-		CommentResultPage commentResultPage = null;
-		QueryResultPage<ChatterComment> resultPage = null;
-		Map<String, AttributeValue> exclusiveStartKey = null;
-		Condition sortKeyCond = null;
-		
-		String createdBy = (String) request.getArgs().get("createdBy");
-		String timeStampFrom = (String) request.getArgs().get("timeStampFrom");
-		String timeStampTo = (String) request.getArgs().get("timeStampTo");
-		String exclusiveStartId = (String) request.getArgs().get("exclusiveStartId");
-		String exclusiveStartCreator = (String) request.getArgs().get("exclusiveStartCreator");
-		String exclusiveStartTS = (String) request.getArgs().get("exclusiveStartTS");
-		
-		// Check to see if an exclusive start value was included in request
-		if (exclusiveStartId != null && !exclusiveStartId.isEmpty()
-				&& exclusiveStartCreator != null && !exclusiveStartCreator.isEmpty()
-				&& exclusiveStartTS != null && !exclusiveStartTS.isEmpty()) {
-			
-			// ID AttributeValue
-			AttributeValue idAttVal = new AttributeValue();
-			idAttVal.setS(exclusiveStartId);
-			
-			// Created by AttributeValue
-			AttributeValue creatorAttVal = new AttributeValue();
-			creatorAttVal.setS(exclusiveStartCreator);
-			
-			// Time stamp AttributeValue
-			AttributeValue tsAttVal = new AttributeValue();
-			tsAttVal.setN(exclusiveStartTS);
-			
-			exclusiveStartKey = new HashMap<>();
-			exclusiveStartKey.put("comment_id", idAttVal);
-			exclusiveStartKey.put("created_by", creatorAttVal);
-			exclusiveStartKey.put("time_stamp", tsAttVal);
-		}	
-		
-		// Check to see if sort key values were included in request
-		if (timeStampFrom != null && timeStampTo != null) {
-			sortKeyCond = new Condition()
-				.withComparisonOperator(ComparisonOperator.BETWEEN.toString())
-				.withAttributeValueList(new AttributeValue().withN(timeStampFrom), 
-						new AttributeValue().withN(timeStampTo));
-		}
-		
 		ChatterComment comment = new ChatterComment();
-		comment.setCreatedBy(createdBy);
+		comment.setCreatedBy(request.getArgs().getCreatedBy());
 		
 		// Create query expression and set properties
-		DynamoDBQueryExpression<ChatterComment> query = new DynamoDBQueryExpression<>();
-		query.setHashKeyValues(comment);
-		query.setIndexName("created_by_index");
-		query.setLimit(Integer.parseInt(propsResolver.getProperty("queryLimit")));
-		query.setConsistentRead(false);
-		
-		// Set index range key if applicable
-		if (sortKeyCond != null) {
-			Map<String, Condition> cond = new HashMap<>();
-			cond.put("time_stamp", sortKeyCond);
-			query.setRangeKeyConditions(cond);
-		}
-		
-		// Set exclusive start key
-		if (exclusiveStartKey != null) {
-			query.setExclusiveStartKey(exclusiveStartKey);
-		}
-		
-		resultPage = dbMapper.queryPage(ChatterComment.class, query);
+		DynamoDBQueryExpression<ChatterComment> query = this.newIndexQuery(comment, "created_by_index");
+		this.applyTimeWindow(query, request.getArgs());
 		
-		// Process result page
-		if (resultPage != null) {
-			commentResultPage = new CommentResultPage(
-					resultPage.getResults(),
-					resultPage.getLastEvaluatedKey(),
-					resultPage.getCount());
-		}
-		
-		return commentResultPage;
+		return this.runQuery(query, comment.getCreatedBy(), request.getArgs());
 	}
 
 	/**
 	 * Query the ChatterComment table using argument
-	 * forumId value.
+	 * forumId value and optional time_stamp conditions.
+	 * Comments are returned in time_stamp order, newest
+	 * first when the sortOrder argument is "desc". Full
+	 * comments are returned unless the view argument is
+	 * "summary".
 	 */
 	@Override
 	public CommentResultPage queryByForum(CommentCRUDRequest request)
@@ -244,64 +313,47 @@ public class CommentDAOImpl implements CommentDAO{
 		// Validate incoming request
 		CommentCRUDRequestValidator.validateQueryByForumRequest(request);
 		
-		CommentResultPage commentResultPage = null;
-		QueryResultPage<ChatterComment> resultPage = null;
-		Map<String, AttributeValue> exclusiveStartKey = null;
-		
-		String forumId = (String) request.getArgs().get("forumId");
-		String exclusiveStartId = (String) request.getArgs().get("exclusiveStartId");
-		String exclusiveStartForum = (String) request.getArgs().get("exclusiveStartForum");
-		
-		// Check to see if an exclusive start value was included in request
-		if (exclusiveStartId != null && !exclusiveStartId.isEmpty()
-				&& exclusiveStartForum != null && !exclusiveStartForum.isEmpty()) {
-			
-			// ID AttributeValue
-			AttributeValue idAttVal = new AttributeValue();
-			idAttVal.setS(exclusiveStartId);
-			
-			// Forum ID AttributeValue
-			AttributeValue forumAttVal = new AttributeValue();
-			forumAttVal.setS(exclusiveStartForum);
-			
-			exclusiveStartKey = new HashMap<>();
-			exclusiveStartKey.put("comment_id", idAttVal);
-			exclusiveStartKey.put("forum_id", forumAttVal);
-		}
-		
 		ChatterComment comment = new ChatterComment();
-		comment.setForumId(forumId);
+		comment.setForumId(request.getArgs().getForumId());
 		
 		// Create query expression and set properties
-		DynamoDBQueryExpression<ChatterComment> query = new DynamoDBQueryExpression<>();
-		query.setHashKeyValues(comment);
-		query.setIndexName("forum_id_index");
-		query.setLimit(Integer.parseInt(propsResolver.getProperty("queryLimit")));
-		query.setConsistentRead(false);
-		
-		// Set exclusive start key
-		if (exclusiveStartKey != null) {
-			query.setExclusiveStartKey(exclusiveStartKey);
-		}
-		
-		resultPage = dbMapper.queryPage(ChatterComment.class, query);
-		
-		// Process result page
-		if (resultPage != null) {
-			commentResultPage = new CommentResultPage(
-					resultPage.getResults(),
-					resultPage.getLastEvaluatedKey(),
-					resultPage.getCount());
-		}
+		DynamoDBQueryExpression<ChatterComment> query = this.newIndexQuery(comment, "forum_time_index");
+		this.applyTimeWindow(query, request.getArgs());
 		
-		return commentResultPage;
+		return this.runQuery(query, comment.getForumId(), request.getArgs());
+	}
+
+	/**
+	 * Lazily iterates over every comment in the argument forum. Pages
+	 * are prefetched while earlier results are consumed.
+	 */
+	@Override
+	public QueryPageIterator<ChatterComment> iterateByForum(String forumId)
+			throws PropertyRetrievalException {
+		ChatterComment comment = new ChatterComment();
+		comment.setForumId(forumId);
+		return new QueryPageIterator<>(dbMapper, ChatterComment.class,
+				this.newIndexQuery(comment, "forum_time_index"), this.batchExecutor, -1);
+	}
+
+	/**
+	 * Lazily iterates over every comment created by the argument creator.
+	 * Pages are prefetched while earlier results are consumed.
+	 */
+	@Override
+	public QueryPageIterator<ChatterComment> iterateByCreator(String createdBy)
+			throws PropertyRetrievalException {
+		ChatterComment comment = new ChatterComment();
+		comment.setCreatedBy(createdBy);
+		return new QueryPageIterator<>(dbMapper, ChatterComment.class,
+				this.newIndexQuery(comment, "created_by_index"), this.batchExecutor, -1);
 	}
 
 	/**
 	 * Retrieve a batch of ChatterComment objects from the database
-	 * using an argument list of comment ids.
+	 * using an argument list of comment ids. Comments that do not exist
+	 * are left out of the returned list.
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<ChatterComment> batchRetrieve(CommentCRUDRequest request)
 			throws AmazonServiceException, AmazonClientException,
@@ -310,36 +362,21 @@ public class CommentDAOImpl implements CommentDAO{
 		// Validate incoming request
 		CommentCRUDRequestValidator.validateBatchRetrieveRequest(request);
 		
-		// Initialize result list
-		List<ChatterComment> commentResults = null;
-		
-		// Create arguments for batch load
-		List<String> commentIds = (List<String>) request.getArgs().get("commentIds");
-		Map<Class<?>, List<KeyPair>> primaryKeyMap = new HashMap<>();
-		primaryKeyMap.put(ChatterComment.class, this.generateHashKeyPairList(commentIds));
-		
-		// Attempt to retrieve list of comment objects from database
-		Map<String, List<Object>> commentData = dbMapper.batchLoad(primaryKeyMap);
-		
-		if (commentData != null) {
-			// Need to cast object to ChatterComment and add
-			// to list to return
-			commentResults = new ArrayList<>();
-			List<Object> objectResults = commentData.get("Chatter_Comment");
-			for (Object object : objectResults) {
-				ChatterComment comment = (ChatterComment) object;
-				commentResults.add(comment);
-			}
-		}
+		// Load comments in parallel chunks, results are in request order
+		List<String> commentIds = request.getArgs().getCommentIds();
+		List<ChatterComment> commentResults = this.batchExecutor.batchLoad(
+				ChatterComment.class, "comment_id", commentIds);
 		
 		return commentResults;
 	}
 
 	/**
 	 * Delete a batch of ChatterComment objects from the database
-	 * using an argument list of comment ids.
+	 * using an argument list of comment ids. Comments are deleted by
+	 * key without being read first. When the optional reportDeleted
+	 * argument is true only the ids of comments that existed are
+	 * returned, otherwise every requested id is returned.
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<String> batchDelete(CommentCRUDRequest request)
 			throws AmazonServiceException, AmazonClientException,
@@ -348,38 +385,17 @@ public class CommentDAOImpl implements CommentDAO{
 		// Validate incoming request
 		CommentCRUDRequestValidator.validateBatchRetrieveRequest(request);
 		
-		// Initialize result lists
-		List<ChatterComment> commentResults = null;
-		List<String> resultCommentIds = null;
-		
-		// Create arguments for batch load
-		List<String> commentIds = (List<String>) request.getArgs().get("commentIds");
-		Map<Class<?>, List<KeyPair>> primaryKeyMap = new HashMap<>();
-		primaryKeyMap.put(ChatterComment.class, this.generateHashKeyPairList(commentIds));
-		
-		// Attempt to retrieve list of comment objects from database
-		Map<String, List<Object>> commentData = dbMapper.batchLoad(primaryKeyMap);
-		
-		if (commentData != null) {
-			// Need to cast object to ChatterComment and add
-			// to list
-			commentResults = new ArrayList<>();
-			List<Object> objectResults = commentData.get("Chatter_Comment");
-			for (Object object : objectResults) {
-				ChatterComment comment = (ChatterComment) object;
-				commentResults.add(comment);
-			}
-			
-			if (commentResults.size() > 0) {
-				dbMapper.batchDelete(commentResults);
-				resultCommentIds = new ArrayList<>();
-				for (ChatterComment comment : commentResults) {
-					resultCommentIds.add(comment.getCommentId());
-				}
+		List<String> commentIds = request.getArgs().getCommentIds();
+		try {
+			if (Boolean.TRUE.equals(request.getArgs().getReportDeleted())) {
+				return this.batchExecutor.deleteReportingExisting(ChatterComment.class,
+						"comment_id", commentIds);
 			}
+			return this.batchExecutor.batchDelete(ChatterComment.class, "comment_id", commentIds);
+		}
+		finally {
+			this.commentCache.invalidateAll(commentIds);
 		}
-		
-		return resultCommentIds;
 	}
 	
 	/**
@@ -402,6 +418,7 @@ public class CommentDAOImpl implements CommentDAO{
 	 * - ADD FLAG ID
 	 * - REMOVE FLAG ID
 	 * - INCREMENT CONCUR CNT
+	 * - CONSOLIDATE CONCUR CNT SHARDS
 	 */
 	@Override
 	public ChatterComment updateComment(CommentCRUDRequest request)
@@ -460,153 +477,441 @@ public class CommentDAOImpl implements CommentDAO{
 			comment = this.incrementConcurCnt(request.getArgs());
 		}
 		
+		/* CONSOLIDATE CONCUR_CNT SHARDS */
+		else if (request.getOperation().toString().equalsIgnoreCase
+				(ChatterCommentOps.CONSOLIDATE_CONCUR.toString())) {
+			// Validate incoming request
+			CommentCRUDRequestValidator.validateRetrieveRequest(request);
+			
+			// Fold concur cnt shards into the comment item
+			comment = this.consolidateConcurCnt(request.getArgs());
+		}
+		
 		return comment;
 	}
 	
 	/**
-	 * Add reply id to comment retrieved from database
+	 * Add reply id to the comment's reply id set and count it in
+	 * reply_cnt using a single atomic update.
 	 * @param reqArgs
-	 * @return
+	 * @return the updated comment or NULL if the comment does not exist
 	 */
-	private ChatterComment addReplyId(Map<String, ?> reqArgs) {
-		// Attempt to retrieve requested comment from database
-		ChatterComment comment = this.dbMapper.load(ChatterComment.class,
-				(String) reqArgs.get("commentId"));
-		
-		if (comment != null) {
-			Set<String> replyIds = comment.getReplyIds();
-			if (replyIds == null) {
-				replyIds = new HashSet<>();
-			}
-			
-			if (replyIds.add((String) reqArgs.get("replyId"))) {
-				comment.setReplyIds(replyIds);
-				dbMapper.save(comment);
+	private ChatterComment addReplyId(CommentArgs reqArgs) {
+		return this.updateIdSet(reqArgs.getCommentId(), "replies", "reply_cnt",
+				reqArgs.getReplyId(), true);
+	}
+	
+	/**
+	 * Remove a reply id from the comment's reply id set and reply_cnt
+	 * using a single atomic update. DynamoDB drops the set attribute
+	 * once the set is empty.
+	 * @param reqArgs
+	 * @return the updated comment or NULL if the comment does not exist
+	 */
+	private ChatterComment removeReplyId(CommentArgs reqArgs) {
+		return this.updateIdSet(reqArgs.getCommentId(), "replies", "reply_cnt",
+				reqArgs.getReplyId(), false);
+	}
+	
+	/**
+	 * Add a flag id to the comment's flag id set and count it in
+	 * flag_cnt using a single atomic update.
+	 * @param reqArgs
+	 * @return the updated comment or NULL if the comment does not exist
+	 */
+	private ChatterComment addFlagId(CommentArgs reqArgs) {
+		return this.updateIdSet(reqArgs.getCommentId(), "flags", "flag_cnt",
+				reqArgs.getFlagId(), true);
+	}
+	
+	/**
+	 * Remove a flag id from the comment's flag id set and flag_cnt
+	 * using a single atomic update. DynamoDB drops the set attribute
+	 * once the set is empty.
+	 * @param reqArgs
+	 * @return the updated comment or NULL if the comment does not exist
+	 */
+	private ChatterComment removeFlagId(CommentArgs reqArgs) {
+		return this.updateIdSet(reqArgs.getCommentId(), "flags", "flag_cnt",
+				reqArgs.getFlagId(), false);
+	}
+	
+	/**
+	 * Adds an id to or removes an id from one of the comment's id sets,
+	 * keeping the matching count attribute in step. The update only
+	 * applies when it changes the set, so repeated adds or removes of
+	 * the same id do not skew the count. A comment written before the
+	 * count attribute existed has it seeded from the set first.
+	 * @param commentId the comment to update
+	 * @param setAttribute the id set attribute
+	 * @param countAttribute the count attribute kept with the set
+	 * @param id the id to add or remove
+	 * @param add true to add the id, false to remove it
+	 * @return the updated comment or NULL if the comment does not exist
+	 */
+	private ChatterComment updateIdSet(String commentId, String setAttribute,
+			String countAttribute, String id, boolean add) {
+		Map<String, AttributeValue> values = new HashMap<>();
+		values.put(":ids", new AttributeValue().withSS(id));
+		values.put(":id", new AttributeValue(id));
+		values.put(":inc", new AttributeValue().withN(add ? "1" : "-1"));
+		
+		String updateExpression = add
+				? "ADD " + setAttribute + " :ids, " + countAttribute + " :inc"
+				: "DELETE " + setAttribute + " :ids ADD " + countAttribute + " :inc";
+		String setCondition = (add ? "NOT " : "") + "contains(" + setAttribute + ", :id)"
+				+ " AND attribute_exists(" + countAttribute + ")";
+		try {
+			return this.updateItem(commentId, updateExpression, setCondition, values);
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			// Comment does not exist, the set already has the wanted state
+			// or the count has not been seeded yet
+			if (this.seedIdSetCount(commentId, setAttribute, countAttribute)) {
+				return this.updateIdSet(commentId, setAttribute, countAttribute, id, add);
 			}
+			return this.loadComment(commentId);
 		}
-		return comment;
 	}
 	
 	/**
-	 * Remove a reply id from comment retrieved from database
-	 * @param reqArgs
-	 * @return
+	 * Sets the count attribute of a comment written before the count was
+	 * kept to the size of its id set. The set is read with a consistent
+	 * read, and no update changes the set while the count is missing.
+	 * @param commentId the comment to seed
+	 * @param setAttribute the id set attribute
+	 * @param countAttribute the count attribute to seed
+	 * @return true if the count was missing and has been seeded
 	 */
-	private ChatterComment removeReplyId(Map<String, ?> reqArgs) {
-		// Attempt to retrieve requested comment from database
-		ChatterComment comment = this.dbMapper.load(ChatterComment.class,
-				(String) reqArgs.get("commentId"));
+	private boolean seedIdSetCount(String commentId, String setAttribute,
+			String countAttribute) {
+		Map<String, AttributeValue> item = this.dbClient.getItem(new GetItemRequest()
+				.withTableName(COMMENT_TABLE)
+				.withKey(Collections.singletonMap("comment_id", new AttributeValue(commentId)))
+				.withProjectionExpression("comment_id, " + setAttribute + ", " + countAttribute)
+				.withConsistentRead(true)).getItem();
+		if (item == null || item.containsKey(countAttribute)) {
+			return false;
+		}
 		
-		if (comment != null) {
-			Set<String> replyIds = comment.getReplyIds();
-			if (replyIds != null) {
-				if (replyIds.remove((String) reqArgs.get("replyId"))) {
-					
-					// If resultant replyIds set is now empty, null the
-					// comment's reference to it.
-					if (replyIds.isEmpty()) {
-						comment.setReplyIds(null);
-					}
-					else {
-						comment.setReplyIds(replyIds);
-					}
-					
-					// Save the updated comment object
-					this.dbMapper.save(comment);
-				}
+		AttributeValue ids = item.get(setAttribute);
+		int count = ids != null && ids.getSS() != null ? ids.getSS().size() : 0;
+		try {
+			this.dbClient.updateItem(new UpdateItemRequest()
+				.withTableName(COMMENT_TABLE)
+				.withKey(Collections.singletonMap("comment_id", new AttributeValue(commentId)))
+				.withUpdateExpression("SET " + countAttribute + " = :cnt")
+				.withConditionExpression("attribute_exists(comment_id) AND attribute_not_exists("
+						+ countAttribute + ")")
+				.withExpressionAttributeValues(Collections.singletonMap(":cnt",
+						new AttributeValue().withN(Integer.toString(count)))));
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			// Seeded by a concurrent update, or the comment was deleted
+		}
+		return true;
+	}
+	
+	/**
+	 * Increments the argument comment's concur attribute value by
+	 * one. When the increment buffer is enabled the increment is
+	 * coalesced in memory and an approximate count is returned.
+	 * @param reqArgs
+	 * @return the updated comment or NULL if the comment does not exist
+	 */
+	private ChatterComment incrementConcurCnt(CommentArgs reqArgs) {
+		String commentId = reqArgs.getCommentId();
+		if (this.concurBuffer != null) {
+			return this.concurBuffer.increment(commentId);
+		}
+		return this.addConcurCnt(commentId, 1);
+	}
+	
+	/**
+	 * Adds the argument amount to the comment's concur count using a
+	 * server side counter update. When concur count sharding is enabled
+	 * the amount is added to one of the comment's counter shards instead
+	 * of the comment item. The comment is then taken from the comment
+	 * cache and the amount is added to the cached count as well, so each
+	 * increment made through this process is returned and served by later
+	 * loads. Increments made by other processes are only seen once the
+	 * cache entry expires.
+	 * @param commentId the comment to update
+	 * @param amount the amount to add
+	 * @return the updated comment or NULL if the comment does not exist
+	 */
+	private ChatterComment addConcurCnt(String commentId, long amount) {
+		if (this.concurCounter.isEnabled()) {
+			ChatterComment comment = this.commentCache.load(commentId, this::loadComment);
+			if (comment == null) {
+				return null;
 			}
+			this.concurCounter.increment(commentId, amount);
+			this.commentCache.update(commentId, cached -> {
+				cached.setConcurCnt((int) (cached.getConcurCnt() + amount));
+				return cached;
+			});
+			comment.setConcurCnt((int) (comment.getConcurCnt() + amount));
+			return comment;
 		}
 		
-		return comment;
+		return this.updateAttributes(commentId, "ADD concur_cnt :inc",
+				Collections.singletonMap(":inc", 
+						new AttributeValue().withN(Long.toString(amount))));
 	}
 	
 	/**
-	 * Add a flagId to comment flag id set
+	 * Folds the argument comment's concur count shards into the
+	 * concur attribute of the comment item. Intended to be invoked
+	 * periodically by a scheduled job.
 	 * @param reqArgs
-	 * @return
+	 * @return the consolidated comment or NULL if the comment does not exist
 	 */
-	private ChatterComment addFlagId(Map<String, ?> reqArgs) {
-		// Attempt to retrieve request comment from database
-		ChatterComment comment = this.dbMapper.load(ChatterComment.class,
-				(String) reqArgs.get("commentId"));
-		
+	private ChatterComment consolidateConcurCnt(CommentArgs reqArgs) {
+		String commentId = reqArgs.getCommentId();
+		if (this.concurCounter.isEnabled()) {
+			this.concurCounter.consolidate(commentId);
+			this.commentCache.invalidate(commentId);
+		}
+		return this.loadComment(commentId);
+	}
+	
+	/**
+	 * Loads a comment, including the sum of its concur count shards
+	 * when sharding is enabled.
+	 * @param commentId the comment to load
+	 * @return the comment or NULL if the comment does not exist
+	 */
+	private ChatterComment loadComment(String commentId) {
+		if (this.concurCounter.isEnabled()) {
+			// Comment and its concur shards are read in one batch call
+			return withIdSetCounts(this.toComment(this.concurCounter.loadWithTotal(commentId)));
+		}
+		return withIdSetCounts(this.dbMapper.load(ChatterComment.class, commentId));
+	}
+	
+	/**
+	 * Fills in reply_cnt and flag_cnt from the id sets of a comment
+	 * written before the counts were kept. The stored item is left as
+	 * it is; it is seeded by its next reply or flag update.
+	 * @param comment the comment, may be NULL
+	 * @return the argument comment
+	 */
+	private static ChatterComment withIdSetCounts(ChatterComment comment) {
 		if (comment != null) {
-			Set<String> flagIds = comment.getFlagIds();
-			if (flagIds == null) {
-				flagIds = new HashSet<>();
+			if (comment.getReplyCnt() == null) {
+				comment.setReplyCnt(comment.getReplyIds() != null ? comment.getReplyIds().size() : 0);
 			}
-			
-			if (flagIds.add((String) reqArgs.get("flagId"))) {
-				comment.setFlagIds(flagIds);
-				this.dbMapper.save(comment);
+			if (comment.getFlagCnt() == null) {
+				comment.setFlagCnt(comment.getFlagIds() != null ? comment.getFlagIds().size() : 0);
 			}
 		}
 		return comment;
 	}
 	
 	/**
-	 * Remove a flag id from the argument comment's flag id set.
-	 * @param reqArgs
-	 * @return
+	 * Creates a query against the argument global secondary index using
+	 * the configured page size.
+	 * @param hashKeyValues comment holding the index hash key value
+	 * @param indexName the index to query
+	 * @return DynamoDBQueryExpression
+	 */
+	private DynamoDBQueryExpression<ChatterComment> newIndexQuery(ChatterComment hashKeyValues,
+			String indexName) throws PropertyRetrievalException {
+		DynamoDBQueryExpression<ChatterComment> query = new DynamoDBQueryExpression<>();
+		query.setHashKeyValues(hashKeyValues);
+		query.setIndexName(indexName);
+		query.setLimit(Integer.parseInt(propsResolver.getProperty("queryLimit")));
+		query.setConsistentRead(false);
+		return query;
+	}
+	
+	/**
+	 * @param indexName an ALL projected comment index
+	 * @return the summary index with the same keys
+	 */
+	static String summaryIndex(String indexName) {
+		return SUMMARY_INDEXES.get(indexName);
+	}
+	
+	/**
+	 * Applies the optional timeStampFrom, timeStampTo and sortOrder
+	 * request arguments to a query on an index with a time_stamp range
+	 * key. Either bound may be given on its own. Both bounds are inclusive.
+	 * @param query the query to update
+	 * @param reqArgs the request arguments
 	 */
-	private ChatterComment removeFlagId(Map<String, ?> reqArgs) {
-		// Attempt to retrieve requested comment from database
-		ChatterComment comment = this.dbMapper.load(ChatterComment.class,
-				(String) reqArgs.get("commentId"));
+	private void applyTimeWindow(DynamoDBQueryExpression<ChatterComment> query,
+			CommentArgs reqArgs) {
+		Long timeStampFrom = reqArgs.getTimeStampFrom();
+		Long timeStampTo = reqArgs.getTimeStampTo();
 		
-		if (comment != null) {
-			Set<String> flagIds = comment.getFlagIds();
-			if (flagIds != null) {
-				if (flagIds.remove((String) reqArgs.get("flagId"))) {
-					// If resultant flag id set is now empty,
-					// null out the comment's reference to it
-					if (flagIds.isEmpty()) {
-						comment.setFlagIds(null);
-					}
-					else {
-						comment.setFlagIds(flagIds);
-					}
-					
-					// Save the updated comment object
-					this.dbMapper.save(comment);
+		Condition sortKeyCond = null;
+		if (timeStampFrom != null && timeStampTo != null) {
+			sortKeyCond = new Condition()
+				.withComparisonOperator(ComparisonOperator.BETWEEN)
+				.withAttributeValueList(new AttributeValue().withN(timeStampFrom.toString()), 
+						new AttributeValue().withN(timeStampTo.toString()));
+		}
+		else if (timeStampFrom != null) {
+			sortKeyCond = new Condition()
+				.withComparisonOperator(ComparisonOperator.GE)
+				.withAttributeValueList(new AttributeValue().withN(timeStampFrom.toString()));
+		}
+		else if (timeStampTo != null) {
+			sortKeyCond = new Condition()
+				.withComparisonOperator(ComparisonOperator.LE)
+				.withAttributeValueList(new AttributeValue().withN(timeStampTo.toString()));
+		}
+		
+		// Set index range key if applicable
+		if (sortKeyCond != null) {
+			Map<String, Condition> cond = new HashMap<>();
+			cond.put("time_stamp", sortKeyCond);
+			query.setRangeKeyConditions(cond);
+		}
+		query.setScanIndexForward(!"desc".equals(reqArgs.getSortOrder()));
+	}
+	
+	/**
+	 * Runs a comment query starting from the optional cursor argument.
+	 * A single page of results is returned unless the request contains a
+	 * maxResults argument, in which case pages are read until up to
+	 * maxResults comments have been collected.
+	 * @param query the query to run
+	 * @param hashKey the index hash key value queried
+	 * @param reqArgs the request arguments
+	 * @return CommentResultPage
+	 */
+	private CommentResultPage runQuery(DynamoDBQueryExpression<ChatterComment> query,
+			String hashKey, CommentArgs reqArgs) throws RequestValidationException, PropertyRetrievalException {
+		Integer maxResults = QueryPageIterator.readMaxResults(reqArgs.getMaxResults(), 
+				Integer.parseInt(propsResolver.getProperty("maxQueryResults")));
+		
+		// Summary queries read the smaller summary index, which leaves
+		// the id sets out of both the read and the response
+		boolean summary = "summary".equals(reqArgs.getView());
+		if (summary) {
+			query.setIndexName(summaryIndex(query.getIndexName()));
+			query.setProjectionExpression(SUMMARY_ATTRIBUTES);
+		}
+		
+		// Cursors are only valid for the index, direction and hash key they
+		// were issued for
+		String scope = PageCursor.scope(COMMENT_TABLE, query.getIndexName(),
+				query.isScanIndexForward(), hashKey);
+		query.setExclusiveStartKey(this.pageCursor.decode(scope, 
+				reqArgs.getCursor()));
+		
+		if (maxResults == null) {
+			QueryResultPage<ChatterComment> resultPage = dbMapper.queryPage(
+					ChatterComment.class, query);
+			List<ChatterComment> comments = this.completeResults(resultPage.getResults(),
+					summary);
+			return new CommentResultPage(
+					comments,
+					this.pageCursor.encode(scope, resultPage.getLastEvaluatedKey()),
+					comments.size());
+		}
+		
+		QueryPageIterator<ChatterComment> results = new QueryPageIterator<>(dbMapper,
+				ChatterComment.class, query, this.batchExecutor, maxResults);
+		List<ChatterComment> comments = this.completeResults(
+				results.stream().collect(Collectors.toList()), summary);
+		return new CommentResultPage(comments, 
+				this.pageCursor.encode(scope, results.getLastEvaluatedKey()), comments.size());
+	}
+	
+	/**
+	 * Completes comments read from an index. When concur count sharding
+	 * is enabled the shards of the whole page are summed into the concur
+	 * counts, at the cost of extra BatchGetItem calls. Full comments
+	 * written before reply_cnt and flag_cnt were kept get them from
+	 * their id sets.
+	 * @param comments comments read from an index
+	 * @param summary true if the comments were read with the summary view
+	 * @return the argument comments
+	 */
+	private List<ChatterComment> completeResults(List<ChatterComment> comments,
+			boolean summary) {
+		if (this.concurCounter.isEnabled() && !comments.isEmpty()) {
+			Map<String, Long> shardTotals = this.concurCounter.sumShards(comments.stream()
+					.map(ChatterComment::getCommentId)
+					.collect(Collectors.toList()));
+			for (ChatterComment comment : comments) {
+				Long shardTotal = shardTotals.get(comment.getCommentId());
+				if (shardTotal != null) {
+					comment.setConcurCnt((int) (comment.getConcurCnt() + shardTotal));
 				}
 			}
 		}
-		return comment;
+		if (!summary) {
+			comments.forEach(CommentDAOImpl::withIdSetCounts);
+		}
+		return comments;
 	}
 	
 	/**
-	 * Increments the argument comment's concur attribute value by
-	 * one.
-	 * @param reqArgs
-	 * @return
+	 * Converts raw comment item attributes into a ChatterComment object.
+	 * @param attributes the item attributes, may be NULL
+	 * @return ChatterComment or NULL if attributes is NULL
 	 */
-	private ChatterComment incrementConcurCnt(Map<String, ?> reqArgs) {
-		// Attempt to retrieve requested comment from database
-		ChatterComment comment = this.dbMapper.load(ChatterComment.class, 
-				(String) reqArgs.get("commentId"));
-		
-		if (comment != null) {
-			// Increment comment concur attribute
-			comment.setConcurCnt(comment.getConcurCnt() + 1);
-			
-			// Save updated comment object
-			this.dbMapper.save(comment);
+	private ChatterComment toComment(Map<String, AttributeValue> attributes) {
+		return attributes != null 
+				? this.dbMapper.marshallIntoObject(ChatterComment.class, attributes) : null;
+	}
+	
+	/**
+	 * Applies an update expression to an existing comment in a single
+	 * UpdateItem call and returns the comment as it looks after the
+	 * update. The update is conditional on the comment existing so
+	 * that ADD actions never create partial comment items.
+	 * @param commentId the id of the comment to update
+	 * @param updateExpression the update expression to apply
+	 * @param values the expression attribute values
+	 * @return the updated comment or NULL if the comment does not exist
+	 */
+	private ChatterComment updateAttributes(String commentId, String updateExpression,
+			Map<String, AttributeValue> values) {
+		try {
+			return this.updateItem(commentId, updateExpression, null, values);
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			// Requested comment does not exist
+			return null;
 		}
-		return comment;
 	}
 	
 	/**
-	 * Generate a list of KeyPairs from the argument list of
-	 * hash keys.
-	 * @param hashKeys
-	 * @return
+	 * Applies an update expression to an existing comment, subject to
+	 * an optional extra condition, and returns the updated comment.
+	 * @param commentId the id of the comment to update
+	 * @param updateExpression the update expression to apply
+	 * @param condition condition added to the existence check, may be NULL
+	 * @param values the expression attribute values
+	 * @return the updated comment
+	 * @throws ConditionalCheckFailedException if the comment does not exist
+	 * or the condition does not hold
 	 */
-	private List<KeyPair> generateHashKeyPairList(List<String> hashKeys) {
-		List<KeyPair> keyPairs = new ArrayList<>();
-		for (String hashKey : hashKeys) {
-			keyPairs.add(new KeyPair().withHashKey(hashKey));
+	private ChatterComment updateItem(String commentId, String updateExpression,
+			String condition, Map<String, AttributeValue> values) {
+		UpdateItemRequest updateRequest = new UpdateItemRequest()
+			.withTableName(COMMENT_TABLE)
+			.withKey(Collections.singletonMap("comment_id", new AttributeValue(commentId)))
+			.withUpdateExpression(updateExpression)
+			.withConditionExpression(condition != null 
+					? "attribute_exists(comment_id) AND " + condition
+					: "attribute_exists(comment_id)")
+			.withExpressionAttributeValues(values)
+			.withReturnValues(ReturnValue.ALL_NEW);
+		
+		try {
+			UpdateItemResult result = this.dbClient.updateItem(updateRequest);
+			return this.dbMapper.marshallIntoObject(ChatterComment.class, 
+					result.getAttributes());
+		}
+		finally {
+			this.commentCache.invalidate(commentId);
 		}
-		return keyPairs;
 	}
 }
@@ -0,0 +1,253 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chatter.dbservice.model.ChatterComment;
+
+/**
+ * ConcurIncrementBuffer
+ * @author coreym
+ *
+ * Coalesces INCREMENT_CONCUR requests made inside a long lived process.
+ * Increments are accumulated in memory per comment id and written to
+ * the database as one aggregated ADD per comment when the flush interval
+ * elapses, when the number of buffered increments reaches the flush
+ * threshold, or when the buffer is shut down.
+ *
+ * Callers receive an approximate count straight away: the count last
+ * read from the database plus the increments still waiting to be flushed.
+ */
+public class ConcurIncrementBuffer {
+
+	/**
+	 * Writes an aggregated increment to the database.
+	 */
+	public interface Sink {
+		/**
+		 * @param commentId the comment to increment
+		 * @param amount the aggregated amount to add
+		 * @return the comment after the increment or NULL if it does not exist
+		 */
+		ChatterComment add(String commentId, long amount);
+	}
+
+	/**
+	 * Reads the current state of a comment from the database.
+	 */
+	public interface Loader {
+		/**
+		 * @param commentId the comment to read
+		 * @return the comment or NULL if it does not exist
+		 */
+		ChatterComment load(String commentId);
+	}
+
+	// Marks a pending counter that was removed from the buffer and
+	// must not receive further increments
+	private static final long RETIRED = Long.MIN_VALUE;
+
+	// Upper bound on the number of comment snapshots kept for
+	// approximate counts
+	private static final int MAX_SNAPSHOTS = 10000;
+
+	private final Sink sink;
+	private final Loader loader;
+	private final long flushIntervalMs;
+	private final long flushThreshold;
+
+	private final ConcurrentHashMap<String, AtomicLong> pending = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, ChatterComment> snapshots = new ConcurrentHashMap<>();
+	private final AtomicLong bufferedCnt = new AtomicLong();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+	private ScheduledExecutorService flusher;
+	private Thread shutdownHook;
+
+	/**
+	 * @param sink writes aggregated increments to the database
+	 * @param loader reads comments that have not been seen yet
+	 * @param flushIntervalMs how often buffered increments are flushed
+	 * @param flushThreshold number of buffered increments that triggers
+	 * 		  an early flush
+	 */
+	public ConcurIncrementBuffer(Sink sink, Loader loader, long flushIntervalMs,
+			long flushThreshold) {
+		this.sink = sink;
+		this.loader = loader;
+		this.flushIntervalMs = flushIntervalMs;
+		this.flushThreshold = flushThreshold;
+	}
+
+	/**
+	 * Starts the background flusher and registers a JVM shutdown hook
+	 * that flushes whatever is still buffered.
+	 */
+	public synchronized void start() {
+		if (this.flusher != null) {
+			return;
+		}
+
+		this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "concur-increment-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.flusher.scheduleWithFixedDelay(this::flush, this.flushIntervalMs,
+				this.flushIntervalMs, TimeUnit.MILLISECONDS);
+
+		this.shutdownHook = new Thread(this::flush, "concur-increment-shutdown");
+		Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+	}
+
+	/**
+	 * Stops the background flusher and flushes every buffered increment.
+	 */
+	public synchronized void shutdown() {
+		if (this.flusher != null) {
+			this.flusher.shutdown();
+			try {
+				this.flusher.awaitTermination(this.flushIntervalMs, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+			this.flusher = null;
+		}
+
+		if (this.shutdownHook != null) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+			}
+			catch (IllegalStateException ise) {
+				// JVM is already shutting down and will run the hook itself
+			}
+			this.shutdownHook = null;
+		}
+
+		this.flush();
+	}
+
+	/**
+	 * Buffers a single increment for the argument comment.
+	 *
+	 * @param commentId the comment to increment
+	 * @return the comment with an approximate concur count or NULL if the
+	 * comment does not exist
+	 */
+	public ChatterComment increment(String commentId) {
+		ChatterComment snapshot = this.snapshots.get(commentId);
+		if (snapshot == null) {
+			// First time this comment is seen, read it once to seed the count
+			snapshot = this.loader.load(commentId);
+			if (snapshot == null) {
+				return null;
+			}
+			this.remember(snapshot);
+		}
+
+		long pendingCnt = this.add(commentId, 1);
+		if (this.bufferedCnt.incrementAndGet() >= this.flushThreshold) {
+			this.requestFlush();
+		}
+
+		return copyWithCount(snapshot, snapshot.getConcurCnt() + pendingCnt);
+	}
+
+	/**
+	 * Writes one aggregated ADD for every comment with buffered increments.
+	 * Increments that arrive while a flush is running are kept for the
+	 * next flush. Failed writes are put back into the buffer.
+	 */
+	public void flush() {
+		this.flushScheduled.set(false);
+
+		Iterator<Map.Entry<String, AtomicLong>> entries = this.pending.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<String, AtomicLong> entry = entries.next();
+			String commentId = entry.getKey();
+			AtomicLong counter = entry.getValue();
+
+			long amount = counter.getAndSet(0);
+			if (amount == 0) {
+				// Idle since the last flush, retire the counter so that the
+				// map does not grow without bound. Writers that observe the
+				// retired marker re-create the counter.
+				if (counter.compareAndSet(0, RETIRED)) {
+					this.pending.remove(commentId, counter);
+				}
+				continue;
+			}
+			this.bufferedCnt.addAndGet(-amount);
+
+			try {
+				ChatterComment updated = this.sink.add(commentId, amount);
+				if (updated != null) {
+					this.remember(updated);
+				}
+				else {
+					// Comment no longer exists, drop the increments
+					this.snapshots.remove(commentId);
+				}
+			}
+			catch (RuntimeException re) {
+				// Keep the increments for the next flush
+				this.add(commentId, amount);
+				this.bufferedCnt.addAndGet(amount);
+			}
+		}
+	}
+
+	/**
+	 * Adds to the pending counter of the argument comment, re-creating the
+	 * counter if a concurrent flush retired it.
+	 * @return the pending amount after the add
+	 */
+	private long add(String commentId, long amount) {
+		while (true) {
+			AtomicLong counter = this.pending.get(commentId);
+			if (counter == null) {
+				AtomicLong created = new AtomicLong();
+				counter = this.pending.putIfAbsent(commentId, created);
+				if (counter == null) {
+					counter = created;
+				}
+			}
+
+			long current = counter.get();
+			if (current == RETIRED) {
+				this.pending.remove(commentId, counter);
+				continue;
+			}
+			if (counter.compareAndSet(current, current + amount)) {
+				return current + amount;
+			}
+		}
+	}
+
+	private void requestFlush() {
+		ScheduledExecutorService executor = this.flusher;
+		if (executor != null && this.flushScheduled.compareAndSet(false, true)) {
+			executor.execute(this::flush);
+		}
+	}
+
+	private void remember(ChatterComment comment) {
+		if (this.snapshots.size() >= MAX_SNAPSHOTS) {
+			this.snapshots.clear();
+		}
+		this.snapshots.put(comment.getCommentId(), comment);
+	}
+
+	private static ChatterComment copyWithCount(ChatterComment source, long concurCnt) {
+		ChatterComment copy = ModelCopies.comment(source, true);
+		copy.setConcurCnt((int) concurCnt);
+		return copy;
+	}
+}
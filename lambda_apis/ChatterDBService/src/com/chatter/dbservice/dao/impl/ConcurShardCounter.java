@@ -0,0 +1,250 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+
+/**
+ * ConcurShardCounter
+ * @author coreym
+ *
+ * Spreads concur count increments for a single comment across a fixed
+ * number of counter shards kept in the Chatter_Comment_Concur table.
+ * Each shard is a separate item keyed by '<comment_id>#<shard>', so a
+ * burst of increments on one comment no longer targets a single
+ * partition key.
+ *
+ * The true concur count of a comment is the concur_cnt stored on the
+ * comment item plus the sum of its shards. Increments write a single
+ * shard without reading anything; the total is only summed when the
+ * comment is loaded. Shards are periodically folded back into the
+ * comment item by consolidate().
+ */
+public class ConcurShardCounter {
+
+	// Table holding the counter shards
+	static final String SHARD_TABLE = "Chatter_Comment_Concur";
+
+	private final AmazonDynamoDBClient dbClient;
+	private final BatchItemExecutor batchExecutor;
+	private final String commentTable;
+	private final int shardCount;
+
+	/**
+	 * @param dbClient the DynamoDB client to use
+	 * @param batchExecutor the executor used for batch reads and deletes
+	 * @param commentTable the name of the table holding comment items
+	 * @param shardCount the number of shards per comment; a value below
+	 * 		  two disables sharding
+	 */
+	public ConcurShardCounter(AmazonDynamoDBClient dbClient, BatchItemExecutor batchExecutor,
+			String commentTable, int shardCount) {
+		this.dbClient = dbClient;
+		this.batchExecutor = batchExecutor;
+		this.commentTable = commentTable;
+		this.shardCount = shardCount;
+	}
+
+	/**
+	 * @return true if increments should be routed to counter shards
+	 */
+	public boolean isEnabled() {
+		return this.shardCount > 1;
+	}
+
+	/**
+	 * Reads the comment item together with all of its counter shards
+	 * in one BatchGetItem call.
+	 *
+	 * @param commentId the comment to read
+	 * @return the comment item attributes with concur_cnt replaced by the
+	 * total count, or NULL if the comment does not exist
+	 */
+	public Map<String, AttributeValue> loadWithTotal(String commentId) {
+		Map<String, KeysAndAttributes> requestItems = new HashMap<>();
+		requestItems.put(this.commentTable, new KeysAndAttributes()
+				.withKeys(Collections.singletonList(
+						Collections.singletonMap("comment_id", new AttributeValue(commentId)))));
+		requestItems.put(SHARD_TABLE, new KeysAndAttributes()
+				.withKeys(this.shardKeys(commentId)));
+
+		Map<String, List<Map<String, AttributeValue>>> responses =
+				this.batchExecutor.getItems(requestItems);
+		List<Map<String, AttributeValue>> comments = responses.get(this.commentTable);
+		if (comments == null || comments.isEmpty()) {
+			return null;
+		}
+
+		Map<String, AttributeValue> comment = comments.get(0);
+		long total = readCount(comment) + sum(responses.get(SHARD_TABLE));
+		comment.put("concur_cnt", new AttributeValue().withN(Long.toString(total)));
+		return comment;
+	}
+
+	/**
+	 * Sums the counter shards of each argument comment. The shards of
+	 * every comment are read together, in BatchGetItem calls of up to
+	 * 100 keys.
+	 *
+	 * @param commentIds the comments to sum
+	 * @return the sum of the shards of each comment that has any
+	 */
+	public Map<String, Long> sumShards(Collection<String> commentIds) {
+		List<String> shardKeys = new ArrayList<>(commentIds.size() * this.shardCount);
+		for (String commentId : commentIds) {
+			for (int i = 0; i < this.shardCount; i++) {
+				shardKeys.add(shardKey(commentId, i));
+			}
+		}
+
+		Map<String, Long> totals = new HashMap<>();
+		for (Map<String, AttributeValue> shard : this.batchExecutor.loadKeys(SHARD_TABLE,
+				"shard_key", shardKeys).values()) {
+			totals.merge(shard.get("comment_id").getS(), readCount(shard), Long::sum);
+		}
+		return totals;
+	}
+
+	/**
+	 * Adds to a randomly chosen shard of the argument comment with a
+	 * single UpdateItem call. Neither the comment item nor the other
+	 * shards are read, so concurrent increments only contend on their
+	 * shard. The caller is responsible for checking that the comment
+	 * exists; a shard written for a deleted comment is never counted.
+	 *
+	 * @param commentId the comment to increment
+	 * @param amount the amount to add
+	 */
+	public void increment(String commentId, long amount) {
+		int shard = ThreadLocalRandom.current().nextInt(this.shardCount);
+		this.dbClient.updateItem(new UpdateItemRequest()
+			.withTableName(SHARD_TABLE)
+			.withKey(Collections.singletonMap("shard_key",
+					new AttributeValue(shardKey(commentId, shard))))
+			.withUpdateExpression("SET comment_id = :cid ADD concur_cnt :inc")
+			.withExpressionAttributeValues(this.values(":cid", new AttributeValue(commentId),
+					":inc", new AttributeValue().withN(Long.toString(amount))))
+			.withReturnValues(ReturnValue.NONE));
+	}
+
+	/**
+	 * Folds every shard of the argument comment into the concur_cnt of the
+	 * comment item. Each shard is drained with a conditional decrement
+	 * before its value is added to the comment, so concurrent increments
+	 * landing on a shard during consolidation are never lost. If the
+	 * process dies between the two updates the drained amount is lost,
+	 * which undercounts rather than double counts.
+	 *
+	 * @param commentId the comment to consolidate
+	 * @return the amount moved from the shards to the comment item
+	 */
+	public long consolidate(String commentId) {
+		Map<String, KeysAndAttributes> requestItems = new HashMap<>();
+		requestItems.put(SHARD_TABLE, new KeysAndAttributes()
+				.withKeys(this.shardKeys(commentId)));
+		List<Map<String, AttributeValue>> shards =
+				this.batchExecutor.getItems(requestItems).get(SHARD_TABLE);
+
+		long moved = 0;
+		if (shards != null) {
+			for (Map<String, AttributeValue> shard : shards) {
+				long value = readCount(shard);
+				if (value <= 0) {
+					continue;
+				}
+
+				try {
+					// Drain the shard only if it still holds at least the amount read
+					this.dbClient.updateItem(new UpdateItemRequest()
+						.withTableName(SHARD_TABLE)
+						.withKey(Collections.singletonMap("shard_key", shard.get("shard_key")))
+						.withUpdateExpression("ADD concur_cnt :neg")
+						.withConditionExpression("concur_cnt >= :val")
+						.withExpressionAttributeValues(this.values(
+								":neg", new AttributeValue().withN(Long.toString(-value)),
+								":val", new AttributeValue().withN(Long.toString(value)))));
+					moved += value;
+				}
+				catch (ConditionalCheckFailedException ccfe) {
+					// Another consolidation drained this shard first
+				}
+			}
+		}
+
+		if (moved > 0) {
+			try {
+				this.dbClient.updateItem(new UpdateItemRequest()
+					.withTableName(this.commentTable)
+					.withKey(Collections.singletonMap("comment_id", new AttributeValue(commentId)))
+					.withUpdateExpression("ADD concur_cnt :inc")
+					.withConditionExpression("attribute_exists(comment_id)")
+					.withExpressionAttributeValues(Collections.singletonMap(":inc",
+							new AttributeValue().withN(Long.toString(moved)))));
+			}
+			catch (ConditionalCheckFailedException ccfe) {
+				// Comment was deleted; the drained shards are simply discarded
+				moved = 0;
+			}
+		}
+		return moved;
+	}
+
+	/**
+	 * Deletes every counter shard of the argument comment.
+	 * @param commentId the comment whose shards should be deleted
+	 */
+	public void deleteShards(String commentId) {
+		List<String> shardKeys = new ArrayList<>(this.shardCount);
+		for (int i = 0; i < this.shardCount; i++) {
+			shardKeys.add(shardKey(commentId, i));
+		}
+		this.batchExecutor.deleteKeys(SHARD_TABLE, "shard_key", shardKeys);
+	}
+
+	private List<Map<String, AttributeValue>> shardKeys(String commentId) {
+		List<Map<String, AttributeValue>> keys = new ArrayList<>(this.shardCount);
+		for (int i = 0; i < this.shardCount; i++) {
+			keys.add(Collections.singletonMap("shard_key",
+					new AttributeValue(shardKey(commentId, i))));
+		}
+		return keys;
+	}
+
+	private Map<String, AttributeValue> values(String name1, AttributeValue value1,
+			String name2, AttributeValue value2) {
+		Map<String, AttributeValue> values = new HashMap<>();
+		values.put(name1, value1);
+		values.put(name2, value2);
+		return values;
+	}
+
+	static String shardKey(String commentId, int shard) {
+		return commentId + "#" + shard;
+	}
+
+	private static long readCount(Map<String, AttributeValue> item) {
+		AttributeValue value = item.get("concur_cnt");
+		return value != null && value.getN() != null ? Long.parseLong(value.getN()) : 0;
+	}
+
+	private static long sum(List<Map<String, AttributeValue>> shards) {
+		long total = 0;
+		if (shards != null) {
+			for (Map<String, AttributeValue> shard : shards) {
+				total += readCount(shard);
+			}
+		}
+		return total;
+	}
+}
@@ -0,0 +1,249 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.util.PropertiesResolver;
+
+/**
+ * EntityCache
+ * @author coreym
+ *
+ * Bounded in-process read-through cache for items loaded by id. Entries
+ * expire after a fixed time to live and the least recently used entry is
+ * evicted once the cache is full. Items that were not found are cached
+ * too, with a shorter time to live, so repeated lookups of a missing id
+ * do not reach the database.
+ *
+ * The cache only sees writes made through this process. DAOs invalidate
+ * an entry after every write to its item, or apply the write to the entry
+ * with update() when they know its effect, and items changed elsewhere
+ * are picked up once their entry expires. A load that overlaps an
+ * invalidation is returned to its caller but not cached.
+ *
+ * Items are mutable model objects, so a cache given a copier with
+ * withCopier() returns a copy of the cached item from every load, and a
+ * caller changing it does not change what other callers are served.
+ * Without a copier the cached instance itself is returned, and callers
+ * must treat it as read-only.
+ *
+ * A cache created with a maximum size of zero is disabled and passes
+ * every load straight through to the loader.
+ */
+public class EntityCache<V> {
+
+	// Marks an item that was loaded and found not to exist
+	private static final Object NOT_FOUND = new Object();
+
+	private final int maxEntries;
+	private final long ttlMs;
+	private final long negativeTtlMs;
+	private final LongSupplier clock;
+	private final LinkedHashMap<String, Entry> entries;
+	private UnaryOperator<V> copier = UnaryOperator.identity();
+
+	// Bumped on every invalidation, see load()
+	private final AtomicLong invalidations = new AtomicLong();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param maxEntries the maximum number of cached items, zero disables the cache
+	 * @param ttlMs how long a loaded item is cached
+	 * @param negativeTtlMs how long a missing item is cached
+	 */
+	public EntityCache(int maxEntries, long ttlMs, long negativeTtlMs) {
+		this(maxEntries, ttlMs, negativeTtlMs, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param maxEntries the maximum number of cached items, zero disables the cache
+	 * @param ttlMs how long a loaded item is cached
+	 * @param negativeTtlMs how long a missing item is cached
+	 * @param clock source of the current time in milliseconds
+	 */
+	public EntityCache(int maxEntries, long ttlMs, long negativeTtlMs, LongSupplier clock) {
+		this.maxEntries = maxEntries;
+		this.ttlMs = ttlMs;
+		this.negativeTtlMs = negativeTtlMs;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				if (this.size() > EntityCache.this.maxEntries) {
+					EntityCache.this.evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Creates a cache configured by the <prefix>MaxEntries, <prefix>TtlMs
+	 * and <prefix>NegativeTtlMs service properties.
+	 *
+	 * @param propsResolver the service properties
+	 * @param prefix the property name prefix, e.g. forumCache
+	 * @return EntityCache
+	 * @throws PropertyRetrievalException
+	 */
+	public static <V> EntityCache<V> fromProperties(PropertiesResolver propsResolver,
+			String prefix) throws PropertyRetrievalException {
+		return new EntityCache<>(
+				Integer.parseInt(propsResolver.getProperty(prefix + "MaxEntries").trim()),
+				Long.parseLong(propsResolver.getProperty(prefix + "TtlMs").trim()),
+				Long.parseLong(propsResolver.getProperty(prefix + "NegativeTtlMs").trim()));
+	}
+
+	/**
+	 * Makes every load return a copy of the cached item.
+	 *
+	 * @param copier copies an item
+	 * @return this cache
+	 */
+	public EntityCache<V> withCopier(UnaryOperator<V> copier) {
+		this.copier = copier;
+		return this;
+	}
+
+	/**
+	 * Returns the cached item for the argument id, calling the loader
+	 * and caching its result when there is no live entry.
+	 *
+	 * @param id the item id
+	 * @param loader loads the item, returning NULL if it does not exist
+	 * @return the item, or a copy of it when the cache has a copier, or
+	 * NULL if it does not exist
+	 */
+	@SuppressWarnings("unchecked")
+	public V load(String id, Function<String, V> loader) {
+		if (this.maxEntries <= 0) {
+			return loader.apply(id);
+		}
+
+		long now = this.clock.getAsLong();
+		synchronized (this.entries) {
+			Entry entry = this.entries.get(id);
+			if (entry != null && entry.expiresAt > now) {
+				this.hits.incrementAndGet();
+				return entry.value == NOT_FOUND ? null : this.copier.apply((V) entry.value);
+			}
+		}
+		this.misses.incrementAndGet();
+
+		// Loaded outside the lock so a slow load does not block other ids
+		long invalidationsBefore = this.invalidations.get();
+		V value = loader.apply(id);
+
+		synchronized (this.entries) {
+			// Skip caching when a write may have raced with this load
+			if (this.invalidations.get() == invalidationsBefore) {
+				this.entries.put(id, value != null
+						? new Entry(value, now + this.ttlMs)
+						: new Entry(NOT_FOUND, now + this.negativeTtlMs));
+			}
+		}
+		return value != null ? this.copier.apply(value) : null;
+	}
+
+	/**
+	 * Drops the entry for the argument id. Called after this process
+	 * writes to the item.
+	 *
+	 * @param id the item id
+	 */
+	public void invalidate(String id) {
+		if (this.maxEntries <= 0) {
+			return;
+		}
+		synchronized (this.entries) {
+			this.invalidations.incrementAndGet();
+			this.entries.remove(id);
+		}
+	}
+
+	/**
+	 * Applies a write this process made to an item to its live entry, so
+	 * that later loads see the write without reloading the item. The
+	 * entry keeps its expiry. Nothing is cached when there is no live
+	 * entry, and a load that overlaps the update is not cached.
+	 *
+	 * @param id the item id
+	 * @param change applies the write to a copy of the cached item
+	 */
+	@SuppressWarnings("unchecked")
+	public void update(String id, UnaryOperator<V> change) {
+		if (this.maxEntries <= 0) {
+			return;
+		}
+		long now = this.clock.getAsLong();
+		synchronized (this.entries) {
+			this.invalidations.incrementAndGet();
+			Entry entry = this.entries.get(id);
+			if (entry != null && entry.expiresAt > now && entry.value != NOT_FOUND) {
+				this.entries.put(id, new Entry(change.apply(this.copier.apply((V) entry.value)),
+						entry.expiresAt));
+			}
+		}
+	}
+
+	/**
+	 * Drops the entries for every argument id.
+	 *
+	 * @param ids the item ids
+	 */
+	public void invalidateAll(Iterable<String> ids) {
+		for (String id : ids) {
+			this.invalidate(id);
+		}
+	}
+
+	/**
+	 * @return the number of loads answered from the cache
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * @return the number of loads that called the loader
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * @return the number of entries evicted to stay within the size limit
+	 */
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+	/**
+	 * @return the number of entries currently held, including expired ones
+	 */
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	private static final class Entry {
+		private final Object value;
+		private final long expiresAt;
+
+		private Entry(Object value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
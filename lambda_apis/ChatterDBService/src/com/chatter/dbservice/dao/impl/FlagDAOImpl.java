@@ -1,16 +1,13 @@
 package com.chatter.dbservice.dao.impl;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
-import com.amazonaws.services.dynamodbv2.datamodeling.KeyPair;
+import com.chatter.dbservice.dao.DAORegistry;
 import com.chatter.dbservice.dao.FlagDAO;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 import com.chatter.dbservice.exceptions.RequestValidationException;
@@ -31,19 +28,28 @@ public class FlagDAOImpl implements FlagDAO{
 	private AmazonDynamoDBClient dbClient;
 	private PropertiesResolver propsResolver;
 	private DynamoDBMapper dbMapper;
+	private BatchItemExecutor batchExecutor;
 	
-	public FlagDAOImpl() throws PropertyRetrievalException{
-		// Create DynamoDB client
-		dbClient = new AmazonDynamoDBClient();
-		
-		// Set DB end-point from properties file
-		propsResolver = new PropertiesResolver("service.properties");
-		dbClient.setEndpoint(propsResolver.getProperty("aws.dynamodb.endpoint"));
-		
-		// Create DB mapper
-		dbMapper = new DynamoDBMapper(dbClient);
+	/**
+	 * Creates a DAO backed by the DynamoDB client shared through
+	 * the DAORegistry.
+	 * @throws PropertyRetrievalException
+	 */
+	public FlagDAOImpl() throws PropertyRetrievalException {
+		this(DAORegistry.getInstance().getPropertiesResolver(),
+				DAORegistry.getInstance().getDBClient(),
+				DAORegistry.getInstance().getDBMapper(),
+				DAORegistry.getInstance().getBatchExecutor());
 	}
 	
+	public FlagDAOImpl(PropertiesResolver propsResolver, AmazonDynamoDBClient dbClient,
+			DynamoDBMapper dbMapper, BatchItemExecutor batchExecutor) {
+		this.propsResolver = propsResolver;
+		this.dbClient = dbClient;
+		this.dbMapper = dbMapper;
+		this.batchExecutor = batchExecutor;
+	}
+
 	/**
 	 * Create and save a new Chatter Flag object to the database
 	 * 
@@ -62,10 +68,10 @@ public class FlagDAOImpl implements FlagDAO{
 		
 		// Create Chatter Flag object using request parameters
 		ChatterFlag flag = new ChatterFlag();
-		flag.setCreatedBy((String) req.getArgs().get("createdBy"));
-		flag.setForumId((String) req.getArgs().get("forumId"));
-		flag.setCommentId((String) req.getArgs().get("commentId"));
-		flag.setFlagDescription((String) req.getArgs().get("flagDescription"));
+		flag.setCreatedBy(req.getArgs().getCreatedBy());
+		flag.setForumId(req.getArgs().getForumId());
+		flag.setCommentId(req.getArgs().getCommentId());
+		flag.setFlagDescription(req.getArgs().getFlagDescription());
 		flag.setTimeStamp(new Date().getTime());
 		
 		// Save ChatterFlag to DB
@@ -91,7 +97,7 @@ public class FlagDAOImpl implements FlagDAO{
 		
 		// Attempt to retrieve Chatter Flag object from DB
 		ChatterFlag flag = null;
-		flag = dbMapper.load(ChatterFlag.class, (String) req.getArgs().get("flagId"));
+		flag = dbMapper.load(ChatterFlag.class, req.getArgs().getFlagId());
 		return flag;
 	}
 	
@@ -115,11 +121,11 @@ public class FlagDAOImpl implements FlagDAO{
 		boolean flagChanged = false;
 		
 		// Attempt to retrieve requested Chatter Flag object from DB
-		flag = dbMapper.load(ChatterFlag.class, (String) req.getArgs().get("flagId"));
+		flag = dbMapper.load(ChatterFlag.class, req.getArgs().getFlagId());
 		
 		// Attempt to update Chatter Flag object
 		if (flag != null) {
-			String descUpdate = (String) req.getArgs().get("flagDescriptionUpdate");
+			String descUpdate = req.getArgs().getFlagDescriptionUpdate();
 			if (descUpdate != null && !descUpdate.isEmpty()) {
 				flag.setFlagDescription(descUpdate);
 				flagChanged = true;
@@ -154,7 +160,7 @@ public class FlagDAOImpl implements FlagDAO{
 		
 		// Attempt to retrieve requested Chatter Flag object from DB
 		ChatterFlag flag = dbMapper.load(ChatterFlag.class, 
-				(String) req.getArgs().get("flagId"));
+				req.getArgs().getFlagId());
 		
 		// If Chatter Flag successfully retrieved delete it
 		if (flag != null) {
@@ -166,7 +172,8 @@ public class FlagDAOImpl implements FlagDAO{
 	}
 	
 	/**
-	 * Retrieve a batch of Flag objects from the database
+	 * Retrieve a batch of Flag objects from the database. Flags that
+	 * do not exist are left out of the returned list.
 	 * 
 	 * @param req the Request to process
 	 * @return List of ChatterFlag objects
@@ -174,7 +181,6 @@ public class FlagDAOImpl implements FlagDAO{
 	 * @throws AmazonClientException
 	 * @throws RequestValidationException
 	 */
-	@SuppressWarnings("unchecked")
 	public List<ChatterFlag> batchRetrieveFlag(FlagCRUDRequest req) throws
 		AmazonServiceException, AmazonClientException,
 		RequestValidationException {
@@ -182,41 +188,26 @@ public class FlagDAOImpl implements FlagDAO{
 		// Validate incoming request
 		FlagCRUDRequestValidator.validateBatchRetrieveFlagRequest(req);
 		
-		// Initialize list of results
-		List<ChatterFlag> flagResults = null;
-		
-		// Create arguments for batch load function
-		List<String> flagIds = (List<String>) req.getArgs().get("flagIds");
-		Map<Class<?>, List<KeyPair>> primaryKeyMap = new HashMap<>();
-		primaryKeyMap.put(ChatterFlag.class, this.generateHashKeyPairList(flagIds));
-		
-		// Attempt to retrieve Chatter Flag objects from database
-		Map<String, List<Object>> flagData = dbMapper.batchLoad(primaryKeyMap);
-		
-		if (flagData != null) {
-			// Need to cast object to ChatterFlag and add to 
-			// list to return.
-			flagResults = new ArrayList<>();
-			List<Object> objectResults = flagData.get("Chatter_Flag");
-			for (Object object : objectResults) {
-				ChatterFlag flag = (ChatterFlag) object;
-				flagResults.add(flag);
-			}
-		}
+		// Load flags in parallel chunks, results are in request order
+		List<String> flagIds = req.getArgs().getFlagIds();
+		List<ChatterFlag> flagResults = this.batchExecutor.batchLoad(
+				ChatterFlag.class, "flag_id", flagIds);
 		
 		return flagResults;
 	}
 	
 	/**
-	 * Delete a batch of Chatter Flag objects from the database
+	 * Delete a batch of Chatter Flag objects from the database. Flags
+	 * are deleted by key without being read first. When the optional
+	 * reportDeleted argument is true only the ids of flags that existed
+	 * are returned, otherwise every requested id is returned.
 	 * 
 	 * @param req the Request to process
-	 * @return a list of ChatterFlag ids that were successfully deleted
+	 * @return a list of ChatterFlag ids that were deleted
 	 * @throws AmazonServiceException
 	 * @throws AmazonClientException
 	 * @throws RequestValidationException
 	 */
-	@SuppressWarnings("unchecked")
 	public List<String> batchDeleteFlag(FlagCRUDRequest req) throws
 		AmazonServiceException, AmazonClientException,
 		RequestValidationException {
@@ -224,38 +215,12 @@ public class FlagDAOImpl implements FlagDAO{
 		// Validate incoming request
 		FlagCRUDRequestValidator.validateBatchRetrieveFlagRequest(req);
 		
-		// Initialize result lists
-		List<String> resultFlagIds = null;
-		List<ChatterFlag> flagResults = null;
-		
-		// Create batch load arguments
-		List<String> flagIds = (List<String>) req.getArgs().get("flagIds");
-		Map<Class<?>, List<KeyPair>> primaryKeyMap = new HashMap<>();
-		primaryKeyMap.put(ChatterFlag.class, this.generateHashKeyPairList(flagIds));
-		
-		// Attempt to retrieve Chatter Flag objects from database
-		Map<String, List<Object>> flagData = dbMapper.batchLoad(primaryKeyMap);
-		
-		if (flagData != null) {
-			// Need to cast object to ChatterFlag and add to 
-			// list to return.
-			flagResults = new ArrayList<>();
-			List<Object> objectResults = flagData.get("Chatter_Flag");
-			for (Object object : objectResults) {
-				ChatterFlag flag = (ChatterFlag) object;
-				flagResults.add(flag);
-			}
-			
-			if (flagResults.size() > 0) {
-				dbMapper.batchDelete(flagResults);
-				resultFlagIds = new ArrayList<>();
-				for (ChatterFlag flag : flagResults) {
-					resultFlagIds.add(flag.getFlagId());
-				}
-			}
+		List<String> flagIds = req.getArgs().getFlagIds();
+		if (Boolean.TRUE.equals(req.getArgs().getReportDeleted())) {
+			return this.batchExecutor.deleteReportingExisting(ChatterFlag.class,
+					"flag_id", flagIds);
 		}
-		
-		return resultFlagIds;
+		return this.batchExecutor.batchDelete(ChatterFlag.class, "flag_id", flagIds);
 	}
 	
 	/**
@@ -269,19 +234,4 @@ public class FlagDAOImpl implements FlagDAO{
 				this.propsResolver.getProperty("service.description"),
 				this.propsResolver.getProperty("service.version"));
 	}
-	
-	/**
-	 * Generate a list of key pairs from the argument list of
-	 * hash keys.
-	 * @param hashKeys
-	 * @return
-	 */
-	private List<KeyPair> generateHashKeyPairList(List<String> hashKeys) {
-		List<KeyPair> keyPairs = new ArrayList<>();
-		for (String hashKey : hashKeys) {
-			keyPairs.add(new KeyPair().withHashKey(hashKey));
-		}
-		
-		return keyPairs;
-	}
 }
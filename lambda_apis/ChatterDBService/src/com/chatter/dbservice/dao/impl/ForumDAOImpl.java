@@ -1,27 +1,39 @@
 package com.chatter.dbservice.dao.impl;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.chatter.dbservice.dao.DAORegistry;
 import com.chatter.dbservice.dao.ForumDAO;
 import com.chatter.dbservice.exceptions.RequestValidationException;
 import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.ForumArgs;
 import com.chatter.dbservice.requests.ForumCRUDRequest;
 import com.chatter.dbservice.requests.validators.ForumCRUDRequestValidator;
 import com.chatter.dbservice.responses.ForumResultPage;
 import com.chatter.dbservice.responses.ServicePropsResponse;
+import com.chatter.dbservice.util.PageCursor;
 import com.chatter.dbservice.util.PropertiesResolver;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 
@@ -32,20 +44,48 @@ import com.chatter.dbservice.exceptions.PropertyRetrievalException;
  * Provides data access methods for Chatter Forum data
  */
 public class ForumDAOImpl implements ForumDAO{
+	// Name of the table ChatterForum objects are mapped to
+	private static final String FORUM_TABLE = 
+			ChatterForum.class.getAnnotation(DynamoDBTable.class).tableName();
+	
 	private AmazonDynamoDBClient dbClient;
 	private PropertiesResolver propsResolver;
 	private DynamoDBMapper dbMapper;
+	private BatchItemExecutor batchExecutor;
+	private PageCursor pageCursor;
+	private EntityCache<ChatterForum> forumCache;
+	private ForumMembers forumMembers;
 	
-	public ForumDAOImpl() throws PropertyRetrievalException{
-		//Create DynamoDB client
-		dbClient = new AmazonDynamoDBClient();
-		
-		//Set DB end-point from properties file
-		propsResolver = new PropertiesResolver("service.properties");
-		dbClient.setEndpoint(propsResolver.getProperty("aws.dynamodb.endpoint"));
-		
-		//Create DB mapper object
-		dbMapper = new DynamoDBMapper(dbClient);
+	/**
+	 * Creates a DAO backed by the DynamoDB client shared through
+	 * the DAORegistry.
+	 * @throws PropertyRetrievalException
+	 */
+	public ForumDAOImpl() throws PropertyRetrievalException {
+		this(DAORegistry.getInstance().getPropertiesResolver(),
+				DAORegistry.getInstance().getDBClient(),
+				DAORegistry.getInstance().getDBMapper(),
+				DAORegistry.getInstance().getBatchExecutor());
+	}
+	
+	public ForumDAOImpl(PropertiesResolver propsResolver, AmazonDynamoDBClient dbClient,
+			DynamoDBMapper dbMapper, BatchItemExecutor batchExecutor)
+					throws PropertyRetrievalException {
+		this.propsResolver = propsResolver;
+		this.dbClient = dbClient;
+		this.dbMapper = dbMapper;
+		this.batchExecutor = batchExecutor;
+		this.pageCursor = PageCursor.fromProperties(propsResolver);
+		this.forumCache = EntityCache.<ChatterForum>fromProperties(propsResolver, "forumCache")
+				.withCopier(ModelCopies::forum);
+		this.forumMembers = new ForumMembers(dbClient, batchExecutor);
+	}
+	
+	/**
+	 * @return the cache serving forum loads by id
+	 */
+	public EntityCache<ChatterForum> getForumCache() {
+		return this.forumCache;
 	}
 
 	/**
@@ -66,13 +106,14 @@ public class ForumDAOImpl implements ForumDAO{
 		
 		//Create ChatterForum object using request parameters
 		ChatterForum forum = new ChatterForum();
-		forum.setCreatedBy((String) req.getArgs().get("createdBy"));
-		forum.setTitle((String) req.getArgs().get("title"));
+		forum.setCreatedBy(req.getArgs().getCreatedBy());
+		forum.setTitle(req.getArgs().getTitle());
 		forum.setTimeStamp(new Date().getTime());
-		forum.setCommentIds(null);
+		forum.setCommentCnt(0);
 		
 		//Save ChatterForum object to DB
 		dbMapper.save(forum);
+		this.forumCache.invalidate(forum.getForumId());
 		return forum;
 	}
 	
@@ -92,10 +133,8 @@ public class ForumDAOImpl implements ForumDAO{
 		// Validate incoming request
 		ForumCRUDRequestValidator.validateRetrieveForumRequest(req);
 		
-		//Attempt to retrieve Forum object from DB
-		ChatterForum forum = null;
-		forum = dbMapper.load(ChatterForum.class, (String) req.getArgs().get("forumId"));
-		return forum;
+		//Attempt to retrieve Forum object from the cache or DB
+		return this.loadForum(req.getArgs().getForumId());
 	}
 	
 	/**
@@ -114,28 +153,35 @@ public class ForumDAOImpl implements ForumDAO{
 		// Validate incoming request
 		ForumCRUDRequestValidator.validateRetrieveForumRequest(req);
 		
-		// Attempt to retrieve requested Forum instance from DB
-		ChatterForum forum = dbMapper.load(ChatterForum.class, 
-				(String) req.getArgs().get("forumId"));
+		String forumId = req.getArgs().getForumId();
+		String titleUpdate = req.getArgs().getTitleUpdate();
 		
-		// Attempt to update Forum object if retrieval was successful
-		if(forum != null) {
-			if (req.getArgs().get("titleUpdate") != null) {
-				forum.setTitle((String) req.getArgs().get("titleUpdate"));
-			}
-			dbMapper.save(forum);
+		// Nothing to update, return the Forum object as is
+		if (titleUpdate == null) {
+			return this.loadForum(forumId);
 		}
-		return forum;
+		
+		// Update the title in place so that a concurrent comment count
+		// update is never overwritten by a full item save
+		return this.updateAttributes(forumId, "SET title = :title", null,
+				Collections.singletonMap(":title", new AttributeValue(titleUpdate)));
 	}
 	
 	/**
-	 * Adds a comment id to the set of comment ids for a Forum object
+	 * Increments the comment count of a Forum object. Comments belonging
+	 * to a Forum are found through the ChatterComment forum_time_index, so
+	 * only the count is kept on the Forum item. The comment is recorded
+	 * in ForumMembers first, so a repeated request for the same comment
+	 * is counted once. If the process stops between the two writes the
+	 * comment is recorded but not counted, which undercounts rather than
+	 * double counts.
 	 * 
 	 * @param Request request containing data for object update
 	 * @throws RequestValidationException
 	 * @throws AmazonServiceException
 	 * @throws AmazonClientException
-	 * @return ChatterForum the updated Forum object
+	 * @return ChatterForum the updated Forum object or NULL if the forum
+	 * does not exist
 	 */
 	@Override
 	public ChatterForum addCommentToForum(ForumCRUDRequest req) throws
@@ -144,31 +190,44 @@ public class ForumDAOImpl implements ForumDAO{
 		// Validate incoming request
 		ForumCRUDRequestValidator.validateCommentRequest(req);
 		
-		// Attempt to retrieve Forum object from DB
-		ChatterForum forum = dbMapper.load(ChatterForum.class, 
-				(String) req.getArgs().get("forumId"));
+		String forumId = req.getArgs().getForumId();
+		String commentId = req.getArgs().getCommentId();
+		if (!this.forumMembers.add(forumId, commentId)) {
+			// Already counted, return the forum as is
+			return dbMapper.load(ChatterForum.class, forumId);
+		}
 		
-		// Attempt to add comment to Forum object if retrieval was successful
-		if (forum != null) {
-			Set<String> commentIds = forum.getCommentIds();
-			if (commentIds == null) {
-				commentIds = new HashSet<String>();
+		// Undo the record if the count cannot be updated
+		try {
+			ChatterForum forum = this.updateCommentCnt(forumId, commentId, 1, null);
+			if (forum == null) {
+				this.forumMembers.remove(forumId, commentId);
 			}
-			commentIds.add((String) req.getArgs().get("commentId"));
-			forum.setCommentIds(commentIds);
-			dbMapper.save(forum);
+			return forum;
+		}
+		catch (RuntimeException re) {
+			try {
+				this.forumMembers.remove(forumId, commentId);
+			}
+			catch (RuntimeException compensationFailure) {
+				re.addSuppressed(compensationFailure);
+			}
+			throw re;
 		}
-		return forum;
 	}
 	
 	/**
-	 * Removes a comment id to the set of comment ids for a Forum object
+	 * Decrements the comment count of a Forum object. Only a comment
+	 * recorded in ForumMembers is uncounted, so a repeated request for
+	 * the same comment is applied once. The count is never decremented
+	 * below zero.
 	 * 
 	 * @param Request request containing data for object update
 	 * @throws RequestValidationException
 	 * @throws AmazonServiceException
 	 * @throws AmazonClientException
-	 * @return ChatterForum the updated Forum object
+	 * @return ChatterForum the updated Forum object or NULL if the forum
+	 * does not exist
 	 */
 	@Override
 	public ChatterForum removeCommentFromForum(ForumCRUDRequest req) throws
@@ -177,29 +236,112 @@ public class ForumDAOImpl implements ForumDAO{
 		// Validate incoming request
 		ForumCRUDRequestValidator.validateCommentRequest(req);
 		
-		// Attempt to retrieve Forum object from DB
-		ChatterForum forum = dbMapper.load(ChatterForum.class,
-				(String) req.getArgs().get("forumId"));
-		
-		// Attempt to add comment to Forum object if retrieval was successful
-		if (forum != null) {
-			Set<String> commentIds = forum.getCommentIds();
-			commentIds.remove((String) req.getArgs().get("commentId"));
-			
-			// If the resultant list is now empty, null the reference to it
-			if(commentIds.isEmpty()) {
-				forum.setCommentIds(null);
+		String forumId = req.getArgs().getForumId();
+		String commentId = req.getArgs().getCommentId();
+		boolean counted = this.forumMembers.remove(forumId, commentId);
+		if (!counted) {
+			// The comment may still be in the comment_ids of an older forum
+			Set<String> legacyIds = this.seedCommentCnt(forumId);
+			counted = legacyIds != null && legacyIds.contains(commentId)
+					&& this.forumMembers.remove(forumId, commentId);
+		}
+		
+		ChatterForum forum = null;
+		if (counted) {
+			forum = this.updateCommentCnt(forumId, commentId, -1, "comment_cnt > :zero");
+		}
+		
+		// Comment was not counted, count was already zero or forum does
+		// not exist, return as is
+		if (forum == null) {
+			forum = dbMapper.load(ChatterForum.class, forumId);
+		}
+		return forum;
+	}
+	
+	/**
+	 * Adds to the comment count of a forum. Forums written before comment
+	 * counts were introduced hold a comment_ids set instead; such a forum
+	 * is seeded on first touch and the update is then retried.
+	 * 
+	 * @param forumId the forum to update
+	 * @param commentId the comment being counted or uncounted
+	 * @param delta the amount to add
+	 * @param condition an additional condition, may be NULL
+	 * @return the updated forum or NULL if the forum does not exist or
+	 * the condition failed
+	 */
+	private ChatterForum updateCommentCnt(String forumId, String commentId, int delta,
+			String condition) {
+		Map<String, AttributeValue> values = new HashMap<>();
+		values.put(":delta", new AttributeValue().withN(Integer.toString(delta)));
+		if (condition != null) {
+			values.put(":zero", new AttributeValue().withN("0"));
+		}
+		String fullCondition = "attribute_not_exists(comment_ids)"
+				+ (condition != null ? " AND " + condition : "");
+		
+		ChatterForum forum = this.updateAttributes(forumId, "ADD comment_cnt :delta",
+				fullCondition, values);
+		if (forum == null) {
+			Set<String> legacyIds = this.seedCommentCnt(forumId);
+			if (legacyIds == null) {
+				return null;
 			}
-			else {
-				forum.setCommentIds(commentIds);
+			if (delta > 0 && legacyIds.contains(commentId)) {
+				// Already counted in the seeded count
+				return dbMapper.load(ChatterForum.class, forumId);
 			}
-			
-			// Save updated Forum object
-			dbMapper.save(forum);
+			forum = this.updateAttributes(forumId, "ADD comment_cnt :delta", fullCondition, values);
 		}
 		return forum;
 	}
 	
+	/**
+	 * Moves the comment_ids set of a forum written before comment counts
+	 * were introduced into ForumMembers and sets comment_cnt to its size.
+	 * The set is removed with a condition that it still exists, so only
+	 * one of several concurrent seeds sets the count.
+	 * 
+	 * @param forumId the forum to seed
+	 * @return the comment ids that were in the set, an empty set if the
+	 * forum has no set, or NULL if the forum does not exist
+	 */
+	private Set<String> seedCommentCnt(String forumId) {
+		Map<String, AttributeValue> item = this.dbClient.getItem(new GetItemRequest()
+				.withTableName(FORUM_TABLE)
+				.withKey(Collections.singletonMap("forum_id", new AttributeValue(forumId)))
+				.withProjectionExpression("forum_id, comment_ids")
+				.withConsistentRead(true)).getItem();
+		if (item == null || item.isEmpty()) {
+			return null;
+		}
+		
+		AttributeValue commentIds = item.get("comment_ids");
+		if (commentIds == null || commentIds.getSS() == null) {
+			return Collections.emptySet();
+		}
+		
+		Set<String> legacyIds = new HashSet<>(commentIds.getSS());
+		this.forumMembers.addAll(forumId, legacyIds);
+		try {
+			this.dbClient.updateItem(new UpdateItemRequest()
+				.withTableName(FORUM_TABLE)
+				.withKey(Collections.singletonMap("forum_id", new AttributeValue(forumId)))
+				.withUpdateExpression("SET comment_cnt = :cnt REMOVE comment_ids")
+				.withConditionExpression("attribute_exists(comment_ids)")
+				.withExpressionAttributeValues(Collections.singletonMap(":cnt",
+						new AttributeValue().withN(Integer.toString(legacyIds.size())))));
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			// Another request seeded the forum first
+		}
+		finally {
+			this.forumCache.invalidate(forumId);
+		}
+		return legacyIds;
+	}
+	
 	/**
 	 * Queries the ChatterForum DB table using the global secondary
 	 * index attribute (createdBy). Results are returned in pages of
@@ -216,56 +358,25 @@ public class ForumDAOImpl implements ForumDAO{
 		// Validate incoming request
 		ForumCRUDRequestValidator.validateQueryByCreatorRequest(req);
 		
-		ForumResultPage forumResultPage = null;
-		QueryResultPage<ChatterForum> resultPage = null;
 		Condition sortKeyCond = null;
 		
-		String creator = (String) req.getArgs().get("createdBy");
-		String timeStampFrom = (String) req.getArgs().get("timeStampFrom");
-		String timeStampTo = (String) req.getArgs().get("timeStampTo");
-		String exclusiveStartId = (String) req.getArgs().get("exclusiveStartId");
-		String exclusiveStartCreator = (String) req.getArgs().get("exclusiveStartCreator");
-		String exclusiveStartTimeStamp = (String) req.getArgs().get("exclusiveStartTimeStamp");
-		Map<String, AttributeValue> exclusiveStartKey = null;
-		
-		// Check to see if an exclusive start value was included in request
-		if (exclusiveStartId != null && !exclusiveStartId.isEmpty()
-				&& exclusiveStartCreator != null && !exclusiveStartCreator.isEmpty()
-				&& exclusiveStartTimeStamp != null && !exclusiveStartTimeStamp.isEmpty()) {
-			
-			// Need to create an attribute value and exclusiveStartKey
-			AttributeValue forumIdAtt = new AttributeValue();
-			forumIdAtt.setS(exclusiveStartId);
-			
-			AttributeValue creatorAtt = new AttributeValue();
-			creatorAtt.setS(exclusiveStartCreator);
-			
-			AttributeValue timeStampAtt = new AttributeValue();
-			timeStampAtt.setN(exclusiveStartTimeStamp);
-			
-			exclusiveStartKey = new HashMap<>();
-			exclusiveStartKey.put("forum_id", forumIdAtt);
-			exclusiveStartKey.put("created_by", creatorAtt);
-			exclusiveStartKey.put("time_stamp", timeStampAtt);
-		}
+		String creator = req.getArgs().getCreatedBy();
+		Long timeStampFrom = req.getArgs().getTimeStampFrom();
+		Long timeStampTo = req.getArgs().getTimeStampTo();
 		
 		// Check to see if sort key values were included in request
 		if (timeStampFrom != null && timeStampTo != null) {
 			sortKeyCond = new Condition()
 				.withComparisonOperator(ComparisonOperator.BETWEEN.toString())
-				.withAttributeValueList(new AttributeValue().withN(timeStampFrom), 
-						new AttributeValue().withN(timeStampTo));
+				.withAttributeValueList(new AttributeValue().withN(timeStampFrom.toString()), 
+						new AttributeValue().withN(timeStampTo.toString()));
 		}
 		
 		ChatterForum forum = new ChatterForum();
 		forum.setCreatedBy(creator);
 		
 		//Create query expression and set properties
-		DynamoDBQueryExpression<ChatterForum> query = new DynamoDBQueryExpression<>();
-		query.setHashKeyValues(forum);
-		query.setIndexName("created_by_index");
-		query.setLimit(Integer.parseInt(propsResolver.getProperty("queryLimit")));
-		query.setConsistentRead(false);
+		DynamoDBQueryExpression<ChatterForum> query = this.newIndexQuery(forum, "created_by_index");
 		
 		// Set index range key condition if applicable
 		if (sortKeyCond != null) {
@@ -274,21 +385,7 @@ public class ForumDAOImpl implements ForumDAO{
 			query.setRangeKeyConditions(cond);
 		}
 		
-		//Set exclusive start key
-		if (exclusiveStartKey != null) {
-			query.setExclusiveStartKey(exclusiveStartKey);
-		}
-		
-		resultPage = dbMapper.queryPage(ChatterForum.class, query);
-		
-		if (resultPage != null) {
-			forumResultPage = new ForumResultPage(
-					resultPage.getResults(),
-					resultPage.getLastEvaluatedKey(),
-					resultPage.getCount());
-		}
-		
-		return forumResultPage;
+		return this.runQuery(query, creator, req.getArgs());
 	}
 	
 	/**
@@ -307,54 +404,28 @@ public class ForumDAOImpl implements ForumDAO{
 		// Validate incoming request
 		ForumCRUDRequestValidator.validateQueryByTitleRequest(req);
 		
-		ForumResultPage forumResultPage = null;
-		QueryResultPage<ChatterForum> queryResultPage = null;
-		String title = (String) req.getArgs().get("title");
-		String exclusiveStartId = (String) req.getArgs().get("exclusiveStartId");
-		String exclusiveStartTitle = (String) req.getArgs().get("exclusiveStartTitle");
-		Map<String, AttributeValue> exclusiveStartKey = null;
-		
-		// Check if exclusive start values are in request
-		if (exclusiveStartId != null && !exclusiveStartId.isEmpty()
-				&& exclusiveStartTitle != null && !exclusiveStartTitle.isEmpty()) {
-			
-			// ID AttributeValue
-			AttributeValue idAttVal = new AttributeValue();
-			idAttVal.setS(exclusiveStartId);
-			
-			// Title AttributeValue
-			AttributeValue titleAttVal = new AttributeValue();
-			titleAttVal.setS(exclusiveStartTitle);
-			
-			exclusiveStartKey = new HashMap<>();
-			exclusiveStartKey.put("forum_id", idAttVal);
-			exclusiveStartKey.put("title", titleAttVal);
-		}
+		String title = req.getArgs().getTitle();
 		
 		ChatterForum forum = new ChatterForum();
 		forum.setTitle(title);
 		
 		//Create DB query expression and set properties
-		DynamoDBQueryExpression<ChatterForum> query = new DynamoDBQueryExpression<>();
-		query.setHashKeyValues(forum);
-		query.setIndexName("title_index");
-		query.setLimit(Integer.parseInt(propsResolver.getProperty("queryLimit")));
-		query.setConsistentRead(false);
-		
-		//Set exclusive start key
-		if (exclusiveStartKey != null) {
-			query.setExclusiveStartKey(exclusiveStartKey);
-		}
+		DynamoDBQueryExpression<ChatterForum> query = this.newIndexQuery(forum, "title_index");
 		
-		queryResultPage = dbMapper.queryPage(ChatterForum.class, query);
-		
-		if (queryResultPage != null) {
-			forumResultPage = new ForumResultPage(
-					queryResultPage.getResults(),
-					queryResultPage.getLastEvaluatedKey(),
-					queryResultPage.getCount());
-		}
-		return forumResultPage;
+		return this.runQuery(query, title, req.getArgs());
+	}
+	
+	/**
+	 * Lazily iterates over every forum created by the argument creator.
+	 * Pages are prefetched while earlier results are consumed.
+	 */
+	@Override
+	public QueryPageIterator<ChatterForum> iterateByCreator(String createdBy)
+			throws PropertyRetrievalException {
+		ChatterForum forum = new ChatterForum();
+		forum.setCreatedBy(createdBy);
+		return new QueryPageIterator<>(dbMapper, ChatterForum.class,
+				this.newIndexQuery(forum, "created_by_index"), this.batchExecutor, -1);
 	}
 	
 	/**
@@ -375,16 +446,118 @@ public class ForumDAOImpl implements ForumDAO{
 		// Attempt to retrieve requested forum instance to delete
 		boolean opSuccess = false;
 		ChatterForum forumToDelete = dbMapper.load(ChatterForum.class,
-				req.getArgs().get("forumId"));
+				req.getArgs().getForumId());
 		
 		if (forumToDelete != null) {
 			// Attempt to delete forum instance
 			dbMapper.delete(forumToDelete);
+			this.forumCache.invalidate(forumToDelete.getForumId());
 			opSuccess = true;
 		}
 		return opSuccess;
 	}
 	
+	/**
+	 * Loads a forum through the forum cache.
+	 * @param forumId the forum to load
+	 * @return the forum or NULL if the forum does not exist
+	 */
+	private ChatterForum loadForum(String forumId) {
+		return this.forumCache.load(forumId, id -> dbMapper.load(ChatterForum.class, id));
+	}
+	
+	/**
+	 * Creates a query against the argument global secondary index using
+	 * the configured page size.
+	 * @param hashKeyValues forum holding the index hash key value
+	 * @param indexName the index to query
+	 * @return DynamoDBQueryExpression
+	 */
+	private DynamoDBQueryExpression<ChatterForum> newIndexQuery(ChatterForum hashKeyValues,
+			String indexName) throws PropertyRetrievalException {
+		DynamoDBQueryExpression<ChatterForum> query = new DynamoDBQueryExpression<>();
+		query.setHashKeyValues(hashKeyValues);
+		query.setIndexName(indexName);
+		query.setLimit(Integer.parseInt(propsResolver.getProperty("queryLimit")));
+		query.setConsistentRead(false);
+		return query;
+	}
+	
+	/**
+	 * Runs a forum query starting from the optional cursor argument.
+	 * A single page of results is returned unless the request contains a
+	 * maxResults argument, in which case pages are read until up to
+	 * maxResults forums have been collected.
+	 * @param query the query to run
+	 * @param hashKey the index hash key value queried
+	 * @param reqArgs the request arguments
+	 * @return ForumResultPage
+	 */
+	private ForumResultPage runQuery(DynamoDBQueryExpression<ChatterForum> query,
+			String hashKey, ForumArgs reqArgs) throws RequestValidationException, PropertyRetrievalException {
+		Integer maxResults = QueryPageIterator.readMaxResults(reqArgs.getMaxResults(),
+				Integer.parseInt(propsResolver.getProperty("maxQueryResults")));
+		
+		// Cursors are only valid for the index and hash key they were issued for
+		String scope = PageCursor.scope(FORUM_TABLE, query.getIndexName(), true, hashKey);
+		query.setExclusiveStartKey(this.pageCursor.decode(scope,
+				reqArgs.getCursor()));
+		
+		if (maxResults == null) {
+			QueryResultPage<ChatterForum> resultPage = dbMapper.queryPage(
+					ChatterForum.class, query);
+			return new ForumResultPage(
+					resultPage.getResults(),
+					this.pageCursor.encode(scope, resultPage.getLastEvaluatedKey()),
+					resultPage.getCount());
+		}
+		
+		QueryPageIterator<ChatterForum> results = new QueryPageIterator<>(dbMapper,
+				ChatterForum.class, query, this.batchExecutor, maxResults);
+		List<ChatterForum> forums = results.stream().collect(Collectors.toList());
+		return new ForumResultPage(forums,
+				this.pageCursor.encode(scope, results.getLastEvaluatedKey()), forums.size());
+	}
+	
+	/**
+	 * Applies an update expression to a Forum item in a single UpdateItem
+	 * call. The update only applies if the forum exists and the optional
+	 * condition holds.
+	 * 
+	 * @param forumId the forum to update
+	 * @param updateExpression the update expression to apply
+	 * @param condition an additional condition expression or NULL
+	 * @param values the expression attribute values
+	 * @return the updated Forum object or NULL if the condition failed
+	 */
+	private ChatterForum updateAttributes(String forumId, String updateExpression,
+			String condition, Map<String, AttributeValue> values) {
+		String conditionExpression = "attribute_exists(forum_id)";
+		if (condition != null) {
+			conditionExpression += " AND " + condition;
+		}
+		
+		UpdateItemRequest updateRequest = new UpdateItemRequest()
+			.withTableName(FORUM_TABLE)
+			.withKey(Collections.singletonMap("forum_id", new AttributeValue(forumId)))
+			.withUpdateExpression(updateExpression)
+			.withConditionExpression(conditionExpression)
+			.withExpressionAttributeValues(values)
+			.withReturnValues(ReturnValue.ALL_NEW);
+		
+		try {
+			UpdateItemResult result = this.dbClient.updateItem(updateRequest);
+			return this.dbMapper.marshallIntoObject(ChatterForum.class,
+					result.getAttributes());
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			return null;
+		}
+		finally {
+			this.forumCache.invalidate(forumId);
+		}
+	}
+	
 	/**
 	 * Gathers data about this service and returns it in an object wrapper
 	 * @return ServicePropsResponse
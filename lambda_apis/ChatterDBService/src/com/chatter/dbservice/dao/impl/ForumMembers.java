@@ -0,0 +1,125 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+
+/**
+ * ForumMembers
+ * @author coreym
+ *
+ * Records which comments are counted in the comment_cnt of a forum. Each
+ * counted comment has a member item in the Chatter_Forum_Comment table
+ * keyed by '<forum_id>#<comment_id>', so the forum item itself only
+ * keeps the count and stays a constant size.
+ *
+ * The forum DAO writes the member item with a condition before it
+ * changes the count, so a repeated ADD_COMMENT or REMOVE_COMMENT for the
+ * same comment changes the count once.
+ */
+public class ForumMembers {
+
+	// Table holding one item per comment counted on a forum
+	static final String MEMBER_TABLE = "Chatter_Forum_Comment";
+
+	private final AmazonDynamoDBClient dbClient;
+	private final BatchItemExecutor batchExecutor;
+
+	/**
+	 * @param dbClient the DynamoDB client to use
+	 * @param batchExecutor the executor used for batch writes and deletes
+	 */
+	public ForumMembers(AmazonDynamoDBClient dbClient, BatchItemExecutor batchExecutor) {
+		this.dbClient = dbClient;
+		this.batchExecutor = batchExecutor;
+	}
+
+	/**
+	 * Records a comment as counted on a forum.
+	 *
+	 * @param forumId the forum
+	 * @param commentId the comment
+	 * @return false if the comment was already recorded
+	 */
+	public boolean add(String forumId, String commentId) {
+		try {
+			this.dbClient.putItem(new PutItemRequest()
+				.withTableName(MEMBER_TABLE)
+				.withItem(memberItem(forumId, commentId))
+				.withConditionExpression("attribute_not_exists(member_key)"));
+			return true;
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			return false;
+		}
+	}
+
+	/**
+	 * Removes the record of a comment counted on a forum.
+	 *
+	 * @param forumId the forum
+	 * @param commentId the comment
+	 * @return true if the comment was recorded
+	 */
+	public boolean remove(String forumId, String commentId) {
+		DeleteItemResult result = this.dbClient.deleteItem(new DeleteItemRequest()
+				.withTableName(MEMBER_TABLE)
+				.withKey(Collections.singletonMap("member_key",
+						new AttributeValue(memberKey(forumId, commentId))))
+				.withReturnValues(ReturnValue.ALL_OLD));
+		return result.getAttributes() != null && !result.getAttributes().isEmpty();
+	}
+
+	/**
+	 * Records every argument comment as counted on a forum, replacing
+	 * any existing records.
+	 *
+	 * @param forumId the forum
+	 * @param commentIds the comments
+	 */
+	public void addAll(String forumId, Collection<String> commentIds) {
+		List<Map<String, AttributeValue>> items = new ArrayList<>(commentIds.size());
+		for (String commentId : new LinkedHashSet<>(commentIds)) {
+			items.add(memberItem(forumId, commentId));
+		}
+		this.batchExecutor.putItems(MEMBER_TABLE, items);
+	}
+
+	/**
+	 * Removes the records of every argument comment of a forum.
+	 *
+	 * @param forumId the forum
+	 * @param commentIds the comments
+	 */
+	public void removeAll(String forumId, Collection<String> commentIds) {
+		List<String> memberKeys = new ArrayList<>(commentIds.size());
+		for (String commentId : commentIds) {
+			memberKeys.add(memberKey(forumId, commentId));
+		}
+		this.batchExecutor.deleteKeys(MEMBER_TABLE, "member_key", memberKeys);
+	}
+
+	static String memberKey(String forumId, String commentId) {
+		return forumId + "#" + commentId;
+	}
+
+	private static Map<String, AttributeValue> memberItem(String forumId, String commentId) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("member_key", new AttributeValue(memberKey(forumId, commentId)));
+		item.put("forum_id", new AttributeValue(forumId));
+		item.put("comment_id", new AttributeValue(commentId));
+		return item;
+	}
+}
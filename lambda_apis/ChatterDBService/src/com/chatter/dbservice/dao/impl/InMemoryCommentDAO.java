@@ -0,0 +1,319 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.chatter.dbservice.dao.CommentDAO;
+import com.chatter.dbservice.dao.ForumDAO;
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.requests.CommentArgs;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.ForumArgs;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.dbservice.requests.validators.CommentCRUDRequestValidator;
+import com.chatter.dbservice.responses.CommentResultPage;
+import com.chatter.dbservice.responses.ServicePropsResponse;
+import com.chatter.dbservice.util.PageCursor;
+import com.chatter.dbservice.util.PropertiesResolver;
+import com.chatter.dbservice.util.ops.ChatterCommentOps;
+import com.chatter.dbservice.util.ops.ChatterForumOps;
+
+/**
+ * InMemoryCommentDAO
+ * @author coreym
+ *
+ * Comment DAO that keeps comments in memory instead of DynamoDB, for
+ * load tests and benchmarks of the handlers. Requests are validated,
+ * paged and answered the way CommentDAOImpl answers them, including the
+ * created_by_index and forum_time_index queries, the summary view and
+ * cursors. Concur counts are kept on the comment, so the sharding and
+ * buffering settings do not apply.
+ */
+public class InMemoryCommentDAO implements CommentDAO {
+	// Name of the table ChatterComment objects are mapped to
+	private static final String COMMENT_TABLE =
+			ChatterComment.class.getAnnotation(DynamoDBTable.class).tableName();
+
+	private final PropertiesResolver propsResolver;
+	private final PageCursor pageCursor;
+	private final ForumDAO forumDAO;
+	private final InMemoryTable<ChatterComment> comments;
+
+	/**
+	 * @param propsResolver the service properties
+	 * @param forumDAO the DAO holding the forums comments are counted on
+	 * @param latency the delay applied to each simulated round trip
+	 * @throws PropertyRetrievalException
+	 */
+	public InMemoryCommentDAO(PropertiesResolver propsResolver, ForumDAO forumDAO,
+			SimulatedLatency latency) throws PropertyRetrievalException {
+		this.propsResolver = propsResolver;
+		this.pageCursor = PageCursor.fromProperties(propsResolver);
+		this.forumDAO = forumDAO;
+		this.comments = new InMemoryTable<>("comment_id", ChatterComment::getCommentId,
+				comment -> ModelCopies.comment(comment, true), latency)
+			.withIndex("created_by_index", "created_by", ChatterComment::getCreatedBy,
+					"time_stamp", ChatterComment::getTimeStamp)
+			.withIndex("forum_time_index", "forum_id", ChatterComment::getForumId,
+					"time_stamp", ChatterComment::getTimeStamp);
+	}
+
+	@Override
+	public ChatterComment createComment(CommentCRUDRequest request)
+			throws RequestValidationException {
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateCreateRequest(request);
+
+		ChatterComment comment = newComment(request.getArgs());
+		this.comments.put(comment);
+		return comment;
+	}
+
+	@Override
+	public ChatterComment createCommentInForum(CommentCRUDRequest request)
+			throws RequestValidationException, PropertyRetrievalException {
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateCreateRequest(request);
+
+		ChatterComment comment = newComment(request.getArgs());
+		ForumArgs forumArgs = new ForumArgs();
+		forumArgs.setForumId(comment.getForumId());
+		forumArgs.setCommentId(comment.getCommentId());
+
+		if (this.forumDAO.addCommentToForum(new ForumCRUDRequest(ChatterForumOps.ADD_COMMENT,
+				forumArgs)) == null) {
+			throw new RequestValidationException("Chatter Comment request ERROR: "
+					+ "parent forum " + comment.getForumId() + " does not exist.");
+		}
+		this.comments.put(comment);
+		return comment;
+	}
+
+	@Override
+	public ChatterComment retrieveComment(CommentCRUDRequest request)
+			throws RequestValidationException {
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateRetrieveRequest(request);
+
+		return this.comments.get(request.getArgs().getCommentId());
+	}
+
+	@Override
+	public boolean deleteComment(CommentCRUDRequest request) throws RequestValidationException {
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateRetrieveRequest(request);
+
+		return this.comments.delete(request.getArgs().getCommentId()) != null;
+	}
+
+	@Override
+	public CommentResultPage queryByCreator(CommentCRUDRequest request)
+			throws RequestValidationException, PropertyRetrievalException {
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateQueryByCreatorRequest(request);
+
+		return this.runQuery("created_by_index", request.getArgs().getCreatedBy(),
+				request.getArgs());
+	}
+
+	@Override
+	public CommentResultPage queryByForum(CommentCRUDRequest request)
+			throws RequestValidationException, PropertyRetrievalException {
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateQueryByForumRequest(request);
+
+		return this.runQuery("forum_time_index", request.getArgs().getForumId(),
+				request.getArgs());
+	}
+
+	/**
+	 * Comments hold every attribute, as they do when read from the
+	 * DynamoDB index.
+	 */
+	@Override
+	public Iterator<ChatterComment> iterateByForum(String forumId)
+			throws PropertyRetrievalException {
+		return this.comments.iterate("forum_time_index", forumId, this.queryLimit(),
+				comment -> ModelCopies.comment(comment, true));
+	}
+
+	/**
+	 * Comments hold every attribute, as they do when read from the
+	 * DynamoDB index.
+	 */
+	@Override
+	public Iterator<ChatterComment> iterateByCreator(String createdBy)
+			throws PropertyRetrievalException {
+		return this.comments.iterate("created_by_index", createdBy, this.queryLimit(),
+				comment -> ModelCopies.comment(comment, true));
+	}
+
+	@Override
+	public List<ChatterComment> batchRetrieve(CommentCRUDRequest request)
+			throws RequestValidationException {
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateBatchRetrieveRequest(request);
+
+		return this.comments.batchGet(request.getArgs().getCommentIds());
+	}
+
+	@Override
+	public List<String> batchDelete(CommentCRUDRequest request)
+			throws RequestValidationException {
+		// Validate incoming request
+		CommentCRUDRequestValidator.validateBatchRetrieveRequest(request);
+
+		List<String> commentIds = request.getArgs().getCommentIds();
+		List<String> deleted = this.comments.batchDelete(commentIds);
+		return Boolean.TRUE.equals(request.getArgs().getReportDeleted())
+				? deleted : commentIds;
+	}
+
+	@Override
+	public ChatterComment updateComment(CommentCRUDRequest request)
+			throws RequestValidationException {
+		String commentId = request.getArgs().getCommentId();
+		ChatterCommentOps op = request.getOperation();
+
+		if (op == ChatterCommentOps.ADD_REPLY || op == ChatterCommentOps.REMOVE_REPLY) {
+			// Validate incoming request
+			CommentCRUDRequestValidator.validateCommentReplyRequest(request);
+
+			return this.updateIdSet(commentId, ChatterComment::getReplyIds,
+					ChatterComment::setReplyIds, ChatterComment::setReplyCnt,
+					request.getArgs().getReplyId(), op == ChatterCommentOps.ADD_REPLY);
+		}
+		else if (op == ChatterCommentOps.ADD_FLAG || op == ChatterCommentOps.REMOVE_FLAG) {
+			// Validate incoming request
+			CommentCRUDRequestValidator.validateCommentFlagRequest(request);
+
+			return this.updateIdSet(commentId, ChatterComment::getFlagIds,
+					ChatterComment::setFlagIds, ChatterComment::setFlagCnt,
+					request.getArgs().getFlagId(), op == ChatterCommentOps.ADD_FLAG);
+		}
+		else if (op == ChatterCommentOps.INCREMENT_CONCUR) {
+			// Validate incoming request
+			CommentCRUDRequestValidator.validateRetrieveRequest(request);
+
+			return this.comments.update(commentId, comment -> {
+				comment.setConcurCnt(comment.getConcurCnt() + 1);
+				return true;
+			});
+		}
+		else if (op == ChatterCommentOps.CONSOLIDATE_CONCUR) {
+			// Validate incoming request
+			CommentCRUDRequestValidator.validateRetrieveRequest(request);
+
+			// Counts are never sharded in memory, nothing to fold
+			return this.comments.get(commentId);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of comments held
+	 */
+	public int size() {
+		return this.comments.size();
+	}
+
+	/**
+	 * Adds an id to or removes an id from one of the comment's id sets,
+	 * keeping the matching count in step. As in CommentDAOImpl, repeated
+	 * adds or removes of the same id leave the comment unchanged and an
+	 * emptied set is dropped.
+	 * @return the updated comment or NULL if the comment does not exist
+	 */
+	private ChatterComment updateIdSet(String commentId,
+			Function<ChatterComment, Set<String>> getIds,
+			BiConsumer<ChatterComment, Set<String>> setIds,
+			BiConsumer<ChatterComment, Integer> setCount, String id, boolean add) {
+		return this.comments.update(commentId, comment -> {
+			Set<String> ids = getIds.apply(comment) != null
+					? getIds.apply(comment) : new HashSet<>();
+			if (!(add ? ids.add(id) : ids.remove(id))) {
+				return false;
+			}
+			setIds.accept(comment, ids.isEmpty() ? null : ids);
+			setCount.accept(comment, ids.size());
+			return true;
+		});
+	}
+
+	/**
+	 * Runs a comment query the way CommentDAOImpl does, applying the
+	 * optional time window, sortOrder, view, cursor and maxResults
+	 * arguments.
+	 */
+	private CommentResultPage runQuery(String indexName, String hashKey, CommentArgs reqArgs)
+			throws RequestValidationException, PropertyRetrievalException {
+		Integer maxResults = QueryPageIterator.readMaxResults(reqArgs.getMaxResults(),
+				Integer.parseInt(propsResolver.getProperty("maxQueryResults")));
+		int pageLimit = this.queryLimit();
+		boolean summary = "summary".equals(reqArgs.getView());
+		boolean forward = !"desc".equals(reqArgs.getSortOrder());
+
+		// Cursors are only valid for the index, direction and hash key they
+		// were issued for
+		String scope = PageCursor.scope(COMMENT_TABLE,
+				summary ? CommentDAOImpl.summaryIndex(indexName) : indexName, forward, hashKey);
+		Map<String, AttributeValue> startKey = this.pageCursor.decode(scope,
+				reqArgs.getCursor());
+
+		int wanted = maxResults != null ? maxResults : pageLimit;
+		List<ChatterComment> results = new ArrayList<>();
+		do {
+			InMemoryTable.Page<ChatterComment> page = this.comments.query(indexName, hashKey,
+					reqArgs.getTimeStampFrom(), reqArgs.getTimeStampTo(), forward, startKey, Math.min(pageLimit, wanted - results.size()));
+			for (ChatterComment comment : page.getResults()) {
+				results.add(summary ? ModelCopies.comment(comment, false) : comment);
+			}
+			startKey = page.getLastEvaluatedKey();
+		} while (startKey != null && results.size() < wanted);
+
+		return new CommentResultPage(results, this.pageCursor.encode(scope, startKey),
+				results.size());
+	}
+
+	private int queryLimit() throws PropertyRetrievalException {
+		return Integer.parseInt(propsResolver.getProperty("queryLimit"));
+	}
+
+	private static ChatterComment newComment(CommentArgs reqArgs) {
+		ChatterComment comment = new ChatterComment();
+		comment.setCommentId(UUID.randomUUID().toString());
+		comment.setCreatedBy(reqArgs.getCreatedBy());
+		comment.setTimeStamp(new Date().getTime());
+		comment.setForumId(reqArgs.getForumId());
+		comment.setReplyCnt(0);
+		comment.setFlagCnt(0);
+		comment.setConcurCnt(0);
+		comment.setS3BucketName(reqArgs.getBucketName());
+		comment.setS3KeyName(reqArgs.getFileName());
+		return comment;
+	}
+
+	/**
+	 * Gathers data about this service and returns it in an object wrapper
+	 */
+	@Override
+	public ServicePropsResponse getServiceProperties() throws PropertyRetrievalException {
+		return new ServicePropsResponse(
+			this.propsResolver.getProperty("service.env"),
+			this.propsResolver.getProperty("service.name"),
+			this.propsResolver.getProperty("service.description"),
+			this.propsResolver.getProperty("service.version"));
+	}
+}
@@ -0,0 +1,136 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import com.chatter.dbservice.dao.FlagDAO;
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.model.ChatterFlag;
+import com.chatter.dbservice.requests.FlagCRUDRequest;
+import com.chatter.dbservice.requests.validators.FlagCRUDRequestValidator;
+import com.chatter.dbservice.responses.ServicePropsResponse;
+import com.chatter.dbservice.util.PropertiesResolver;
+
+/**
+ * InMemoryFlagDAO
+ * @author coreym
+ *
+ * Flag DAO that keeps flags in memory instead of DynamoDB, for load
+ * tests and benchmarks of the handlers. Requests are validated and
+ * answered the way FlagDAOImpl answers them. The flag indexes are kept
+ * up to date so that writes cost what they cost against the table.
+ */
+public class InMemoryFlagDAO implements FlagDAO {
+
+	private final PropertiesResolver propsResolver;
+	private final InMemoryTable<ChatterFlag> flags;
+
+	public InMemoryFlagDAO(PropertiesResolver propsResolver, SimulatedLatency latency) {
+		this.propsResolver = propsResolver;
+		this.flags = new InMemoryTable<>("flag_id", ChatterFlag::getFlagId,
+				InMemoryFlagDAO::copy, latency)
+			.withIndex("created_by_index", "created_by", ChatterFlag::getCreatedBy, null, null)
+			.withIndex("comment_id_index", "comment_id", ChatterFlag::getCommentId,
+					"time_stamp", ChatterFlag::getTimeStamp);
+	}
+
+	@Override
+	public ChatterFlag createFlag(FlagCRUDRequest req) throws RequestValidationException {
+		//Validate incoming request
+		FlagCRUDRequestValidator.validateCreateFlagReqeust(req);
+
+		ChatterFlag flag = new ChatterFlag();
+		flag.setFlagId(UUID.randomUUID().toString());
+		flag.setCreatedBy(req.getArgs().getCreatedBy());
+		flag.setForumId(req.getArgs().getForumId());
+		flag.setCommentId(req.getArgs().getCommentId());
+		flag.setFlagDescription(req.getArgs().getFlagDescription());
+		flag.setTimeStamp(new Date().getTime());
+
+		this.flags.put(flag);
+		return flag;
+	}
+
+	@Override
+	public ChatterFlag retrieveFlag(FlagCRUDRequest req) throws RequestValidationException {
+		// Validate incoming request
+		FlagCRUDRequestValidator.validateRetrieveFlagRequest(req);
+
+		return this.flags.get(req.getArgs().getFlagId());
+	}
+
+	@Override
+	public ChatterFlag updateFlag(FlagCRUDRequest req) throws RequestValidationException {
+		// Validate incoming request
+		FlagCRUDRequestValidator.validateRetrieveFlagRequest(req);
+
+		String descUpdate = req.getArgs().getFlagDescriptionUpdate();
+		return this.flags.update(req.getArgs().getFlagId(), flag -> {
+			if (descUpdate == null || descUpdate.isEmpty()) {
+				return false;
+			}
+			flag.setFlagDescription(descUpdate);
+			return true;
+		});
+	}
+
+	@Override
+	public boolean deleteFlag(FlagCRUDRequest req) throws RequestValidationException {
+		//Validate incoming request
+		FlagCRUDRequestValidator.validateRetrieveFlagRequest(req);
+
+		return this.flags.delete(req.getArgs().getFlagId()) != null;
+	}
+
+	@Override
+	public List<ChatterFlag> batchRetrieveFlag(FlagCRUDRequest req)
+			throws RequestValidationException {
+		// Validate incoming request
+		FlagCRUDRequestValidator.validateBatchRetrieveFlagRequest(req);
+
+		return this.flags.batchGet(req.getArgs().getFlagIds());
+	}
+
+	@Override
+	public List<String> batchDeleteFlag(FlagCRUDRequest req) throws RequestValidationException {
+		// Validate incoming request
+		FlagCRUDRequestValidator.validateBatchRetrieveFlagRequest(req);
+
+		List<String> flagIds = req.getArgs().getFlagIds();
+		List<String> deleted = this.flags.batchDelete(flagIds);
+		return Boolean.TRUE.equals(req.getArgs().getReportDeleted()) ? deleted : flagIds;
+	}
+
+	/**
+	 * @return the number of flags held
+	 */
+	public int size() {
+		return this.flags.size();
+	}
+
+	private static ChatterFlag copy(ChatterFlag source) {
+		ChatterFlag copy = new ChatterFlag();
+		copy.setFlagId(source.getFlagId());
+		copy.setCreatedBy(source.getCreatedBy());
+		copy.setTimeStamp(source.getTimeStamp());
+		copy.setForumId(source.getForumId());
+		copy.setCommentId(source.getCommentId());
+		copy.setFlagDescription(source.getFlagDescription());
+		return copy;
+	}
+
+	/**
+	 * Gathers data about this service and returns it in an object wrapper
+	 * @return ServicePropsResponse
+	 */
+	@Override
+	public ServicePropsResponse getServiceProperties() throws PropertyRetrievalException {
+		return new ServicePropsResponse(
+				this.propsResolver.getProperty("service.env"),
+				this.propsResolver.getProperty("service.name"),
+				this.propsResolver.getProperty("service.description"),
+				this.propsResolver.getProperty("service.version"));
+	}
+}
@@ -0,0 +1,231 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.chatter.dbservice.dao.ForumDAO;
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.ForumArgs;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.dbservice.requests.validators.ForumCRUDRequestValidator;
+import com.chatter.dbservice.responses.ForumResultPage;
+import com.chatter.dbservice.responses.ServicePropsResponse;
+import com.chatter.dbservice.util.PageCursor;
+import com.chatter.dbservice.util.PropertiesResolver;
+
+/**
+ * InMemoryForumDAO
+ * @author coreym
+ *
+ * Forum DAO that keeps forums in memory instead of DynamoDB, for load
+ * tests and benchmarks of the handlers. Requests are validated, paged
+ * and answered the way ForumDAOImpl answers them, including the
+ * created_by_index and title_index queries and their cursors.
+ */
+public class InMemoryForumDAO implements ForumDAO {
+	// Name of the table ChatterForum objects are mapped to
+	private static final String FORUM_TABLE =
+			ChatterForum.class.getAnnotation(DynamoDBTable.class).tableName();
+
+	private final PropertiesResolver propsResolver;
+	private final PageCursor pageCursor;
+	private final InMemoryTable<ChatterForum> forums;
+	private final Set<String> members = ConcurrentHashMap.newKeySet();
+
+	public InMemoryForumDAO(PropertiesResolver propsResolver, SimulatedLatency latency)
+			throws PropertyRetrievalException {
+		this.propsResolver = propsResolver;
+		this.pageCursor = PageCursor.fromProperties(propsResolver);
+		this.forums = new InMemoryTable<>("forum_id", ChatterForum::getForumId,
+				ModelCopies::forum, latency)
+			.withIndex("created_by_index", "created_by", ChatterForum::getCreatedBy,
+					"time_stamp", ChatterForum::getTimeStamp)
+			.withIndex("title_index", "title", ChatterForum::getTitle, null, null);
+	}
+
+	@Override
+	public ChatterForum createForum(ForumCRUDRequest req) throws RequestValidationException {
+		// Validate incoming request
+		ForumCRUDRequestValidator.validateCreateForumRequest(req);
+
+		ChatterForum forum = new ChatterForum();
+		forum.setForumId(UUID.randomUUID().toString());
+		forum.setCreatedBy(req.getArgs().getCreatedBy());
+		forum.setTitle(req.getArgs().getTitle());
+		forum.setTimeStamp(new Date().getTime());
+		forum.setCommentCnt(0);
+
+		this.forums.put(forum);
+		return forum;
+	}
+
+	@Override
+	public ChatterForum retrieveForumById(ForumCRUDRequest req) throws RequestValidationException {
+		// Validate incoming request
+		ForumCRUDRequestValidator.validateRetrieveForumRequest(req);
+
+		return this.forums.get(req.getArgs().getForumId());
+	}
+
+	@Override
+	public ChatterForum updateForum(ForumCRUDRequest req) throws RequestValidationException {
+		// Validate incoming request
+		ForumCRUDRequestValidator.validateRetrieveForumRequest(req);
+
+		String forumId = req.getArgs().getForumId();
+		String titleUpdate = req.getArgs().getTitleUpdate();
+
+		// Nothing to update, return the Forum object as is
+		if (titleUpdate == null) {
+			return this.forums.get(forumId);
+		}
+		return this.forums.update(forumId, forum -> {
+			forum.setTitle(titleUpdate);
+			return true;
+		});
+	}
+
+	@Override
+	public ChatterForum addCommentToForum(ForumCRUDRequest req) throws RequestValidationException {
+		// Validate incoming request
+		ForumCRUDRequestValidator.validateCommentRequest(req);
+
+		// A comment is counted once, like the ForumMembers record of ForumDAOImpl
+		String forumId = req.getArgs().getForumId();
+		String memberKey = ForumMembers.memberKey(forumId, req.getArgs().getCommentId());
+		return this.forums.update(forumId, forum -> {
+			if (!this.members.add(memberKey)) {
+				return false;
+			}
+			forum.setCommentCnt(commentCnt(forum) + 1);
+			return true;
+		});
+	}
+
+	@Override
+	public ChatterForum removeCommentFromForum(ForumCRUDRequest req)
+			throws RequestValidationException {
+		// Validate incoming request
+		ForumCRUDRequestValidator.validateCommentRequest(req);
+
+		// Only a counted comment is uncounted, and the count is never
+		// decremented below zero
+		String forumId = req.getArgs().getForumId();
+		String memberKey = ForumMembers.memberKey(forumId, req.getArgs().getCommentId());
+		return this.forums.update(forumId, forum -> {
+			if (!this.members.remove(memberKey) || commentCnt(forum) <= 0) {
+				return false;
+			}
+			forum.setCommentCnt(commentCnt(forum) - 1);
+			return true;
+		});
+	}
+
+	@Override
+	public boolean deleteForum(ForumCRUDRequest req) throws RequestValidationException {
+		// Validate incoming request
+		ForumCRUDRequestValidator.validateRetrieveForumRequest(req);
+
+		return this.forums.delete(req.getArgs().getForumId()) != null;
+	}
+
+	@Override
+	public ForumResultPage queryByCreator(ForumCRUDRequest req) throws
+			RequestValidationException, PropertyRetrievalException {
+		// Validate incoming request
+		ForumCRUDRequestValidator.validateQueryByCreatorRequest(req);
+
+		// As in ForumDAOImpl the time window only applies when both bounds are given
+		Long timeStampFrom = req.getArgs().getTimeStampFrom();
+		Long timeStampTo = req.getArgs().getTimeStampTo();
+		boolean window = timeStampFrom != null && timeStampTo != null;
+
+		return this.runQuery("created_by_index", req.getArgs().getCreatedBy(),
+				window ? timeStampFrom : null,
+				window ? timeStampTo : null, req.getArgs());
+	}
+
+	@Override
+	public ForumResultPage queryByTitle(ForumCRUDRequest req) throws
+			RequestValidationException, PropertyRetrievalException {
+		// Validate incoming request
+		ForumCRUDRequestValidator.validateQueryByTitleRequest(req);
+
+		return this.runQuery("title_index", req.getArgs().getTitle(), null, null,
+				req.getArgs());
+	}
+
+	@Override
+	public Iterator<ChatterForum> iterateByCreator(String createdBy)
+			throws PropertyRetrievalException {
+		return this.forums.iterate("created_by_index", createdBy, this.queryLimit(),
+				forum -> forum);
+	}
+
+	/**
+	 * @return the number of forums held
+	 */
+	public int size() {
+		return this.forums.size();
+	}
+
+	/**
+	 * Runs a forum query the way ForumDAOImpl does: one page of queryLimit
+	 * forums, or pages until maxResults forums are collected when the
+	 * request has a maxResults argument.
+	 */
+	private ForumResultPage runQuery(String indexName, String hashKey, Long from, Long to,
+			ForumArgs reqArgs) throws RequestValidationException, PropertyRetrievalException {
+		Integer maxResults = QueryPageIterator.readMaxResults(reqArgs.getMaxResults(),
+				Integer.parseInt(propsResolver.getProperty("maxQueryResults")));
+		int pageLimit = this.queryLimit();
+
+		// Cursors are only valid for the index and hash key they were issued for
+		String scope = PageCursor.scope(FORUM_TABLE, indexName, true, hashKey);
+		Map<String, AttributeValue> startKey = this.pageCursor.decode(scope,
+				reqArgs.getCursor());
+
+		int wanted = maxResults != null ? maxResults : pageLimit;
+		List<ChatterForum> results = new ArrayList<>();
+		do {
+			InMemoryTable.Page<ChatterForum> page = this.forums.query(indexName, hashKey,
+					from, to, true, startKey, Math.min(pageLimit, wanted - results.size()));
+			results.addAll(page.getResults());
+			startKey = page.getLastEvaluatedKey();
+		} while (startKey != null && results.size() < wanted);
+
+		return new ForumResultPage(results, this.pageCursor.encode(scope, startKey),
+				results.size());
+	}
+
+	private int queryLimit() throws PropertyRetrievalException {
+		return Integer.parseInt(propsResolver.getProperty("queryLimit"));
+	}
+
+	private static int commentCnt(ChatterForum forum) {
+		return forum.getCommentCnt() != null ? forum.getCommentCnt() : 0;
+	}
+
+	/**
+	 * Gathers data about this service and returns it in an object wrapper
+	 * @return ServicePropsResponse
+	 */
+	@Override
+	public ServicePropsResponse getServiceProperties() throws PropertyRetrievalException {
+		return new ServicePropsResponse(
+				this.propsResolver.getProperty("service.env"),
+				this.propsResolver.getProperty("service.name"),
+				this.propsResolver.getProperty("service.description"),
+				this.propsResolver.getProperty("service.version"));
+	}
+}
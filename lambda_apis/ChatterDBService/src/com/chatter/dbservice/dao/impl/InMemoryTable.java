@@ -0,0 +1,457 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * InMemoryTable
+ * @author coreym
+ *
+ * Thread safe in-memory stand in for a DynamoDB table and its global
+ * secondary indexes, used by the in-memory DAOs. Items are copied on
+ * the way in and out so callers never share state with the table.
+ *
+ * Writes to one item are serialized and keep every index in step with
+ * the item. Index queries return items in range key order, then table
+ * key order, and page through results with last evaluated keys shaped
+ * like the ones DynamoDB returns for the same index, so they can be
+ * turned into the same cursors. Items without an index hash key value
+ * are left out of that index, as they are in a sparse DynamoDB index.
+ *
+ * Every call that would be a DynamoDB round trip waits on the simulated
+ * latency once. Batch calls wait once per batch request DynamoDB would
+ * need for the same number of keys.
+ */
+public class InMemoryTable<T> {
+
+	private final String keyAttribute;
+	private final Function<T, String> keyOf;
+	private final UnaryOperator<T> copier;
+	private final SimulatedLatency latency;
+	private final ConcurrentMap<String, T> items = new ConcurrentHashMap<>();
+	private final Map<String, Index<T>> indexes = new HashMap<>();
+
+	/**
+	 * @param keyAttribute the name of the table hash key attribute
+	 * @param keyOf reads the table hash key of an item
+	 * @param copier creates an independent copy of an item
+	 * @param latency the delay applied to each round trip
+	 */
+	public InMemoryTable(String keyAttribute, Function<T, String> keyOf,
+			UnaryOperator<T> copier, SimulatedLatency latency) {
+		this.keyAttribute = keyAttribute;
+		this.keyOf = keyOf;
+		this.copier = copier;
+		this.latency = latency;
+	}
+
+	/**
+	 * Adds a global secondary index. Indexes must be added before the
+	 * table is used.
+	 *
+	 * @param indexName the index name
+	 * @param hashAttribute the name of the index hash key attribute
+	 * @param hashOf reads the index hash key of an item
+	 * @param rangeAttribute the name of the index range key attribute,
+	 * 		  NULL when the index has no range key
+	 * @param rangeOf reads the index range key of an item, NULL when the
+	 * 		  index has no range key
+	 * @return this table
+	 */
+	public InMemoryTable<T> withIndex(String indexName, String hashAttribute,
+			Function<T, String> hashOf, String rangeAttribute, Function<T, Long> rangeOf) {
+		this.indexes.put(indexName, new Index<>(hashAttribute, hashOf, rangeAttribute, rangeOf));
+		return this;
+	}
+
+	/**
+	 * @return the number of items in the table
+	 */
+	public int size() {
+		return this.items.size();
+	}
+
+	/**
+	 * Saves an item, replacing any item with the same key.
+	 *
+	 * @param item the item to save
+	 */
+	public void put(T item) {
+		this.latency.roundTrip();
+		T copy = this.copier.apply(item);
+		this.items.compute(this.keyOf.apply(copy), (key, existing) -> {
+			this.reindex(key, existing, copy);
+			return copy;
+		});
+	}
+
+	/**
+	 * @param key the item key
+	 * @return a copy of the item or NULL if the item does not exist
+	 */
+	public T get(String key) {
+		this.latency.roundTrip();
+		return this.copyOf(this.items.get(key));
+	}
+
+	/**
+	 * Applies an update to an existing item atomically.
+	 *
+	 * @param key the item key
+	 * @param update changes a copy of the item in place and returns
+	 * 		  FALSE when the item should be left unchanged
+	 * @return a copy of the item as it is after the call or NULL if the
+	 * item does not exist
+	 */
+	public T update(String key, Predicate<T> update) {
+		this.latency.roundTrip();
+		T updated = this.items.computeIfPresent(key, (k, existing) -> {
+			T copy = this.copier.apply(existing);
+			if (!update.test(copy)) {
+				return existing;
+			}
+			this.reindex(k, existing, copy);
+			return copy;
+		});
+		return this.copyOf(updated);
+	}
+
+	/**
+	 * @param key the item key
+	 * @return the removed item or NULL if the item did not exist
+	 */
+	public T delete(String key) {
+		this.latency.roundTrip();
+		return this.remove(key);
+	}
+
+	/**
+	 * Loads a batch of items. Keys of items that do not exist are
+	 * skipped, the remaining items are returned in key order.
+	 *
+	 * @param keys the keys to load
+	 * @return copies of the items found
+	 */
+	public List<T> batchGet(List<String> keys) {
+		this.batchRoundTrips(keys.size(), BatchItemExecutor.MAX_GET_KEYS);
+		List<T> results = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			T item = this.items.get(key);
+			if (item != null) {
+				results.add(this.copier.apply(item));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Deletes a batch of items by key.
+	 *
+	 * @param keys the keys to delete
+	 * @return the keys of the items that existed
+	 */
+	public List<String> batchDelete(List<String> keys) {
+		this.batchRoundTrips(keys.size(), BatchItemExecutor.MAX_WRITE_ITEMS);
+		List<String> deleted = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			if (this.remove(key) != null) {
+				deleted.add(key);
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Reads one page of an index query.
+	 *
+	 * @param indexName the index to query
+	 * @param hashKey the index hash key value
+	 * @param rangeFrom the inclusive lower range key bound or NULL
+	 * @param rangeTo the inclusive upper range key bound or NULL
+	 * @param forward true for ascending range key order
+	 * @param startKey the exclusive start key or NULL to start at the beginning
+	 * @param limit the maximum number of items to return
+	 * @return the page of results
+	 */
+	public Page<T> query(String indexName, String hashKey, Long rangeFrom, Long rangeTo,
+			boolean forward, Map<String, AttributeValue> startKey, int limit) {
+		this.latency.roundTrip();
+		Index<T> index = this.index(indexName);
+
+		NavigableSet<Index.Entry> entries = index.entries.get(hashKey);
+		if (entries == null || (rangeFrom != null && rangeTo != null && rangeFrom > rangeTo)) {
+			return new Page<>(new ArrayList<>(), null);
+		}
+
+		// Range key bounds, narrowed further by the start key
+		Index.Entry lower = rangeFrom != null ? new Index.Entry(rangeFrom, "") : null;
+		Index.Entry upper = rangeTo != null && rangeTo < Long.MAX_VALUE
+				? new Index.Entry(rangeTo + 1, "") : null;
+		boolean lowerInclusive = true;
+		if (startKey != null) {
+			Index.Entry start = index.entryFor(startKey, this.keyAttribute);
+			if (forward && (lower == null || start.compareTo(lower) >= 0)) {
+				lower = start;
+				lowerInclusive = false;
+			}
+			else if (!forward && (upper == null || start.compareTo(upper) < 0)) {
+				upper = start;
+			}
+		}
+
+		NavigableSet<Index.Entry> view = entries;
+		if (lower != null && upper != null) {
+			if (lower.compareTo(upper) >= 0) {
+				return new Page<>(new ArrayList<>(), null);
+			}
+			view = entries.subSet(lower, lowerInclusive, upper, false);
+		}
+		else if (lower != null) {
+			view = entries.tailSet(lower, lowerInclusive);
+		}
+		else if (upper != null) {
+			view = entries.headSet(upper, false);
+		}
+		if (!forward) {
+			view = view.descendingSet();
+		}
+
+		List<T> results = new ArrayList<>(Math.min(limit, 64));
+		Index.Entry last = null;
+		boolean more = false;
+		for (Index.Entry entry : view) {
+			// Items removed after the index was read are skipped
+			T item = this.items.get(entry.key);
+			if (item == null) {
+				continue;
+			}
+			if (results.size() == limit) {
+				more = true;
+				break;
+			}
+			results.add(this.copier.apply(item));
+			last = entry;
+		}
+
+		return new Page<>(results, more
+				? index.lastEvaluatedKey(this.keyAttribute, hashKey, last) : null);
+	}
+
+	/**
+	 * Lazily iterates over every item in an index partition, in ascending
+	 * range key order, reading pages of the argument size.
+	 *
+	 * @param indexName the index to query
+	 * @param hashKey the index hash key value
+	 * @param pageSize the number of items read per page
+	 * @param view converts each item before it is returned
+	 * @return Iterator
+	 */
+	public Iterator<T> iterate(String indexName, String hashKey, int pageSize,
+			UnaryOperator<T> view) {
+		return new Iterator<T>() {
+			private Page<T> page = query(indexName, hashKey, null, null, true, null, pageSize);
+			private Iterator<T> results = this.page.getResults().iterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!this.results.hasNext() && this.page.getLastEvaluatedKey() != null) {
+					this.page = query(indexName, hashKey, null, null, true,
+							this.page.getLastEvaluatedKey(), pageSize);
+					this.results = this.page.getResults().iterator();
+				}
+				return this.results.hasNext();
+			}
+
+			@Override
+			public T next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return view.apply(this.results.next());
+			}
+		};
+	}
+
+	private T remove(String key) {
+		List<T> removed = new ArrayList<>(1);
+		this.items.computeIfPresent(key, (k, existing) -> {
+			this.reindex(k, existing, null);
+			removed.add(existing);
+			return null;
+		});
+		return removed.isEmpty() ? null : removed.get(0);
+	}
+
+	private void batchRoundTrips(int keys, int keysPerRequest) {
+		for (int i = 0; i < keys; i += keysPerRequest) {
+			this.latency.roundTrip();
+		}
+	}
+
+	/**
+	 * Moves an item's index entries from its old to its new version.
+	 * Called while the item's map entry is locked.
+	 */
+	private void reindex(String key, T before, T after) {
+		for (Index<T> index : this.indexes.values()) {
+			index.update(key, before, after);
+		}
+	}
+
+	private Index<T> index(String indexName) {
+		Index<T> index = this.indexes.get(indexName);
+		if (index == null) {
+			throw new IllegalArgumentException("Unknown index " + indexName);
+		}
+		return index;
+	}
+
+	private T copyOf(T item) {
+		return item != null ? this.copier.apply(item) : null;
+	}
+
+	/**
+	 * One page of index query results.
+	 */
+	public static class Page<T> {
+		private final List<T> results;
+		private final Map<String, AttributeValue> lastEvaluatedKey;
+
+		Page(List<T> results, Map<String, AttributeValue> lastEvaluatedKey) {
+			this.results = results;
+			this.lastEvaluatedKey = lastEvaluatedKey;
+		}
+
+		public List<T> getResults() {
+			return results;
+		}
+
+		/**
+		 * @return the key to resume the query from or NULL if the query
+		 * has no more results
+		 */
+		public Map<String, AttributeValue> getLastEvaluatedKey() {
+			return lastEvaluatedKey;
+		}
+	}
+
+	/**
+	 * Entries of one global secondary index, grouped by hash key value
+	 * and sorted by range key, then table key.
+	 */
+	private static class Index<T> {
+		private final String hashAttribute;
+		private final Function<T, String> hashOf;
+		private final String rangeAttribute;
+		private final Function<T, Long> rangeOf;
+		private final ConcurrentMap<String, NavigableSet<Entry>> entries =
+				new ConcurrentHashMap<>();
+
+		Index(String hashAttribute, Function<T, String> hashOf, String rangeAttribute,
+				Function<T, Long> rangeOf) {
+			this.hashAttribute = hashAttribute;
+			this.hashOf = hashOf;
+			this.rangeAttribute = rangeAttribute;
+			this.rangeOf = rangeOf;
+		}
+
+		void update(String key, T before, T after) {
+			String oldHash = before != null ? this.hashOf.apply(before) : null;
+			Long oldRange = before != null ? this.range(before) : null;
+			String newHash = after != null ? this.hashOf.apply(after) : null;
+			Long newRange = after != null ? this.range(after) : null;
+			if (Objects.equals(oldHash, newHash) && Objects.equals(oldRange, newRange)) {
+				return;
+			}
+
+			if (oldHash != null) {
+				this.entries.computeIfPresent(oldHash, (hash, partition) -> {
+					partition.remove(new Entry(oldRange, key));
+					return partition.isEmpty() ? null : partition;
+				});
+			}
+			if (newHash != null) {
+				// Added under the partition's map lock so that a concurrent
+				// removal of the emptied partition cannot drop the entry
+				this.entries.compute(newHash, (hash, partition) -> {
+					NavigableSet<Entry> target = partition != null
+							? partition : new ConcurrentSkipListSet<>();
+					target.add(new Entry(newRange, key));
+					return target;
+				});
+			}
+		}
+
+		Entry entryFor(Map<String, AttributeValue> startKey, String keyAttribute) {
+			AttributeValue range = this.rangeAttribute != null
+					? startKey.get(this.rangeAttribute) : null;
+			AttributeValue key = startKey.get(keyAttribute);
+			return new Entry(range != null ? Long.valueOf(range.getN()) : null,
+					key != null ? key.getS() : "");
+		}
+
+		Map<String, AttributeValue> lastEvaluatedKey(String keyAttribute, String hashKey,
+				Entry last) {
+			Map<String, AttributeValue> key = new HashMap<>();
+			key.put(keyAttribute, new AttributeValue(last.key));
+			key.put(this.hashAttribute, new AttributeValue(hashKey));
+			if (this.rangeAttribute != null && last.range != null) {
+				key.put(this.rangeAttribute, new AttributeValue().withN(last.range.toString()));
+			}
+			return key;
+		}
+
+		private Long range(T item) {
+			return this.rangeOf != null ? this.rangeOf.apply(item) : null;
+		}
+
+		static class Entry implements Comparable<Entry> {
+			final Long range;
+			final String key;
+
+			Entry(Long range, String key) {
+				this.range = range;
+				this.key = key;
+			}
+
+			@Override
+			public int compareTo(Entry other) {
+				if (!Objects.equals(this.range, other.range)) {
+					if (this.range == null) {
+						return -1;
+					}
+					if (other.range == null) {
+						return 1;
+					}
+					return this.range.compareTo(other.range);
+				}
+				return this.key.compareTo(other.key);
+			}
+
+			@Override
+			public boolean equals(Object o) {
+				return o instanceof Entry && this.compareTo((Entry) o) == 0;
+			}
+
+			@Override
+			public int hashCode() {
+				return Objects.hash(this.range, this.key);
+			}
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.HashSet;
+
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterForum;
+
+/**
+ * ModelCopies
+ * @author coreym
+ *
+ * Copies of model objects, for the in-memory tables and the entity
+ * caches that must not hand their own instances to callers.
+ */
+final class ModelCopies {
+
+	private ModelCopies() { }
+
+	static ChatterForum forum(ChatterForum source) {
+		ChatterForum copy = new ChatterForum();
+		copy.setForumId(source.getForumId());
+		copy.setCreatedBy(source.getCreatedBy());
+		copy.setTimeStamp(source.getTimeStamp());
+		copy.setTitle(source.getTitle());
+		copy.setCommentCnt(source.getCommentCnt());
+		return copy;
+	}
+
+	/**
+	 * Copies a comment. Without the id sets the copy holds only the
+	 * attributes returned by the summary view.
+	 */
+	static ChatterComment comment(ChatterComment source, boolean withIdSets) {
+		ChatterComment copy = new ChatterComment();
+		copy.setCommentId(source.getCommentId());
+		copy.setCreatedBy(source.getCreatedBy());
+		copy.setTimeStamp(source.getTimeStamp());
+		copy.setForumId(source.getForumId());
+		if (withIdSets) {
+			copy.setReplyIds(source.getReplyIds() != null
+					? new HashSet<>(source.getReplyIds()) : null);
+			copy.setFlagIds(source.getFlagIds() != null
+					? new HashSet<>(source.getFlagIds()) : null);
+		}
+		copy.setReplyCnt(source.getReplyCnt());
+		copy.setFlagCnt(source.getFlagCnt());
+		copy.setConcurCnt(source.getConcurCnt());
+		copy.setS3BucketName(source.getS3BucketName());
+		copy.setS3KeyName(source.getS3KeyName());
+		return copy;
+	}
+}
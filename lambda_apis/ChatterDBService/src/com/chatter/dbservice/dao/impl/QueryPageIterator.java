@@ -0,0 +1,147 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+
+/**
+ * QueryPageIterator
+ * @author coreym
+ *
+ * Lazily iterates over every result of a query, across as many query
+ * pages as needed. While the results of one page are consumed the next
+ * page is already being fetched on the shared batch pool, so database
+ * latency overlaps with processing.
+ *
+ * An optional maximum result count stops the iteration early. Each page
+ * is then requested with a limit equal to the number of results still
+ * needed, so getLastEvaluatedKey() can be used to resume the query
+ * exactly after the last result returned.
+ *
+ * The query expression passed in is modified by the iterator and should
+ * not be reused by the caller.
+ */
+public class QueryPageIterator<T> implements Iterator<T> {
+
+	private final DynamoDBMapper dbMapper;
+	private final Class<T> clazz;
+	private final DynamoDBQueryExpression<T> query;
+	private final BatchItemExecutor executor;
+	private final int pageLimit;
+
+	// Results still to be fetched; negative when unbounded
+	private int remaining;
+	private Iterator<T> page = Collections.emptyIterator();
+	private Future<QueryResultPage<T>> nextPage;
+	private Map<String, AttributeValue> lastEvaluatedKey;
+
+	/**
+	 * @param dbMapper the mapper used to run the query
+	 * @param clazz the model class being queried
+	 * @param query the query to run; its limit is used as the page size
+	 * @param executor the shared pool used to prefetch pages
+	 * @param maxResults the maximum number of results to return, or a
+	 * 		  negative value to return every result
+	 */
+	public QueryPageIterator(DynamoDBMapper dbMapper, Class<T> clazz,
+			DynamoDBQueryExpression<T> query, BatchItemExecutor executor, int maxResults) {
+		this.dbMapper = dbMapper;
+		this.clazz = clazz;
+		this.query = query;
+		this.executor = executor;
+		this.pageLimit = query.getLimit() != null ? query.getLimit() : Integer.MAX_VALUE;
+		this.remaining = maxResults;
+		this.lastEvaluatedKey = query.getExclusiveStartKey();
+
+		// Start fetching the first page straight away
+		this.nextPage = this.fetch(this.lastEvaluatedKey);
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!this.page.hasNext()) {
+			if (this.nextPage == null) {
+				return false;
+			}
+
+			QueryResultPage<T> resultPage = BatchItemExecutor.join(this.nextPage);
+			this.page = resultPage.getResults().iterator();
+			this.lastEvaluatedKey = resultPage.getLastEvaluatedKey();
+			if (this.remaining > 0) {
+				this.remaining = Math.max(0, this.remaining - resultPage.getResults().size());
+			}
+
+			// Prefetch the following page while this one is consumed
+			this.nextPage = this.lastEvaluatedKey != null && this.remaining != 0
+					? this.fetch(this.lastEvaluatedKey) : null;
+		}
+		return true;
+	}
+
+	@Override
+	public T next() {
+		if (!this.hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return this.page.next();
+	}
+
+	/**
+	 * @return the key to resume the query from once iteration has stopped,
+	 * or NULL if every result has been returned. Only exact when iteration
+	 * ran until hasNext() returned false.
+	 */
+	public Map<String, AttributeValue> getLastEvaluatedKey() {
+		return this.lastEvaluatedKey;
+	}
+
+	/**
+	 * @return a sequential stream over the remaining results
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Checks the optional maxResults request argument.
+	 *
+	 * @param maxResults the maxResults argument, may be NULL
+	 * @param cap the largest value accepted
+	 * @return the requested maximum or NULL if the argument is absent
+	 * @throws RequestValidationException if the value is not a positive
+	 * integer no larger than the cap
+	 */
+	public static Integer readMaxResults(Integer maxResults, int cap)
+			throws RequestValidationException {
+		if (maxResults == null || (maxResults > 0 && maxResults <= cap)) {
+			return maxResults;
+		}
+		throw new RequestValidationException("ERROR: maxResults must be a whole number "
+				+ "between 1 and " + cap + ".");
+	}
+
+	private Future<QueryResultPage<T>> fetch(Map<String, AttributeValue> startKey) {
+		if (this.remaining == 0) {
+			return null;
+		}
+
+		// Only one page is in flight at a time, so the query expression
+		// can be updated in place once the previous page has completed
+		this.query.withExclusiveStartKey(startKey)
+			.withLimit(this.remaining > 0 ? Math.min(this.pageLimit, this.remaining) : this.pageLimit);
+		return this.executor.submit(() -> this.dbMapper.queryPage(this.clazz, this.query));
+	}
+}
@@ -0,0 +1,80 @@
+package com.chatter.dbservice.dao.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.util.PropertiesResolver;
+
+/**
+ * SimulatedLatency
+ * @author coreym
+ *
+ * Artificial delay applied by the in-memory DAOs once for every call
+ * that would be a database round trip against DynamoDB. Load tests pick
+ * a latency profile to see how the handlers behave against a database of
+ * a given speed, or use none() to measure the service overhead alone.
+ */
+@FunctionalInterface
+public interface SimulatedLatency {
+
+	/**
+	 * Waits for the duration of one simulated database round trip.
+	 */
+	void roundTrip();
+
+	/**
+	 * @return a latency that never waits
+	 */
+	static SimulatedLatency none() {
+		return () -> { };
+	}
+
+	/**
+	 * Creates a latency drawn uniformly from the argument range for
+	 * every round trip.
+	 *
+	 * @param minMicros the shortest round trip in microseconds
+	 * @param maxMicros the longest round trip in microseconds
+	 * @return SimulatedLatency
+	 */
+	static SimulatedLatency uniform(long minMicros, long maxMicros) {
+		if (minMicros < 0 || maxMicros < minMicros) {
+			throw new IllegalArgumentException("Invalid latency range " + minMicros
+					+ " - " + maxMicros + " microseconds");
+		}
+		if (maxMicros == 0) {
+			return none();
+		}
+		return () -> {
+			long micros = minMicros == maxMicros ? minMicros
+					: ThreadLocalRandom.current().nextLong(minMicros, maxMicros + 1);
+			long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(micros);
+
+			// Parking can return early, wait out whatever is left
+			long remaining;
+			while ((remaining = deadline - System.nanoTime()) > 0
+					&& !Thread.currentThread().isInterrupted()) {
+				LockSupport.parkNanos(remaining);
+			}
+		};
+	}
+
+	/**
+	 * Creates the latency configured by the memoryLatencyMicros and
+	 * memoryLatencyJitterMicros service properties. Each round trip takes
+	 * memoryLatencyMicros plus a random jitter of up to
+	 * memoryLatencyJitterMicros.
+	 *
+	 * @param propsResolver the service properties
+	 * @return SimulatedLatency
+	 * @throws PropertyRetrievalException
+	 */
+	static SimulatedLatency fromProperties(PropertiesResolver propsResolver)
+			throws PropertyRetrievalException {
+		long latency = Long.parseLong(propsResolver.getProperty("memoryLatencyMicros").trim());
+		long jitter = Long.parseLong(propsResolver.getProperty("memoryLatencyJitterMicros").trim());
+		return uniform(latency, latency + jitter);
+	}
+}
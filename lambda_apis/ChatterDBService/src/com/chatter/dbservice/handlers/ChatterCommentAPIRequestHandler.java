@@ -8,11 +8,13 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.chatter.dbservice.dao.CommentDAO;
-import com.chatter.dbservice.dao.impl.CommentDAOImpl;
+import com.chatter.dbservice.dao.DAORegistry;
 import com.chatter.dbservice.exceptions.MissingOperationException;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 import com.chatter.dbservice.exceptions.RequestValidationException;
 import com.chatter.dbservice.exceptions.UnsupportedOperationException;
+import com.chatter.dbservice.metrics.OperationTimer;
+import com.chatter.dbservice.metrics.ServiceMetrics;
 import com.chatter.dbservice.model.ChatterComment;
 import com.chatter.dbservice.requests.CommentCRUDRequest;
 import com.chatter.dbservice.responses.CommentResultPage;
@@ -41,9 +43,13 @@ public class ChatterCommentAPIRequestHandler implements
     		// Define response to be returned on error conditions
     		ServiceResponse<Void> response;
     		
+    		// Time the operation for the service metrics
+    		OperationTimer timer = ServiceMetrics.getInstance().start(
+    				"Comment." + input.getOperation());
+    		
     		try {
-    			// Initialize DAO
-    			dao = new CommentDAOImpl();
+    			// Retrieve DAO shared across invocations
+    			dao = DAORegistry.getInstance().getCommentDAO();
     			
     			// Retrieve request operation from incoming request
     			ChatterCommentOps op = input.getOperation();
@@ -51,6 +57,8 @@ public class ChatterCommentAPIRequestHandler implements
     				switch(op) {
     					case CREATE:
     						return this.createComment(input, context);
+    					case CREATE_IN_FORUM:
+    						return this.createCommentInForum(input, context);
     					case RETRIEVE:
     						return this.retrieveComment(input, context);
 						case ADD_FLAG:
@@ -65,6 +73,8 @@ public class ChatterCommentAPIRequestHandler implements
 							return this.deleteComment(input, context);
 						case INCREMENT_CONCUR:
 							return this.updateComment(input, context);
+						case CONSOLIDATE_CONCUR:
+							return this.updateComment(input, context);
 						case PING:
 							return this.pingService();
 						case QUERY_BY_CREATOR:
@@ -89,6 +99,7 @@ public class ChatterCommentAPIRequestHandler implements
     			}
     		}
     		catch (PropertyRetrievalException pre) {
+    			timer.fail(pre);
     			response = new ServiceResponse<>();
     			response.setPayload(null);
     			response.setStatus(false);
@@ -101,6 +112,7 @@ public class ChatterCommentAPIRequestHandler implements
     			return response;
     		}
     		catch (MissingOperationException moe) {
+    			timer.fail(moe);
     			response = new ServiceResponse<>();
     			response.setPayload(null);
     			response.setStatus(false);
@@ -113,6 +125,7 @@ public class ChatterCommentAPIRequestHandler implements
     			return response;
     		}
     		catch (UnsupportedOperationException uoe) {
+    			timer.fail(uoe);
     			response = new ServiceResponse<>();
     			response.setPayload(null);
     			response.setStatus(false);
@@ -125,6 +138,7 @@ public class ChatterCommentAPIRequestHandler implements
     			return response;
     		}
     		catch (RequestValidationException rve) {
+    			timer.fail(rve);
     			response = new ServiceResponse<>();
     			response.setPayload(null);
     			response.setStatus(false);
@@ -137,6 +151,7 @@ public class ChatterCommentAPIRequestHandler implements
     			return response;
     		}
     		catch (AmazonClientException ace) {
+    			timer.fail(ace);
     			response = new ServiceResponse<>();
     			response.setPayload(null);
     			response.setStatus(false);
@@ -148,6 +163,9 @@ public class ChatterCommentAPIRequestHandler implements
     			logger.log(exMsg);
     			return response;
     		}
+    		finally {
+    			logger.log(timer.stop());
+    		}
     	}
     	
     	// If the request input is NULL return NULL response
@@ -181,6 +199,34 @@ public class ChatterCommentAPIRequestHandler implements
     	return response;
     }
     
+    /**
+     * Create and save a new ChatterComment object to the database and
+     * add it to its parent forum in the same invocation
+     * @param request the request to process
+     * @param context request context
+     * @return
+     * @throws RequestValidationException
+     * @throws AmazonServiceException
+     * @throws AmazonClientException
+     */
+    public ServiceResponse<ChatterComment> createCommentInForum(CommentCRUDRequest request,
+    		Context context) throws RequestValidationException, AmazonServiceException,
+    			AmazonClientException, PropertyRetrievalException {
+    	
+    	ServiceResponse<ChatterComment> response = new ServiceResponse<>();
+    	
+    	LambdaLogger logger = context.getLogger();
+    	logger.log(request.toString());
+    	
+    	ChatterComment comment = this.dao.createCommentInForum(request);
+    	response.setPayload(comment);
+    	response.setStatus(true);
+    	response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
+    	response.setExceptionThrown(false);
+    	response.setExceptionMessage(null);
+    	return response;
+    }
+    
     /**
      * Retrieve a ChatterComment object from database using
      * argument comment id value.
@@ -393,7 +439,9 @@ public class ChatterCommentAPIRequestHandler implements
     	LambdaLogger logger = context.getLogger();
     	logger.log(request.toString());
     	
-    	response.setPayload(this.dao.getServiceProperties());
+    	ServicePropsResponse serviceProps = this.dao.getServiceProperties();
+    	serviceProps.setMetrics(ServiceMetrics.getInstance().snapshot());
+    	response.setPayload(serviceProps);
     	response.setStatus(true);
     	response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
     	response.setExceptionThrown(false);
@@ -0,0 +1,27 @@
+package com.chatter.dbservice.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.util.ServiceJson;
+
+/**
+ * ChatterCommentAPIStreamHandler
+ * @author coreym
+ *
+ * Streaming variant of the ChatterCommentAPIRequestHandler. Handles the
+ * same operations, reading the request and writing the response with
+ * the pre-built ServiceJson codec.
+ */
+public class ChatterCommentAPIStreamHandler extends ServiceStreamHandler<CommentCRUDRequest> {
+
+	public ChatterCommentAPIStreamHandler() {
+		super(new ChatterCommentAPIRequestHandler());
+	}
+
+	@Override
+	protected CommentCRUDRequest readRequest(InputStream input) throws IOException {
+		return ServiceJson.readCommentRequest(input);
+	}
+}
@@ -8,11 +8,13 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.chatter.dbservice.dao.FlagDAO;
-import com.chatter.dbservice.dao.impl.FlagDAOImpl;
+import com.chatter.dbservice.dao.DAORegistry;
 import com.chatter.dbservice.exceptions.MissingOperationException;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 import com.chatter.dbservice.exceptions.RequestValidationException;
 import com.chatter.dbservice.exceptions.UnsupportedOperationException;
+import com.chatter.dbservice.metrics.OperationTimer;
+import com.chatter.dbservice.metrics.ServiceMetrics;
 import com.chatter.dbservice.requests.FlagCRUDRequest;
 import com.chatter.dbservice.responses.ServiceResponse;
 import com.chatter.dbservice.util.ServiceMessages;
@@ -40,9 +42,13 @@ public class ChatterFlagAPIRequestHandler implements
     		// Define response to be returned on error conditions
     		ServiceResponse<Void> response = new ServiceResponse<>();
     		
+    		// Time the operation for the service metrics
+    		OperationTimer timer = ServiceMetrics.getInstance().start(
+    				"Flag." + input.getOperation());
+    		
     		try {
-    			// Initialize DAO
-    			dao = new FlagDAOImpl();
+    			// Retrieve DAO shared across invocations
+    			dao = DAORegistry.getInstance().getFlagDAO();
     			
     			ChatterFlagOps op = input.getOperation();
     			if (op != null) {
@@ -75,6 +81,7 @@ public class ChatterFlagAPIRequestHandler implements
     			}
     		}
     		catch (MissingOperationException moe) {
+    			timer.fail(moe);
     			// Set error response and return
     			response.setPayload(null);
     			response.setStatus(false);
@@ -87,6 +94,7 @@ public class ChatterFlagAPIRequestHandler implements
     			return response;
     		}
     		catch (UnsupportedOperationException uoe) {
+    			timer.fail(uoe);
     			// Set error response and return
     			response.setPayload(null);
     			response.setStatus(false);
@@ -99,6 +107,7 @@ public class ChatterFlagAPIRequestHandler implements
     			return response;
     		}
     		catch (RequestValidationException rve) {
+    			timer.fail(rve);
     			// Set error response and return
     			response.setPayload(null);
     			response.setStatus(false);
@@ -111,6 +120,7 @@ public class ChatterFlagAPIRequestHandler implements
     			return response;
     		}
     		catch (PropertyRetrievalException pre) {
+    			timer.fail(pre);
     			// Set error response and return
     			response.setPayload(null);
     			response.setStatus(false);
@@ -123,6 +133,7 @@ public class ChatterFlagAPIRequestHandler implements
     			return response;
     		}
     		catch (AmazonClientException ace) {
+    			timer.fail(ace);
     			// Set error response and return
     			response.setPayload(null);
     			response.setStatus(false);
@@ -134,6 +145,9 @@ public class ChatterFlagAPIRequestHandler implements
     			logger.log(exceptionMessage);
     			return response;
     		}
+    		finally {
+    			logger.log(timer.stop());
+    		}
     	}
 
     	// Returns null response if incoming request is null
@@ -325,7 +339,9 @@ public class ChatterFlagAPIRequestHandler implements
     	// Log request info to logger
     	context.getLogger().log(request.toString());
     	
-    	response.setPayload(dao.getServiceProperties());
+    	ServicePropsResponse serviceProps = dao.getServiceProperties();
+    	serviceProps.setMetrics(ServiceMetrics.getInstance().snapshot());
+    	response.setPayload(serviceProps);
     	response.setStatus(true);
     	response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
     	response.setExceptionThrown(false);
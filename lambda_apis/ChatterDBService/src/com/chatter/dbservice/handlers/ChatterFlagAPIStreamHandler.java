@@ -0,0 +1,27 @@
+package com.chatter.dbservice.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.chatter.dbservice.requests.FlagCRUDRequest;
+import com.chatter.dbservice.util.ServiceJson;
+
+/**
+ * ChatterFlagAPIStreamHandler
+ * @author coreym
+ *
+ * Streaming variant of the ChatterFlagAPIRequestHandler. Handles the
+ * same operations, reading the request and writing the response with
+ * the pre-built ServiceJson codec.
+ */
+public class ChatterFlagAPIStreamHandler extends ServiceStreamHandler<FlagCRUDRequest> {
+
+	public ChatterFlagAPIStreamHandler() {
+		super(new ChatterFlagAPIRequestHandler());
+	}
+
+	@Override
+	protected FlagCRUDRequest readRequest(InputStream input) throws IOException {
+		return ServiceJson.readFlagRequest(input);
+	}
+}
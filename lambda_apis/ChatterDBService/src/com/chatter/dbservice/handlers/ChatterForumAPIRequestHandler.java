@@ -6,16 +6,23 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.chatter.dbservice.dao.ForumDAO;
-import com.chatter.dbservice.dao.impl.ForumDAOImpl;
+import com.chatter.dbservice.dao.DAORegistry;
 import com.chatter.dbservice.exceptions.MissingOperationException;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 import com.chatter.dbservice.exceptions.RequestValidationException;
 import com.chatter.dbservice.exceptions.UnsupportedOperationException;
+import com.chatter.dbservice.metrics.OperationTimer;
+import com.chatter.dbservice.metrics.ServiceMetrics;
+import com.chatter.dbservice.requests.CommentArgs;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.ForumArgs;
 import com.chatter.dbservice.requests.ForumCRUDRequest;
 import com.chatter.dbservice.responses.ServiceResponse;
+import com.chatter.dbservice.util.ops.ChatterCommentOps;
 import com.chatter.dbservice.util.ops.ChatterForumOps;
 import com.chatter.dbservice.model.ChatterForum;
 import com.chatter.dbservice.util.ServiceMessages;
+import com.chatter.dbservice.responses.CommentResultPage;
 import com.chatter.dbservice.responses.ForumResultPage;
 import com.chatter.dbservice.responses.ServicePropsResponse;
 
@@ -37,9 +44,13 @@ public class ChatterForumAPIRequestHandler implements
     		// Define response to be returned on error conditions
     		ServiceResponse<Void> response = new ServiceResponse<>();
     		
+    		// Time the operation for the service metrics
+    		OperationTimer timer = ServiceMetrics.getInstance().start(
+    				"Forum." + input.getOperation());
+    		
     		try {
-    			// Initialize DAO
-    			dao = new ForumDAOImpl();
+    			// Retrieve DAO shared across invocations
+    			dao = DAORegistry.getInstance().getForumDAO();
     			
     			ChatterForumOps op = input.getOperation();
     			if (op != null) {
@@ -58,6 +69,8 @@ public class ChatterForumAPIRequestHandler implements
 						return this.queryByTitle(input, context);
 					case REMOVE_COMMENT:
 						return this.removeCommentFromForum(input, context);
+					case QUERY_COMMENTS:
+						return this.queryComments(input, context);
 					case UPDATE:
 						return this.updateForum(input, context);
 					case PING:
@@ -75,6 +88,7 @@ public class ChatterForumAPIRequestHandler implements
     			}
     		}
     		catch (MissingOperationException moe) {
+    			timer.fail(moe);
     			//Set error response and return
         		response.setPayload(null);
         		response.setStatus(false);
@@ -87,6 +101,7 @@ public class ChatterForumAPIRequestHandler implements
         		return response;
     		}
     		catch (UnsupportedOperationException uoe) {
+    			timer.fail(uoe);
     			// Set error response and return
         		response.setPayload(null);
         		response.setStatus(false);
@@ -99,6 +114,7 @@ public class ChatterForumAPIRequestHandler implements
         		return response;
     		}
     		catch (RequestValidationException rve) {
+    			timer.fail(rve);
     			// Set error response and return
         		response.setPayload(null);
         		response.setStatus(false);
@@ -111,6 +127,7 @@ public class ChatterForumAPIRequestHandler implements
         		return response;
     		}
     		catch (PropertyRetrievalException pre) {
+    			timer.fail(pre);
     			// Set error response and return
         		response.setPayload(null);
         		response.setStatus(false);
@@ -123,6 +140,7 @@ public class ChatterForumAPIRequestHandler implements
         		return response;
     		}
     		catch (AmazonClientException ace) {
+    			timer.fail(ace);
     			// Set error response and return
         		response.setPayload(null);
         		response.setStatus(false);
@@ -134,6 +152,9 @@ public class ChatterForumAPIRequestHandler implements
         		logger.log(exceptionMessage);
         		return response;
     		}
+    		finally {
+    			logger.log(timer.stop());
+    		}
     	}
         
     	// If incoming request is NULL the return NULL response
@@ -229,8 +250,8 @@ public class ChatterForumAPIRequestHandler implements
     }
     
     /**
-     * Updates a ChatterForum object by adding a new comment id to the 
-     * set of comment ids associated with forum.
+     * Updates a ChatterForum object by incrementing the count of
+     * comments associated with forum.
      * 
      * @param input the request to process
      * @param context lambda context object
@@ -260,8 +281,8 @@ public class ChatterForumAPIRequestHandler implements
 	}
     
     /**
-     * Updates a ChatterForum object by removing a comment id from the 
-     * set of comment ids associated with forum.
+     * Updates a ChatterForum object by decrementing the count of
+     * comments associated with forum.
      * 
      * @param input the request to process
      * @param context lambda context object
@@ -290,6 +311,64 @@ public class ChatterForumAPIRequestHandler implements
     	return response;
     }
     
+    /**
+     * Retrieves a page of the comments added to a forum. Comments are
+     * queried through the ChatterComment forum_time_index. The result page
+     * also contains the last key evaluated so that subsequent results
+     * can be retrieved in another request.
+     * 
+     * @param input the request to process
+     * @param context lambda context object
+     * @return CommentResultPage
+     * 
+     * @throws RequestValidationException
+     * @throws AmazonServiceException
+     * @throws AmazonClientException
+     * @throws PropertyRetrievalException
+     */
+    public ServiceResponse<CommentResultPage> queryComments(ForumCRUDRequest request,
+    		Context context) throws RequestValidationException, AmazonServiceException,
+    			AmazonClientException, PropertyRetrievalException {
+    	
+    	ServiceResponse<CommentResultPage> response = new ServiceResponse<>();
+    	
+    	// Log request info to lambda logger
+    	LambdaLogger logger = context.getLogger();
+    	logger.log(request.toString());
+    	
+    	// Forum membership is owned by the comment data, delegate to comment DAO
+    	CommentResultPage commentResultPage = DAORegistry.getInstance().getCommentDAO()
+    			.queryByForum(new CommentCRUDRequest(ChatterCommentOps.QUERY_BY_FORUM,
+    					this.toCommentQueryArgs(request.getArgs())));
+    	response.setPayload(commentResultPage);
+    	response.setStatus(true);
+    	response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
+    	response.setExceptionThrown(false);
+    	response.setExceptionMessage(null);
+    	return response;
+    }
+    
+    /**
+     * Copies the arguments of a forum comments query into the arguments
+     * of the comment query that answers it.
+     * @param forumArgs the forum request arguments, may be NULL
+     * @return CommentArgs or NULL if forumArgs is NULL
+     */
+    private CommentArgs toCommentQueryArgs(ForumArgs forumArgs) {
+    	if (forumArgs == null) {
+    		return null;
+    	}
+    	CommentArgs commentArgs = new CommentArgs();
+    	commentArgs.setForumId(forumArgs.getForumId());
+    	commentArgs.setTimeStampFrom(forumArgs.getTimeStampFrom());
+    	commentArgs.setTimeStampTo(forumArgs.getTimeStampTo());
+    	commentArgs.setSortOrder(forumArgs.getSortOrder());
+    	commentArgs.setView(forumArgs.getView());
+    	commentArgs.setCursor(forumArgs.getCursor());
+    	commentArgs.setMaxResults(forumArgs.getMaxResults());
+    	return commentArgs;
+    }
+    
     /**
      * Queries the ChatterForum DB table using the global secondary 
      * index (createdBy). Results are returned in pages of 20. The
@@ -407,7 +486,9 @@ public class ChatterForumAPIRequestHandler implements
     	LambdaLogger logger = context.getLogger();
     	logger.log(request.toString());
     	
-    	response.setPayload(dao.getServiceProperties());
+    	ServicePropsResponse serviceProps = dao.getServiceProperties();
+    	serviceProps.setMetrics(ServiceMetrics.getInstance().snapshot());
+    	response.setPayload(serviceProps);
     	response.setStatus(true);
     	response.setExceptionThrown(false);
     	response.setExceptionMessage(null);
@@ -0,0 +1,27 @@
+package com.chatter.dbservice.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.dbservice.util.ServiceJson;
+
+/**
+ * ChatterForumAPIStreamHandler
+ * @author coreym
+ *
+ * Streaming variant of the ChatterForumAPIRequestHandler. Handles the
+ * same operations, reading the request and writing the response with
+ * the pre-built ServiceJson codec.
+ */
+public class ChatterForumAPIStreamHandler extends ServiceStreamHandler<ForumCRUDRequest> {
+
+	public ChatterForumAPIStreamHandler() {
+		super(new ChatterForumAPIRequestHandler());
+	}
+
+	@Override
+	protected ForumCRUDRequest readRequest(InputStream input) throws IOException {
+		return ServiceJson.readForumRequest(input);
+	}
+}
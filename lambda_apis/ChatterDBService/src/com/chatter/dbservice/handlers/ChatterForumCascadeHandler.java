@@ -0,0 +1,50 @@
+package com.chatter.dbservice.handlers;
+
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.chatter.dbservice.dao.DAORegistry;
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+
+/**
+ * ChatterForumCascadeHandler
+ * @author coreym
+ *
+ * Scheduled handler that continues the cascading deletes of removed
+ * forums. Cascades are normally started by ChatterForumDBEventHandler.
+ * This handler finishes the ones that did not fit in that invocation,
+ * or that failed, without waiting for further forum stream activity.
+ */
+public class ChatterForumCascadeHandler implements
+	RequestHandler<Map<String, Object>, String> {
+
+	@Override
+	public String handleRequest(Map<String, Object> event, Context ctx) {
+		
+		// Get logger from context
+		LambdaLogger logger = ctx.getLogger();
+		
+		try {
+			DAORegistry registry = DAORegistry.getInstance();
+			long margin = Long.parseLong(registry.getPropertiesResolver()
+					.getProperty("cascadeTimeMarginMs").trim());
+			List<String> finished = registry.getCascadeDeleter().resumeAll(
+					System.currentTimeMillis() + ctx.getRemainingTimeInMillis() - margin);
+			
+			logger.log("Finished cascading delete for forums: " + finished);
+			return "Finished cascading delete for " + finished.size() + " forums";
+		}
+		catch (PropertyRetrievalException pre) {
+			logger.log("ERROR: Could not retrieve service properties: " + pre.getMessage());
+			throw new IllegalStateException(pre);
+		}
+		catch (AmazonClientException ace) {
+			logger.log("ERROR: Forum cascading delete failed: " + ace.getMessage());
+			throw ace;
+		}
+	}
+}
@@ -1,11 +1,20 @@
 package com.chatter.dbservice.handlers;
 
-import com.amazonaws.services.dynamodbv2.model.StreamRecord;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
-import com.amazonaws.services.lambda.runtime.events.DynamodbEvent.DynamodbStreamRecord;
+import com.chatter.dbservice.dao.DAORegistry;
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.responses.StreamBatchResponse;
+import com.chatter.dbservice.streams.CascadeDeleteScheduler;
+import com.chatter.dbservice.streams.CreatorForumCounter;
+import com.chatter.dbservice.streams.ForumStreamProcessor;
 
 
 /**
@@ -13,34 +22,70 @@ import com.amazonaws.services.lambda.runtime.events.DynamodbEvent.DynamodbStream
  * @author coreym
  *
  * Handles events found on the ChatterForum
- * DB stream.
+ * DB stream. Each INSERT, MODIFY and REMOVE record is decoded and used
+ * to maintain per creator forum counts and to schedule the cascading
+ * delete of removed forums. Forum caches are not invalidated from here,
+ * since they live in the API containers, so cached forums are stale for
+ * at most forumCacheTtlMs.
+ * Failed records are reported back as batch item failures, so the
+ * event source mapping must have ReportBatchItemFailures enabled.
+ *
+ * Once the records are processed, the time left in the invocation is
+ * spent on pending cascades. Cascades that do not finish are picked up
+ * by the next invocation or by ChatterForumCascadeHandler.
  */
 public class ChatterForumDBEventHandler implements
-	RequestHandler<DynamodbEvent, String>{
+	RequestHandler<DynamodbEvent, StreamBatchResponse>{
 
 	@Override
-	public String handleRequest(DynamodbEvent event, Context ctx) {
+	public StreamBatchResponse handleRequest(DynamodbEvent event, Context ctx) {
 		
 		// Get logger from context
 		LambdaLogger logger = ctx.getLogger();
 		
-		// Process event
-		if (event != null) {
-			// Get properties from the event object
-			for (DynamodbStreamRecord rec : event.getRecords()) {
-				String eventId = rec.getEventID();
-				String awsRegion = rec.getAwsRegion();
-				String eventName = rec.getEventName();
-				StreamRecord eventRecord = rec.getDynamodb();
-				
-				// To process properly, need to know the name of the
-				// table affected, the item's id, the type of operation
-				// that triggered the event (i.e. INSERT, MODIFY, or
-				// REMOVE
-			}
+		if (event == null || event.getRecords() == null || event.getRecords().isEmpty()) {
+			return new StreamBatchResponse();
 		}
 		
-		return null;
+		try {
+			// Build the pipeline on top of the resources shared across invocations
+			DAORegistry registry = DAORegistry.getInstance();
+			ForumStreamProcessor processor = new ForumStreamProcessor(
+					registry.getDBMapper(), registry.getBatchExecutor(),
+					Arrays.asList(
+							new CreatorForumCounter(registry.getDBClient()),
+							new CascadeDeleteScheduler(registry.getCascadeDeleter())));
+			
+			// Process event
+			List<String> failures = processor.process(event.getRecords());
+			if (!failures.isEmpty()) {
+				logger.log("ERROR: " + failures.size() + " Chatter Forum stream records "
+						+ "failed and will be retried: " + failures);
+			}
+			
+			// Cascade failures are retried from their checkpoint by a later run
+			try {
+				long margin = Long.parseLong(registry.getPropertiesResolver()
+						.getProperty("cascadeTimeMarginMs").trim());
+				List<String> finished = registry.getCascadeDeleter().resumeAll(
+						System.currentTimeMillis() + ctx.getRemainingTimeInMillis() - margin);
+				if (!finished.isEmpty()) {
+					logger.log("Finished cascading delete for forums: " + finished);
+				}
+			}
+			catch (AmazonClientException ace) {
+				logger.log("ERROR: Forum cascading delete failed: " + ace.getMessage());
+			}
+			return new StreamBatchResponse(failures);
+		}
+		catch (PropertyRetrievalException pre) {
+			logger.log("ERROR: Could not retrieve service properties: " + pre.getMessage());
+			
+			// Nothing was processed, retry the whole batch
+			return new StreamBatchResponse(event.getRecords().stream()
+					.map(rec -> rec.getDynamodb().getSequenceNumber())
+					.collect(Collectors.toList()));
+		}
 	}
 
 }
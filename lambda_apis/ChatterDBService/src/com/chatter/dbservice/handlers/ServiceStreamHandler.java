@@ -0,0 +1,70 @@
+package com.chatter.dbservice.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.chatter.dbservice.responses.ServiceResponse;
+import com.chatter.dbservice.util.ServiceJson;
+import com.chatter.dbservice.util.ServiceMessages;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * ServiceStreamHandler
+ * @author coreym
+ *
+ * Base of the streaming variants of the API request handlers. The
+ * request is bound from the input stream and the response written to
+ * the output stream with ServiceJson, in place of the reflective Lambda
+ * POJO serializer. Operations are processed by the wrapped API request
+ * handler.
+ *
+ * A request body that cannot be bound, e.g. one holding a malformed
+ * time stamp, is answered with an INVALID_REQUEST response.
+ *
+ * @param <I> the request type
+ */
+abstract class ServiceStreamHandler<I> implements RequestStreamHandler {
+
+	private final RequestHandler<I, ServiceResponse<? extends Object>> handler;
+
+	ServiceStreamHandler(RequestHandler<I, ServiceResponse<? extends Object>> handler) {
+		this.handler = handler;
+	}
+
+	@Override
+	public void handleRequest(InputStream input, OutputStream output, Context context)
+			throws IOException {
+		ServiceResponse<? extends Object> response;
+		try {
+			response = this.handler.handleRequest(this.readRequest(input), context);
+		}
+		catch (JsonProcessingException jpe) {
+			response = unreadable(jpe);
+			context.getLogger().log(response.getExceptionMessage());
+		}
+		ServiceJson.writeResponse(response, output);
+	}
+
+	/**
+	 * Binds the request from the argument stream.
+	 * @param input the request JSON
+	 * @return the request
+	 * @throws IOException
+	 */
+	protected abstract I readRequest(InputStream input) throws IOException;
+
+	private static ServiceResponse<Void> unreadable(JsonProcessingException jpe) {
+		ServiceResponse<Void> response = new ServiceResponse<>();
+		response.setPayload(null);
+		response.setStatus(false);
+		response.setMessage(ServiceMessages.INVALID_REQUEST.toString());
+		response.setExceptionThrown(true);
+		response.setExceptionMessage("ERROR: request body could not be read: "
+				+ jpe.getOriginalMessage());
+		return response;
+	}
+}
@@ -0,0 +1,144 @@
+package com.chatter.dbservice.metrics;
+
+import java.util.List;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+
+/**
+ * ConsumedCapacityHandler
+ * @author coreym
+ *
+ * DynamoDB client request handler that asks for the TOTAL consumed
+ * capacity of every item call that does not already ask for it, and adds
+ * the capacity reported in each response to the service metrics.
+ * Requests made through the DynamoDBMapper pass through here as well.
+ */
+public class ConsumedCapacityHandler extends RequestHandler2 {
+
+	private final ServiceMetrics metrics;
+
+	/**
+	 * @param metrics where consumed capacity is recorded
+	 */
+	public ConsumedCapacityHandler(ServiceMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public AmazonWebServiceRequest beforeMarshalling(AmazonWebServiceRequest request) {
+		if (request instanceof GetItemRequest) {
+			GetItemRequest get = (GetItemRequest) request;
+			if (get.getReturnConsumedCapacity() == null) {
+				get.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+			}
+		}
+		else if (request instanceof PutItemRequest) {
+			PutItemRequest put = (PutItemRequest) request;
+			if (put.getReturnConsumedCapacity() == null) {
+				put.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+			}
+		}
+		else if (request instanceof UpdateItemRequest) {
+			UpdateItemRequest update = (UpdateItemRequest) request;
+			if (update.getReturnConsumedCapacity() == null) {
+				update.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+			}
+		}
+		else if (request instanceof DeleteItemRequest) {
+			DeleteItemRequest delete = (DeleteItemRequest) request;
+			if (delete.getReturnConsumedCapacity() == null) {
+				delete.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+			}
+		}
+		else if (request instanceof QueryRequest) {
+			QueryRequest query = (QueryRequest) request;
+			if (query.getReturnConsumedCapacity() == null) {
+				query.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+			}
+		}
+		else if (request instanceof ScanRequest) {
+			ScanRequest scan = (ScanRequest) request;
+			if (scan.getReturnConsumedCapacity() == null) {
+				scan.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+			}
+		}
+		else if (request instanceof BatchGetItemRequest) {
+			BatchGetItemRequest batchGet = (BatchGetItemRequest) request;
+			if (batchGet.getReturnConsumedCapacity() == null) {
+				batchGet.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+			}
+		}
+		else if (request instanceof BatchWriteItemRequest) {
+			BatchWriteItemRequest batchWrite = (BatchWriteItemRequest) request;
+			if (batchWrite.getReturnConsumedCapacity() == null) {
+				batchWrite.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+			}
+		}
+		return request;
+	}
+
+	@Override
+	public void afterResponse(Request<?> request, Response<?> response) {
+		Object result = response != null ? response.getAwsResponse() : null;
+		if (result instanceof GetItemResult) {
+			this.record(((GetItemResult) result).getConsumedCapacity());
+		}
+		else if (result instanceof PutItemResult) {
+			this.record(((PutItemResult) result).getConsumedCapacity());
+		}
+		else if (result instanceof UpdateItemResult) {
+			this.record(((UpdateItemResult) result).getConsumedCapacity());
+		}
+		else if (result instanceof DeleteItemResult) {
+			this.record(((DeleteItemResult) result).getConsumedCapacity());
+		}
+		else if (result instanceof QueryResult) {
+			this.record(((QueryResult) result).getConsumedCapacity());
+		}
+		else if (result instanceof ScanResult) {
+			this.record(((ScanResult) result).getConsumedCapacity());
+		}
+		else if (result instanceof BatchGetItemResult) {
+			this.recordAll(((BatchGetItemResult) result).getConsumedCapacity());
+		}
+		else if (result instanceof BatchWriteItemResult) {
+			this.recordAll(((BatchWriteItemResult) result).getConsumedCapacity());
+		}
+	}
+
+	private void recordAll(List<ConsumedCapacity> capacities) {
+		if (capacities != null) {
+			for (ConsumedCapacity capacity : capacities) {
+				this.record(capacity);
+			}
+		}
+	}
+
+	private void record(ConsumedCapacity capacity) {
+		if (capacity != null && capacity.getCapacityUnits() != null) {
+			this.metrics.recordConsumedCapacity(capacity.getTableName(),
+					capacity.getCapacityUnits());
+		}
+	}
+}
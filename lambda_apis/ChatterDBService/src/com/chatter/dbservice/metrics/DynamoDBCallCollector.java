@@ -0,0 +1,46 @@
+package com.chatter.dbservice.metrics;
+
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.TimingInfo;
+
+/**
+ * DynamoDBCallCollector
+ * @author coreym
+ *
+ * Request metric collector installed on the DynamoDB client. The SDK calls
+ * it once per client call, after every retry has been made, with the
+ * attempt and throttle counters it kept for the call. Those counters are
+ * added to the service metrics.
+ *
+ * Installing a collector also makes the SDK keep the per call counters,
+ * which it otherwise skips.
+ */
+public class DynamoDBCallCollector extends RequestMetricCollector {
+
+	private final ServiceMetrics metrics;
+
+	/**
+	 * @param metrics where call counts are recorded
+	 */
+	public DynamoDBCallCollector(ServiceMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void collectMetrics(Request<?> request, Response<?> response) {
+		TimingInfo timing = request.getAWSRequestMetrics().getTimingInfo();
+		long attempts = counter(timing, Field.RequestCount);
+		long throttles = counter(timing, Field.ThrottleException);
+
+		// The response is NULL when the call failed after all retries
+		this.metrics.recordDynamoCall(Math.max(0, attempts - 1), throttles, response == null);
+	}
+
+	private static long counter(TimingInfo timing, Field field) {
+		Number value = timing.getCounter(field.name());
+		return value != null ? value.longValue() : 0;
+	}
+}
@@ -0,0 +1,113 @@
+package com.chatter.dbservice.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram
+ * @author coreym
+ *
+ * Lock free histogram of latencies in microseconds. Each power of two is
+ * split into eight buckets, so a reported percentile is at most 12.5%
+ * above the true value. Recording is a few atomic increments and never
+ * allocates, which keeps it cheap enough to run on every request.
+ */
+public class LatencyHistogram {
+
+	// Buckets per power of two, must be a power of two itself
+	private static final int SUB_BUCKETS = 8;
+	private static final int SUB_BUCKET_BITS = 3;
+
+	// Latencies above 2^36 microseconds (about 19 hours) share the last bucket
+	private static final int MAX_OCTAVE = 36;
+	private static final int BUCKETS = (MAX_OCTAVE - 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalMicros = new AtomicLong();
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	/**
+	 * Records one latency.
+	 *
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+		this.counts.incrementAndGet(bucketFor(micros));
+		this.count.incrementAndGet();
+		this.totalMicros.addAndGet(micros);
+
+		long max = this.maxMicros.get();
+		while (micros > max && !this.maxMicros.compareAndSet(max, micros)) {
+			max = this.maxMicros.get();
+		}
+	}
+
+	/**
+	 * @return the number of recorded latencies
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * @return the mean latency in milliseconds, zero when nothing was recorded
+	 */
+	public double getMeanMs() {
+		long n = this.count.get();
+		return n > 0 ? this.totalMicros.get() / (n * 1000.0) : 0;
+	}
+
+	/**
+	 * @return the largest recorded latency in milliseconds
+	 */
+	public double getMaxMs() {
+		return this.maxMicros.get() / 1000.0;
+	}
+
+	/**
+	 * Returns the latency below which the argument fraction of recorded
+	 * latencies fall, rounded up to the end of its bucket.
+	 *
+	 * @param quantile the fraction, between 0 and 1
+	 * @return the latency in milliseconds, zero when nothing was recorded
+	 */
+	public double getPercentileMs(double quantile) {
+		long n = this.count.get();
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += this.counts.get(i);
+			if (seen >= rank) {
+				// The last bucket is open ended
+				long bound = i < BUCKETS - 1 ? upperBound(i) : Long.MAX_VALUE;
+				return Math.min(bound, this.maxMicros.get()) / 1000.0;
+			}
+		}
+		// Buckets and count are read at different times under concurrent records
+		return this.getMaxMs();
+	}
+
+	static int bucketFor(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int octave = 63 - Long.numberOfLeadingZeros(micros);
+		int subBucket = (int) (micros >>> (octave - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return Math.min((octave - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket, BUCKETS - 1);
+	}
+
+	static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int octave = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int subBucket = bucket % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + subBucket + 1) << (octave - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,53 @@
+package com.chatter.dbservice.metrics;
+
+import java.util.Locale;
+
+/**
+ * OperationTimer
+ * @author coreym
+ *
+ * Times a single call of an operation. Created by ServiceMetrics.start
+ * and stopped once the call completes, which records the latency and
+ * returns a structured log line describing the call.
+ */
+public class OperationTimer {
+
+	private final ServiceMetrics metrics;
+	private final String name;
+	private final long startNanos = System.nanoTime();
+	private String error;
+
+	OperationTimer(ServiceMetrics metrics, String name) {
+		this.metrics = metrics;
+		this.name = name;
+	}
+
+	/**
+	 * Marks the call as failed.
+	 *
+	 * @param ex the exception the call ended with
+	 */
+	public void fail(Exception ex) {
+		this.error = ex.getClass().getSimpleName();
+	}
+
+	/**
+	 * Records the call and returns a single line JSON metric record, e.g.
+	 * {"metric":"operation","name":"Comment.RETRIEVE","latencyMs":4.21,"success":true}
+	 *
+	 * @return the log line
+	 */
+	public String stop() {
+		long nanos = System.nanoTime() - this.startNanos;
+		this.metrics.recordOperation(this.name, nanos, this.error != null);
+
+		StringBuilder line = new StringBuilder(128)
+			.append("{\"metric\":\"operation\",\"name\":\"").append(this.name)
+			.append("\",\"latencyMs\":").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0))
+			.append(",\"success\":").append(this.error == null);
+		if (this.error != null) {
+			line.append(",\"error\":\"").append(this.error).append('"');
+		}
+		return line.append('}').toString();
+	}
+}
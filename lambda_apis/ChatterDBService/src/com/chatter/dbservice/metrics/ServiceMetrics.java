@@ -0,0 +1,149 @@
+package com.chatter.dbservice.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import com.chatter.dbservice.dao.impl.EntityCache;
+import com.chatter.dbservice.responses.MetricsSnapshot;
+
+/**
+ * ServiceMetrics
+ * @author coreym
+ *
+ * Collects the metrics of every handler and DAO running in this container:
+ * latency histograms per operation, DynamoDB consumed capacity, retry and
+ * throttle counts, and cache hit rates. Like the DAORegistry, a single
+ * instance is shared across warm invocations, so the numbers cover the
+ * lifetime of the container.
+ *
+ * All methods are thread safe.
+ */
+public final class ServiceMetrics {
+
+	private static final ServiceMetrics INSTANCE = new ServiceMetrics();
+
+	private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+	private final Map<String, DoubleAdder> consumedCapacity = new ConcurrentHashMap<>();
+	private final Map<String, EntityCache<?>> caches = new ConcurrentHashMap<>();
+	private final AtomicLong dynamoRequests = new AtomicLong();
+	private final AtomicLong dynamoRetries = new AtomicLong();
+	private final AtomicLong dynamoThrottles = new AtomicLong();
+	private final AtomicLong dynamoErrors = new AtomicLong();
+
+	ServiceMetrics() { }
+
+	/**
+	 * @return the metrics shared by this container
+	 */
+	public static ServiceMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Starts timing one call of the argument operation. The returned timer
+	 * must be stopped once the call completes.
+	 *
+	 * @param name the operation name, e.g. Comment.QUERY_BY_FORUM
+	 * @return OperationTimer
+	 */
+	public OperationTimer start(String name) {
+		return new OperationTimer(this, name);
+	}
+
+	/**
+	 * Records one completed call of the argument operation.
+	 *
+	 * @param name the operation name
+	 * @param nanos how long the call took
+	 * @param failed whether the call ended with an error
+	 */
+	public void recordOperation(String name, long nanos, boolean failed) {
+		Operation operation = this.operations.computeIfAbsent(name, n -> new Operation());
+		operation.latency.record(nanos);
+		if (failed) {
+			operation.errors.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Records one DynamoDB call.
+	 *
+	 * @param retries the number of attempts after the first
+	 * @param throttles the number of attempts that were throttled
+	 * @param failed whether the call failed after all retries
+	 */
+	public void recordDynamoCall(long retries, long throttles, boolean failed) {
+		this.dynamoRequests.incrementAndGet();
+		this.dynamoRetries.addAndGet(retries);
+		this.dynamoThrottles.addAndGet(throttles);
+		if (failed) {
+			this.dynamoErrors.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Adds capacity units consumed on a table or index.
+	 *
+	 * @param tableName the table name
+	 * @param capacityUnits the units consumed
+	 */
+	public void recordConsumedCapacity(String tableName, double capacityUnits) {
+		this.consumedCapacity.computeIfAbsent(tableName, t -> new DoubleAdder()).add(capacityUnits);
+	}
+
+	/**
+	 * Adds a cache to the snapshot. Registering a name again replaces
+	 * the earlier cache.
+	 *
+	 * @param name the name the cache is reported under
+	 * @param cache the cache
+	 */
+	public void registerCache(String name, EntityCache<?> cache) {
+		this.caches.put(name, cache);
+	}
+
+	/**
+	 * @return a copy of the current metrics
+	 */
+	public MetricsSnapshot snapshot() {
+		MetricsSnapshot snapshot = new MetricsSnapshot();
+		for (Map.Entry<String, Operation> entry : this.operations.entrySet()) {
+			LatencyHistogram latency = entry.getValue().latency;
+			MetricsSnapshot.OperationStats stats = new MetricsSnapshot.OperationStats();
+			stats.setCount(latency.getCount());
+			stats.setErrors(entry.getValue().errors.get());
+			stats.setMeanMs(latency.getMeanMs());
+			stats.setP50Ms(latency.getPercentileMs(0.50));
+			stats.setP90Ms(latency.getPercentileMs(0.90));
+			stats.setP99Ms(latency.getPercentileMs(0.99));
+			stats.setMaxMs(latency.getMaxMs());
+			snapshot.getOperations().put(entry.getKey(), stats);
+		}
+		for (Map.Entry<String, EntityCache<?>> entry : this.caches.entrySet()) {
+			EntityCache<?> cache = entry.getValue();
+			MetricsSnapshot.CacheStats stats = new MetricsSnapshot.CacheStats();
+			stats.setHits(cache.getHits());
+			stats.setMisses(cache.getMisses());
+			stats.setEvictions(cache.getEvictions());
+			stats.setSize(cache.size());
+			long loads = stats.getHits() + stats.getMisses();
+			stats.setHitRate(loads > 0 ? (double) stats.getHits() / loads : 0);
+			snapshot.getCaches().put(entry.getKey(), stats);
+		}
+		for (Map.Entry<String, DoubleAdder> entry : this.consumedCapacity.entrySet()) {
+			snapshot.getConsumedCapacity().put(entry.getKey(), entry.getValue().sum());
+		}
+		snapshot.setDynamoRequests(this.dynamoRequests.get());
+		snapshot.setDynamoRetries(this.dynamoRetries.get());
+		snapshot.setDynamoThrottles(this.dynamoThrottles.get());
+		snapshot.setDynamoErrors(this.dynamoErrors.get());
+		return snapshot;
+	}
+
+	private static final class Operation {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final AtomicLong errors = new AtomicLong();
+	}
+}
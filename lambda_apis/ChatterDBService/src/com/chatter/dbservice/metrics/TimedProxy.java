@@ -0,0 +1,63 @@
+package com.chatter.dbservice.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * TimedProxy
+ * @author coreym
+ *
+ * Wraps an object behind one of its interfaces so that every interface
+ * method call is timed and recorded in the service metrics under
+ * <prefix>.<method name>. Exceptions thrown by the wrapped object are
+ * counted as errors and rethrown unchanged, including checked ones.
+ */
+public final class TimedProxy implements InvocationHandler {
+
+	private final Object target;
+	private final String prefix;
+	private final ServiceMetrics metrics;
+
+	private TimedProxy(Object target, String prefix, ServiceMetrics metrics) {
+		this.target = target;
+		this.prefix = prefix;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @param type the interface to expose
+	 * @param target the object to time
+	 * @param prefix the metric name prefix, e.g. CommentDAO
+	 * @param metrics where call latencies are recorded
+	 * @return a timed view of the target
+	 */
+	public static <T> T wrap(Class<T> type, T target, String prefix, ServiceMetrics metrics) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				new TimedProxy(target, prefix, metrics)));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		// Object methods such as toString are not worth a metric
+		if (method.getDeclaringClass() == Object.class) {
+			return method.invoke(this.target, args);
+		}
+
+		long startNanos = System.nanoTime();
+		boolean failed = true;
+		try {
+			Object result = method.invoke(this.target, args);
+			failed = false;
+			return result;
+		}
+		catch (InvocationTargetException ite) {
+			throw ite.getCause();
+		}
+		finally {
+			this.metrics.recordOperation(this.prefix + "." + method.getName(),
+					System.nanoTime() - startNanos, failed);
+		}
+	}
+}
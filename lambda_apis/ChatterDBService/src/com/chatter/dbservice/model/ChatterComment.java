@@ -22,6 +22,8 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
  * - parentForumId (String)
  * - replyIds (Set<String>)
  * - flagIds (Set<String>)
+ * - replyCnt (Integer)
+ * - flagCnt (Integer)
  * - concurCnt (int)
  * - audioFileLink (S3Link)
  */
@@ -34,6 +36,8 @@ public class ChatterComment {
 	private String forumId;
 	private Set<String> replyIds;
 	private Set<String> flagIds;
+	private Integer replyCnt;
+	private Integer flagCnt;
 	private int concurCnt;
 	private String s3BucketName;
 	private String s3KeyName;
@@ -50,7 +54,8 @@ public class ChatterComment {
 		this.commentId = commentId;
 	}
 
-	@DynamoDBIndexHashKey(globalSecondaryIndexName = "created_by_index", attributeName = "created_by")
+	@DynamoDBIndexHashKey(globalSecondaryIndexNames = {"created_by_index", "created_by_summary_index"},
+			attributeName = "created_by")
 	public String getCreatedBy() {
 		return createdBy;
 	}
@@ -59,7 +64,9 @@ public class ChatterComment {
 		this.createdBy = createdBy;
 	}
 
-	@DynamoDBIndexRangeKey(globalSecondaryIndexName = "created_by_index", attributeName = "time_stamp")
+	@DynamoDBIndexRangeKey(globalSecondaryIndexNames = {"created_by_index", "forum_time_index",
+			"created_by_summary_index", "forum_time_summary_index"},
+			attributeName = "time_stamp")
 	public Long getTimeStamp() {
 		return timeStamp;
 	}
@@ -68,7 +75,8 @@ public class ChatterComment {
 		this.timeStamp = timeStamp;
 	}
 
-	@DynamoDBIndexHashKey(globalSecondaryIndexName = "forum_id_index", attributeName = "forum_id")
+	@DynamoDBIndexHashKey(globalSecondaryIndexNames = {"forum_time_index", "forum_time_summary_index"},
+			attributeName = "forum_id")
 	public String getForumId() {
 		return forumId;
 	}
@@ -95,6 +103,24 @@ public class ChatterComment {
 		this.flagIds = flagIds;
 	}
 
+	@DynamoDBAttribute(attributeName = "reply_cnt")
+	public Integer getReplyCnt() {
+		return replyCnt;
+	}
+
+	public void setReplyCnt(Integer replyCnt) {
+		this.replyCnt = replyCnt;
+	}
+
+	@DynamoDBAttribute(attributeName = "flag_cnt")
+	public Integer getFlagCnt() {
+		return flagCnt;
+	}
+
+	public void setFlagCnt(Integer flagCnt) {
+		this.flagCnt = flagCnt;
+	}
+
 	@DynamoDBAttribute(attributeName = "concur_cnt")
 	public int getConcurCnt() {
 		return concurCnt;
@@ -130,8 +156,8 @@ public class ChatterComment {
 			.append("\ncreated_by: ").append(this.createdBy)
 			.append("\ntime_stamp: ").append(this.timeStamp)
 			.append("\nforum_id: ").append(this.forumId)
-			.append("\nreply_cnt: ").append(this.replyIds.size())
-			.append("\nflag_cnt: ").append(this.flagIds.size())
+			.append("\nreply_cnt: ").append(this.replyCnt)
+			.append("\nflag_cnt: ").append(this.flagCnt)
 			.append("\nconcur_cnt: ").append(this.concurCnt)
 			.append("\nS3 Bucket: ").append(this.s3BucketName)
 			.append("\nS3 Key: ").append(this.s3KeyName)
@@ -1,7 +1,5 @@
 package com.chatter.dbservice.model;
 
-import java.util.Set;
-
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAutoGeneratedKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
@@ -22,8 +20,9 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
  * - createdBy (String): id of entity that generated Forum object
  * - timeStamp (Long): date time stamp represents when Forum was created
  * - title (String): title given to generated Forum object
- * - comments (Set<String>): hash set of unique ChatterComment 
- * 	 hash/partition keys for comments added to Forum.
+ * - commentCnt (Integer): number of comments added to Forum. The
+ * 	 comments themselves are queried through the ChatterComment
+ * 	 forum_time_index so that the Forum item stays a constant size.
  */
 @DynamoDBTable(tableName = "Chatter_Forum")
 public class ChatterForum {
@@ -32,7 +31,7 @@ public class ChatterForum {
 	private String createdBy;
 	private Long timeStamp;
 	private String title;
-	private Set<String> commentIds;
+	private Integer commentCnt;
 	
 	public ChatterForum() { }
 
@@ -73,13 +72,13 @@ public class ChatterForum {
 		this.title = title;
 	}
 
-	@DynamoDBAttribute(attributeName = "comment_ids")
-	public Set<String> getCommentIds() {
-		return commentIds;
+	@DynamoDBAttribute(attributeName = "comment_cnt")
+	public Integer getCommentCnt() {
+		return commentCnt;
 	}
 
-	public void setCommentIds(Set<String> commentIds) {
-		this.commentIds = commentIds;
+	public void setCommentCnt(Integer commentCnt) {
+		this.commentCnt = commentCnt;
 	}
 	
 	@Override
@@ -90,7 +89,7 @@ public class ChatterForum {
 			.append("\ncreated_by: ").append(this.createdBy)
 			.append("\ntime_stamp: ").append(this.timeStamp)
 			.append("\ntitle: ").append(this.title)
-			.append("\ncomment_cnt: ").append(this.commentIds.size())
+			.append("\ncomment_cnt: ").append(this.commentCnt)
 			.toString();
 	}
 }
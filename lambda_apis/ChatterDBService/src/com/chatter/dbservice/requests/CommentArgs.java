@@ -0,0 +1,175 @@
+package com.chatter.dbservice.requests;
+
+import java.util.List;
+
+/**
+ * CommentArgs
+ * @author coreym
+ *
+ * The arguments of a Chatter Comment request, bound from the request
+ * JSON when the request is deserialized. Each operation reads the
+ * arguments it needs and leaves the rest NULL. Time stamps are bound as
+ * numbers, so a request holding a malformed time stamp is rejected
+ * before it reaches the handler.
+ */
+public class CommentArgs {
+
+	private String commentId;
+	private String createdBy;
+	private String forumId;
+	private String bucketName;
+	private String fileName;
+	private String replyId;
+	private String flagId;
+	private List<String> commentIds;
+	private Boolean reportDeleted;
+	private Long timeStampFrom;
+	private Long timeStampTo;
+	private String sortOrder;
+	private String view;
+	private String cursor;
+	private Integer maxResults;
+
+	public CommentArgs() { }
+
+	public String getCommentId() {
+		return commentId;
+	}
+
+	public void setCommentId(String commentId) {
+		this.commentId = commentId;
+	}
+
+	public String getCreatedBy() {
+		return createdBy;
+	}
+
+	public void setCreatedBy(String createdBy) {
+		this.createdBy = createdBy;
+	}
+
+	public String getForumId() {
+		return forumId;
+	}
+
+	public void setForumId(String forumId) {
+		this.forumId = forumId;
+	}
+
+	public String getBucketName() {
+		return bucketName;
+	}
+
+	public void setBucketName(String bucketName) {
+		this.bucketName = bucketName;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public String getReplyId() {
+		return replyId;
+	}
+
+	public void setReplyId(String replyId) {
+		this.replyId = replyId;
+	}
+
+	public String getFlagId() {
+		return flagId;
+	}
+
+	public void setFlagId(String flagId) {
+		this.flagId = flagId;
+	}
+
+	public List<String> getCommentIds() {
+		return commentIds;
+	}
+
+	public void setCommentIds(List<String> commentIds) {
+		this.commentIds = commentIds;
+	}
+
+	public Boolean getReportDeleted() {
+		return reportDeleted;
+	}
+
+	public void setReportDeleted(Boolean reportDeleted) {
+		this.reportDeleted = reportDeleted;
+	}
+
+	public Long getTimeStampFrom() {
+		return timeStampFrom;
+	}
+
+	public void setTimeStampFrom(Long timeStampFrom) {
+		this.timeStampFrom = timeStampFrom;
+	}
+
+	public Long getTimeStampTo() {
+		return timeStampTo;
+	}
+
+	public void setTimeStampTo(Long timeStampTo) {
+		this.timeStampTo = timeStampTo;
+	}
+
+	public String getSortOrder() {
+		return sortOrder;
+	}
+
+	public void setSortOrder(String sortOrder) {
+		this.sortOrder = sortOrder;
+	}
+
+	public String getView() {
+		return view;
+	}
+
+	public void setView(String view) {
+		this.view = view;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+
+	public Integer getMaxResults() {
+		return maxResults;
+	}
+
+	public void setMaxResults(Integer maxResults) {
+		this.maxResults = maxResults;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		RequestArgs.append(builder, "commentId", this.commentId);
+		RequestArgs.append(builder, "createdBy", this.createdBy);
+		RequestArgs.append(builder, "forumId", this.forumId);
+		RequestArgs.append(builder, "bucketName", this.bucketName);
+		RequestArgs.append(builder, "fileName", this.fileName);
+		RequestArgs.append(builder, "replyId", this.replyId);
+		RequestArgs.append(builder, "flagId", this.flagId);
+		RequestArgs.append(builder, "commentIds", this.commentIds);
+		RequestArgs.append(builder, "reportDeleted", this.reportDeleted);
+		RequestArgs.append(builder, "timeStampFrom", this.timeStampFrom);
+		RequestArgs.append(builder, "timeStampTo", this.timeStampTo);
+		RequestArgs.append(builder, "sortOrder", this.sortOrder);
+		RequestArgs.append(builder, "view", this.view);
+		RequestArgs.append(builder, "cursor", this.cursor);
+		RequestArgs.append(builder, "maxResults", this.maxResults);
+		return builder.toString();
+	}
+}
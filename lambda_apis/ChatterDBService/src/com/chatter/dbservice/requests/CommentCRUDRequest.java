@@ -1,7 +1,6 @@
 package com.chatter.dbservice.requests;
 
 import java.util.Date;
-import java.util.Map;
 
 import com.chatter.dbservice.util.ops.ChatterCommentOps;
 
@@ -15,13 +14,13 @@ public class CommentCRUDRequest {
 
 	private ChatterCommentOps operation;
 	private Long reqDate;
-	private Map<String, ?> args;
+	private CommentArgs args;
 	
 	public CommentCRUDRequest() { 
 		this.reqDate = new Date().getTime();
 	}
 	
-	public CommentCRUDRequest(ChatterCommentOps operation, Map<String, ?> args) {
+	public CommentCRUDRequest(ChatterCommentOps operation, CommentArgs args) {
 		this.operation = operation;
 		this.reqDate = new Date().getTime();
 		this.args = args;
@@ -43,11 +42,11 @@ public class CommentCRUDRequest {
 		this.reqDate = reqDate;
 	}
 
-	public Map<String, ?> getArgs() {
+	public CommentArgs getArgs() {
 		return args;
 	}
 
-	public void setArgs(Map<String, ?> args) {
+	public void setArgs(CommentArgs args) {
 		this.args = args;
 	}
 	
@@ -58,15 +57,7 @@ public class CommentCRUDRequest {
 		builder.append("\nOperation: ").append(this.operation.toString());
 		builder.append("\nRequest Date: ").append(new Date(this.reqDate).toString());
 		builder.append("\nArguments:");
-		
-		if (this.args != null && !args.isEmpty()) {
-			for (String key : args.keySet()) {
-				builder.append("\n\t").append(key).append(": ").append(this.args.get(key));
-			}
-		}
-		else {
-			builder.append("\n\tNo args found in request...");
-		}
+		RequestArgs.appendArgs(builder, this.args);
 		return builder.toString();
 	}
 }
@@ -0,0 +1,103 @@
+package com.chatter.dbservice.requests;
+
+import java.util.List;
+
+/**
+ * FlagArgs
+ * @author coreym
+ *
+ * The arguments of a Chatter Flag request, bound from the request
+ * JSON when the request is deserialized. Each operation reads the
+ * arguments it needs and leaves the rest NULL.
+ */
+public class FlagArgs {
+
+	private String flagId;
+	private String createdBy;
+	private String forumId;
+	private String commentId;
+	private String flagDescription;
+	private String flagDescriptionUpdate;
+	private List<String> flagIds;
+	private Boolean reportDeleted;
+
+	public FlagArgs() { }
+
+	public String getFlagId() {
+		return flagId;
+	}
+
+	public void setFlagId(String flagId) {
+		this.flagId = flagId;
+	}
+
+	public String getCreatedBy() {
+		return createdBy;
+	}
+
+	public void setCreatedBy(String createdBy) {
+		this.createdBy = createdBy;
+	}
+
+	public String getForumId() {
+		return forumId;
+	}
+
+	public void setForumId(String forumId) {
+		this.forumId = forumId;
+	}
+
+	public String getCommentId() {
+		return commentId;
+	}
+
+	public void setCommentId(String commentId) {
+		this.commentId = commentId;
+	}
+
+	public String getFlagDescription() {
+		return flagDescription;
+	}
+
+	public void setFlagDescription(String flagDescription) {
+		this.flagDescription = flagDescription;
+	}
+
+	public String getFlagDescriptionUpdate() {
+		return flagDescriptionUpdate;
+	}
+
+	public void setFlagDescriptionUpdate(String flagDescriptionUpdate) {
+		this.flagDescriptionUpdate = flagDescriptionUpdate;
+	}
+
+	public List<String> getFlagIds() {
+		return flagIds;
+	}
+
+	public void setFlagIds(List<String> flagIds) {
+		this.flagIds = flagIds;
+	}
+
+	public Boolean getReportDeleted() {
+		return reportDeleted;
+	}
+
+	public void setReportDeleted(Boolean reportDeleted) {
+		this.reportDeleted = reportDeleted;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		RequestArgs.append(builder, "flagId", this.flagId);
+		RequestArgs.append(builder, "createdBy", this.createdBy);
+		RequestArgs.append(builder, "forumId", this.forumId);
+		RequestArgs.append(builder, "commentId", this.commentId);
+		RequestArgs.append(builder, "flagDescription", this.flagDescription);
+		RequestArgs.append(builder, "flagDescriptionUpdate", this.flagDescriptionUpdate);
+		RequestArgs.append(builder, "flagIds", this.flagIds);
+		RequestArgs.append(builder, "reportDeleted", this.reportDeleted);
+		return builder.toString();
+	}
+}
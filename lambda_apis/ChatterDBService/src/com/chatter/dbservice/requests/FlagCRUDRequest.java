@@ -1,7 +1,6 @@
 package com.chatter.dbservice.requests;
 
 import java.util.Date;
-import java.util.Map;
 
 import com.chatter.dbservice.util.ops.ChatterFlagOps;
 
@@ -15,13 +14,13 @@ public class FlagCRUDRequest {
 
 	private ChatterFlagOps operation;
 	private Long reqDate;
-	private Map<String, ?> args;
+	private FlagArgs args;
 	
 	public FlagCRUDRequest() { 
 		this.reqDate = new Date().getTime();
 	}
 	
-	public FlagCRUDRequest(ChatterFlagOps operation, Map<String, ?> args) {
+	public FlagCRUDRequest(ChatterFlagOps operation, FlagArgs args) {
 		this.operation = operation;
 		this.reqDate = new Date().getTime();
 		this.args = args;
@@ -43,11 +42,11 @@ public class FlagCRUDRequest {
 		this.reqDate = reqDate;
 	}
 
-	public Map<String, ?> getArgs() {
+	public FlagArgs getArgs() {
 		return args;
 	}
 
-	public void setArgs(Map<String, ?> args) {
+	public void setArgs(FlagArgs args) {
 		this.args = args;
 	}
 	
@@ -57,16 +56,8 @@ public class FlagCRUDRequest {
 		builder.append("***** Request Details (Flag) *****");
 		builder.append("\nOperation: ").append(this.operation.toString());
 		builder.append("\nRequest Date: ").append(new Date(this.reqDate).toString());
-		builder.append("Arguments:");
-		
-		if (this.args != null && !this.args.isEmpty()) {
-			for (String key : this.args.keySet()) {
-				builder.append("\n\t").append(key).append(": ").append(this.args.get(key));
-			}
-		}
-		else {
-			builder.append("\n\tNo args found in request...");
-		}
+		builder.append("\nArguments:");
+		RequestArgs.appendArgs(builder, this.args);
 		return builder.toString();
 	}
 }
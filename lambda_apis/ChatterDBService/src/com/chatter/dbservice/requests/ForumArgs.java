@@ -0,0 +1,132 @@
+package com.chatter.dbservice.requests;
+
+/**
+ * ForumArgs
+ * @author coreym
+ *
+ * The arguments of a Chatter Forum request, bound from the request
+ * JSON when the request is deserialized. Each operation reads the
+ * arguments it needs and leaves the rest NULL. The sortOrder and view
+ * arguments are only read by the QUERY_COMMENTS operation.
+ */
+public class ForumArgs {
+
+	private String forumId;
+	private String createdBy;
+	private String title;
+	private String titleUpdate;
+	private String commentId;
+	private Long timeStampFrom;
+	private Long timeStampTo;
+	private String sortOrder;
+	private String view;
+	private String cursor;
+	private Integer maxResults;
+
+	public ForumArgs() { }
+
+	public String getForumId() {
+		return forumId;
+	}
+
+	public void setForumId(String forumId) {
+		this.forumId = forumId;
+	}
+
+	public String getCreatedBy() {
+		return createdBy;
+	}
+
+	public void setCreatedBy(String createdBy) {
+		this.createdBy = createdBy;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getTitleUpdate() {
+		return titleUpdate;
+	}
+
+	public void setTitleUpdate(String titleUpdate) {
+		this.titleUpdate = titleUpdate;
+	}
+
+	public String getCommentId() {
+		return commentId;
+	}
+
+	public void setCommentId(String commentId) {
+		this.commentId = commentId;
+	}
+
+	public Long getTimeStampFrom() {
+		return timeStampFrom;
+	}
+
+	public void setTimeStampFrom(Long timeStampFrom) {
+		this.timeStampFrom = timeStampFrom;
+	}
+
+	public Long getTimeStampTo() {
+		return timeStampTo;
+	}
+
+	public void setTimeStampTo(Long timeStampTo) {
+		this.timeStampTo = timeStampTo;
+	}
+
+	public String getSortOrder() {
+		return sortOrder;
+	}
+
+	public void setSortOrder(String sortOrder) {
+		this.sortOrder = sortOrder;
+	}
+
+	public String getView() {
+		return view;
+	}
+
+	public void setView(String view) {
+		this.view = view;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+
+	public Integer getMaxResults() {
+		return maxResults;
+	}
+
+	public void setMaxResults(Integer maxResults) {
+		this.maxResults = maxResults;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		RequestArgs.append(builder, "forumId", this.forumId);
+		RequestArgs.append(builder, "createdBy", this.createdBy);
+		RequestArgs.append(builder, "title", this.title);
+		RequestArgs.append(builder, "titleUpdate", this.titleUpdate);
+		RequestArgs.append(builder, "commentId", this.commentId);
+		RequestArgs.append(builder, "timeStampFrom", this.timeStampFrom);
+		RequestArgs.append(builder, "timeStampTo", this.timeStampTo);
+		RequestArgs.append(builder, "sortOrder", this.sortOrder);
+		RequestArgs.append(builder, "view", this.view);
+		RequestArgs.append(builder, "cursor", this.cursor);
+		RequestArgs.append(builder, "maxResults", this.maxResults);
+		return builder.toString();
+	}
+}
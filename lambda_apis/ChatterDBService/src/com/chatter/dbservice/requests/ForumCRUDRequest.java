@@ -1,7 +1,6 @@
 package com.chatter.dbservice.requests;
 
 import java.util.Date;
-import java.util.Map;
 
 import com.chatter.dbservice.util.ops.ChatterForumOps;
 
@@ -15,13 +14,13 @@ public class ForumCRUDRequest {
 
 	private ChatterForumOps operation;
 	private Long reqDate;
-	private Map<String, ?> args;
+	private ForumArgs args;
 	
 	public ForumCRUDRequest() { 
 		this.reqDate = new Date().getTime();
 	}
 	
-	public ForumCRUDRequest(ChatterForumOps operation, Map<String, ?> args) {
+	public ForumCRUDRequest(ChatterForumOps operation, ForumArgs args) {
 		this.operation = operation;
 		this.reqDate = new Date().getTime();
 		this.args = args;
@@ -43,11 +42,11 @@ public class ForumCRUDRequest {
 		this.reqDate = reqDate;
 	}
 
-	public Map<String, ?> getArgs() {
+	public ForumArgs getArgs() {
 		return args;
 	}
 
-	public void setArgs(Map<String, ?> args) {
+	public void setArgs(ForumArgs args) {
 		this.args = args;
 	}
 	
@@ -58,15 +57,7 @@ public class ForumCRUDRequest {
 		builder.append("\nOperation: ").append(this.operation.toString());
 		builder.append("\nRequest Date: ").append(new Date(this.reqDate).toString());
 		builder.append("\nArguments:");
-		
-		if (this.args != null && !args.isEmpty()) {
-			for (String key : args.keySet()) {
-				builder.append("\n\t").append(key).append(": ").append(this.args.get(key));
-			}
-		}
-		else {
-			builder.append("\n\tNo args found in request...");
-		}
+		RequestArgs.appendArgs(builder, this.args);
 		return builder.toString();
 	}
 }
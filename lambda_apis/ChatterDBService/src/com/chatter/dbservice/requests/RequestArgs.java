@@ -0,0 +1,30 @@
+package com.chatter.dbservice.requests;
+
+/**
+ * RequestArgs
+ * @author coreym
+ *
+ * Formatting shared by the request argument classes when requests are
+ * written to the lambda log.
+ */
+final class RequestArgs {
+
+	private RequestArgs() { }
+
+	/**
+	 * Appends one argument line, skipping arguments that are not set.
+	 */
+	static void append(StringBuilder builder, String name, Object value) {
+		if (value != null) {
+			builder.append("\n\t").append(name).append(": ").append(value);
+		}
+	}
+
+	/**
+	 * Appends the argument lines of a request.
+	 */
+	static void appendArgs(StringBuilder builder, Object args) {
+		String lines = args != null ? args.toString() : "";
+		builder.append(lines.isEmpty() ? "\n\tNo args found in request..." : lines);
+	}
+}
@@ -0,0 +1,204 @@
+package com.chatter.dbservice.requests.validators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.chatter.dbservice.exceptions.RequestValidationException;
+
+/**
+ * ArgRules
+ * @author coreym
+ *
+ * The argument rules of one request operation, declared once with the
+ * builder and compiled into flat arrays. Arguments are read from the
+ * typed request arguments through their getters, so numeric arguments
+ * were already parsed when the request was deserialized. A check stops
+ * at the first argument that breaks a rule, reporting that argument by
+ * name. Checks of valid arguments allocate nothing.
+ *
+ * @param <T> the request arguments type
+ */
+public final class ArgRules<T> {
+
+	private static final byte REQUIRED_STRING = 0;
+	private static final byte OPTIONAL_CHOICE = 1;
+	private static final byte REQUIRED_LIST = 2;
+
+	private final String errorPrefix;
+	private final Function<T, ?>[] getters;
+	private final byte[] kinds;
+	private final String[][] choices;
+	private final String[] errors;
+	private final Function<T, Long> orderedFrom;
+	private final Function<T, Long> orderedTo;
+	private final String orderedError;
+
+	@SuppressWarnings("unchecked")
+	private ArgRules(Builder<T> builder) {
+		int count = builder.names.size();
+		this.errorPrefix = builder.errorPrefix;
+		this.getters = (Function<T, ?>[]) builder.getters.toArray(new Function<?, ?>[count]);
+		this.kinds = new byte[count];
+		this.choices = builder.choices.toArray(new String[count][]);
+		this.errors = new String[count];
+		for (int i = 0; i < count; i++) {
+			this.kinds[i] = builder.kinds.get(i);
+			this.errors[i] = builder.errorPrefix + describe(builder.names.get(i),
+					this.kinds[i], this.choices[i]);
+		}
+		this.orderedFrom = builder.orderedFrom;
+		this.orderedTo = builder.orderedTo;
+		this.orderedError = builder.orderedError;
+	}
+
+	/**
+	 * @param errorPrefix the start of every error message, e.g.
+	 * 		  "Chatter Comment request ERROR: "
+	 * @return a builder for a new set of rules
+	 */
+	public static <T> Builder<T> builder(String errorPrefix) {
+		return new Builder<>(errorPrefix);
+	}
+
+	/**
+	 * Checks request arguments against the rules.
+	 *
+	 * @param args the request arguments, may be NULL
+	 * @throws RequestValidationException naming the first argument that
+	 * breaks a rule
+	 */
+	public void check(T args) throws RequestValidationException {
+		if (args == null) {
+			throw new RequestValidationException(this.errorPrefix
+					+ "request contained no arguments.");
+		}
+
+		for (int i = 0; i < this.getters.length; i++) {
+			Object value = this.getters[i].apply(args);
+			boolean valid;
+			switch (this.kinds[i]) {
+				case REQUIRED_STRING:
+					valid = value != null && !((String) value).isEmpty();
+					break;
+				case OPTIONAL_CHOICE:
+					valid = value == null || isChoice(value, this.choices[i]);
+					break;
+				default:
+					valid = isIdList((List<?>) value);
+					break;
+			}
+			if (!valid) {
+				throw new RequestValidationException(this.errors[i]);
+			}
+		}
+
+		if (this.orderedFrom != null) {
+			Long from = this.orderedFrom.apply(args);
+			Long to = this.orderedTo.apply(args);
+			if (from != null && to != null && from.longValue() > to.longValue()) {
+				throw new RequestValidationException(this.orderedError);
+			}
+		}
+	}
+
+	private static boolean isChoice(Object value, String[] choices) {
+		for (String choice : choices) {
+			if (choice.equals(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isIdList(List<?> ids) {
+		if (ids == null || ids.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < ids.size(); i++) {
+			if (ids.get(i) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String describe(String name, byte kind, String[] choices) {
+		switch (kind) {
+			case REQUIRED_STRING:
+				return name + " is required and must be a non empty string.";
+			case OPTIONAL_CHOICE:
+				return name + " must be one of " + String.join(", ", choices) + ".";
+			default:
+				return name + " is required and must be a non empty list of ids.";
+		}
+	}
+
+	/**
+	 * Declares the rules of one operation. Arguments are checked in the
+	 * order they are declared.
+	 */
+	public static final class Builder<T> {
+		private final String errorPrefix;
+		private final List<String> names = new ArrayList<>();
+		private final List<Function<T, ?>> getters = new ArrayList<>();
+		private final List<Byte> kinds = new ArrayList<>();
+		private final List<String[]> choices = new ArrayList<>();
+		private Function<T, Long> orderedFrom;
+		private Function<T, Long> orderedTo;
+		private String orderedError;
+
+		private Builder(String errorPrefix) {
+			this.errorPrefix = errorPrefix;
+		}
+
+		/**
+		 * The argument must be a non empty string.
+		 */
+		public Builder<T> requireString(String name, Function<T, String> getter) {
+			return this.add(name, getter, REQUIRED_STRING, null);
+		}
+
+		/**
+		 * The argument may be absent, otherwise it must be one of the
+		 * argument values.
+		 */
+		public Builder<T> optionalChoice(String name, Function<T, String> getter,
+				String... values) {
+			return this.add(name, getter, OPTIONAL_CHOICE, values.clone());
+		}
+
+		/**
+		 * The argument must be a non empty list of ids.
+		 */
+		public Builder<T> requireList(String name, Function<T, List<String>> getter) {
+			return this.add(name, getter, REQUIRED_LIST, null);
+		}
+
+		/**
+		 * When both arguments are present the first must not be greater
+		 * than the second.
+		 */
+		public Builder<T> ordered(String fromName, Function<T, Long> from,
+				String toName, Function<T, Long> to) {
+			this.orderedFrom = from;
+			this.orderedTo = to;
+			this.orderedError = this.errorPrefix + fromName + " must not be after "
+					+ toName + ".";
+			return this;
+		}
+
+		public ArgRules<T> build() {
+			return new ArgRules<>(this);
+		}
+
+		private Builder<T> add(String name, Function<T, ?> getter, byte kind,
+				String[] values) {
+			this.names.add(name);
+			this.getters.add(getter);
+			this.kinds.add(kind);
+			this.choices.add(values);
+			return this;
+		}
+	}
+}
@@ -1,8 +1,9 @@
 package com.chatter.dbservice.requests.validators;
 
-import java.util.List;
+import java.util.function.Function;
 
 import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.requests.CommentArgs;
 import com.chatter.dbservice.requests.CommentCRUDRequest;
 
 /**
@@ -10,297 +11,151 @@ import com.chatter.dbservice.requests.CommentCRUDRequest;
  * @author coreym
  *
  * Provides methods for validating incoming request
- * related to CRUDing ChatterComment data.
+ * related to CRUDing ChatterComment data. The rules of each
+ * operation are declared once below.
  */
 public class CommentCRUDRequestValidator {
 
+	private static final String ERROR_PREFIX = "Chatter Comment request ERROR: ";
+
+	private static final ArgRules<CommentArgs> CREATE = rules()
+			.requireString("createdBy", CommentArgs::getCreatedBy)
+			.requireString("forumId", CommentArgs::getForumId)
+			.requireString("bucketName", CommentArgs::getBucketName)
+			.requireString("fileName", CommentArgs::getFileName)
+			.build();
+
+	private static final ArgRules<CommentArgs> RETRIEVE = rules()
+			.requireString("commentId", CommentArgs::getCommentId)
+			.build();
+
+	private static final ArgRules<CommentArgs> REPLY = rules()
+			.requireString("commentId", CommentArgs::getCommentId)
+			.requireString("replyId", CommentArgs::getReplyId)
+			.build();
+
+	private static final ArgRules<CommentArgs> FLAG = rules()
+			.requireString("commentId", CommentArgs::getCommentId)
+			.requireString("flagId", CommentArgs::getFlagId)
+			.build();
+
+	private static final ArgRules<CommentArgs> BATCH = rules()
+			.requireList("commentIds", CommentArgs::getCommentIds)
+			.build();
+
+	private static final ArgRules<CommentArgs> QUERY_BY_CREATOR = queryRules("createdBy",
+			CommentArgs::getCreatedBy);
+
+	private static final ArgRules<CommentArgs> QUERY_BY_FORUM = queryRules("forumId",
+			CommentArgs::getForumId);
+
 	/**
 	 * Validates an incoming request to create and save
 	 * a new Chatter comment object to the database.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @throws RequestValidationException
 	 */
 	public static void validateCreateRequest(CommentCRUDRequest req) throws
 		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String createdBy = (String) req.getArgs().get("createdBy");
-					String forumId = (String) req.getArgs().get("forumId");
-					String bucketName = (String) req.getArgs().get("bucketName");
-					String fileName = (String) req.getArgs().get("fileName");
-					
-					if (createdBy == null || createdBy.isEmpty())
-						validReq = false;
-					if (forumId == null || forumId.isEmpty())
-						validReq = false;
-					if (bucketName == null || bucketName.isEmpty())
-						validReq = false;
-					if (fileName == null || fileName.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter Comment request ERROR: "
-							+ "request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("Chatter Comment request ERROR: "
-					+ "incoming request contained NULL or invalid values for required "
-					+ "parameters.");
+		CREATE.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validates a request to retrieve a Chatter comment object
 	 * from the database using argument comment id.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @throws RequestValidationException
 	 */
 	public static void validateRetrieveRequest(CommentCRUDRequest req) throws
 		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String commentId = (String) req.getArgs().get("commentId");
-					
-					if (commentId == null || commentId.isEmpty()) 
-						validReq = false;
-					
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter Comment request ERROR: "
-						+ "request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("Chatter Comment request ERROR: "
-				+ "incoming request contained NULL or invalid values for "
-				+ "required parameters.");
+		RETRIEVE.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validates a request to add a reply to an existing Chatter comment
 	 * object in the database.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @throws RequestValidationException
 	 */
 	public static void validateCommentReplyRequest(CommentCRUDRequest req) throws
 		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String commentId = (String) req.getArgs().get("commentId");
-					String replyId = (String) req.getArgs().get("replyId");
-					
-					if (commentId == null || commentId.isEmpty())
-						validReq = false;
-					if (replyId == null || replyId.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter Comment request ERROR: "
-						+ "request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("Chatter Comment request ERROR: "
-				+ "incoming request contained NULL or invalid values for "
-				+ "required parameters.");
+		REPLY.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validate request to add a new flag id to an existing Chatter comment
 	 * object.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @throws RequestValidationException
 	 */
 	public static void validateCommentFlagRequest(CommentCRUDRequest req) throws
 		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String commentId = (String) req.getArgs().get("commentId");
-					String flagId = (String) req.getArgs().get("flagId");
-					
-					if (commentId == null || commentId.isEmpty())
-						validReq = false;
-					if (flagId == null || flagId.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter Comment request ERROR: "
-						+ "request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq) 
-			throw new RequestValidationException("Chatter Comment request ERROR: "
-				+ "incoming request contained NULL or invalid values for "
-				+ "required parameters.");
+		FLAG.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
-	 * Validate a request to retrieve a batch of Chatter comments from the 
+	 * Validate a request to retrieve a batch of Chatter comments from the
 	 * database.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @throws RequestValidationException
 	 */
-	@SuppressWarnings("unchecked")
 	public static void validateBatchRetrieveRequest(CommentCRUDRequest req) throws
 		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					List<String> commentIds = (List<String>) req.getArgs().get("commentIds");
-					
-					if (commentIds == null || commentIds.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter Comment request ERROR: "
-						+ "request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq) 
-			throw new RequestValidationException("Chatter Comment request ERROR: "
-				+ "incoming request contained NULL or invalid values for "
-				+ "required parameters.");
+		BATCH.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validate a request to query the Chatter comment table using
 	 * an argument createdBy value.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @throws RequestValidationException
 	 */
 	public static void validateQueryByCreatorRequest(CommentCRUDRequest req) throws
 		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String createdBy = (String) req.getArgs().get("createdBy");
-					
-					if (createdBy == null || createdBy.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter Comment request ERROR: "
-							+ "request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq) 
-			throw new RequestValidationException("Chatter Comment request ERROR: "
-				+ "incoming request contained NULL or invalid values for "
-				+ "required parameters.");
+		QUERY_BY_CREATOR.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validate request to query the Chatter Comment table using argument
 	 * forum id value.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @throws RequestValidationException
 	 */
 	public static void validateQueryByForumRequest(CommentCRUDRequest req) throws
 		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String forumId = (String) req.getArgs().get("forumId");
-					
-					if (forumId == null || forumId.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter Comment request ERROR: "
-							+ "request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq) 
-			throw new RequestValidationException("Chatter Comment request ERROR: "
-				+ "incoming request contained NULL or invalid values for "
-				+ "required parameters.");
+		QUERY_BY_FORUM.check(req != null ? req.getArgs() : null);
+	}
+
+	/**
+	 * Rules of a comment query on the argument index hash key, with the
+	 * optional timeStampFrom, timeStampTo, sortOrder and view arguments.
+	 *
+	 * @param hashKeyArg the argument holding the index hash key value
+	 * @param hashKey reads the hash key argument
+	 * @return ArgRules
+	 */
+	private static ArgRules<CommentArgs> queryRules(String hashKeyArg,
+			Function<CommentArgs, String> hashKey) {
+		return rules()
+				.requireString(hashKeyArg, hashKey)
+				.ordered("timeStampFrom", CommentArgs::getTimeStampFrom,
+						"timeStampTo", CommentArgs::getTimeStampTo)
+				.optionalChoice("sortOrder", CommentArgs::getSortOrder, "asc", "desc")
+				.optionalChoice("view", CommentArgs::getView, "full", "summary")
+				.build();
+	}
+
+	/**
+	 * @return a builder of the rules of one operation
+	 */
+	private static ArgRules.Builder<CommentArgs> rules() {
+		return ArgRules.builder(ERROR_PREFIX);
 	}
 }
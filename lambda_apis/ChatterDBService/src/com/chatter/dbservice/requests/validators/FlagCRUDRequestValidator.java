@@ -1,8 +1,7 @@
 package com.chatter.dbservice.requests.validators;
 
-import java.util.List;
-
 import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.requests.FlagArgs;
 import com.chatter.dbservice.requests.FlagCRUDRequest;
 
 /**
@@ -10,127 +9,67 @@ import com.chatter.dbservice.requests.FlagCRUDRequest;
  * @author coreym
  *
  * Provides methods for validating incoming Chatter Flag
- * data requests.
+ * data requests. The rules of each operation are declared
+ * once below.
  */
 public class FlagCRUDRequestValidator {
+
+	private static final String ERROR_PREFIX = "Chatter Flag request ERROR: ";
+
+	private static final ArgRules<FlagArgs> CREATE = rules()
+			.requireString("createdBy", FlagArgs::getCreatedBy)
+			.requireString("forumId", FlagArgs::getForumId)
+			.requireString("commentId", FlagArgs::getCommentId)
+			.requireString("flagDescription", FlagArgs::getFlagDescription)
+			.build();
+
+	private static final ArgRules<FlagArgs> RETRIEVE = rules()
+			.requireString("flagId", FlagArgs::getFlagId)
+			.build();
+
+	private static final ArgRules<FlagArgs> BATCH = rules()
+			.requireList("flagIds", FlagArgs::getFlagIds)
+			.build();
+
 	/**
 	 * Validate a request to create and save a new Flag object to
 	 * the database.
-	 * 
+	 *
 	 * @param req the Request to validate
 	 * @return
 	 */
 	public static void validateCreateFlagReqeust(FlagCRUDRequest req)
 			throws RequestValidationException {
-		boolean validReq = true;
-	
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String createdBy = (String) req.getArgs().get("createdBy");
-					String forumId = (String) req.getArgs().get("forumId");
-					String commentId = (String) req.getArgs().get("commentId");
-					String flagDescription = (String) req.getArgs().get("flagDescription");
-				
-					if (createdBy == null || createdBy.isEmpty())
-						validReq = false;
-					
-					if (forumId == null || forumId.isEmpty())
-						validReq = false;
-					
-					if (commentId == null || commentId.isEmpty())
-						validReq = false;
-					
-					if (flagDescription == null || flagDescription.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("ERROR: Chatter Flag data request "
-					+ "contained invalid or NULL values for required parameters.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("ERROR: Chatter Flag data request "
-					+ "contained invalid or NULL values for required parameters.");
+		CREATE.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validate a request to retrieve a Flag object from the database
 	 * using an argument flag id.
-	 * 
+	 *
 	 * @param req the Request to validate
 	 * @return
 	 */
-	public static void validateRetrieveFlagRequest(FlagCRUDRequest req) 
+	public static void validateRetrieveFlagRequest(FlagCRUDRequest req)
 			throws RequestValidationException {
-		boolean validReq = true;
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String flagId = (String) req.getArgs().get("flagId");
-					if (flagId == null || flagId.isEmpty())
-						validReq = false;
-					}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("ERROR: Chatter Flag data request "
-							+ "contained invalid or NULL values for required parameters.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("ERROR: Chatter Flag data request "
-					+ "contained invalid or NULL values for required parameters.");
+		RETRIEVE.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validate a request to retrieve a batch of Chatter Flag
 	 * objects using a batch of flag id values.
 	 * @param req the request to validate
 	 * @throws RequestValidationException
 	 */
-	@SuppressWarnings("unchecked")
 	public static void validateBatchRetrieveFlagRequest(FlagCRUDRequest req)
 			throws RequestValidationException {
-		
-		boolean validReq = true;
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					List<String> flagIds = (List<String>) req.getArgs().get("flagIds");
-					
-					if (flagIds == null || flagIds.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("ERROR: Chatter Flag data request "
-							+ "contained invalid or NULL values for required parameters.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("ERROR: Chatter Flag data request "
-					+ "contained invalid or NULL values for required parameters.");
+		BATCH.check(req != null ? req.getArgs() : null);
+	}
+
+	/**
+	 * @return a builder of the rules of one operation
+	 */
+	private static ArgRules.Builder<FlagArgs> rules() {
+		return ArgRules.builder(ERROR_PREFIX);
 	}
 }
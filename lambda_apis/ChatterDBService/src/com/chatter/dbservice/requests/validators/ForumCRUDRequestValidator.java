@@ -1,204 +1,105 @@
 package com.chatter.dbservice.requests.validators;
 
 import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.requests.ForumArgs;
 import com.chatter.dbservice.requests.ForumCRUDRequest;
 
 /**
  * ForumCRUDRequestValidator
  * @author coreym
- * 
+ *
  * Provides methods for validating incoming Chatter Forum
- * data requests.
+ * data requests. The rules of each operation are declared
+ * once below.
  */
 public class ForumCRUDRequestValidator {
+
+	private static final String ERROR_PREFIX = "Chatter Forum request ERROR: ";
+
+	private static final ArgRules<ForumArgs> CREATE = rules()
+			.requireString("createdBy", ForumArgs::getCreatedBy)
+			.requireString("title", ForumArgs::getTitle)
+			.build();
+
+	private static final ArgRules<ForumArgs> RETRIEVE = rules()
+			.requireString("forumId", ForumArgs::getForumId)
+			.build();
+
+	private static final ArgRules<ForumArgs> QUERY_BY_CREATOR = rules()
+			.requireString("createdBy", ForumArgs::getCreatedBy)
+			.build();
+
+	private static final ArgRules<ForumArgs> QUERY_BY_TITLE = rules()
+			.requireString("title", ForumArgs::getTitle)
+			.build();
+
+	private static final ArgRules<ForumArgs> COMMENT = rules()
+			.requireString("forumId", ForumArgs::getForumId)
+			.requireString("commentId", ForumArgs::getCommentId)
+			.build();
+
 	/**
 	 * Validate a request to create and save a Forum object to the
 	 * database.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @return
 	 */
-	public static void validateCreateForumRequest(ForumCRUDRequest req) 
+	public static void validateCreateForumRequest(ForumCRUDRequest req)
 			throws RequestValidationException {
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String createdBy = (String) req.getArgs().get("createdBy");
-					String title = (String) req.getArgs().get("title");
-					
-					if (createdBy == null || createdBy.isEmpty())
-						validReq = false;
-					
-					if (title == null || title.isEmpty())
-						validReq = false;
-					}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("ERROR: Chatter Forum data request "
-					+ "contained invalid or NULL values for required parameters.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("ERROR: Chatter Forum data request "
-			+ "contained invalid or NULL values for required parameters.");
+		CREATE.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validate a request to retrieve a Forum object from the database.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @return
 	 */
-	public static void validateRetrieveForumRequest(ForumCRUDRequest req) 
+	public static void validateRetrieveForumRequest(ForumCRUDRequest req)
 			throws RequestValidationException {
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-				String forumId = (String) req.getArgs().get("forumId");
-				
-				if (forumId == null || forumId.isEmpty()) 
-					validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("ERROR: Create Chatter Flag request "
-					+ "contained invalid or NULL values for required parameters.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("ERROR: Create Chatter Flag request "
-			+ "contained invalid or NULL values for required parameters.");
+		RETRIEVE.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
-	 * Validate a request to query the Forum table using the 
+	 * Validate a request to query the Forum table using the
 	 * created_by attribute.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @return
 	 */
-	public static void validateQueryByCreatorRequest(ForumCRUDRequest req) 
+	public static void validateQueryByCreatorRequest(ForumCRUDRequest req)
 			throws RequestValidationException {
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String createdBy = (String) req.getArgs().get("createdBy");
-					
-					if (createdBy == null || createdBy.isEmpty())
-						validReq = false;
-					}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("ERROR: Create Chatter Flag request "
-					+ "contained invalid or NULL values for required parameters.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("ERROR: Create Chatter Flag request "
-			+ "contained invalid or NULL values for required parameters.");
+		QUERY_BY_CREATOR.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validate a request to query the Forum table by title attribute.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @return
 	 */
-	public static void validateQueryByTitleRequest(ForumCRUDRequest req) 
+	public static void validateQueryByTitleRequest(ForumCRUDRequest req)
 			throws RequestValidationException {
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String title = (String) req.getArgs().get("title");
-					
-					if (title == null || title.isEmpty())
-						validReq = false;
-					}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("ERROR: Create Chatter Flag request "
-					+ "contained invalid or NULL values for required parameters.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("ERROR: Create Chatter Flag request "
-			+ "contained invalid or NULL values for required parameters.");
+		QUERY_BY_TITLE.check(req != null ? req.getArgs() : null);
 	}
-	
+
 	/**
 	 * Validate a request to add/remove a comment id to a Forum
 	 * object.
-	 * 
+	 *
 	 * @param req the request to validate
 	 * @return
 	 */
-	public static void validateCommentRequest(ForumCRUDRequest req) 
+	public static void validateCommentRequest(ForumCRUDRequest req)
 			throws RequestValidationException {
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String forumId = (String) req.getArgs().get("forumId");
-					String commentId = (String) req.getArgs().get("commentId");
-					
-					if (forumId == null || forumId.isEmpty())
-						validReq = false;
-					
-					if (commentId == null || commentId.isEmpty())
-						validReq = false;
-					}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("ERROR: Create Chatter Flag request "
-					+ "contained invalid or NULL values for required parameters.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq)
-			throw new RequestValidationException("ERROR: Create Chatter Flag request "
-			+ "contained invalid or NULL values for required parameters.");
+		COMMENT.check(req != null ? req.getArgs() : null);
+	}
+
+	/**
+	 * @return a builder of the rules of one operation
+	 */
+	private static ArgRules.Builder<ForumArgs> rules() {
+		return ArgRules.builder(ERROR_PREFIX);
 	}
 }
@@ -1,9 +1,7 @@
 package com.chatter.dbservice.responses;
 
 import java.util.List;
-import java.util.Map;
 
-import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.chatter.dbservice.model.ChatterComment;
 
 /**
@@ -13,7 +11,7 @@ import com.chatter.dbservice.model.ChatterComment;
  * Encapsulates Chatter Comment query results:
  * 
  * pageResults: the list of comments objects for this page of results
- * lastEvaluatedKey: used to retrieve next page of results in a subsequent request
+ * cursor: opaque token used to retrieve next page of results in a subsequent request
  * resultCount: the count of results returned in this page of results
  * moreResults: flag indicating whether there are more results to retrieve
  * 				to satisfy query
@@ -22,23 +20,22 @@ import com.chatter.dbservice.model.ChatterComment;
 public class CommentResultPage {
 	
 	private List<ChatterComment> pageResults;
-	private Map<String, AttributeValue> lastEvaluatedKey;
+	private String cursor;
 	private int resultCount;
 	private boolean moreResults;
 	
 	public CommentResultPage() { }
 	
 	public CommentResultPage(List<ChatterComment> pageResults, 
-			Map<String, AttributeValue> lastEvaluatedKey, int resultCount) {
+			String cursor, int resultCount) {
 		this.pageResults = pageResults;
-		this.lastEvaluatedKey = lastEvaluatedKey;
+		this.cursor = cursor;
 		this.resultCount = resultCount;
 		
-		// If the lastEvalutedKey is null, that indicates that the
-		// query or scan result set is complete. If lastEvaluatedKey
-		// is not null, then there are more results to retrieve from
-		// the database.
-		if (lastEvaluatedKey != null) {
+		// If the cursor is null, that indicates that the query or
+		// scan result set is complete. If the cursor is not null,
+		// then there are more results to retrieve from the database.
+		if (cursor != null) {
 			this.moreResults = true;
 		}
 		else {
@@ -54,12 +51,12 @@ public class CommentResultPage {
 		this.pageResults = pageResults;
 	}
 
-	public Map<String, AttributeValue> getLastEvaluatedKey() {
-		return lastEvaluatedKey;
+	public String getCursor() {
+		return cursor;
 	}
 
-	public void setLastEvaluatedKey(Map<String, AttributeValue> lastEvaluatedKey) {
-		this.lastEvaluatedKey = lastEvaluatedKey;
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
 	}
 
 	public int getResultCount() {
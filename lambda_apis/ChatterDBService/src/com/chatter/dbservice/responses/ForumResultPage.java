@@ -1,9 +1,7 @@
 package com.chatter.dbservice.responses;
 
 import java.util.List;
-import java.util.Map;
 
-import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.chatter.dbservice.model.ChatterForum;
 
 /**
@@ -13,7 +11,7 @@ import com.chatter.dbservice.model.ChatterForum;
  * Encapsulates Chatter Forum query results:
  * 
  * pageResults: the list of forum objects for this page of results
- * lastEvaluatedKey: used to retrieve next page of results in a subsequent request
+ * cursor: opaque token used to retrieve next page of results in a subsequent request
  * resultCount: the count of results returned in this page of results
  * moreResults: flag indicating whether there are more results to retrieve
  * 				to satisfy query
@@ -21,23 +19,22 @@ import com.chatter.dbservice.model.ChatterForum;
 public class ForumResultPage {
 
 	private List<ChatterForum> pageResults;
-	private Map<String, AttributeValue> lastEvaluatedKey;
+	private String cursor;
 	private int resultCount;
 	private boolean moreResults;
 	
 	public ForumResultPage() { }
 	
 	public ForumResultPage(List<ChatterForum> pageResults,
-			Map<String, AttributeValue> lastEvaluatedKey, int resultCount) {
+			String cursor, int resultCount) {
 		this.pageResults = pageResults;
-		this.lastEvaluatedKey = lastEvaluatedKey;
+		this.cursor = cursor;
 		this.resultCount = resultCount;
 		
-		// If the lastEvalutedKey is null, that indicates that the
-		// query or scan result set is complete. If lastEvaluatedKey
-		// is not null, then there are more results to retrieve from
-		// the database.
-		if (lastEvaluatedKey != null) {
+		// If the cursor is null, that indicates that the query or
+		// scan result set is complete. If the cursor is not null,
+		// then there are more results to retrieve from the database.
+		if (cursor != null) {
 			this.moreResults = true;
 		}
 		else {
@@ -53,12 +50,12 @@ public class ForumResultPage {
 		this.pageResults = pageResults;
 	}
 
-	public Map<String, AttributeValue> getLastEvaluatedKey() {
-		return lastEvaluatedKey;
+	public String getCursor() {
+		return cursor;
 	}
 
-	public void setLastEvaluatedKey(Map<String, AttributeValue> lastEvaluatedKey) {
-		this.lastEvaluatedKey = lastEvaluatedKey;
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
 	}
 
 	public int getResultCount() {
@@ -0,0 +1,214 @@
+package com.chatter.dbservice.responses;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MetricsSnapshot
+ * @author coreym
+ *
+ * Point in time copy of the metrics collected by this container since it
+ * started. Returned as part of the SERVICE_INFO response.
+ *
+ * operations (Map): latency and error counts by handler operation and DAO method
+ * caches (Map): hit rates of the in-process caches
+ * consumedCapacity (Map): DynamoDB capacity units consumed, by table
+ * dynamoRequests (long): DynamoDB calls made
+ * dynamoRetries (long): DynamoDB call attempts that were retries
+ * dynamoThrottles (long): DynamoDB call attempts that were throttled
+ * dynamoErrors (long): DynamoDB calls that failed after all retries
+ */
+public class MetricsSnapshot {
+
+	private Map<String, OperationStats> operations = new TreeMap<>();
+	private Map<String, CacheStats> caches = new TreeMap<>();
+	private Map<String, Double> consumedCapacity = new TreeMap<>();
+	private long dynamoRequests;
+	private long dynamoRetries;
+	private long dynamoThrottles;
+	private long dynamoErrors;
+
+	public MetricsSnapshot() { }
+
+	public Map<String, OperationStats> getOperations() {
+		return operations;
+	}
+
+	public void setOperations(Map<String, OperationStats> operations) {
+		this.operations = operations;
+	}
+
+	public Map<String, CacheStats> getCaches() {
+		return caches;
+	}
+
+	public void setCaches(Map<String, CacheStats> caches) {
+		this.caches = caches;
+	}
+
+	public Map<String, Double> getConsumedCapacity() {
+		return consumedCapacity;
+	}
+
+	public void setConsumedCapacity(Map<String, Double> consumedCapacity) {
+		this.consumedCapacity = consumedCapacity;
+	}
+
+	public long getDynamoRequests() {
+		return dynamoRequests;
+	}
+
+	public void setDynamoRequests(long dynamoRequests) {
+		this.dynamoRequests = dynamoRequests;
+	}
+
+	public long getDynamoRetries() {
+		return dynamoRetries;
+	}
+
+	public void setDynamoRetries(long dynamoRetries) {
+		this.dynamoRetries = dynamoRetries;
+	}
+
+	public long getDynamoThrottles() {
+		return dynamoThrottles;
+	}
+
+	public void setDynamoThrottles(long dynamoThrottles) {
+		this.dynamoThrottles = dynamoThrottles;
+	}
+
+	public long getDynamoErrors() {
+		return dynamoErrors;
+	}
+
+	public void setDynamoErrors(long dynamoErrors) {
+		this.dynamoErrors = dynamoErrors;
+	}
+
+	/**
+	 * Latency summary of a single operation
+	 */
+	public static class OperationStats {
+
+		private long count;
+		private long errors;
+		private double meanMs;
+		private double p50Ms;
+		private double p90Ms;
+		private double p99Ms;
+		private double maxMs;
+
+		public OperationStats() { }
+
+		public long getCount() {
+			return count;
+		}
+
+		public void setCount(long count) {
+			this.count = count;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		public void setErrors(long errors) {
+			this.errors = errors;
+		}
+
+		public double getMeanMs() {
+			return meanMs;
+		}
+
+		public void setMeanMs(double meanMs) {
+			this.meanMs = meanMs;
+		}
+
+		public double getP50Ms() {
+			return p50Ms;
+		}
+
+		public void setP50Ms(double p50Ms) {
+			this.p50Ms = p50Ms;
+		}
+
+		public double getP90Ms() {
+			return p90Ms;
+		}
+
+		public void setP90Ms(double p90Ms) {
+			this.p90Ms = p90Ms;
+		}
+
+		public double getP99Ms() {
+			return p99Ms;
+		}
+
+		public void setP99Ms(double p99Ms) {
+			this.p99Ms = p99Ms;
+		}
+
+		public double getMaxMs() {
+			return maxMs;
+		}
+
+		public void setMaxMs(double maxMs) {
+			this.maxMs = maxMs;
+		}
+	}
+
+	/**
+	 * Counters of a single cache
+	 */
+	public static class CacheStats {
+
+		private long hits;
+		private long misses;
+		private long evictions;
+		private int size;
+		private double hitRate;
+
+		public CacheStats() { }
+
+		public long getHits() {
+			return hits;
+		}
+
+		public void setHits(long hits) {
+			this.hits = hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public void setMisses(long misses) {
+			this.misses = misses;
+		}
+
+		public long getEvictions() {
+			return evictions;
+		}
+
+		public void setEvictions(long evictions) {
+			this.evictions = evictions;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public void setSize(int size) {
+			this.size = size;
+		}
+
+		public double getHitRate() {
+			return hitRate;
+		}
+
+		public void setHitRate(double hitRate) {
+			this.hitRate = hitRate;
+		}
+	}
+}
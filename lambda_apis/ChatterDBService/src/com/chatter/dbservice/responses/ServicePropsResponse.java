@@ -4,7 +4,8 @@ package com.chatter.dbservice.responses;
  * ServicePropsResponse
  * @author coreym
  *
- * Encapsulates data about this service
+ * Encapsulates data about this service and the metrics collected
+ * by the container that served the request
  */
 public class ServicePropsResponse {
 
@@ -12,6 +13,7 @@ public class ServicePropsResponse {
 	private String name;
 	private String description;
 	private String version;
+	private MetricsSnapshot metrics;
 	
 	public ServicePropsResponse() { }
 	
@@ -55,6 +57,14 @@ public class ServicePropsResponse {
 		this.version = version;
 	}
 	
+	public MetricsSnapshot getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(MetricsSnapshot metrics) {
+		this.metrics = metrics;
+	}
+	
 	@Override
 	public String toString() {
 		return new StringBuilder()
@@ -0,0 +1,56 @@
+package com.chatter.dbservice.responses;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StreamBatchResponse
+ * @author coreym
+ *
+ * Response returned by stream event handlers. Lists the records of the
+ * batch that failed, identified by sequence number, so that the stream
+ * is retried from the earliest failure instead of from the start of
+ * the batch. An empty list reports that every record succeeded.
+ */
+public class StreamBatchResponse {
+
+	private List<BatchItemFailure> batchItemFailures = new ArrayList<>();
+
+	public StreamBatchResponse() { }
+
+	public StreamBatchResponse(List<String> failedSequenceNumbers) {
+		for (String sequenceNumber : failedSequenceNumbers) {
+			this.batchItemFailures.add(new BatchItemFailure(sequenceNumber));
+		}
+	}
+
+	public List<BatchItemFailure> getBatchItemFailures() {
+		return batchItemFailures;
+	}
+
+	public void setBatchItemFailures(List<BatchItemFailure> batchItemFailures) {
+		this.batchItemFailures = batchItemFailures;
+	}
+
+	/**
+	 * A single failed record
+	 */
+	public static class BatchItemFailure {
+
+		private String itemIdentifier;
+
+		public BatchItemFailure() { }
+
+		public BatchItemFailure(String itemIdentifier) {
+			this.itemIdentifier = itemIdentifier;
+		}
+
+		public String getItemIdentifier() {
+			return itemIdentifier;
+		}
+
+		public void setItemIdentifier(String itemIdentifier) {
+			this.itemIdentifier = itemIdentifier;
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.chatter.dbservice.streams;
+
+/**
+ * CascadeDeleteScheduler
+ * @author coreym
+ *
+ * Schedules a cascading delete of a forum's comments, flags and audio
+ * objects when the forum is removed. The cascade itself runs after the
+ * stream batch has been processed, see ForumCascadeDeleter.
+ */
+public class CascadeDeleteScheduler implements ForumChangeListener {
+
+	private final ForumCascadeDeleter cascadeDeleter;
+
+	public CascadeDeleteScheduler(ForumCascadeDeleter cascadeDeleter) {
+		this.cascadeDeleter = cascadeDeleter;
+	}
+
+	@Override
+	public void onChange(ForumChangeEvent event) {
+		if ("REMOVE".equals(event.getEventName())) {
+			this.cascadeDeleter.schedule(event.getForumId());
+		}
+	}
+}
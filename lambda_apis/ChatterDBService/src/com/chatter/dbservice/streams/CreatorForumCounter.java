@@ -0,0 +1,137 @@
+package com.chatter.dbservice.streams;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.chatter.dbservice.model.ChatterForum;
+
+/**
+ * CreatorForumCounter
+ * @author coreym
+ *
+ * Maintains the number of forums owned by each creator in the
+ * Chatter_Creator_Stats table. A forum insert adds one to its creator's
+ * count and a forum removal subtracts one.
+ *
+ * Stream records are delivered at least once, and a partial batch
+ * failure redelivers records that were already applied. Each counted
+ * forum therefore has an owner item in the Chatter_Creator_Forum table
+ * keyed by '<created_by>#<forum_id>', written with a condition before
+ * the count is changed, so a redelivered record changes the count once.
+ * The creator item itself only keeps the count and stays a constant
+ * size. Redelivery replays the rest of a forum's records in stream
+ * order, so the owner items and counts converge once it completes.
+ */
+public class CreatorForumCounter implements ForumChangeListener {
+
+	// Table holding per creator aggregates
+	static final String STATS_TABLE = "Chatter_Creator_Stats";
+
+	// Table holding one item per forum counted for a creator
+	static final String OWNER_TABLE = "Chatter_Creator_Forum";
+
+	private final AmazonDynamoDBClient dbClient;
+
+	public CreatorForumCounter(AmazonDynamoDBClient dbClient) {
+		this.dbClient = dbClient;
+	}
+
+	@Override
+	public void onChange(ForumChangeEvent event) {
+		String oldCreator = creator(event.getOldForum());
+		String newCreator = creator(event.getNewForum());
+
+		// Nothing to do when the owner did not change
+		if (oldCreator != null && oldCreator.equals(newCreator)) {
+			return;
+		}
+		if (oldCreator != null && this.removeOwner(oldCreator, event.getForumId())) {
+			try {
+				this.addForumCnt(oldCreator, -1);
+			}
+			catch (RuntimeException e) {
+				// Restore the owner item so the redelivered record retries
+				try {
+					this.putOwner(oldCreator, event.getForumId());
+				}
+				catch (RuntimeException restoreError) {
+					e.addSuppressed(restoreError);
+				}
+				throw e;
+			}
+		}
+		if (newCreator != null && this.putOwner(newCreator, event.getForumId())) {
+			try {
+				this.addForumCnt(newCreator, 1);
+			}
+			catch (RuntimeException e) {
+				// Drop the owner item so the redelivered record retries
+				try {
+					this.removeOwner(newCreator, event.getForumId());
+				}
+				catch (RuntimeException restoreError) {
+					e.addSuppressed(restoreError);
+				}
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * @return false if the forum was already counted for the creator
+	 */
+	private boolean putOwner(String createdBy, String forumId) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("owner_key", new AttributeValue(ownerKey(createdBy, forumId)));
+		item.put("created_by", new AttributeValue(createdBy));
+		item.put("forum_id", new AttributeValue(forumId));
+		try {
+			this.dbClient.putItem(new PutItemRequest()
+				.withTableName(OWNER_TABLE)
+				.withItem(item)
+				.withConditionExpression("attribute_not_exists(owner_key)"));
+			return true;
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return true if the forum was counted for the creator
+	 */
+	private boolean removeOwner(String createdBy, String forumId) {
+		DeleteItemResult result = this.dbClient.deleteItem(new DeleteItemRequest()
+				.withTableName(OWNER_TABLE)
+				.withKey(Collections.singletonMap("owner_key",
+						new AttributeValue(ownerKey(createdBy, forumId))))
+				.withReturnValues(ReturnValue.ALL_OLD));
+		return result.getAttributes() != null && !result.getAttributes().isEmpty();
+	}
+
+	private void addForumCnt(String createdBy, int amount) {
+		this.dbClient.updateItem(new UpdateItemRequest()
+			.withTableName(STATS_TABLE)
+			.withKey(Collections.singletonMap("created_by", new AttributeValue(createdBy)))
+			.withUpdateExpression("ADD forum_cnt :amount")
+			.withExpressionAttributeValues(Collections.singletonMap(":amount",
+					new AttributeValue().withN(Integer.toString(amount)))));
+	}
+
+	static String ownerKey(String createdBy, String forumId) {
+		return createdBy + "#" + forumId;
+	}
+
+	private static String creator(ChatterForum forum) {
+		return forum != null ? forum.getCreatedBy() : null;
+	}
+}
@@ -0,0 +1,283 @@
+package com.chatter.dbservice.streams;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.chatter.dbservice.dao.impl.BatchItemExecutor;
+import com.chatter.dbservice.dao.impl.ForumMembers;
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterFlag;
+import com.chatter.dbservice.util.RateLimiter;
+
+/**
+ * ForumCascadeDeleter
+ * @author coreym
+ *
+ * Removes the comments, flags and S3 audio objects left behind by a
+ * deleted forum.
+ *
+ * A cascade is scheduled by writing a job item for the forum to the
+ * Chatter_Forum_Cascade table, and is then worked through in pages of
+ * comments read from the ChatterComment forum_time_index. For each page
+ * the S3 objects are deleted first (up to 1000 keys per request), then the
+ * flags, the forum member records and finally the comments themselves
+ * (25 items per batch write).
+ * After every page the position in the index is saved to the job item, so
+ * a cascade that runs out of time resumes where it stopped on the next
+ * run. The job item is removed once the forum has no comments left.
+ *
+ * Deletes are paced by a rate limiter so that cleaning up a large forum
+ * does not take write capacity away from live traffic. Every step is
+ * safe to repeat.
+ */
+public class ForumCascadeDeleter {
+
+	// Table holding pending cascade jobs
+	static final String CASCADE_TABLE = "Chatter_Forum_Cascade";
+
+	// Largest number of keys accepted by an S3 multi-object delete
+	private static final int MAX_S3_DELETE_KEYS = 1000;
+
+	private final AmazonDynamoDBClient dbClient;
+	private final DynamoDBMapper dbMapper;
+	private final AmazonS3 s3Client;
+	private final BatchItemExecutor batchExecutor;
+	private final ForumMembers forumMembers;
+	private final RateLimiter rateLimiter;
+	private final int pageSize;
+
+	/**
+	 * @param dbClient the DynamoDB client
+	 * @param dbMapper used to query comments
+	 * @param s3Client used to delete comment audio objects
+	 * @param batchExecutor used to batch delete comments and flags
+	 * @param rateLimiter paces deletes, one permit per item or object
+	 * @param pageSize the number of comments handled per page
+	 */
+	public ForumCascadeDeleter(AmazonDynamoDBClient dbClient, DynamoDBMapper dbMapper,
+			AmazonS3 s3Client, BatchItemExecutor batchExecutor, RateLimiter rateLimiter,
+			int pageSize) {
+		this.dbClient = dbClient;
+		this.dbMapper = dbMapper;
+		this.s3Client = s3Client;
+		this.batchExecutor = batchExecutor;
+		this.forumMembers = new ForumMembers(dbClient, batchExecutor);
+		this.rateLimiter = rateLimiter;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Schedules a cascade for the argument forum. Scheduling a forum that
+	 * already has a pending cascade keeps its saved position.
+	 *
+	 * @param forumId the deleted forum
+	 */
+	public void schedule(String forumId) {
+		Map<String, AttributeValue> job = new HashMap<>();
+		job.put("forum_id", new AttributeValue(forumId));
+		job.put("scheduled_at", new AttributeValue().withN(
+				Long.toString(System.currentTimeMillis())));
+		try {
+			this.dbClient.putItem(new PutItemRequest()
+				.withTableName(CASCADE_TABLE)
+				.withItem(job)
+				.withConditionExpression("attribute_not_exists(forum_id)"));
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			// Already scheduled
+		}
+	}
+
+	/**
+	 * Works through every pending cascade until all are finished or the
+	 * deadline is reached. A cascade that fails is left for the next run
+	 * and does not stop the others.
+	 *
+	 * @param deadline time in epoch milliseconds after which no new page
+	 * 		  is started
+	 * @return the ids of the forums whose cascade finished
+	 * @throws AmazonClientException the first cascade failure, once every
+	 * other pending cascade has been worked on
+	 */
+	public List<String> resumeAll(long deadline) {
+		List<String> finished = new ArrayList<>();
+		RuntimeException failure = null;
+		Map<String, AttributeValue> startKey = null;
+		do {
+			ScanResult result = this.dbClient.scan(new ScanRequest()
+				.withTableName(CASCADE_TABLE)
+				.withProjectionExpression("forum_id")
+				.withExclusiveStartKey(startKey));
+			for (Map<String, AttributeValue> job : result.getItems()) {
+				if (System.currentTimeMillis() >= deadline) {
+					break;
+				}
+				String forumId = job.get("forum_id").getS();
+				try {
+					if (this.resume(forumId, deadline)) {
+						finished.add(forumId);
+					}
+				}
+				catch (RuntimeException re) {
+					failure = failure != null ? failure : re;
+				}
+			}
+			startKey = result.getLastEvaluatedKey();
+		} while (startKey != null && System.currentTimeMillis() < deadline);
+		
+		if (failure != null) {
+			throw failure;
+		}
+		return finished;
+	}
+
+	/**
+	 * Continues the cascade of one forum from its saved position.
+	 *
+	 * @param forumId the deleted forum
+	 * @param deadline time in epoch milliseconds after which no new page
+	 * 		  is started
+	 * @return true if the cascade finished or was not scheduled, false
+	 * if the deadline was reached first
+	 */
+	public boolean resume(String forumId, long deadline) {
+		Map<String, AttributeValue> jobKey = Collections.singletonMap("forum_id",
+				new AttributeValue(forumId));
+		Map<String, AttributeValue> job = this.dbClient.getItem(new GetItemRequest()
+				.withTableName(CASCADE_TABLE)
+				.withKey(jobKey)
+				.withConsistentRead(true)).getItem();
+		if (job == null) {
+			return true;
+		}
+
+		AttributeValue savedKey = job.get("start_key");
+		Map<String, AttributeValue> startKey = savedKey != null ? savedKey.getM() : null;
+		do {
+			if (System.currentTimeMillis() >= deadline) {
+				return false;
+			}
+			startKey = this.deletePage(forumId, startKey);
+			if (!this.saveProgress(jobKey, startKey)) {
+				// Another run finished this cascade in the meantime
+				return true;
+			}
+		} while (startKey != null);
+
+		this.dbClient.deleteItem(new DeleteItemRequest()
+				.withTableName(CASCADE_TABLE)
+				.withKey(jobKey));
+		return true;
+	}
+
+	/**
+	 * Deletes one page of comments together with their flags and S3
+	 * objects.
+	 *
+	 * @return the key to continue from or NULL if this was the last page
+	 */
+	private Map<String, AttributeValue> deletePage(String forumId,
+			Map<String, AttributeValue> startKey) {
+		ChatterComment hashKeyValues = new ChatterComment();
+		hashKeyValues.setForumId(forumId);
+		DynamoDBQueryExpression<ChatterComment> query = new DynamoDBQueryExpression<ChatterComment>()
+			.withHashKeyValues(hashKeyValues)
+			.withIndexName("forum_time_index")
+			.withConsistentRead(false)
+			.withLimit(this.pageSize)
+			.withExclusiveStartKey(startKey);
+		QueryResultPage<ChatterComment> page = this.dbMapper.queryPage(ChatterComment.class, query);
+
+		List<String> commentIds = new ArrayList<>();
+		List<String> flagIds = new ArrayList<>();
+		Map<String, List<KeyVersion>> objectsByBucket = new LinkedHashMap<>();
+		for (ChatterComment comment : page.getResults()) {
+			commentIds.add(comment.getCommentId());
+			if (comment.getFlagIds() != null) {
+				flagIds.addAll(comment.getFlagIds());
+			}
+			if (comment.getS3BucketName() != null && comment.getS3KeyName() != null) {
+				objectsByBucket.computeIfAbsent(comment.getS3BucketName(), b -> new ArrayList<>())
+					.add(new KeyVersion(comment.getS3KeyName()));
+			}
+		}
+
+		// Children first, so a failed page is found again on the next run
+		for (Map.Entry<String, List<KeyVersion>> bucket : objectsByBucket.entrySet()) {
+			List<KeyVersion> keys = bucket.getValue();
+			for (int i = 0; i < keys.size(); i += MAX_S3_DELETE_KEYS) {
+				List<KeyVersion> chunk = keys.subList(i, Math.min(i + MAX_S3_DELETE_KEYS, keys.size()));
+				this.pace(chunk.size());
+				this.s3Client.deleteObjects(new DeleteObjectsRequest(bucket.getKey())
+						.withKeys(chunk)
+						.withQuiet(true));
+			}
+		}
+		if (!flagIds.isEmpty()) {
+			this.pace(flagIds.size());
+			this.batchExecutor.batchDelete(ChatterFlag.class, "flag_id", flagIds);
+		}
+		if (!commentIds.isEmpty()) {
+			this.pace(commentIds.size());
+			this.forumMembers.removeAll(forumId, commentIds);
+			this.pace(commentIds.size());
+			this.batchExecutor.batchDelete(ChatterComment.class, "comment_id", commentIds);
+		}
+		return page.getLastEvaluatedKey();
+	}
+
+	/**
+	 * Saves the position to continue from to the job item.
+	 *
+	 * @return false if the job item no longer exists
+	 */
+	private boolean saveProgress(Map<String, AttributeValue> jobKey,
+			Map<String, AttributeValue> startKey) {
+		if (startKey == null) {
+			return true;
+		}
+		try {
+			this.dbClient.updateItem(new UpdateItemRequest()
+				.withTableName(CASCADE_TABLE)
+				.withKey(jobKey)
+				.withUpdateExpression("SET start_key = :key")
+				.withConditionExpression("attribute_exists(forum_id)")
+				.withExpressionAttributeValues(Collections.singletonMap(":key",
+						new AttributeValue().withM(startKey))));
+			return true;
+		}
+		catch (ConditionalCheckFailedException ccfe) {
+			return false;
+		}
+	}
+
+	private void pace(int permits) {
+		try {
+			this.rateLimiter.acquire(permits);
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new AmazonClientException("ERROR: Interrupted while deleting forum children.", ie);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.chatter.dbservice.streams;
+
+import com.chatter.dbservice.model.ChatterForum;
+
+/**
+ * ForumChangeEvent
+ * @author coreym
+ *
+ * A decoded ChatterForum stream record. The old image is NULL for
+ * INSERT events and the new image is NULL for REMOVE events.
+ */
+public class ForumChangeEvent {
+
+	private final String eventName;
+	private final String forumId;
+	private final String sequenceNumber;
+	private final ChatterForum oldForum;
+	private final ChatterForum newForum;
+
+	public ForumChangeEvent(String eventName, String forumId, String sequenceNumber,
+			ChatterForum oldForum, ChatterForum newForum) {
+		this.eventName = eventName;
+		this.forumId = forumId;
+		this.sequenceNumber = sequenceNumber;
+		this.oldForum = oldForum;
+		this.newForum = newForum;
+	}
+
+	/**
+	 * @return INSERT, MODIFY or REMOVE
+	 */
+	public String getEventName() {
+		return eventName;
+	}
+
+	public String getForumId() {
+		return forumId;
+	}
+
+	public String getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public ChatterForum getOldForum() {
+		return oldForum;
+	}
+
+	public ChatterForum getNewForum() {
+		return newForum;
+	}
+}
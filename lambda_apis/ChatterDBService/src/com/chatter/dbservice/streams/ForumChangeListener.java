@@ -0,0 +1,20 @@
+package com.chatter.dbservice.streams;
+
+/**
+ * ForumChangeListener
+ * @author coreym
+ *
+ * Receives decoded ChatterForum stream records. Events for the same
+ * forum are delivered in stream order, events for different forums
+ * may be delivered concurrently. A listener signals that an event
+ * must be retried by throwing an exception.
+ */
+public interface ForumChangeListener {
+
+	/**
+	 * Handles one forum change.
+	 * 
+	 * @param event the change to handle
+	 */
+	public void onChange(ForumChangeEvent event);
+}
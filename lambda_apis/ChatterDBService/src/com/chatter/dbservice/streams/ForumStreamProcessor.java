@@ -0,0 +1,158 @@
+package com.chatter.dbservice.streams;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.Record;
+import com.amazonaws.services.dynamodbv2.model.StreamRecord;
+import com.chatter.dbservice.dao.impl.BatchItemExecutor;
+import com.chatter.dbservice.model.ChatterForum;
+
+/**
+ * ForumStreamProcessor
+ * @author coreym
+ *
+ * Decodes a batch of ChatterForum stream records and hands each one to
+ * every registered listener.
+ *
+ * Records are grouped by forum id. Groups are processed concurrently on
+ * the shared batch pool, and the records within a group are processed one
+ * at a time in stream order. When a record fails, the rest of its group
+ * is skipped so that later changes to the forum are never applied before
+ * it. The sequence number of the failed record is returned so that the
+ * caller can report a partial batch failure and have the stream retry
+ * from there.
+ */
+public class ForumStreamProcessor {
+
+	private final DynamoDBMapper dbMapper;
+	private final BatchItemExecutor executor;
+	private final List<ForumChangeListener> listeners;
+
+	/**
+	 * @param dbMapper used to convert record images into ChatterForum objects
+	 * @param executor the shared pool used to process forums concurrently
+	 * @param listeners the listeners to notify, in order
+	 */
+	public ForumStreamProcessor(DynamoDBMapper dbMapper, BatchItemExecutor executor,
+			List<ForumChangeListener> listeners) {
+		this.dbMapper = dbMapper;
+		this.executor = executor;
+		this.listeners = listeners;
+	}
+
+	/**
+	 * Processes a batch of stream records.
+	 *
+	 * @param records the records, in stream order
+	 * @return the sequence numbers of the records that failed, at most
+	 * one per forum. Empty when every record was processed.
+	 */
+	public List<String> process(List<? extends Record> records) {
+		// Group records by forum, keeping stream order within each group
+		Map<String, List<Record>> byForum = new LinkedHashMap<>();
+		for (Record rec : records) {
+			byForum.computeIfAbsent(forumId(rec.getDynamodb()), id -> new ArrayList<>()).add(rec);
+		}
+
+		List<List<Record>> groups = new ArrayList<>(byForum.values());
+		List<Future<String>> pending = new ArrayList<>(groups.size());
+		for (List<Record> group : groups) {
+			pending.add(this.submit(group));
+		}
+
+		List<String> failures = new ArrayList<>();
+		for (int i = 0; i < groups.size(); i++) {
+			String failedSequenceNumber = await(pending.get(i), groups.get(i));
+			if (failedSequenceNumber != null) {
+				failures.add(failedSequenceNumber);
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * Submits a group to the pool. A group the pool rejects is failed
+	 * from its first record.
+	 */
+	private Future<String> submit(List<Record> group) {
+		try {
+			return this.executor.submit(() -> this.processInOrder(group));
+		}
+		catch (RejectedExecutionException ree) {
+			return CompletableFuture.completedFuture(firstSequenceNumber(group));
+		}
+	}
+
+	/**
+	 * Processes the records of one forum in order, stopping at the
+	 * first failure.
+	 *
+	 * @param group the records of one forum
+	 * @return the sequence number of the failed record or NULL
+	 */
+	private String processInOrder(List<Record> group) {
+		for (Record rec : group) {
+			try {
+				ForumChangeEvent event = this.decode(rec);
+				for (ForumChangeListener listener : this.listeners) {
+					listener.onChange(event);
+				}
+			}
+			catch (RuntimeException re) {
+				return rec.getDynamodb().getSequenceNumber();
+			}
+		}
+		return null;
+	}
+
+	private ForumChangeEvent decode(Record rec) {
+		StreamRecord streamRecord = rec.getDynamodb();
+		return new ForumChangeEvent(
+				rec.getEventName(),
+				forumId(streamRecord),
+				streamRecord.getSequenceNumber(),
+				this.toForum(streamRecord.getOldImage()),
+				this.toForum(streamRecord.getNewImage()));
+	}
+
+	private ChatterForum toForum(Map<String, AttributeValue> image) {
+		return image != null ? this.dbMapper.marshallIntoObject(ChatterForum.class, image) : null;
+	}
+
+	private static String forumId(StreamRecord streamRecord) {
+		return streamRecord.getKeys().get("forum_id").getS();
+	}
+
+	/**
+	 * Waits for a group to finish. A group task that failed outside of
+	 * its listeners, or that could not be waited for, is failed from
+	 * its first record so that the stream retries the whole group.
+	 *
+	 * @return the sequence number of the failed record or NULL
+	 */
+	private static String await(Future<String> future, List<Record> group) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			return firstSequenceNumber(group);
+		}
+		catch (ExecutionException ee) {
+			return firstSequenceNumber(group);
+		}
+	}
+
+	private static String firstSequenceNumber(List<Record> group) {
+		return group.get(0).getDynamodb().getSequenceNumber();
+	}
+}
@@ -0,0 +1,220 @@
+package com.chatter.dbservice.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+
+/**
+ * PageCursor
+ * @author coreym
+ *
+ * Converts the last evaluated key of a query page into an opaque
+ * cursor token, and back. A token is the base64url encoding of:
+ *
+ * - a version byte
+ * - the number of key attributes
+ * - for each attribute: its name, a type byte ('S' or 'N') and its value
+ * - a truncated HMAC-SHA256 tag
+ *
+ * The tag is computed over the encoded key and a scope naming the
+ * table, index, sort direction and index hash key value of the query the
+ * cursor was issued for. A cursor that was altered, or that is replayed
+ * against a different query, such as another forum's comments, is
+ * rejected.
+ */
+public class PageCursor {
+
+	// Format version written as the first byte of every cursor
+	private static final byte VERSION = 1;
+
+	// Number of HMAC bytes kept in the cursor
+	private static final int TAG_LENGTH = 12;
+
+	private static final String MAC_ALGORITHM = "HmacSHA256";
+
+	private final SecretKeySpec key;
+
+	/**
+	 * @param secret the key used to sign cursors
+	 */
+	public PageCursor(String secret) {
+		if (secret == null || secret.isEmpty()) {
+			throw new IllegalArgumentException("A cursor secret is required.");
+		}
+		this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+	}
+
+	/**
+	 * Creates a PageCursor signed with the secret from the CURSOR_SECRET
+	 * environment variable. Only the local environment falls back to the
+	 * cursorSecret service property when the variable is not set, since
+	 * that secret is committed with the source.
+	 *
+	 * @param propsResolver the service properties
+	 * @return PageCursor
+	 * @throws PropertyRetrievalException if the variable is not set
+	 * outside the local environment
+	 */
+	public static PageCursor fromProperties(PropertiesResolver propsResolver)
+			throws PropertyRetrievalException {
+		String secret = System.getenv("CURSOR_SECRET");
+		if (secret == null || secret.isEmpty()) {
+			String serviceEnv = propsResolver.getProperty("service.env");
+			if (serviceEnv == null || !"local".equals(serviceEnv.trim())) {
+				throw new PropertyRetrievalException("ERROR: The CURSOR_SECRET environment "
+						+ "variable must be set in the " + serviceEnv + " environment.");
+			}
+			secret = propsResolver.getProperty("cursorSecret");
+		}
+		return new PageCursor(secret);
+	}
+
+	/**
+	 * Builds the scope of the cursors of a query.
+	 *
+	 * @param tableName the table queried
+	 * @param indexName the index queried
+	 * @param forward FALSE if the index is read in descending order
+	 * @param hashKey the index hash key value queried
+	 * @return the scope to encode and decode the query's cursors with
+	 */
+	public static String scope(String tableName, String indexName, boolean forward,
+			String hashKey) {
+		return tableName + "/" + indexName + (forward ? "" : "/desc") + "=" + hashKey;
+	}
+
+	/**
+	 * Encodes a last evaluated key as a cursor token.
+	 *
+	 * @param scope the query the key belongs to, see scope()
+	 * @param lastEvaluatedKey the key to encode
+	 * @return the cursor token or NULL if the key is NULL
+	 */
+	public String encode(String scope, Map<String, AttributeValue> lastEvaluatedKey) {
+		if (lastEvaluatedKey == null) {
+			return null;
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			out.writeByte(lastEvaluatedKey.size());
+
+			// Sorted so that equal keys always produce equal cursors
+			for (Map.Entry<String, AttributeValue> entry :
+					new TreeMap<>(lastEvaluatedKey).entrySet()) {
+				AttributeValue value = entry.getValue();
+				out.writeUTF(entry.getKey());
+				if (value.getS() != null) {
+					out.writeByte('S');
+					out.writeUTF(value.getS());
+				}
+				else if (value.getN() != null) {
+					out.writeByte('N');
+					out.writeUTF(value.getN());
+				}
+				else {
+					throw new IllegalArgumentException("Unsupported key attribute type for "
+							+ entry.getKey());
+				}
+			}
+			out.write(this.tag(scope, bytes.toByteArray()));
+		}
+		catch (IOException ioe) {
+			// Writing to a byte array cannot fail
+			throw new IllegalStateException(ioe);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+	}
+
+	/**
+	 * Decodes a cursor token back into an exclusive start key.
+	 *
+	 * @param scope the query the cursor is used against, see scope()
+	 * @param cursor the cursor token
+	 * @return the exclusive start key or NULL if the cursor is NULL or empty
+	 * @throws RequestValidationException if the cursor is malformed, was
+	 * altered or was issued for a different scope
+	 */
+	public Map<String, AttributeValue> decode(String scope, String cursor)
+			throws RequestValidationException {
+		if (cursor == null || cursor.isEmpty()) {
+			return null;
+		}
+
+		try {
+			byte[] token = Base64.getUrlDecoder().decode(cursor);
+			if (token.length <= TAG_LENGTH + 2 || token[0] != VERSION) {
+				throw invalid();
+			}
+
+			byte[] body = Arrays.copyOf(token, token.length - TAG_LENGTH);
+			byte[] tag = Arrays.copyOfRange(token, token.length - TAG_LENGTH, token.length);
+			if (!MessageDigest.isEqual(tag, this.tag(scope, body))) {
+				throw invalid();
+			}
+
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, 1,
+					body.length - 1));
+			int count = in.readUnsignedByte();
+			Map<String, AttributeValue> startKey = new HashMap<>();
+			for (int i = 0; i < count; i++) {
+				String name = in.readUTF();
+				int type = in.readUnsignedByte();
+				String value = in.readUTF();
+				if (type == 'S') {
+					startKey.put(name, new AttributeValue().withS(value));
+				}
+				else if (type == 'N') {
+					startKey.put(name, new AttributeValue().withN(value));
+				}
+				else {
+					throw invalid();
+				}
+			}
+			if (in.available() != 0) {
+				throw invalid();
+			}
+			return startKey;
+		}
+		catch (IllegalArgumentException | IOException ex) {
+			throw invalid();
+		}
+	}
+
+	private byte[] tag(String scope, byte[] body) {
+		try {
+			Mac mac = Mac.getInstance(MAC_ALGORITHM);
+			mac.init(this.key);
+			mac.update(scope.getBytes(StandardCharsets.UTF_8));
+			mac.update((byte) 0);
+			return Arrays.copyOf(mac.doFinal(body), TAG_LENGTH);
+		}
+		catch (GeneralSecurityException gse) {
+			// HmacSHA256 is available on every Java 8 runtime
+			throw new IllegalStateException(gse);
+		}
+	}
+
+	private static RequestValidationException invalid() {
+		return new RequestValidationException("ERROR: Request contained an invalid "
+				+ "pagination cursor.");
+	}
+}
@@ -0,0 +1,51 @@
+package com.chatter.dbservice.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimiter
+ * @author coreym
+ *
+ * Spaces out work to a fixed number of permits per second. A caller
+ * asking for several permits at once is let through straight away when
+ * the limiter is idle, and the callers after it wait until those permits
+ * would have been issued. Bursts are therefore never larger than one
+ * request, and a single large request never waits on itself.
+ */
+public class RateLimiter {
+
+	private final long nanosPerPermit;
+
+	// Time at which the next request may proceed
+	private long nextFreeNanos = System.nanoTime();
+
+	/**
+	 * @param permitsPerSecond the sustained rate to allow
+	 */
+	public RateLimiter(double permitsPerSecond) {
+		if (permitsPerSecond <= 0) {
+			throw new IllegalArgumentException("permitsPerSecond must be positive");
+		}
+		this.nanosPerPermit = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+	}
+
+	/**
+	 * Blocks until the argument number of permits may be used.
+	 *
+	 * @param permits the number of permits to take
+	 * @throws InterruptedException
+	 */
+	public void acquire(int permits) throws InterruptedException {
+		long waitNanos = this.reserve(permits);
+		if (waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+
+	private synchronized long reserve(int permits) {
+		long now = System.nanoTime();
+		long waitNanos = Math.max(0, this.nextFreeNanos - now);
+		this.nextFreeNanos = Math.max(this.nextFreeNanos, now) + permits * this.nanosPerPermit;
+		return waitNanos;
+	}
+}
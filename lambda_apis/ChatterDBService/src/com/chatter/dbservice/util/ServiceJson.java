@@ -0,0 +1,281 @@
+package com.chatter.dbservice.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.FlagCRUDRequest;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.dbservice.responses.CommentResultPage;
+import com.chatter.dbservice.responses.ForumResultPage;
+import com.chatter.dbservice.responses.ServiceResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * ServiceJson
+ * @author coreym
+ *
+ * The JSON codec of the streaming request handlers. Requests are bound
+ * straight from the input stream and responses are written straight to
+ * the output stream, with no intermediate String or tree.
+ *
+ * The readers, the response writer and the serializers are built once
+ * and shared by every invocation. Comments, forums and their result
+ * pages, which make up the large responses, are written by hand with
+ * the JSON generator. Other payloads use Jackson's bean serializers,
+ * which are built on first use and cached. The output matches what the
+ * Lambda POJO serializer writes for the same response.
+ */
+public final class ServiceJson {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+			.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+			.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+			.registerModule(new SimpleModule("ChatterResponses")
+					.addSerializer(new ServiceResponseSerializer())
+					.addSerializer(new CommentResultPageSerializer())
+					.addSerializer(new ForumResultPageSerializer())
+					.addSerializer(new CommentSerializer())
+					.addSerializer(new ForumSerializer()));
+
+	private static final ObjectReader COMMENT_REQUEST = MAPPER.readerFor(CommentCRUDRequest.class);
+	private static final ObjectReader FORUM_REQUEST = MAPPER.readerFor(ForumCRUDRequest.class);
+	private static final ObjectReader FLAG_REQUEST = MAPPER.readerFor(FlagCRUDRequest.class);
+	private static final ObjectWriter RESPONSE = MAPPER.writerFor(ServiceResponse.class);
+
+	private ServiceJson() { }
+
+	/**
+	 * Binds a comment request from the argument stream.
+	 * @param input the request JSON
+	 * @return CommentCRUDRequest
+	 * @throws IOException if the stream does not hold a valid request
+	 */
+	public static CommentCRUDRequest readCommentRequest(InputStream input) throws IOException {
+		return COMMENT_REQUEST.readValue(input);
+	}
+
+	/**
+	 * Binds a forum request from the argument stream.
+	 * @param input the request JSON
+	 * @return ForumCRUDRequest
+	 * @throws IOException if the stream does not hold a valid request
+	 */
+	public static ForumCRUDRequest readForumRequest(InputStream input) throws IOException {
+		return FORUM_REQUEST.readValue(input);
+	}
+
+	/**
+	 * Binds a flag request from the argument stream.
+	 * @param input the request JSON
+	 * @return FlagCRUDRequest
+	 * @throws IOException if the stream does not hold a valid request
+	 */
+	public static FlagCRUDRequest readFlagRequest(InputStream input) throws IOException {
+		return FLAG_REQUEST.readValue(input);
+	}
+
+	/**
+	 * Writes a response to the argument stream. The stream is flushed
+	 * but left open.
+	 * @param response the response to write
+	 * @param output the stream to write to
+	 * @throws IOException
+	 */
+	public static void writeResponse(ServiceResponse<?> response, OutputStream output)
+			throws IOException {
+		RESPONSE.writeValue(output, response);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final class ServiceResponseSerializer extends StdSerializer<ServiceResponse> {
+		private static final long serialVersionUID = 1L;
+
+		ServiceResponseSerializer() {
+			super(ServiceResponse.class);
+		}
+
+		@Override
+		public void serialize(ServiceResponse response, JsonGenerator gen,
+				SerializerProvider provider) throws IOException {
+			gen.writeStartObject();
+			provider.defaultSerializeField("payload", response.getPayload(), gen);
+			gen.writeBooleanField("status", response.getStatus());
+			gen.writeStringField("message", response.getMessage());
+			gen.writeBooleanField("exceptionThrown", response.getExceptionThrown());
+			gen.writeStringField("exceptionMessage", response.getExceptionMessage());
+			gen.writeEndObject();
+		}
+	}
+
+	private static final class CommentResultPageSerializer
+			extends StdSerializer<CommentResultPage> {
+		private static final long serialVersionUID = 1L;
+
+		CommentResultPageSerializer() {
+			super(CommentResultPage.class);
+		}
+
+		@Override
+		public void serialize(CommentResultPage page, JsonGenerator gen,
+				SerializerProvider provider) throws IOException {
+			gen.writeStartObject();
+			gen.writeFieldName("pageResults");
+			List<ChatterComment> comments = page.getPageResults();
+			if (comments == null) {
+				gen.writeNull();
+			}
+			else {
+				gen.writeStartArray();
+				for (int i = 0; i < comments.size(); i++) {
+					CommentSerializer.write(comments.get(i), gen);
+				}
+				gen.writeEndArray();
+			}
+			gen.writeStringField("cursor", page.getCursor());
+			gen.writeNumberField("resultCount", page.getResultCount());
+			gen.writeBooleanField("moreResults", page.getMoreResults());
+			gen.writeEndObject();
+		}
+	}
+
+	private static final class ForumResultPageSerializer extends StdSerializer<ForumResultPage> {
+		private static final long serialVersionUID = 1L;
+
+		ForumResultPageSerializer() {
+			super(ForumResultPage.class);
+		}
+
+		@Override
+		public void serialize(ForumResultPage page, JsonGenerator gen,
+				SerializerProvider provider) throws IOException {
+			gen.writeStartObject();
+			gen.writeFieldName("pageResults");
+			List<ChatterForum> forums = page.getPageResults();
+			if (forums == null) {
+				gen.writeNull();
+			}
+			else {
+				gen.writeStartArray();
+				for (int i = 0; i < forums.size(); i++) {
+					ForumSerializer.write(forums.get(i), gen);
+				}
+				gen.writeEndArray();
+			}
+			gen.writeStringField("cursor", page.getCursor());
+			gen.writeNumberField("resultCount", page.getResultCount());
+			gen.writeBooleanField("moreResults", page.isMoreResults());
+			gen.writeEndObject();
+		}
+	}
+
+	private static final class CommentSerializer extends StdSerializer<ChatterComment> {
+		private static final long serialVersionUID = 1L;
+
+		CommentSerializer() {
+			super(ChatterComment.class);
+		}
+
+		@Override
+		public void serialize(ChatterComment comment, JsonGenerator gen,
+				SerializerProvider provider) throws IOException {
+			write(comment, gen);
+		}
+
+		static void write(ChatterComment comment, JsonGenerator gen) throws IOException {
+			if (comment == null) {
+				gen.writeNull();
+				return;
+			}
+			gen.writeStartObject();
+			gen.writeStringField("commentId", comment.getCommentId());
+			gen.writeStringField("createdBy", comment.getCreatedBy());
+			writeNumberField(gen, "timeStamp", comment.getTimeStamp());
+			gen.writeStringField("forumId", comment.getForumId());
+			writeIdsField(gen, "replyIds", comment.getReplyIds());
+			writeIdsField(gen, "flagIds", comment.getFlagIds());
+			writeNumberField(gen, "replyCnt", comment.getReplyCnt());
+			writeNumberField(gen, "flagCnt", comment.getFlagCnt());
+			gen.writeNumberField("concurCnt", comment.getConcurCnt());
+			gen.writeStringField("s3BucketName", comment.getS3BucketName());
+			gen.writeStringField("s3KeyName", comment.getS3KeyName());
+			gen.writeEndObject();
+		}
+	}
+
+	private static final class ForumSerializer extends StdSerializer<ChatterForum> {
+		private static final long serialVersionUID = 1L;
+
+		ForumSerializer() {
+			super(ChatterForum.class);
+		}
+
+		@Override
+		public void serialize(ChatterForum forum, JsonGenerator gen,
+				SerializerProvider provider) throws IOException {
+			write(forum, gen);
+		}
+
+		static void write(ChatterForum forum, JsonGenerator gen) throws IOException {
+			if (forum == null) {
+				gen.writeNull();
+				return;
+			}
+			gen.writeStartObject();
+			gen.writeStringField("forumId", forum.getForumId());
+			gen.writeStringField("createdBy", forum.getCreatedBy());
+			writeNumberField(gen, "timeStamp", forum.getTimeStamp());
+			gen.writeStringField("title", forum.getTitle());
+			writeNumberField(gen, "commentCnt", forum.getCommentCnt());
+			gen.writeEndObject();
+		}
+	}
+
+	private static void writeNumberField(JsonGenerator gen, String name, Long value)
+			throws IOException {
+		if (value == null) {
+			gen.writeNullField(name);
+		}
+		else {
+			gen.writeNumberField(name, value.longValue());
+		}
+	}
+
+	private static void writeNumberField(JsonGenerator gen, String name, Integer value)
+			throws IOException {
+		if (value == null) {
+			gen.writeNullField(name);
+		}
+		else {
+			gen.writeNumberField(name, value.intValue());
+		}
+	}
+
+	private static void writeIdsField(JsonGenerator gen, String name, Set<String> ids)
+			throws IOException {
+		gen.writeFieldName(name);
+		if (ids == null) {
+			gen.writeNull();
+			return;
+		}
+		gen.writeStartArray();
+		for (String id : ids) {
+			gen.writeString(id);
+		}
+		gen.writeEndArray();
+	}
+}
@@ -8,8 +8,8 @@ package com.chatter.dbservice.util.ops;
  * ChatterComment data.
  */
 public enum ChatterCommentOps {
-	CREATE, RETRIEVE, DELETE, QUERY_BY_CREATOR,
+	CREATE, CREATE_IN_FORUM, RETRIEVE, DELETE, QUERY_BY_CREATOR,
 	QUERY_BY_FORUM, BATCH_RETRIEVE, BATCH_DELETE, ADD_REPLY,
-	ADD_FLAG, REMOVE_REPLY, REMOVE_FLAG, INCREMENT_CONCUR, PING,
-	SERVICE_INFO
+	ADD_FLAG, REMOVE_REPLY, REMOVE_FLAG, INCREMENT_CONCUR, CONSOLIDATE_CONCUR,
+	PING, SERVICE_INFO
 }
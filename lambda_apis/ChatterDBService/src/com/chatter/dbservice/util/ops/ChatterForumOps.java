@@ -10,5 +10,5 @@ package com.chatter.dbservice.util.ops;
 public enum ChatterForumOps {
 	CREATE, QUERY_BY_ID, QUERY_BY_CREATOR,
 	QUERY_BY_TITLE, UPDATE, DELETE, ADD_COMMENT,
-	REMOVE_COMMENT, PING, SERVICE_INFO
+	REMOVE_COMMENT, QUERY_COMMENTS, PING, SERVICE_INFO
 }
@@ -0,0 +1,119 @@
+package com.chatter.dbservice.unit;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.requests.CommentArgs;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.validators.CommentCRUDRequestValidator;
+import com.chatter.dbservice.util.ops.ChatterCommentOps;
+
+/**
+ * ArgRulesTest
+ * @author coreym
+ *
+ * Unit tests for the precompiled request argument rules behind the
+ * request validators
+ */
+public class ArgRulesTest {
+
+	private CommentCRUDRequest queryRequest(Consumer<CommentArgs> setArgs) {
+		CommentArgs args = new CommentArgs();
+		args.setForumId("forum-1");
+		setArgs.accept(args);
+		return new CommentCRUDRequest(ChatterCommentOps.QUERY_BY_FORUM, args);
+	}
+
+	private String errorFor(CommentCRUDRequest req) {
+		try {
+			CommentCRUDRequestValidator.validateQueryByForumRequest(req);
+			return null;
+		}
+		catch (RequestValidationException rve) {
+			return rve.getMessage();
+		}
+	}
+
+	/**
+	 * Test that requests following every rule pass
+	 */
+	@Test
+	public void testValidRequests() {
+		Assert.assertNull(this.errorFor(this.queryRequest(args -> { })));
+		Assert.assertNull(this.errorFor(this.queryRequest(args -> {
+			args.setTimeStampFrom(100L);
+			args.setTimeStampTo(200L);
+			args.setSortOrder("desc");
+			args.setView("summary");
+		})));
+		Assert.assertNull(this.errorFor(this.queryRequest(args -> args.setTimeStampTo(-5L))));
+	}
+
+	/**
+	 * Test that the argument breaking a rule is named in the error
+	 */
+	@Test
+	public void testFieldErrors() {
+		Assert.assertEquals("Chatter Comment request ERROR: forumId is required and must be "
+				+ "a non empty string.", this.errorFor(new CommentCRUDRequest(
+						ChatterCommentOps.QUERY_BY_FORUM, new CommentArgs())));
+		Assert.assertTrue(this.errorFor(this.queryRequest(args -> args.setForumId("")))
+				.contains("forumId"));
+
+		Assert.assertTrue(this.errorFor(this.queryRequest(args -> args.setSortOrder("up")))
+				.contains("sortOrder must be one of asc, desc"));
+		Assert.assertTrue(this.errorFor(this.queryRequest(args -> args.setView("all")))
+				.contains("view must be one of full, summary"));
+		Assert.assertTrue(this.errorFor(this.queryRequest(args -> {
+			args.setTimeStampFrom(200L);
+			args.setTimeStampTo(100L);
+		})).contains("timeStampFrom must not be after timeStampTo"));
+		Assert.assertTrue(this.errorFor(new CommentCRUDRequest(
+				ChatterCommentOps.QUERY_BY_FORUM, null)).contains("no arguments"));
+		Assert.assertTrue(this.errorFor(null).contains("no arguments"));
+	}
+
+	/**
+	 * Test that id lists must be non empty lists of ids
+	 */
+	@Test
+	public void testIdLists() throws RequestValidationException {
+		CommentArgs args = new CommentArgs();
+		args.setCommentIds(Arrays.asList("a", "b"));
+		CommentCRUDRequestValidator.validateBatchRetrieveRequest(
+				new CommentCRUDRequest(ChatterCommentOps.BATCH_RETRIEVE, args));
+
+		List<List<String>> invalidLists = Arrays.asList(null, Collections.emptyList(),
+				Arrays.asList("a", null));
+		for (List<String> invalid : invalidLists) {
+			args.setCommentIds(invalid);
+			try {
+				CommentCRUDRequestValidator.validateBatchRetrieveRequest(
+						new CommentCRUDRequest(ChatterCommentOps.BATCH_RETRIEVE, args));
+				Assert.fail("Accepted commentIds " + invalid);
+			}
+			catch (RequestValidationException rve) {
+				Assert.assertTrue(rve.getMessage().contains("commentIds"));
+			}
+		}
+	}
+
+	/**
+	 * Test that requests are logged with only the arguments they hold
+	 */
+	@Test
+	public void testRequestToString() {
+		String logged = this.queryRequest(args -> args.setMaxResults(10)).toString();
+		Assert.assertTrue(logged.contains("\n\tforumId: forum-1"));
+		Assert.assertTrue(logged.contains("\n\tmaxResults: 10"));
+		Assert.assertFalse(logged.contains("cursor"));
+		Assert.assertTrue(new CommentCRUDRequest(ChatterCommentOps.QUERY_BY_FORUM,
+				new CommentArgs()).toString().contains("No args found in request..."));
+	}
+}
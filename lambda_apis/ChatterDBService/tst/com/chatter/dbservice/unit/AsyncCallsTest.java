@@ -0,0 +1,87 @@
+package com.chatter.dbservice.unit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.Assert;
+
+import com.chatter.dbservice.dao.impl.AsyncCalls;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+
+/**
+ * AsyncCallsTest
+ * @author coreym
+ *
+ * Unit tests for running DAO calls asynchronously
+ */
+public class AsyncCallsTest {
+	
+	/* Globals */
+	private ExecutorService pool = AsyncCalls.newBoundedPool(2, 1);
+	
+	@After
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+	
+	/**
+	 * Test that independent calls run concurrently
+	 */
+	@Test
+	public void testFanOut() throws Exception {
+		CountDownLatch bothStarted = new CountDownLatch(2);
+		
+		CompletableFuture<String> first = AsyncCalls.supply(pool, () -> {
+			bothStarted.countDown();
+			return bothStarted.await(5, TimeUnit.SECONDS) ? "first" : null;
+		});
+		CompletableFuture<String> second = AsyncCalls.supply(pool, () -> {
+			bothStarted.countDown();
+			return bothStarted.await(5, TimeUnit.SECONDS) ? "second" : null;
+		});
+		
+		Assert.assertEquals("first second", 
+				first.thenCombine(second, (a, b) -> a + " " + b).get(5, TimeUnit.SECONDS));
+	}
+	
+	/**
+	 * Test that a checked exception thrown by a call is the cause of
+	 * the future's failure
+	 */
+	@Test
+	public void testCheckedFailure() throws InterruptedException {
+		CompletableFuture<Object> future = AsyncCalls.supply(pool, () -> {
+			throw new RequestValidationException("invalid");
+		});
+		
+		try {
+			future.get();
+			Assert.fail("Expected the call to fail");
+		}
+		catch (ExecutionException ee) {
+			Assert.assertTrue(ee.getCause() instanceof RequestValidationException);
+		}
+	}
+	
+	/**
+	 * Test that calls beyond the pool and queue size run on the caller
+	 */
+	@Test
+	public void testCallerRunsWhenFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		for (int i = 0; i < 3; i++) {
+			AsyncCalls.supply(pool, () -> release.await(5, TimeUnit.SECONDS));
+		}
+		
+		Thread caller = Thread.currentThread();
+		CompletableFuture<Boolean> overflow = AsyncCalls.supply(pool, 
+				() -> Thread.currentThread() == caller);
+		release.countDown();
+		Assert.assertTrue(overflow.get(5, TimeUnit.SECONDS));
+	}
+}
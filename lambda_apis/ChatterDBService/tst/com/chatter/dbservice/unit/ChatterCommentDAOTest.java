@@ -2,23 +2,28 @@ package com.chatter.dbservice.unit;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.amazonaws.AmazonClientException;
 import com.chatter.dbservice.dao.CommentDAO;
+import com.chatter.dbservice.dao.ForumDAO;
 import com.chatter.dbservice.dao.impl.CommentDAOImpl;
+import com.chatter.dbservice.dao.impl.ForumDAOImpl;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 import com.chatter.dbservice.exceptions.RequestValidationException;
 import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.CommentArgs;
 import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.ForumArgs;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
 import com.chatter.dbservice.responses.CommentResultPage;
 import com.chatter.dbservice.responses.ServicePropsResponse;
 import com.chatter.dbservice.util.ops.ChatterCommentOps;
+import com.chatter.dbservice.util.ops.ChatterForumOps;
 
 /**
  * ChatterCommentDAOTest
@@ -68,12 +73,12 @@ public class ChatterCommentDAOTest {
 		request.setOperation(ChatterCommentOps.CREATE);
 		request.setReqDate(new Date().getTime());
 		
-		// Map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("createdBy", createdBy);
-		args.put("forumId", forumId);
-		args.put("bucketName", bucketName);
-		args.put("fileName", fileName);
+		// Custom args
+		CommentArgs args = new CommentArgs();
+		args.setCreatedBy(createdBy);
+		args.setForumId(forumId);
+		args.setBucketName(bucketName);
+		args.setFileName(fileName);
 		request.setArgs(args);
 		
 		return request;
@@ -93,9 +98,9 @@ public class ChatterCommentDAOTest {
 			request.setOperation(ChatterCommentOps.DELETE);
 		request.setReqDate(new Date().getTime());
 		
-		// Map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("commentId", commentId);
+		// Custom args
+		CommentArgs args = new CommentArgs();
+		args.setCommentId(commentId);
 		request.setArgs(args);
 		
 		return request;
@@ -115,10 +120,10 @@ public class ChatterCommentDAOTest {
 			request.setOperation(ChatterCommentOps.REMOVE_REPLY);
 		request.setReqDate(new Date().getTime());
 		
-		// Map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("commentId", commentId);
-		args.put("replyId", "my-reply-test");
+		// Custom args
+		CommentArgs args = new CommentArgs();
+		args.setCommentId(commentId);
+		args.setReplyId("my-reply-test");
 		request.setArgs(args);
 		
 		return request;
@@ -138,10 +143,10 @@ public class ChatterCommentDAOTest {
 			request.setOperation(ChatterCommentOps.REMOVE_FLAG);
 		request.setReqDate(new Date().getTime());
 		
-		// Map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("commentId", commentId);
-		args.put("flagId", "my-flag-test");
+		// Custom args
+		CommentArgs args = new CommentArgs();
+		args.setCommentId(commentId);
+		args.setFlagId("my-flag-test");
 		request.setArgs(args);
 		
 		return request;
@@ -157,9 +162,9 @@ public class ChatterCommentDAOTest {
 		request.setOperation(ChatterCommentOps.INCREMENT_CONCUR);
 		request.setReqDate(new Date().getTime());
 		
-		// Map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("commentId", commentId);
+		// Custom args
+		CommentArgs args = new CommentArgs();
+		args.setCommentId(commentId);
 		request.setArgs(args);
 		
 		return request;
@@ -182,9 +187,9 @@ public class ChatterCommentDAOTest {
 			request.setOperation(ChatterCommentOps.BATCH_DELETE);
 		request.setReqDate(new Date().getTime());
 		
-		// Map of custom args
-		Map<String, List<String>> args = new HashMap<>();
-		args.put("commentIds", commentIds);
+		// Custom args
+		CommentArgs args = new CommentArgs();
+		args.setCommentIds(commentIds);
 		request.setArgs(args);
 		
 		return request;
@@ -196,31 +201,24 @@ public class ChatterCommentDAOTest {
 	 * @param createdBy
 	 * @return
 	 */
-	private CommentCRUDRequest generateQueryByCreatorArgs(String createdBy, String startId,
-			String startCreator, String startTS) {
+	private CommentCRUDRequest generateQueryByCreatorArgs(String createdBy, String cursor) {
 		CommentCRUDRequest request = new CommentCRUDRequest();
 		request.setOperation(ChatterCommentOps.QUERY_BY_CREATOR);
 		request.setReqDate(new Date().getTime());
 		
-		// Map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("createdBy", createdBy);
+		// Custom args
+		CommentArgs args = new CommentArgs();
+		args.setCreatedBy(createdBy);
 		
-		if (startId != null && !startId.isEmpty())
-			args.put("exclusiveStartId", startId);
-		
-		if (startCreator != null && !startCreator.isEmpty())
-			args.put("exclusiveStartCreator", startCreator);
-		
-		if (startTS != null && !startTS.isEmpty())
-			args.put("exclusiveStartTS", startTS);
+		if (cursor != null && !cursor.isEmpty())
+			args.setCursor(cursor);
 		
 		// Set date conditions to be from two weeks ago to right now
 		final long DAYS_IN_MS = 1000 * 60 * 60 *24;
 		Long rightNow = new Date().getTime();
 		Long twoWeeksAgo = rightNow - (14 * DAYS_IN_MS);
-		args.put("timeStampTo", rightNow.toString());
-		args.put("timeStampFrom", twoWeeksAgo.toString());
+		args.setTimeStampTo(rightNow);
+		args.setTimeStampFrom(twoWeeksAgo);
 		request.setArgs(args);
 		
 		return request;
@@ -232,21 +230,17 @@ public class ChatterCommentDAOTest {
 	 * @param forumId
 	 * @return
 	 */
-	private CommentCRUDRequest generateQueryByForumArgs(String forumId, String startId,
-			String startForum) {
+	private CommentCRUDRequest generateQueryByForumArgs(String forumId, String cursor) {
 		CommentCRUDRequest request = new CommentCRUDRequest();
 		request.setOperation(ChatterCommentOps.QUERY_BY_FORUM);
 		request.setReqDate(new Date().getTime());
 		
-		// Map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("forumId", forumId);
+		// Custom args
+		CommentArgs args = new CommentArgs();
+		args.setForumId(forumId);
 		
-		if (startId != null && !startId.isEmpty())
-			args.put("exclusiveStartId", startId);
-		
-		if (startForum != null && !startForum.isEmpty())
-			args.put("exclusiveStartForum", startForum);
+		if (cursor != null && !cursor.isEmpty())
+			args.setCursor(cursor);
 		request.setArgs(args);
 		
 		return request;
@@ -307,6 +301,71 @@ public class ChatterCommentDAOTest {
 		}
 	}
 	
+	/**
+	 * Tests creating a ChatterComment instance and adding it to
+	 * its parent forum in one request.
+	 * SET UP: create a ChatterForum instance
+	 * CLEAN UP: delete the ChatterComment and ChatterForum instances
+	 */
+	@Test
+	public void testCreateCommentInForum() {
+		System.out.println("Comment DAO test: testCreateCommentInForum()");
+		
+		CommentDAO dao = this.getDAO();
+		
+		try {
+			/* ********** SET UP ********** */
+			ForumDAO forumDAO = new ForumDAOImpl();
+			ForumArgs forumArgs = new ForumArgs();
+			forumArgs.setCreatedBy("dbservice");
+			forumArgs.setTitle("Comment DAO Test Forum");
+			ChatterForum forum = forumDAO.createForum(new ForumCRUDRequest(
+					ChatterForumOps.CREATE, forumArgs));
+			
+			CommentCRUDRequest request = this.createCommentRequest("dbservice", 
+					forum.getForumId(), "dbservice-test-bucket", "aTest.txt");
+			request.setOperation(ChatterCommentOps.CREATE_IN_FORUM);
+			ChatterComment comment = dao.createCommentInForum(request);
+			Assert.assertNotNull(comment);
+			Assert.assertNotNull(comment.getCommentId());
+			Assert.assertEquals(forum.getForumId(), comment.getForumId());
+			
+			forumArgs.setForumId(forum.getForumId());
+			ChatterForum updated = forumDAO.retrieveForumById(new ForumCRUDRequest(
+					ChatterForumOps.QUERY_BY_ID, forumArgs));
+			Assert.assertEquals(Integer.valueOf(1), updated.getCommentCnt());
+			
+			/* ********** CLEAN UP ********** */
+			Assert.assertTrue(dao.deleteComment(this.generateRetrieveDeleteArgs(
+					comment.getCommentId(), false)));
+			Assert.assertTrue(forumDAO.deleteForum(new ForumCRUDRequest(
+					ChatterForumOps.DELETE, forumArgs)));
+		}
+		catch (RequestValidationException rve) {
+			rve.printStackTrace();
+		}
+		catch (PropertyRetrievalException pre) {
+			pre.printStackTrace();
+		}
+		catch (AmazonClientException ace) {
+			ace.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Tests that a comment is not created for a forum that does not exist
+	 */
+	@Test(expected = RequestValidationException.class)
+	public void testCreateCommentInMissingForum() throws RequestValidationException,
+			PropertyRetrievalException {
+		System.out.println("Comment DAO test: testCreateCommentInMissingForum()");
+		
+		CommentCRUDRequest request = this.createCommentRequest("dbservice", 
+				"no-such-forum", "dbservice-test-bucket", "aTest.txt");
+		request.setOperation(ChatterCommentOps.CREATE_IN_FORUM);
+		this.getDAO().createCommentInForum(request);
+	}
+	
 	/**
 	 * Tests retrieving a ChatterComment instance from the DB
 	 */
@@ -362,12 +421,20 @@ public class ChatterCommentDAOTest {
 			Assert.assertNotNull(comment);
 			Assert.assertNotNull(comment.getReplyIds());
 			Assert.assertTrue(comment.getReplyIds().size() > 0);
+			Assert.assertEquals(Integer.valueOf(1), comment.getReplyCnt());
 			
 			// Attempt to remove reply from comment
 			comment = dao.updateComment(this.generateAddRemoveReplyArgs(
 					comment.getCommentId(), false));
 			Assert.assertNotNull(comment);
 			Assert.assertNull(comment.getReplyIds());
+			Assert.assertEquals(Integer.valueOf(0), comment.getReplyCnt());
+			
+			// Removing the reply again leaves the count alone
+			comment = dao.updateComment(this.generateAddRemoveReplyArgs(
+					comment.getCommentId(), false));
+			Assert.assertNotNull(comment);
+			Assert.assertEquals(Integer.valueOf(0), comment.getReplyCnt());
 			
 			// Attempt to add flag to comment
 			comment = dao.updateComment(this.generateAddRemoveFlagArgs(
@@ -375,12 +442,14 @@ public class ChatterCommentDAOTest {
 			Assert.assertNotNull(comment);
 			Assert.assertNotNull(comment.getFlagIds());
 			Assert.assertTrue(comment.getFlagIds().size() > 0);
+			Assert.assertEquals(Integer.valueOf(1), comment.getFlagCnt());
 			
 			// Attempt to remove flag from comment
 			comment = dao.updateComment(this.generateAddRemoveFlagArgs(
 					comment.getCommentId(), false));
 			Assert.assertNotNull(comment);
 			Assert.assertNull(comment.getFlagIds());
+			Assert.assertEquals(Integer.valueOf(0), comment.getFlagCnt());
 			
 			// Attempt to increment concur count for comment
 			comment = dao.updateComment(this.generateIncrementConcurArgs(
@@ -431,31 +500,23 @@ public class ChatterCommentDAOTest {
 			
 			// Attempt to query ChatterComment table
 			CommentResultPage resultPage = dao.queryByCreator(
-					this.generateQueryByCreatorArgs("dbservice", null, null, null));
+					this.generateQueryByCreatorArgs("dbservice", null));
 			Assert.assertNotNull(resultPage);
 			Assert.assertNotNull(resultPage.getPageResults());
 			Assert.assertTrue(resultPage.getPageResults().size() == 30);
 			Assert.assertTrue(resultPage.getResultCount() == 30);
-			Assert.assertNotNull(resultPage.getLastEvaluatedKey());
+			Assert.assertNotNull(resultPage.getCursor());
 			Assert.assertTrue(resultPage.getMoreResults());
-			Assert.assertNotNull(resultPage.getLastEvaluatedKey().get("comment_id"));
-			Assert.assertNotNull(resultPage.getLastEvaluatedKey().get("created_by"));
-			Assert.assertNotNull(resultPage.getLastEvaluatedKey().get("time_stamp"));
 			
 			// Attempt to retrieve the remaining ChatterComments to satisfy query
 			// Should only be 10 instances
-			String lastEvalId = resultPage.getLastEvaluatedKey().get("comment_id").getS();
-			String lastCreator = resultPage.getLastEvaluatedKey().get("created_by").getS();
-			String lastTS = resultPage.getLastEvaluatedKey().get("time_stamp").getN();
-			
 			CommentResultPage remResults = dao.queryByCreator(
-					this.generateQueryByCreatorArgs("dbservice", 
-							lastEvalId, lastCreator, lastTS));
+					this.generateQueryByCreatorArgs("dbservice", resultPage.getCursor()));
 			Assert.assertNotNull(remResults);
 			Assert.assertNotNull(remResults.getPageResults());
 			Assert.assertTrue(remResults.getPageResults().size() == 10);
 			Assert.assertTrue(remResults.getResultCount() == 10);
-			Assert.assertNull(remResults.getLastEvaluatedKey());
+			Assert.assertNull(remResults.getCursor());
 			Assert.assertFalse(remResults.getMoreResults());
 			
 			/* ********** CLEAN UP ********** */
@@ -500,27 +561,22 @@ public class ChatterCommentDAOTest {
 			
 			// Attempt to query the ChatterComment table
 			CommentResultPage results = dao.queryByForum(this.generateQueryByForumArgs(
-					"1234-TEST", null, null));
+					"1234-TEST", null));
 			Assert.assertNotNull(results);
 			Assert.assertNotNull(results.getPageResults());
 			Assert.assertTrue(results.getPageResults().size() == 30);
 			Assert.assertTrue(results.getResultCount() == 30);
-			Assert.assertNotNull(results.getLastEvaluatedKey());
+			Assert.assertNotNull(results.getCursor());
 			Assert.assertTrue(results.getMoreResults());
-			Assert.assertNotNull(results.getLastEvaluatedKey().get("comment_id"));
-			Assert.assertNotNull(results.getLastEvaluatedKey().get("forum_id"));
 			
 			// Attempt to retrieve the remaining results to satisfy query
-			String lastEvalId = results.getLastEvaluatedKey().get("comment_id").getS();
-			String lastForum = results.getLastEvaluatedKey().get("forum_id").getS();
-			
 			CommentResultPage remResults = dao.queryByForum(
-					this.generateQueryByForumArgs("1234-TEST", lastEvalId, lastForum));
+					this.generateQueryByForumArgs("1234-TEST", results.getCursor()));
 			Assert.assertNotNull(remResults);
 			Assert.assertNotNull(remResults.getPageResults());
 			Assert.assertTrue(remResults.getPageResults().size() == 10);
 			Assert.assertTrue(remResults.getResultCount() == 10);
-			Assert.assertNull(remResults.getLastEvaluatedKey());
+			Assert.assertNull(remResults.getCursor());
 			Assert.assertFalse(remResults.getMoreResults());
 			
 			/* ********** CLEAN UP ********** */
@@ -539,6 +595,119 @@ public class ChatterCommentDAOTest {
 		}
 	}
 	
+	/**
+	 * Tests querying the ChatterComment table by forum id value
+	 * with newest comments returned first
+	 * SET UP: create and save a list of ChatterComment instances to DB
+	 * CLEAN UP: delete list of ChatterComment instances from DB
+	 */
+	@Test
+	public void testQueryByForumNewestFirst() {
+		System.out.println("Comment DAO test: testQueryByForumNewestFirst()");
+		
+		CommentDAO dao = this.getDAO();
+		
+		try {
+			/* ********** SET UP ********** */
+			List<String> commentIds = new ArrayList<>();
+			for (int i=0; i < 5; i++) {
+				ChatterComment comment = dao.createComment(this.createCommentRequest(
+						"dbservice", "5678-TEST", "dbservice-test-bucket", "aTest.txt"));
+				Assert.assertNotNull(comment);
+				commentIds.add(comment.getCommentId());
+				Thread.sleep(5);
+			}
+			
+			// Attempt to query the ChatterComment table newest first
+			CommentCRUDRequest request = this.generateQueryByForumArgs("5678-TEST", null);
+			request.getArgs().setSortOrder("desc");
+			CommentResultPage results = dao.queryByForum(request);
+			Assert.assertNotNull(results);
+			Assert.assertTrue(results.getPageResults().size() == 5);
+			Assert.assertEquals(commentIds.get(4), 
+					results.getPageResults().get(0).getCommentId());
+			for (int i=1; i < results.getPageResults().size(); i++) {
+				Assert.assertTrue(results.getPageResults().get(i - 1).getTimeStamp() 
+						>= results.getPageResults().get(i).getTimeStamp());
+			}
+			
+			/* ********** CLEAN UP ********** */
+			List<String> delComments = dao.batchDelete(this.generateBatchRetrieveDeleteArgs(
+					commentIds, false));
+			Assert.assertTrue(delComments.size() == 5);
+		}
+		catch (InterruptedException ie) {
+			ie.printStackTrace();
+		}
+		catch (RequestValidationException rve) {
+			rve.printStackTrace();
+		}
+		catch (PropertyRetrievalException pre) {
+			pre.printStackTrace();
+		}
+		catch (AmazonClientException ace) {
+			ace.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Tests retrieving a batch of ChatterComment instances from
+	 * the DB.
+	 * SET UP: create and save a list of ChatterComment instances to DB
+	 * CLEAN UP: delete list of ChatterComment instances from DB
+	 */
+	@Test
+	public void testQueryByForumSummary() {
+		System.out.println("Comment DAO test: testQueryByForumSummary()");
+		
+		CommentDAO dao = this.getDAO();
+		
+		try {
+			/* ********** SET UP ********** */
+			List<String> commentIds = new ArrayList<>();
+			for (int i=0; i < 5; i++) {
+				ChatterComment comment = dao.createComment(this.createCommentRequest(
+						"dbservice", "5678-TEST", "dbservice-test-bucket", "aTest.txt"));
+				Assert.assertNotNull(comment);
+				commentIds.add(comment.getCommentId());
+				Thread.sleep(5);
+			}
+			
+			dao.updateComment(this.generateAddRemoveReplyArgs(commentIds.get(0), true));
+			
+			// Attempt to query the ChatterComment table for comment summaries
+			CommentCRUDRequest request = this.generateQueryByForumArgs("5678-TEST", null);
+			request.getArgs().setView("summary");
+			CommentResultPage results = dao.queryByForum(request);
+			Assert.assertNotNull(results);
+			Assert.assertTrue(results.getPageResults().size() == 5);
+			for (ChatterComment summary : results.getPageResults()) {
+				Assert.assertNull(summary.getReplyIds());
+				Assert.assertNotNull(summary.getS3KeyName());
+			}
+			Assert.assertEquals(commentIds.get(0), 
+					results.getPageResults().get(0).getCommentId());
+			Assert.assertEquals(Integer.valueOf(1), results.getPageResults().get(0).getReplyCnt());
+			
+			/* ********** CLEAN UP ********** */
+			List<String> delComments = dao.batchDelete(this.generateBatchRetrieveDeleteArgs(
+					commentIds, false));
+			Assert.assertTrue(delComments.size() == 5);
+		}
+		catch (InterruptedException ie) {
+			ie.printStackTrace();
+		}
+		catch (RequestValidationException rve) {
+			rve.printStackTrace();
+		}
+		catch (PropertyRetrievalException pre) {
+			pre.printStackTrace();
+		}
+		catch (AmazonClientException ace) {
+			ace.printStackTrace();
+		}
+	}
+	
 	/**
 	 * Tests retrieving a batch of ChatterComment instances from
 	 * the DB.
@@ -2,9 +2,7 @@ package com.chatter.dbservice.unit;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -15,6 +13,7 @@ import com.chatter.dbservice.dao.impl.FlagDAOImpl;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 import com.chatter.dbservice.exceptions.RequestValidationException;
 import com.chatter.dbservice.model.ChatterFlag;
+import com.chatter.dbservice.requests.FlagArgs;
 import com.chatter.dbservice.requests.FlagCRUDRequest;
 import com.chatter.dbservice.responses.ServicePropsResponse;
 import com.chatter.dbservice.util.ops.ChatterFlagOps;
@@ -99,12 +98,12 @@ public class ChatterFlagDAOTest {
 		request.setOperation(ChatterFlagOps.CREATE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("createdBy", flagIn.getCreatedBy());
-		args.put("forumId", flagIn.getForumId());
-		args.put("commentId", flagIn.getCommentId());
-		args.put("flagDescription", flagIn.getFlagDescription());
+		// Generate custom args
+		FlagArgs args = new FlagArgs();
+		args.setCreatedBy(flagIn.getCreatedBy());
+		args.setForumId(flagIn.getForumId());
+		args.setCommentId(flagIn.getCommentId());
+		args.setFlagDescription(flagIn.getFlagDescription());
 		
 		request.setArgs(args);
 		return request;
@@ -122,9 +121,9 @@ public class ChatterFlagDAOTest {
 		request.setOperation(ChatterFlagOps.RETRIEVE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("flagId", flagId);
+		// Generate custom args
+		FlagArgs args = new FlagArgs();
+		args.setFlagId(flagId);
 		
 		request.setArgs(args);
 		return request;
@@ -142,10 +141,10 @@ public class ChatterFlagDAOTest {
 		request.setOperation(ChatterFlagOps.UPDATE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("flagId", flagId);
-		args.put("flagDescriptionUpdate", "Updated Chatter Flag description!");
+		// Generate custom args
+		FlagArgs args = new FlagArgs();
+		args.setFlagId(flagId);
+		args.setFlagDescriptionUpdate("Updated Chatter Flag description!");
 		
 		request.setArgs(args);
 		return request;
@@ -163,9 +162,9 @@ public class ChatterFlagDAOTest {
 		request.setOperation(ChatterFlagOps.DELETE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("flagId", flagId);
+		// Generate custom args
+		FlagArgs args = new FlagArgs();
+		args.setFlagId(flagId);
 		
 		request.setArgs(args);
 		return request;
@@ -183,9 +182,9 @@ public class ChatterFlagDAOTest {
 		request.setOperation(ChatterFlagOps.BATCH_RETRIEVE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate map of custom args
-		Map<String, List<String>> args = new HashMap<>();
-		args.put("flagIds", flagIds);
+		// Generate custom args
+		FlagArgs args = new FlagArgs();
+		args.setFlagIds(flagIds);
 		
 		request.setArgs(args);
 		return request;
@@ -203,9 +202,9 @@ public class ChatterFlagDAOTest {
 		request.setOperation(ChatterFlagOps.BATCH_DELETE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate map of custom args
-		Map<String, List<String>> args = new HashMap<>();
-		args.put("flagIds", flagIds);
+		// Generate custom args
+		FlagArgs args = new FlagArgs();
+		args.setFlagIds(flagIds);
 		
 		request.setArgs(args);
 		return request;
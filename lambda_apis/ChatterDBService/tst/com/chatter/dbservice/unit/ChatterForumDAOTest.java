@@ -2,9 +2,7 @@ package com.chatter.dbservice.unit;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.junit.Test;
 import org.junit.Assert;
@@ -15,6 +13,7 @@ import com.chatter.dbservice.dao.impl.ForumDAOImpl;
 import com.chatter.dbservice.exceptions.PropertyRetrievalException;
 import com.chatter.dbservice.exceptions.RequestValidationException;
 import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.ForumArgs;
 import com.chatter.dbservice.requests.ForumCRUDRequest;
 import com.chatter.dbservice.responses.ForumResultPage;
 import com.chatter.dbservice.responses.ServicePropsResponse;
@@ -95,10 +94,10 @@ public class ChatterForumDAOTest {
 		request.setOperation(ChatterForumOps.CREATE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("createdBy", forumIn.getCreatedBy());
-		args.put("title", forumIn.getTitle());
+		// Generate custom args
+		ForumArgs args = new ForumArgs();
+		args.setCreatedBy(forumIn.getCreatedBy());
+		args.setTitle(forumIn.getTitle());
 		
 		request.setArgs(args);
 		return request;
@@ -114,9 +113,9 @@ public class ChatterForumDAOTest {
 		request.setOperation(ChatterForumOps.QUERY_BY_ID);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("forumId", forumId);
+		// Generate custom args
+		ForumArgs args = new ForumArgs();
+		args.setForumId(forumId);
 		
 		request.setArgs(args);
 		return request;
@@ -128,31 +127,24 @@ public class ChatterForumDAOTest {
 	 * @param createdBy
 	 * @return
 	 */
-	private ForumCRUDRequest generateQueryByCreatorArgs(String createdBy, 
-				String startId, String startCreator, String startTimeStamp) {
+	private ForumCRUDRequest generateQueryByCreatorArgs(String createdBy, String cursor) {
 		ForumCRUDRequest request = new ForumCRUDRequest();
 		request.setOperation(ChatterForumOps.QUERY_BY_CREATOR);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate a map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("createdBy", createdBy);
+		// Generate custom args
+		ForumArgs args = new ForumArgs();
+		args.setCreatedBy(createdBy);
 		
-		if (startId != null && !startId.isEmpty()) 
-			args.put("exclusiveStartId", startId);
-		
-		if (startCreator != null && !startCreator.isEmpty())
-			args.put("exclusiveStartCreator", startCreator);
-		
-		if (startTimeStamp != null && !startTimeStamp.isEmpty())
-			args.put("exclusiveStartTimeStamp", startTimeStamp);
+		if (cursor != null && !cursor.isEmpty())
+			args.setCursor(cursor);
 		
 		// Set date conditions to be from two weeks ago to right now
 		final long DAYS_IN_MS = 1000 * 60 * 60 *24;
 		Long rightNow = new Date().getTime();
 		Long twoWeeksAgo = rightNow - (14 * DAYS_IN_MS);
-		args.put("timeStampTo", rightNow.toString());
-		args.put("timeStampFrom", twoWeeksAgo.toString());
+		args.setTimeStampTo(rightNow);
+		args.setTimeStampFrom(twoWeeksAgo);
 		
 		request.setArgs(args);
 		return request;
@@ -169,9 +161,9 @@ public class ChatterForumDAOTest {
 		request.setOperation(ChatterForumOps.QUERY_BY_TITLE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate a map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("title", title);
+		// Generate custom args
+		ForumArgs args = new ForumArgs();
+		args.setTitle(title);
 		
 		request.setArgs(args);
 		return request;
@@ -188,10 +180,10 @@ public class ChatterForumDAOTest {
 		request.setOperation(ChatterForumOps.UPDATE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate a map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("forumId", forumId);
-		args.put("titleUpdate", "I just modified this forum title");
+		// Generate custom args
+		ForumArgs args = new ForumArgs();
+		args.setForumId(forumId);
+		args.setTitleUpdate("I just modified this forum title");
 		
 		request.setArgs(args);
 		return request;
@@ -208,10 +200,10 @@ public class ChatterForumDAOTest {
 		request.setOperation(ChatterForumOps.ADD_COMMENT);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate a map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("forumId", forumId);
-		args.put("commentId", "1234-TEST");
+		// Generate custom args
+		ForumArgs args = new ForumArgs();
+		args.setForumId(forumId);
+		args.setCommentId("1234-TEST");
 		
 		request.setArgs(args);
 		return request;
@@ -228,10 +220,10 @@ public class ChatterForumDAOTest {
 		request.setOperation(ChatterForumOps.REMOVE_COMMENT);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate a map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("forumId", forumId);
-		args.put("commentId", "1234-TEST");
+		// Generate custom args
+		ForumArgs args = new ForumArgs();
+		args.setForumId(forumId);
+		args.setCommentId("1234-TEST");
 		
 		request.setArgs(args);
 		return request;
@@ -247,9 +239,9 @@ public class ChatterForumDAOTest {
 		request.setOperation(ChatterForumOps.DELETE);
 		request.setReqDate(new Date().getTime());
 		
-		// Generate a map of custom args
-		Map<String, String> args = new HashMap<>();
-		args.put("forumId", forumId);
+		// Generate custom args
+		ForumArgs args = new ForumArgs();
+		args.setForumId(forumId);
 		
 		request.setArgs(args);
 		return request;
@@ -293,7 +285,7 @@ public class ChatterForumDAOTest {
 			
 			Assert.assertNotNull(forum);
 			Assert.assertNotNull(forum.getForumId());
-			Assert.assertNull(forum.getCommentIds());
+			Assert.assertEquals(Integer.valueOf(0), forum.getCommentCnt());
 			Assert.assertEquals("Just a Test Forum", forum.getTitle());
 			Assert.assertEquals("dbservice", forum.getCreatedBy());
 			
@@ -355,7 +347,7 @@ public class ChatterForumDAOTest {
 	/**
 	 * Tests updating a Chatter Forum instance in the database. Updates
 	 * tested include updating the forum title, and adding/removing a
-	 * comment id to the forum set of comment ids.
+	 * comment to the forum comment count.
 	 * Setup: requires creation of a ChatterForum instance
 	 * Tear down: requires deletion of created ChatterForum instance.
 	 */
@@ -380,15 +372,24 @@ public class ChatterForumDAOTest {
 			// Attempt to add comment to forum
 			forum = dao.addCommentToForum(this.generateAddCommentArgs(forum.getForumId()));
 			Assert.assertNotNull(forum);
-			Assert.assertNotNull(forum.getCommentIds());
-			Assert.assertFalse(forum.getCommentIds().isEmpty());
-			Assert.assertTrue(forum.getCommentIds().contains("1234-TEST"));
+			Assert.assertEquals(Integer.valueOf(1), forum.getCommentCnt());
+			
+			// A repeated add does not count the comment twice
+			forum = dao.addCommentToForum(this.generateAddCommentArgs(forum.getForumId()));
+			Assert.assertNotNull(forum);
+			Assert.assertEquals(Integer.valueOf(1), forum.getCommentCnt());
 			
 			// Attempt to remove comment from forum
 			forum = dao.removeCommentFromForum(this.generateRemoveCommentArgs(
 					forum.getForumId()));
 			Assert.assertNotNull(forum);
-			Assert.assertNull(forum.getCommentIds());
+			Assert.assertEquals(Integer.valueOf(0), forum.getCommentCnt());
+			
+			// Count never drops below zero
+			forum = dao.removeCommentFromForum(this.generateRemoveCommentArgs(
+					forum.getForumId()));
+			Assert.assertNotNull(forum);
+			Assert.assertEquals(Integer.valueOf(0), forum.getCommentCnt());
 			
 			/* ********** CLEAN UP ********** */
 			boolean cleanupSucceeded = dao.deleteForum(this.generateDeleteArgs(
@@ -427,29 +428,23 @@ public class ChatterForumDAOTest {
 			
 			// Attempt to query the ChatterForum table by created_by
 			ForumResultPage results = dao.queryByCreator(this.generateQueryByCreatorArgs(
-					"dbservice", null, null, null));
+					"dbservice", null));
 			Assert.assertNotNull(results);
 			Assert.assertNotNull(results.getPageResults());
 			Assert.assertTrue(results.getPageResults().size() == 30);
 			Assert.assertTrue(results.getResultCount() == 30);
-			Assert.assertNotNull(results.getLastEvaluatedKey());
+			Assert.assertNotNull(results.getCursor());
 			Assert.assertTrue(results.isMoreResults());
-			Assert.assertNotNull(results.getLastEvaluatedKey().get("forum_id"));
-			Assert.assertNotNull(results.getLastEvaluatedKey().get("created_by"));
-			Assert.assertNotNull(results.getLastEvaluatedKey().get("time_stamp"));
 			
 			// Attempt to retrieve the remaining ChatterForums from query
 			// Should only be 10 records left to retrieve.
-			String lastEvalId = results.getLastEvaluatedKey().get("forum_id").getS();
-			String lastEvalCreator = results.getLastEvaluatedKey().get("created_by").getS();
-			String lastEvalTS = results.getLastEvaluatedKey().get("time_stamp").getN();
 			ForumResultPage remResults = dao.queryByCreator(this.generateQueryByCreatorArgs(
-					"dbservice", lastEvalId, lastEvalCreator, lastEvalTS));
+					"dbservice", results.getCursor()));
 			Assert.assertNotNull(remResults);
 			Assert.assertNotNull(remResults.getPageResults());
 			Assert.assertTrue(remResults.getPageResults().size() >= 10);
 			Assert.assertTrue(remResults.getResultCount() >= 10);
-			Assert.assertNull(remResults.getLastEvaluatedKey());
+			Assert.assertNull(remResults.getCursor());
 			Assert.assertFalse(remResults.isMoreResults());
 			
 			/* ********** CLEAN UP ********** */
@@ -495,7 +490,7 @@ public class ChatterForumDAOTest {
 			Assert.assertNotNull(results.getPageResults());
 			Assert.assertTrue(results.getPageResults().size() > 0);
 			Assert.assertTrue(results.getResultCount() > 0);
-			Assert.assertNull(results.getLastEvaluatedKey());
+			Assert.assertNull(results.getCursor());
 			Assert.assertFalse(results.isMoreResults());
 			
 			/* ********** CLEAN UP ********** */
@@ -0,0 +1,164 @@
+package com.chatter.dbservice.unit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import com.chatter.dbservice.dao.impl.EntityCache;
+
+/**
+ * EntityCacheTest
+ * @author coreym
+ *
+ * Unit tests for the in-process read-through cache
+ */
+public class EntityCacheTest {
+	
+	/* Globals */
+	private AtomicLong now = new AtomicLong(1000);
+	private AtomicInteger loads = new AtomicInteger();
+	
+	/**
+	 * Loader that counts its calls and only finds ids starting with "found"
+	 * @return Function<String, String>
+	 */
+	private Function<String, String> countingLoader() {
+		return id -> {
+			loads.incrementAndGet();
+			return id.startsWith("found") ? "value-" + id : null;
+		};
+	}
+	
+	/**
+	 * Test that a second load is served from the cache until the entry expires
+	 */
+	@Test
+	public void testHitUntilExpired() {
+		EntityCache<String> cache = new EntityCache<>(10, 100, 10, now::get);
+		
+		Assert.assertEquals("value-found1", cache.load("found1", this.countingLoader()));
+		Assert.assertEquals("value-found1", cache.load("found1", this.countingLoader()));
+		Assert.assertEquals(1, loads.get());
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+		
+		now.addAndGet(100);
+		Assert.assertEquals("value-found1", cache.load("found1", this.countingLoader()));
+		Assert.assertEquals(2, loads.get());
+	}
+	
+	/**
+	 * Test that missing items are cached for the shorter negative time to live
+	 */
+	@Test
+	public void testNegativeCaching() {
+		EntityCache<String> cache = new EntityCache<>(10, 100, 10, now::get);
+		
+		Assert.assertNull(cache.load("missing", this.countingLoader()));
+		Assert.assertNull(cache.load("missing", this.countingLoader()));
+		Assert.assertEquals(1, loads.get());
+		
+		now.addAndGet(10);
+		Assert.assertNull(cache.load("missing", this.countingLoader()));
+		Assert.assertEquals(2, loads.get());
+	}
+	
+	/**
+	 * Test that a cache with a copier hands out copies, so changing a
+	 * loaded item does not change the cached item
+	 */
+	@Test
+	public void testCopier() {
+		EntityCache<StringBuilder> cache = new EntityCache<StringBuilder>(10, 100, 10, now::get)
+				.withCopier(StringBuilder::new);
+		
+		StringBuilder first = cache.load("found1", id -> new StringBuilder("value-" + id));
+		first.append("-changed");
+		StringBuilder second = cache.load("found1", id -> new StringBuilder("reloaded"));
+		Assert.assertEquals("value-found1", second.toString());
+		Assert.assertNotSame(first, second);
+		Assert.assertEquals(1, cache.getHits());
+	}
+	
+	/**
+	 * Test that invalidating an entry forces the next load to the loader
+	 */
+	@Test
+	public void testInvalidate() {
+		EntityCache<String> cache = new EntityCache<>(10, 100, 10, now::get);
+		
+		cache.load("found1", this.countingLoader());
+		cache.invalidate("found1");
+		cache.load("found1", this.countingLoader());
+		Assert.assertEquals(2, loads.get());
+	}
+	
+	/**
+	 * Test that a load racing with an invalidation is not cached
+	 */
+	@Test
+	public void testRacingLoadNotCached() {
+		EntityCache<String> cache = new EntityCache<>(10, 100, 10, now::get);
+		
+		cache.load("found1", id -> {
+			cache.invalidate(id);
+			return "stale";
+		});
+		Assert.assertEquals(0, cache.size());
+	}
+
+	/**
+	 * Test that an update is applied to a live entry without a reload, and
+	 * that nothing is cached for an id without an entry
+	 */
+	@Test
+	public void testUpdate() {
+		EntityCache<String> cache = new EntityCache<>(10, 100, 10, now::get);
+
+		cache.load("found1", this.countingLoader());
+		cache.update("found1", value -> value + "-updated");
+		Assert.assertEquals("value-found1-updated", cache.load("found1", this.countingLoader()));
+		Assert.assertEquals(1, loads.get());
+
+		cache.update("found2", value -> value + "-updated");
+		Assert.assertEquals("value-found2", cache.load("found2", this.countingLoader()));
+		Assert.assertEquals(2, loads.get());
+	}
+
+	/**
+	 * Test that the least recently used entry is evicted once the cache is full
+	 */
+	@Test
+	public void testLruEviction() {
+		EntityCache<String> cache = new EntityCache<>(2, 100, 10, now::get);
+		
+		cache.load("found1", this.countingLoader());
+		cache.load("found2", this.countingLoader());
+		cache.load("found1", this.countingLoader());
+		cache.load("found3", this.countingLoader());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, cache.getEvictions());
+		
+		// found2 was the least recently used entry
+		cache.load("found1", this.countingLoader());
+		Assert.assertEquals(3, loads.get());
+		cache.load("found2", this.countingLoader());
+		Assert.assertEquals(4, loads.get());
+	}
+	
+	/**
+	 * Test that a cache with no capacity passes every load through
+	 */
+	@Test
+	public void testDisabled() {
+		EntityCache<String> cache = new EntityCache<>(0, 100, 10, now::get);
+		
+		cache.load("found1", this.countingLoader());
+		cache.load("found1", this.countingLoader());
+		Assert.assertEquals(2, loads.get());
+		Assert.assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,163 @@
+package com.chatter.dbservice.unit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.Assert;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.Record;
+import com.amazonaws.services.dynamodbv2.model.StreamRecord;
+import com.chatter.dbservice.dao.impl.BatchItemExecutor;
+import com.chatter.dbservice.streams.ForumChangeEvent;
+import com.chatter.dbservice.streams.ForumChangeListener;
+import com.chatter.dbservice.streams.ForumStreamProcessor;
+
+/**
+ * ForumStreamProcessorTest
+ * @author coreym
+ *
+ * Unit tests for decoding and ordering of Chatter Forum stream records.
+ * No calls are made to DynamoDB.
+ */
+public class ForumStreamProcessorTest {
+	
+	/* Globals */
+	private AmazonDynamoDBClient dbClient = new AmazonDynamoDBClient();
+	private DynamoDBMapper dbMapper = new DynamoDBMapper(dbClient);
+	private BatchItemExecutor executor = new BatchItemExecutor(dbClient, dbMapper, 4);
+	
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+	
+	/**
+	 * Create a stream record for a forum
+	 * @param eventName INSERT, MODIFY or REMOVE
+	 * @param forumId the forum id
+	 * @param seq the sequence number
+	 * @param title the forum title in the new image, NULL for REMOVE
+	 * @return Record
+	 */
+	private Record createRecord(String eventName, String forumId, String seq, String title) {
+		Map<String, AttributeValue> image = new HashMap<>();
+		image.put("forum_id", new AttributeValue(forumId));
+		image.put("created_by", new AttributeValue("dbservice"));
+		image.put("title", new AttributeValue(title != null ? title : "removed"));
+		
+		StreamRecord streamRecord = new StreamRecord()
+			.withKeys(Collections.singletonMap("forum_id", new AttributeValue(forumId)))
+			.withSequenceNumber(seq)
+			.withOldImage(eventName.equals("INSERT") ? null : image)
+			.withNewImage(eventName.equals("REMOVE") ? null : image);
+		return new Record().withEventName(eventName).withDynamodb(streamRecord);
+	}
+	
+	/**
+	 * Test that records are decoded and delivered in order for each forum
+	 */
+	@Test
+	public void testDecodeInOrder() {
+		List<ForumChangeEvent> events = Collections.synchronizedList(new ArrayList<>());
+		ForumChangeListener listener = events::add;
+		ForumStreamProcessor processor = new ForumStreamProcessor(dbMapper, executor,
+				Collections.singletonList(listener));
+		
+		List<String> failures = processor.process(Arrays.asList(
+				this.createRecord("INSERT", "forum-1", "100", "First"),
+				this.createRecord("INSERT", "forum-2", "101", "Second"),
+				this.createRecord("MODIFY", "forum-1", "102", "First (edited)"),
+				this.createRecord("REMOVE", "forum-1", "103", null)));
+		
+		Assert.assertTrue(failures.isEmpty());
+		Assert.assertEquals(4, events.size());
+		
+		List<String> forum1Seqs = new ArrayList<>();
+		for (ForumChangeEvent event : events) {
+			if (event.getForumId().equals("forum-1"))
+				forum1Seqs.add(event.getSequenceNumber());
+			if (event.getSequenceNumber().equals("102")) {
+				Assert.assertEquals("First (edited)", event.getNewForum().getTitle());
+				Assert.assertEquals("dbservice", event.getOldForum().getCreatedBy());
+			}
+			if (event.getSequenceNumber().equals("103"))
+				Assert.assertNull(event.getNewForum());
+		}
+		Assert.assertEquals(Arrays.asList("100", "102", "103"), forum1Seqs);
+	}
+	
+	/**
+	 * Test that a failed record skips the remaining records of its forum
+	 * only and is reported by sequence number
+	 */
+	@Test
+	public void testFailureStopsForum() {
+		List<String> seen = Collections.synchronizedList(new ArrayList<>());
+		ForumChangeListener listener = event -> {
+			if (event.getSequenceNumber().equals("201"))
+				throw new IllegalStateException("listener failure");
+			seen.add(event.getSequenceNumber());
+		};
+		ForumStreamProcessor processor = new ForumStreamProcessor(dbMapper, executor,
+				Collections.singletonList(listener));
+		
+		List<String> failures = processor.process(Arrays.asList(
+				this.createRecord("INSERT", "forum-1", "200", "First"),
+				this.createRecord("MODIFY", "forum-1", "201", "First (edited)"),
+				this.createRecord("INSERT", "forum-2", "202", "Second"),
+				this.createRecord("REMOVE", "forum-1", "203", null)));
+		
+		Assert.assertEquals(Collections.singletonList("201"), failures);
+		Assert.assertTrue(seen.contains("200"));
+		Assert.assertTrue(seen.contains("202"));
+		Assert.assertFalse(seen.contains("203"));
+	}
+	
+	/**
+	 * Test that a group that fails outside of the listener error handling
+	 * is reported from its first record instead of failing the batch
+	 */
+	@Test
+	public void testGroupFailureReportsFirstRecord() {
+		ForumChangeListener listener = event -> {
+			if (event.getForumId().equals("forum-2"))
+				throw new AssertionError("group failure");
+		};
+		ForumStreamProcessor processor = new ForumStreamProcessor(dbMapper, executor,
+				Collections.singletonList(listener));
+		
+		List<String> failures = processor.process(Arrays.asList(
+				this.createRecord("INSERT", "forum-1", "300", "First"),
+				this.createRecord("INSERT", "forum-2", "301", "Second"),
+				this.createRecord("MODIFY", "forum-2", "302", "Second (edited)")));
+		
+		Assert.assertEquals(Collections.singletonList("301"), failures);
+	}
+	
+	/**
+	 * Test that groups rejected by a stopped pool are reported from their
+	 * first record
+	 */
+	@Test
+	public void testRejectedGroups() {
+		executor.shutdown();
+		ForumStreamProcessor processor = new ForumStreamProcessor(dbMapper, executor,
+				Collections.singletonList(event -> { }));
+		
+		List<String> failures = processor.process(Arrays.asList(
+				this.createRecord("INSERT", "forum-1", "400", "First"),
+				this.createRecord("MODIFY", "forum-1", "401", "First (edited)"),
+				this.createRecord("INSERT", "forum-2", "402", "Second")));
+		
+		Assert.assertEquals(Arrays.asList("400", "402"), failures);
+	}
+}
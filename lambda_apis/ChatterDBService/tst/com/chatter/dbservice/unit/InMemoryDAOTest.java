@@ -0,0 +1,267 @@
+package com.chatter.dbservice.unit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.chatter.dbservice.dao.impl.InMemoryCommentDAO;
+import com.chatter.dbservice.dao.impl.InMemoryForumDAO;
+import com.chatter.dbservice.dao.impl.SimulatedLatency;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.CommentArgs;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.requests.ForumArgs;
+import com.chatter.dbservice.requests.ForumCRUDRequest;
+import com.chatter.dbservice.responses.CommentResultPage;
+import com.chatter.dbservice.util.PropertiesResolver;
+import com.chatter.dbservice.util.ops.ChatterCommentOps;
+import com.chatter.dbservice.util.ops.ChatterForumOps;
+
+/**
+ * InMemoryDAOTest
+ * @author coreym
+ *
+ * Unit tests for the in-memory DAOs used for load testing. Pages are
+ * read with the queryLimit from service.properties.
+ */
+public class InMemoryDAOTest {
+
+	private InMemoryForumDAO forumDAO;
+	private InMemoryCommentDAO commentDAO;
+
+	@Before
+	public void setUp() throws Exception {
+		PropertiesResolver props = new PropertiesResolver("service.properties");
+		this.forumDAO = new InMemoryForumDAO(props, SimulatedLatency.none());
+		this.commentDAO = new InMemoryCommentDAO(props, this.forumDAO, SimulatedLatency.none());
+	}
+
+	private ChatterForum createForum() throws Exception {
+		ForumArgs args = new ForumArgs();
+		args.setCreatedBy("dbservice");
+		args.setTitle("In Memory Forum");
+		return this.forumDAO.createForum(new ForumCRUDRequest(ChatterForumOps.CREATE, args));
+	}
+
+	private ChatterComment createComment(String forumId) throws Exception {
+		CommentArgs args = new CommentArgs();
+		args.setCreatedBy("dbservice");
+		args.setForumId(forumId);
+		args.setBucketName("bucket");
+		args.setFileName("file.wav");
+		return this.commentDAO.createCommentInForum(new CommentCRUDRequest(
+				ChatterCommentOps.CREATE_IN_FORUM, args));
+	}
+
+	private CommentCRUDRequest commentRequest(ChatterCommentOps op,
+			Consumer<CommentArgs> setArgs) {
+		CommentArgs args = new CommentArgs();
+		setArgs.accept(args);
+		return new CommentCRUDRequest(op, args);
+	}
+
+	/**
+	 * Test that comments are counted on their forum once, that repeated
+	 * adds and removes of a comment change the count once and that the
+	 * count never drops below zero
+	 */
+	@Test
+	public void testForumCommentCount() throws Exception {
+		ChatterForum forum = this.createForum();
+		ChatterComment first = this.createComment(forum.getForumId());
+		ChatterComment second = this.createComment(forum.getForumId());
+
+		ForumArgs args = new ForumArgs();
+		args.setForumId(forum.getForumId());
+		args.setCommentId(first.getCommentId());
+		ForumCRUDRequest add = new ForumCRUDRequest(ChatterForumOps.ADD_COMMENT, args);
+		ForumCRUDRequest remove = new ForumCRUDRequest(ChatterForumOps.REMOVE_COMMENT, args);
+		Assert.assertEquals(2, (int) this.forumDAO.addCommentToForum(add).getCommentCnt());
+		Assert.assertEquals(1, (int) this.forumDAO.removeCommentFromForum(remove).getCommentCnt());
+		Assert.assertEquals(1, (int) this.forumDAO.removeCommentFromForum(remove).getCommentCnt());
+
+		args.setCommentId("never-added");
+		Assert.assertEquals(1, (int) this.forumDAO.removeCommentFromForum(remove).getCommentCnt());
+		args.setCommentId(second.getCommentId());
+		Assert.assertEquals(0, (int) this.forumDAO.removeCommentFromForum(remove).getCommentCnt());
+		Assert.assertEquals(0, (int) this.forumDAO.removeCommentFromForum(remove).getCommentCnt());
+
+		try {
+			this.createComment("missing-forum");
+			Assert.fail("Comment created in a missing forum");
+		}
+		catch (RequestValidationException rve) {
+			Assert.assertEquals(2, this.commentDAO.size());
+		}
+	}
+
+	/**
+	 * Test that forum queries are paged with cursors in both directions
+	 * and that maxResults reads across pages
+	 */
+	@Test
+	public void testQueryByForumPaging() throws Exception {
+		ChatterForum forum = this.createForum();
+		for (int i = 0; i < 45; i++) {
+			this.createComment(forum.getForumId());
+		}
+
+		CommentResultPage first = this.commentDAO.queryByForum(this.commentRequest(
+				ChatterCommentOps.QUERY_BY_FORUM, args -> args.setForumId(forum.getForumId())));
+		Assert.assertEquals(30, first.getResultCount());
+		Assert.assertTrue(first.getMoreResults());
+
+		CommentResultPage second = this.commentDAO.queryByForum(this.commentRequest(
+				ChatterCommentOps.QUERY_BY_FORUM, args -> {
+					args.setForumId(forum.getForumId());
+					args.setCursor(first.getCursor());
+				}));
+		Assert.assertEquals(15, second.getResultCount());
+		Assert.assertFalse(second.getMoreResults());
+
+		Set<String> ids = new HashSet<>();
+		first.getPageResults().forEach(comment -> ids.add(comment.getCommentId()));
+		second.getPageResults().forEach(comment -> ids.add(comment.getCommentId()));
+		Assert.assertEquals(45, ids.size());
+
+		CommentResultPage newest = this.commentDAO.queryByForum(this.commentRequest(
+				ChatterCommentOps.QUERY_BY_FORUM, args -> {
+					args.setForumId(forum.getForumId());
+					args.setSortOrder("desc");
+					args.setMaxResults(40);
+				}));
+		Assert.assertEquals(40, newest.getResultCount());
+		Assert.assertTrue(newest.getMoreResults());
+		List<ChatterComment> results = newest.getPageResults();
+		for (int i = 1; i < results.size(); i++) {
+			Assert.assertTrue(results.get(i - 1).getTimeStamp() >= results.get(i).getTimeStamp());
+		}
+
+		// A cursor issued for one direction is rejected for the other
+		try {
+			this.commentDAO.queryByForum(this.commentRequest(
+					ChatterCommentOps.QUERY_BY_FORUM, args -> {
+						args.setForumId(forum.getForumId());
+						args.setCursor(newest.getCursor());
+					}));
+			Assert.fail("Cursor accepted for the wrong sort order");
+		}
+		catch (RequestValidationException rve) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Test that reply ids are only counted once and that the summary
+	 * view leaves out the id sets
+	 */
+	@Test
+	public void testReplyIdsAndSummaryView() throws Exception {
+		ChatterComment comment = this.createComment(this.createForum().getForumId());
+		CommentCRUDRequest addReply = this.commentRequest(
+				ChatterCommentOps.ADD_REPLY, args -> {
+					args.setCommentId(comment.getCommentId());
+					args.setReplyId("reply-1");
+				});
+		this.commentDAO.updateComment(addReply);
+		ChatterComment updated = this.commentDAO.updateComment(addReply);
+		Assert.assertEquals(1, (int) updated.getReplyCnt());
+		Assert.assertEquals(1, updated.getReplyIds().size());
+
+		CommentResultPage summary = this.commentDAO.queryByForum(this.commentRequest(
+				ChatterCommentOps.QUERY_BY_FORUM, args -> {
+					args.setForumId(comment.getForumId());
+					args.setView("summary");
+				}));
+		Assert.assertNull(summary.getPageResults().get(0).getReplyIds());
+		Assert.assertEquals(1, (int) summary.getPageResults().get(0).getReplyCnt());
+
+		ChatterComment removed = this.commentDAO.updateComment(this.commentRequest(
+				ChatterCommentOps.REMOVE_REPLY, args -> {
+					args.setCommentId(comment.getCommentId());
+					args.setReplyId("reply-1");
+				}));
+		Assert.assertEquals(0, (int) removed.getReplyCnt());
+		Assert.assertNull(removed.getReplyIds());
+	}
+
+	/**
+	 * Test that batch loads skip missing comments and batch deletes
+	 * report the comments that existed
+	 */
+	@Test
+	public void testBatchOperations() throws Exception {
+		String forumId = this.createForum().getForumId();
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			ids.add(this.createComment(forumId).getCommentId());
+		}
+		ids.add(1, "missing-comment");
+
+		List<ChatterComment> loaded = this.commentDAO.batchRetrieve(this.commentRequest(
+				ChatterCommentOps.BATCH_RETRIEVE, args -> args.setCommentIds(ids)));
+		Assert.assertEquals(3, loaded.size());
+		Assert.assertEquals(ids.get(0), loaded.get(0).getCommentId());
+		Assert.assertEquals(ids.get(2), loaded.get(1).getCommentId());
+
+		List<String> deleted = this.commentDAO.batchDelete(this.commentRequest(
+				ChatterCommentOps.BATCH_DELETE, args -> {
+					args.setCommentIds(ids);
+					args.setReportDeleted(true);
+				}));
+		Assert.assertEquals(Arrays.asList(ids.get(0), ids.get(2), ids.get(3)), deleted);
+		Assert.assertFalse(this.commentDAO.iterateByForum(forumId).hasNext());
+	}
+
+	/**
+	 * Test that concurrent concur increments are not lost
+	 */
+	@Test
+	public void testConcurrentIncrements() throws Exception {
+		ChatterComment comment = this.createComment(this.createForum().getForumId());
+		CommentCRUDRequest increment = this.commentRequest(
+				ChatterCommentOps.INCREMENT_CONCUR, args -> args.setCommentId(comment.getCommentId()));
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			pool.execute(() -> {
+				for (int j = 0; j < 1000; j++) {
+					try {
+						this.commentDAO.updateComment(increment);
+					}
+					catch (RequestValidationException rve) {
+						rve.printStackTrace();
+					}
+				}
+			});
+		}
+		pool.shutdown();
+		Assert.assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+		Assert.assertEquals(8000, this.commentDAO.retrieveComment(this.commentRequest(
+				ChatterCommentOps.RETRIEVE, args -> args.setCommentId(comment.getCommentId()))).getConcurCnt());
+	}
+
+	/**
+	 * Test that a simulated round trip waits for the configured latency
+	 */
+	@Test
+	public void testSimulatedLatency() {
+		SimulatedLatency latency = SimulatedLatency.uniform(2000, 2000);
+		long start = System.nanoTime();
+		latency.roundTrip();
+		Assert.assertTrue(System.nanoTime() - start >= 2000000L);
+	}
+}
@@ -0,0 +1,64 @@
+package com.chatter.dbservice.unit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import com.chatter.dbservice.metrics.LatencyHistogram;
+
+/**
+ * LatencyHistogramTest
+ * @author coreym
+ *
+ * Unit tests for the latency histogram behind the service metrics
+ */
+public class LatencyHistogramTest {
+	
+	/**
+	 * Test that an empty histogram reports zeros
+	 */
+	@Test
+	public void testEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assert.assertEquals(0, histogram.getCount());
+		Assert.assertEquals(0, histogram.getMeanMs(), 0);
+		Assert.assertEquals(0, histogram.getPercentileMs(0.99), 0);
+	}
+	
+	/**
+	 * Test that percentiles are within the bucket precision of the
+	 * recorded values
+	 */
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int ms = 1; ms <= 100; ms++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(ms));
+		}
+		
+		Assert.assertEquals(100, histogram.getCount());
+		Assert.assertEquals(50.5, histogram.getMeanMs(), 0.01);
+		Assert.assertEquals(100, histogram.getMaxMs(), 0);
+		assertWithinBucket(50, histogram.getPercentileMs(0.50));
+		assertWithinBucket(90, histogram.getPercentileMs(0.90));
+		assertWithinBucket(99, histogram.getPercentileMs(0.99));
+		Assert.assertEquals(100, histogram.getPercentileMs(1.0), 0);
+	}
+	
+	/**
+	 * Test that very large latencies are kept in the last bucket
+	 */
+	@Test
+	public void testOverflow() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(TimeUnit.DAYS.toNanos(2));
+		Assert.assertEquals(1, histogram.getCount());
+		Assert.assertEquals(TimeUnit.DAYS.toMillis(2), histogram.getPercentileMs(0.5), 0);
+	}
+	
+	private static void assertWithinBucket(double expectedMs, double actualMs) {
+		Assert.assertTrue("expected about " + expectedMs + " but was " + actualMs,
+				actualMs >= expectedMs && actualMs <= expectedMs * 1.125);
+	}
+}
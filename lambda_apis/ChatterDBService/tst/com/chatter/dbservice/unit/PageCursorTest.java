@@ -0,0 +1,129 @@
+package com.chatter.dbservice.unit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.util.PageCursor;
+
+/**
+ * PageCursorTest
+ * @author coreym
+ *
+ * Unit tests for the opaque pagination cursor
+ */
+public class PageCursorTest {
+	
+	/* Globals */
+	private static final String SCOPE = PageCursor.scope("Chatter_Comment",
+			"created_by_index", true, "dbservice");
+	private PageCursor cursor = new PageCursor("unit-test-secret");
+	
+	/**
+	 * Create a last evaluated key like the one returned
+	 * by a query on the created_by_index
+	 * @return Map<String, AttributeValue>
+	 */
+	private Map<String, AttributeValue> createTestKey() {
+		Map<String, AttributeValue> key = new HashMap<>();
+		key.put("comment_id", new AttributeValue().withS("1234-TEST"));
+		key.put("created_by", new AttributeValue().withS("dbservice"));
+		key.put("time_stamp", new AttributeValue().withN("1476830000000"));
+		return key;
+	}
+	
+	/**
+	 * Test that an encoded key decodes back to the same key
+	 */
+	@Test
+	public void testRoundTrip() {
+		try {
+			Map<String, AttributeValue> key = this.createTestKey();
+			String token = cursor.encode(SCOPE, key);
+			
+			Assert.assertNotNull(token);
+			Assert.assertFalse(token.contains("comment_id"));
+			Assert.assertEquals(key, cursor.decode(SCOPE, token));
+		}
+		catch (RequestValidationException rve) {
+			Assert.fail(rve.getMessage());
+		}
+	}
+	
+	/**
+	 * Test that missing keys and cursors map to NULL
+	 */
+	@Test
+	public void testNullValues() {
+		try {
+			Assert.assertNull(cursor.encode(SCOPE, null));
+			Assert.assertNull(cursor.decode(SCOPE, null));
+			Assert.assertNull(cursor.decode(SCOPE, ""));
+		}
+		catch (RequestValidationException rve) {
+			Assert.fail(rve.getMessage());
+		}
+	}
+	
+	/**
+	 * Test that an altered cursor is rejected
+	 */
+	@Test(expected = RequestValidationException.class)
+	public void testTamperedCursor() throws RequestValidationException {
+		char[] token = cursor.encode(SCOPE, this.createTestKey()).toCharArray();
+		token[4] = token[4] == 'A' ? 'B' : 'A';
+		cursor.decode(SCOPE, new String(token));
+	}
+	
+	/**
+	 * Test that a cursor cannot be used against a different index
+	 */
+	@Test(expected = RequestValidationException.class)
+	public void testWrongScope() throws RequestValidationException {
+		String token = cursor.encode(SCOPE, this.createTestKey());
+		cursor.decode(PageCursor.scope("Chatter_Comment", "forum_time_index", true,
+				"dbservice"), token);
+	}
+	
+	/**
+	 * Test that a cursor cannot be used against another hash key value
+	 * of the same index, such as another forum's comments
+	 */
+	@Test(expected = RequestValidationException.class)
+	public void testWrongHashKey() throws RequestValidationException {
+		String token = cursor.encode(SCOPE, this.createTestKey());
+		cursor.decode(PageCursor.scope("Chatter_Comment", "created_by_index", true,
+				"another-creator"), token);
+	}
+	
+	/**
+	 * Test that a cursor cannot be used against the opposite sort order
+	 */
+	@Test(expected = RequestValidationException.class)
+	public void testWrongDirection() throws RequestValidationException {
+		String token = cursor.encode(SCOPE, this.createTestKey());
+		cursor.decode(PageCursor.scope("Chatter_Comment", "created_by_index", false,
+				"dbservice"), token);
+	}
+	
+	/**
+	 * Test that a cursor signed with another secret is rejected
+	 */
+	@Test(expected = RequestValidationException.class)
+	public void testWrongSecret() throws RequestValidationException {
+		String token = new PageCursor("another-secret").encode(SCOPE, this.createTestKey());
+		cursor.decode(SCOPE, token);
+	}
+	
+	/**
+	 * Test that a value which is not a cursor is rejected
+	 */
+	@Test(expected = RequestValidationException.class)
+	public void testMalformedCursor() throws RequestValidationException {
+		cursor.decode(SCOPE, "not a cursor!");
+	}
+}
@@ -0,0 +1,57 @@
+package com.chatter.dbservice.unit;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import com.chatter.dbservice.util.RateLimiter;
+
+/**
+ * RateLimiterTest
+ * @author coreym
+ *
+ * Unit tests for the rate limiter used to pace background deletes
+ */
+public class RateLimiterTest {
+	
+	/**
+	 * Test that the first request is not delayed and later
+	 * requests are spaced out to the configured rate
+	 */
+	@Test
+	public void testPacing() throws InterruptedException {
+		RateLimiter limiter = new RateLimiter(100);
+		
+		long start = System.nanoTime();
+		limiter.acquire(1);
+		Assert.assertTrue(System.nanoTime() - start < 5000000L);
+		
+		// 1 permit already taken, 20 more need at least 200ms
+		for (int i = 0; i < 20; i++) {
+			limiter.acquire(1);
+		}
+		Assert.assertTrue(System.nanoTime() - start >= 190000000L);
+	}
+	
+	/**
+	 * Test that a large request is let through and delays the next one
+	 */
+	@Test
+	public void testLargeRequest() throws InterruptedException {
+		RateLimiter limiter = new RateLimiter(100);
+		
+		long start = System.nanoTime();
+		limiter.acquire(25);
+		Assert.assertTrue(System.nanoTime() - start < 5000000L);
+		
+		limiter.acquire(1);
+		Assert.assertTrue(System.nanoTime() - start >= 240000000L);
+	}
+	
+	/**
+	 * Test that a rate of zero is rejected
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidRate() {
+		new RateLimiter(0);
+	}
+}
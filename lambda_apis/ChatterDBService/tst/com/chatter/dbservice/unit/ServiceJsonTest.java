@@ -0,0 +1,131 @@
+package com.chatter.dbservice.unit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chatter.dbservice.handlers.ChatterCommentAPIStreamHandler;
+import com.chatter.dbservice.integration.TestContext;
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.model.ChatterForum;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.responses.CommentResultPage;
+import com.chatter.dbservice.responses.ForumResultPage;
+import com.chatter.dbservice.responses.ServiceResponse;
+import com.chatter.dbservice.util.ServiceJson;
+import com.chatter.dbservice.util.ServiceMessages;
+import com.chatter.dbservice.util.ops.ChatterCommentOps;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ServiceJsonTest
+ * @author coreym
+ *
+ * Unit tests for the JSON codec of the streaming request handlers
+ */
+public class ServiceJsonTest {
+
+	private final ObjectMapper beanMapper = new ObjectMapper();
+
+	private ChatterComment comment(String commentId) {
+		ChatterComment comment = new ChatterComment();
+		comment.setCommentId(commentId);
+		comment.setCreatedBy("user-1");
+		comment.setTimeStamp(1500000000000L);
+		comment.setForumId("forum-1");
+		comment.setReplyIds(new HashSet<>(Arrays.asList("r1", "r2")));
+		comment.setReplyCnt(2);
+		comment.setConcurCnt(3);
+		comment.setS3BucketName("bucket");
+		comment.setS3KeyName("key \"quoted\"");
+		return comment;
+	}
+
+	private <T> ServiceResponse<T> response(T payload) {
+		ServiceResponse<T> response = new ServiceResponse<>();
+		response.setPayload(payload);
+		response.setStatus(true);
+		response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
+		response.setExceptionThrown(false);
+		return response;
+	}
+
+	private JsonNode written(ServiceResponse<?> response) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ServiceJson.writeResponse(response, out);
+		return this.beanMapper.readTree(out.toByteArray());
+	}
+
+	private InputStream stream(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Test that responses are written exactly as the bean serializer
+	 * writes them
+	 */
+	@Test
+	public void testResponsesMatchBeanOutput() throws IOException {
+		ChatterComment sparse = new ChatterComment();
+		sparse.setCommentId("c3");
+		ServiceResponse<CommentResultPage> comments = this.response(new CommentResultPage(
+				Arrays.asList(this.comment("c1"), this.comment("c2"), sparse), "cursor-1", 3));
+		Assert.assertEquals(this.beanMapper.valueToTree(comments), this.written(comments));
+
+		ChatterForum forum = new ChatterForum();
+		forum.setForumId("forum-1");
+		forum.setTitle("Title");
+		forum.setCommentCnt(4);
+		ServiceResponse<ForumResultPage> forums = this.response(new ForumResultPage(
+				Arrays.asList(forum), null, 1));
+		Assert.assertEquals(this.beanMapper.valueToTree(forums), this.written(forums));
+
+		ServiceResponse<Object> list = this.response(Arrays.asList(this.comment("c1")));
+		Assert.assertEquals(this.beanMapper.valueToTree(list), this.written(list));
+
+		ServiceResponse<Object> empty = this.response(null);
+		Assert.assertEquals(this.beanMapper.valueToTree(empty), this.written(empty));
+	}
+
+	/**
+	 * Test that requests are bound from the stream, ignoring unknown
+	 * properties
+	 */
+	@Test
+	public void testReadRequest() throws IOException {
+		CommentCRUDRequest req = ServiceJson.readCommentRequest(this.stream(
+				"{\"operation\":\"QUERY_BY_FORUM\",\"extra\":1,\"args\":"
+				+ "{\"forumId\":\"forum-1\",\"timeStampFrom\":\"100\",\"maxResults\":5}}"));
+		Assert.assertEquals(ChatterCommentOps.QUERY_BY_FORUM, req.getOperation());
+		Assert.assertEquals("forum-1", req.getArgs().getForumId());
+		Assert.assertEquals(Long.valueOf(100), req.getArgs().getTimeStampFrom());
+		Assert.assertEquals(Integer.valueOf(5), req.getArgs().getMaxResults());
+	}
+
+	/**
+	 * Test that an unreadable request body is answered with an invalid
+	 * request response
+	 */
+	@Test
+	public void testUnreadableRequest() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new ChatterCommentAPIStreamHandler().handleRequest(this.stream(
+				"{\"operation\":\"QUERY_BY_FORUM\",\"args\":"
+				+ "{\"forumId\":\"forum-1\",\"timeStampFrom\":\"12x\"}}"),
+				out, new TestContext());
+		JsonNode response = this.beanMapper.readTree(out.toByteArray());
+		Assert.assertFalse(response.get("status").asBoolean());
+		Assert.assertTrue(response.get("exceptionThrown").asBoolean());
+		Assert.assertEquals(ServiceMessages.INVALID_REQUEST.toString(),
+				response.get("message").asText());
+		Assert.assertTrue(response.get("exceptionMessage").asText().contains("12x"));
+	}
+}
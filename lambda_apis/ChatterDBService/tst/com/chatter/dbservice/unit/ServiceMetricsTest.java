@@ -0,0 +1,96 @@
+package com.chatter.dbservice.unit;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import com.chatter.dbservice.dao.impl.EntityCache;
+import com.chatter.dbservice.exceptions.RequestValidationException;
+import com.chatter.dbservice.metrics.OperationTimer;
+import com.chatter.dbservice.metrics.ServiceMetrics;
+import com.chatter.dbservice.metrics.TimedProxy;
+import com.chatter.dbservice.responses.MetricsSnapshot;
+
+/**
+ * ServiceMetricsTest
+ * @author coreym
+ *
+ * Unit tests for operation timing and the metrics snapshot
+ */
+public class ServiceMetricsTest {
+	
+	/**
+	 * Test that a timer records the operation and describes it in
+	 * its log line
+	 */
+	@Test
+	public void testOperationTimer() {
+		ServiceMetrics metrics = ServiceMetrics.getInstance();
+		
+		OperationTimer timer = metrics.start("Test.TIMER_OK");
+		String line = timer.stop();
+		Assert.assertTrue(line.startsWith("{\"metric\":\"operation\",\"name\":\"Test.TIMER_OK\""));
+		Assert.assertTrue(line.endsWith("\"success\":true}"));
+		
+		timer = metrics.start("Test.TIMER_OK");
+		timer.fail(new RequestValidationException("bad request"));
+		line = timer.stop();
+		Assert.assertTrue(line.endsWith("\"success\":false,\"error\":\"RequestValidationException\"}"));
+		
+		MetricsSnapshot.OperationStats stats = metrics.snapshot().getOperations().get("Test.TIMER_OK");
+		Assert.assertEquals(2, stats.getCount());
+		Assert.assertEquals(1, stats.getErrors());
+	}
+	
+	/**
+	 * Test that a timed proxy records calls and rethrows checked
+	 * exceptions unchanged
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testTimedProxy() throws Exception {
+		ServiceMetrics metrics = ServiceMetrics.getInstance();
+		
+		Callable<String> ok = TimedProxy.wrap(Callable.class, () -> "done", "TestOk", metrics);
+		Assert.assertEquals("done", ok.call());
+		
+		Callable<String> failing = TimedProxy.wrap(Callable.class, () -> {
+			throw new RequestValidationException("bad request");
+		}, "TestFailing", metrics);
+		try {
+			failing.call();
+			Assert.fail("expected RequestValidationException");
+		}
+		catch (RequestValidationException rve) {
+			// Expected
+		}
+		
+		MetricsSnapshot snapshot = metrics.snapshot();
+		Assert.assertEquals(1, snapshot.getOperations().get("TestOk.call").getCount());
+		Assert.assertEquals(0, snapshot.getOperations().get("TestOk.call").getErrors());
+		Assert.assertEquals(1, snapshot.getOperations().get("TestFailing.call").getErrors());
+	}
+	
+	/**
+	 * Test that cache and capacity numbers are included in the snapshot
+	 */
+	@Test
+	public void testSnapshotCachesAndCapacity() {
+		ServiceMetrics metrics = ServiceMetrics.getInstance();
+		
+		EntityCache<String> cache = new EntityCache<>(10, 60000, 60000);
+		cache.load("a", id -> "A");
+		cache.load("a", id -> "A");
+		metrics.registerCache("testCache", cache);
+		metrics.recordConsumedCapacity("Test_Table", 0.5);
+		metrics.recordConsumedCapacity("Test_Table", 1.0);
+		
+		MetricsSnapshot snapshot = metrics.snapshot();
+		MetricsSnapshot.CacheStats cacheStats = snapshot.getCaches().get("testCache");
+		Assert.assertEquals(1, cacheStats.getHits());
+		Assert.assertEquals(1, cacheStats.getMisses());
+		Assert.assertEquals(0.5, cacheStats.getHitRate(), 0);
+		Assert.assertEquals(1.5, snapshot.getConsumedCapacity().get("Test_Table"), 0);
+	}
+}
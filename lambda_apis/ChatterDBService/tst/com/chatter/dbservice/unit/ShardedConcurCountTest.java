@@ -0,0 +1,143 @@
+package com.chatter.dbservice.unit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.chatter.dbservice.dao.impl.BatchItemExecutor;
+import com.chatter.dbservice.dao.impl.CommentDAOImpl;
+import com.chatter.dbservice.exceptions.PropertyRetrievalException;
+import com.chatter.dbservice.model.ChatterComment;
+import com.chatter.dbservice.requests.CommentArgs;
+import com.chatter.dbservice.requests.CommentCRUDRequest;
+import com.chatter.dbservice.util.PropertiesResolver;
+import com.chatter.dbservice.util.ops.ChatterCommentOps;
+
+/**
+ * ShardedConcurCountTest
+ * @author coreym
+ *
+ * Unit tests for concur increments with counter sharding enabled, run
+ * against an in memory DynamoDB stand-in holding one comment and its
+ * counter shards
+ */
+public class ShardedConcurCountTest {
+
+	private static final String COMMENT_ID = "sharded-comment";
+
+	/**
+	 * Answers the batch reads and shard updates of ConcurShardCounter
+	 */
+	private static class ShardStore extends AmazonDynamoDBClient {
+		private final Map<String, Long> shards = new ConcurrentHashMap<>();
+		private int updates;
+
+		ShardStore() {
+			super(new BasicAWSCredentials("test", "test"));
+		}
+
+		@Override
+		public BatchGetItemResult batchGetItem(BatchGetItemRequest request) {
+			Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+			for (Map.Entry<String, KeysAndAttributes> table : request.getRequestItems().entrySet()) {
+				List<Map<String, AttributeValue>> items = new ArrayList<>();
+				for (Map<String, AttributeValue> key : table.getValue().getKeys()) {
+					if (key.containsKey("comment_id")) {
+						Map<String, AttributeValue> comment = new HashMap<>();
+						comment.put("comment_id", new AttributeValue(COMMENT_ID));
+						comment.put("created_by", new AttributeValue("ShardedConcurCountTest"));
+						comment.put("concur_cnt", new AttributeValue().withN("5"));
+						items.add(comment);
+					}
+					else {
+						String shardKey = key.get("shard_key").getS();
+						Long count = this.shards.get(shardKey);
+						if (count != null) {
+							Map<String, AttributeValue> shard = new HashMap<>();
+							shard.put("shard_key", new AttributeValue(shardKey));
+							shard.put("comment_id", new AttributeValue(COMMENT_ID));
+							shard.put("concur_cnt", new AttributeValue().withN(count.toString()));
+							items.add(shard);
+						}
+					}
+				}
+				responses.put(table.getKey(), items);
+			}
+			return new BatchGetItemResult().withResponses(responses);
+		}
+
+		@Override
+		public synchronized UpdateItemResult updateItem(UpdateItemRequest request) {
+			this.updates++;
+			long amount = Long.parseLong(
+					request.getExpressionAttributeValues().get(":inc").getN());
+			this.shards.merge(request.getKey().get("shard_key").getS(), amount, Long::sum);
+			return new UpdateItemResult();
+		}
+	}
+
+	private ShardStore store;
+	private BatchItemExecutor batchExecutor;
+	private CommentDAOImpl dao;
+
+	@Before
+	public void setUp() throws PropertyRetrievalException {
+		PropertiesResolver propsResolver = new PropertiesResolver("service.properties") {
+			@Override
+			public String getProperty(String property) throws PropertyRetrievalException {
+				return "concurShardCount".equals(property) ? "4" : super.getProperty(property);
+			}
+		};
+		this.store = new ShardStore();
+		DynamoDBMapper dbMapper = new DynamoDBMapper(this.store);
+		this.batchExecutor = new BatchItemExecutor(this.store, dbMapper, 1);
+		this.dao = new CommentDAOImpl(propsResolver, this.store, dbMapper, this.batchExecutor,
+				null);
+	}
+
+	@After
+	public void tearDown() {
+		this.dao.shutdown();
+		this.batchExecutor.shutdown();
+	}
+
+	private ChatterComment increment() throws Exception {
+		CommentArgs args = new CommentArgs();
+		args.setCommentId(COMMENT_ID);
+		return this.dao.updateComment(new CommentCRUDRequest(ChatterCommentOps.INCREMENT_CONCUR,
+				args));
+	}
+
+	/**
+	 * Test that every increment made through the DAO is returned, and
+	 * that a later load sees them, while the comment stays cached
+	 */
+	@Test
+	public void testIncrementsRiseWhileCached() throws Exception {
+		Assert.assertEquals(6, this.increment().getConcurCnt());
+		Assert.assertEquals(7, this.increment().getConcurCnt());
+		Assert.assertEquals(8, this.increment().getConcurCnt());
+		Assert.assertEquals(3, this.store.updates);
+
+		CommentArgs args = new CommentArgs();
+		args.setCommentId(COMMENT_ID);
+		Assert.assertEquals(8, this.dao.retrieveComment(new CommentCRUDRequest(
+				ChatterCommentOps.RETRIEVE, args)).getConcurCnt());
+	}
+}
@@ -0,0 +1,103 @@
+package com.chatter.fileservice.fao;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+/**
+ * DigestingInputStream
+ * @author coreym
+ *
+ * Computes a digest of the bytes read through the stream, in the same
+ * pass that reads them and without copying them. Marks are supported
+ * when the wrapped stream supports them. A reset rewinds the digest
+ * along with the stream, so a request that the S3 client retries from
+ * the mark is digested once.
+ */
+public class DigestingInputStream extends FilterInputStream {
+
+	private MessageDigest digest;
+	private MessageDigest markedDigest;
+
+	/**
+	 * @param in the stream to read
+	 * @param digest the digest to update, e.g. a new SHA-256 digest
+	 */
+	public DigestingInputStream(InputStream in, MessageDigest digest) {
+		super(in);
+		this.digest = digest;
+		this.markedDigest = copy(digest);
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = this.in.read();
+		if (b != -1) {
+			this.digest.update((byte) b);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int read = this.in.read(b, off, len);
+		if (read > 0) {
+			this.digest.update(b, off, read);
+		}
+		return read;
+	}
+
+	/**
+	 * Skipped bytes are read so that they are digested too. Nothing is
+	 * skipped when n is not positive.
+	 */
+	@Override
+	public long skip(long n) throws IOException {
+		if (n <= 0) {
+			return 0;
+		}
+		byte[] buffer = new byte[(int) Math.min(n, 4096)];
+		long skipped = 0;
+		while (skipped < n) {
+			int read = this.read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+			if (read < 0) {
+				break;
+			}
+			skipped += read;
+		}
+		return skipped;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		this.in.mark(readlimit);
+		this.markedDigest = copy(this.digest);
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		this.in.reset();
+		this.digest = copy(this.markedDigest);
+	}
+
+	/**
+	 * Completes the digest of the bytes read so far. Call once, after
+	 * the stream has been read to the end.
+	 *
+	 * @return the digest bytes
+	 */
+	public byte[] digest() {
+		return this.digest.digest();
+	}
+
+	private static MessageDigest copy(MessageDigest digest) {
+		try {
+			return (MessageDigest) digest.clone();
+		}
+		catch (CloneNotSupportedException cnse) {
+			throw new IllegalStateException("ERROR: " + digest.getAlgorithm()
+					+ " digest cannot be copied.", cnse);
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package com.chatter.fileservice.fao;
 
 import com.amazonaws.AmazonClientException;
+import com.chatter.fileservice.exceptions.RequestValidationException;
 import com.chatter.fileservice.requests.ServiceRequest;
 import com.chatter.fileservice.responses.FileMetadata;
+import com.chatter.fileservice.responses.PresignedUrl;
 
 public interface FileAccessObject {
 
@@ -18,4 +20,38 @@ public interface FileAccessObject {
 	 * @param req
 	 */
 	public void deleteFile(ServiceRequest req) throws AmazonClientException;
+	
+	/**
+	 * Generate a pre-signed POST to upload a new file of the declared
+	 * length directly to file storage, carrying the same metadata as a
+	 * saved file. A large file is given pre-signed part URLs of a
+	 * multipart upload instead.
+	 * @param req
+	 * @return
+	 */
+	public PresignedUrl generateUploadUrl(ServiceRequest req) throws AmazonClientException;
+	
+	/**
+	 * Complete a multipart upload once the client has uploaded its
+	 * parts, if they add up to the declared length
+	 * @param req
+	 * @return
+	 * @throws RequestValidationException if the upload was aborted
+	 */
+	public FileMetadata completeUpload(ServiceRequest req)
+			throws RequestValidationException, AmazonClientException;
+	
+	/**
+	 * Abort a multipart upload, dropping any uploaded parts
+	 * @param req
+	 */
+	public void abortUpload(ServiceRequest req) throws AmazonClientException;
+	
+	/**
+	 * Generate a pre-signed URL to download a file directly from file
+	 * storage
+	 * @param req
+	 * @return
+	 */
+	public PresignedUrl generateDownloadUrl(ServiceRequest req) throws AmazonClientException;
 }
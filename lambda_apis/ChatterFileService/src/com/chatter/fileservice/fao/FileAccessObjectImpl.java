@@ -1,43 +1,75 @@
 package com.chatter.fileservice.fao;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.codec.digest.DigestUtils;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.EnvironmentVariableCredentialsProvider;
 import com.amazonaws.auth.profile.ProfileCredentialsProvider;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.chatter.fileservice.exceptions.PropertyRetrievalException;
+import com.chatter.fileservice.exceptions.RequestValidationException;
+import com.chatter.fileservice.requests.FileArgs;
 import com.chatter.fileservice.requests.ServiceRequest;
 import com.chatter.fileservice.responses.FileMetadata;
+import com.chatter.fileservice.responses.PresignedUrl;
 import com.chatter.fileservice.util.PropertiesResolver;
 
 public class FileAccessObjectImpl implements FileAccessObject{
 	
 	private PropertiesResolver propsResolver;
 	private AmazonS3Client s3Client;
+	private PostPolicySigner postSigner;
+	private MultipartUploads multipartUploads;
+	private long urlExpirationMs;
+	private long multipartThreshold;
+	private boolean uploadSha256;
 	
 	public FileAccessObjectImpl() throws PropertyRetrievalException {
 		// Initialize props resolver
 		propsResolver = new PropertiesResolver("service.properties");
 		String env = propsResolver.getProperty("service.env");
+		this.urlExpirationMs = 1000L * Long.parseLong(
+				propsResolver.getProperty("urlExpirationSeconds").trim());
+		this.multipartThreshold = Long.parseLong(
+				propsResolver.getProperty("multipartThreshold").trim());
+		this.uploadSha256 = Boolean.parseBoolean(
+				propsResolver.getProperty("uploadSha256").trim());
 		
 		// Instantiate S3 client object
-		if (env.equalsIgnoreCase("local")) {
-			this.s3Client = new AmazonS3Client(new ProfileCredentialsProvider());
-		}
-		else {
-			this.s3Client = new AmazonS3Client(new EnvironmentVariableCredentialsProvider());
-		}
+		AWSCredentialsProvider credentialsProvider = env.equalsIgnoreCase("local")
+				? new ProfileCredentialsProvider() : new EnvironmentVariableCredentialsProvider();
+		this.s3Client = new AmazonS3Client(credentialsProvider);
+		this.postSigner = new PostPolicySigner(credentialsProvider,
+				propsResolver.getProperty("aws.region").trim());
+		this.multipartUploads = new MultipartUploads(this.s3Client,
+				Long.parseLong(propsResolver.getProperty("multipartPartSize").trim()));
 	}
 
 	/**
-	 * Save a new file object to S3
+	 * Save a new file object to S3.
+	 * 
+	 * The Content-MD5 of the file is computed from the request buffer
+	 * before the upload, so S3 rejects a body corrupted in transit
+	 * instead of storing it. When enabled, the SHA-256 of the file is
+	 * computed as the file streams to S3.
 	 */
 	@Override
 	public FileMetadata saveFile(ServiceRequest req)
@@ -47,29 +79,21 @@ public class FileAccessObjectImpl implements FileAccessObject{
 		
 		// Generate metadata object from arguments in request
     	ObjectMetadata metadata = new ObjectMetadata();
-    	metadata.addUserMetadata("createdBy", (String) req.getArgs().get("createdBy"));
-    	metadata.addUserMetadata("bucketName", (String) req.getArgs().get("bucketName"));
-    	metadata.addUserMetadata("keyName", (String) req.getArgs().get("keyName"));
-    	metadata.addUserMetadata("dateCreated", (String) req.getArgs().get("dateCreated"));
+    	metadata.setUserMetadata(this.userMetadata(req.getArgs()));
     	metadata.setContentLength(Long.valueOf(req.getFileData().length));
+    	metadata.setContentMD5(Base64.encodeBase64String(DigestUtils.md5(req.getFileData())));
     	
-    	// Need to also set content md5 with base64 encoded raw MD5 byte array
-    	byte[] resultByte = DigestUtils.md5(req.getFileData());
-    	String md5 = new String(Base64.encodeBase64(resultByte));
-    	metadata.setContentMD5(md5);
-
-    	if (req.getArgs().containsKey("commentId")) {
-    		metadata.addUserMetadata("commentId", (String) req.getArgs().get("commentId"));
-    	}
-    	
-    	if (req.getArgs().containsKey("forumId")) {
-    		metadata.addUserMetadata("forumId", (String) req.getArgs().get("forumId"));
+    	// Wrap the file data without copying it
+    	InputStream input = new ByteArrayInputStream(req.getFileData());
+    	DigestingInputStream sha256Input = null;
+    	if (this.uploadSha256) {
+    		input = sha256Input = new DigestingInputStream(input, newSha256());
     	}
     	
     	PutObjectResult result = this.s3Client.putObject(
-    			(String) req.getArgs().get("bucketName"),
-    			(String) req.getArgs().get("keyName"),
-    			new ByteArrayInputStream(req.getFileData()),
+    			req.getArgs().getBucketName(),
+    			req.getArgs().getKeyName(),
+    			input,
     			metadata);
     	
     	if (result != null) {
@@ -81,6 +105,10 @@ public class FileAccessObjectImpl implements FileAccessObject{
     			fileMetadata.setContentType(result.getMetadata().getContentType());
     			fileMetadata.setUserMetadata(result.getMetadata().getUserMetadata());
     		}
+    		
+    		if (sha256Input != null) {
+    			fileMetadata.setSha256(new String(Base64.encodeBase64(sha256Input.digest())));
+    		}
     	}
     	
     	return fileMetadata;
@@ -93,9 +121,131 @@ public class FileAccessObjectImpl implements FileAccessObject{
 	public void deleteFile(ServiceRequest req) throws AmazonClientException {
 		// Generate delete request and execute operation
     	DeleteObjectRequest delReq = new DeleteObjectRequest(
-    		(String) req.getArgs().get("bucketName"),
-    		(String) req.getArgs().get("keyName")
+    		req.getArgs().getBucketName(),
+    		req.getArgs().getKeyName()
     	);
     	s3Client.deleteObject(delReq);
 	}
+
+	/**
+	 * Generate a pre-signed S3 POST for a new file. The key, content
+	 * type and user metadata are signed into the POST policy, as is the
+	 * Content-MD5 when the request declares one. The policy only accepts
+	 * a body of the declared content length.
+	 * 
+	 * Files larger than the multipart threshold are uploaded in parts
+	 * instead. A multipart upload is started with the same metadata and
+	 * a pre-signed PUT URL is returned for each part.
+	 */
+	@Override
+	public PresignedUrl generateUploadUrl(ServiceRequest req)
+			throws AmazonClientException {
+		FileArgs args = req.getArgs();
+		Instant signedAt = Instant.now();
+		Instant expiration = signedAt.plusMillis(this.urlExpirationMs);
+		
+		if (args.getContentLength() > this.multipartThreshold) {
+			ObjectMetadata metadata = new ObjectMetadata();
+			metadata.setContentType(args.getContentType());
+			metadata.setUserMetadata(this.userMetadata(args));
+			return this.multipartUploads.start(args.getBucketName(), args.getKeyName(),
+					metadata, args.getContentLength(), Date.from(expiration));
+		}
+		
+		// Form fields the client must send with the upload
+		Map<String, String> fields = new LinkedHashMap<>();
+		fields.put("key", args.getKeyName());
+		fields.put(Headers.CONTENT_TYPE, args.getContentType());
+		if (args.getContentMd5() != null) {
+			fields.put(Headers.CONTENT_MD5, args.getContentMd5());
+		}
+		for (Map.Entry<String, String> entry : this.userMetadata(args).entrySet()) {
+			fields.put(Headers.S3_USER_METADATA_PREFIX + entry.getKey(), entry.getValue());
+		}
+		
+		long contentLength = args.getContentLength();
+		return new PresignedUrl(this.postSigner.url(args.getBucketName()),
+				HttpMethod.POST.name(), expiration.toEpochMilli(), new LinkedHashMap<>(),
+				this.postSigner.sign(args.getBucketName(), fields, contentLength, contentLength,
+						signedAt, expiration));
+	}
+
+	/**
+	 * Complete a multipart upload from the parts the client uploaded.
+	 * The returned metadata is read back from the completed file.
+	 */
+	@Override
+	public FileMetadata completeUpload(ServiceRequest req)
+			throws RequestValidationException, AmazonClientException {
+		FileArgs args = req.getArgs();
+		CompleteMultipartUploadResult result = this.multipartUploads.complete(
+				args.getBucketName(), args.getKeyName(), args.getUploadId(),
+				args.getContentLength());
+		ObjectMetadata metadata = this.s3Client.getObjectMetadata(
+				args.getBucketName(), args.getKeyName());
+		
+		FileMetadata fileMetadata = new FileMetadata();
+		fileMetadata.seteTag(result.getETag());
+		fileMetadata.setContentLength(metadata.getContentLength());
+		fileMetadata.setContentType(metadata.getContentType());
+		fileMetadata.setUserMetadata(metadata.getUserMetadata());
+		return fileMetadata;
+	}
+
+	/**
+	 * Abort a multipart upload, so S3 drops its parts
+	 */
+	@Override
+	public void abortUpload(ServiceRequest req) throws AmazonClientException {
+		FileArgs args = req.getArgs();
+		this.multipartUploads.abort(args.getBucketName(), args.getKeyName(),
+				args.getUploadId());
+	}
+
+	/**
+	 * Generate a pre-signed S3 GET URL for an existing file
+	 */
+	@Override
+	public PresignedUrl generateDownloadUrl(ServiceRequest req)
+			throws AmazonClientException {
+		Date expiration = new Date(System.currentTimeMillis() + this.urlExpirationMs);
+		GeneratePresignedUrlRequest urlReq = new GeneratePresignedUrlRequest(
+				req.getArgs().getBucketName(), req.getArgs().getKeyName(), HttpMethod.GET)
+				.withExpiration(expiration);
+		
+		return new PresignedUrl(this.s3Client.generatePresignedUrl(urlReq).toString(),
+				HttpMethod.GET.name(), expiration.getTime(), new LinkedHashMap<>(),
+				new LinkedHashMap<>());
+	}
+	
+	private static MessageDigest newSha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new IllegalStateException("ERROR: SHA-256 digest is not available.", nsae);
+		}
+	}
+	
+	/**
+	 * Builds the user metadata stored with a file from the arguments
+	 * in the request. The optional commentId and forumId are only
+	 * included when present.
+	 */
+	private Map<String, String> userMetadata(FileArgs args) {
+		Map<String, String> userMetadata = new LinkedHashMap<>();
+		userMetadata.put("createdBy", args.getCreatedBy());
+		userMetadata.put("bucketName", args.getBucketName());
+		userMetadata.put("keyName", args.getKeyName());
+		userMetadata.put("dateCreated", args.getDateCreated());
+		
+		if (args.getCommentId() != null) {
+			userMetadata.put("commentId", args.getCommentId());
+		}
+		
+		if (args.getForumId() != null) {
+			userMetadata.put("forumId", args.getForumId());
+		}
+		return userMetadata;
+	}
 }
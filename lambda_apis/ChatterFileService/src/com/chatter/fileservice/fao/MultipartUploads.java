@@ -0,0 +1,159 @@
+package com.chatter.fileservice.fao;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PartSummary;
+import com.chatter.fileservice.exceptions.RequestValidationException;
+import com.chatter.fileservice.responses.PresignedUrl;
+
+/**
+ * MultipartUploads
+ * @author coreym
+ *
+ * Lets clients upload large files straight to S3 with a multipart
+ * upload. The service starts the upload with the file's metadata and
+ * returns a pre-signed PUT URL for every part, which the client uploads
+ * itself, in parallel and retrying failed parts as it needs. The client
+ * then asks the service to complete the upload, or to abort it.
+ *
+ * A pre-signed PUT cannot bound the length of the part sent to it, so
+ * the upload is only completed if its parts add up to the declared
+ * length. An upload with any other length is aborted, so S3 does not
+ * keep its parts. Uploads the client never completes or aborts are left
+ * to the bucket's rule for incomplete multipart uploads.
+ */
+public class MultipartUploads {
+
+	// S3 limits on the parts of a multipart upload
+	static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+	static final int MAX_PARTS = 10000;
+
+	private final AmazonS3 s3Client;
+	private final long partSize;
+
+	/**
+	 * @param s3Client the client uploads are started and signed with
+	 * @param partSize the size of every part but the last, raised to
+	 * 		  the S3 minimum part size
+	 */
+	public MultipartUploads(AmazonS3 s3Client, long partSize) {
+		this.s3Client = s3Client;
+		this.partSize = Math.max(partSize, MIN_PART_SIZE);
+	}
+
+	/**
+	 * @param contentLength the length of the file
+	 * @return the size of every part but the last, grown when needed to
+	 * 		   keep the file within the S3 part count limit
+	 */
+	public long partSize(long contentLength) {
+		return Math.max(this.partSize, (contentLength + MAX_PARTS - 1) / MAX_PARTS);
+	}
+
+	/**
+	 * Starts a multipart upload and signs a PUT URL for each of its
+	 * parts. The URL of part n, counting from 1, takes the partSize
+	 * bytes of the file starting at (n - 1) * partSize.
+	 *
+	 * @param bucketName the bucket to upload to
+	 * @param keyName the key of the new file
+	 * @param metadata the content type and user metadata of the file
+	 * @param contentLength the declared length of the file
+	 * @param expiration the time the part URLs expire
+	 * @return the upload id, part size and part URLs
+	 * @throws AmazonClientException
+	 */
+	public PresignedUrl start(String bucketName, String keyName, ObjectMetadata metadata,
+			long contentLength, Date expiration) throws AmazonClientException {
+		String uploadId = this.s3Client.initiateMultipartUpload(
+				new InitiateMultipartUploadRequest(bucketName, keyName, metadata)).getUploadId();
+
+		long size = this.partSize(contentLength);
+		int partCount = (int) ((contentLength + size - 1) / size);
+		List<String> partUrls = new ArrayList<>(partCount);
+		for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+			GeneratePresignedUrlRequest urlReq = new GeneratePresignedUrlRequest(
+					bucketName, keyName, HttpMethod.PUT).withExpiration(expiration);
+			urlReq.addRequestParameter("uploadId", uploadId);
+			urlReq.addRequestParameter("partNumber", Integer.toString(partNumber));
+			partUrls.add(this.s3Client.generatePresignedUrl(urlReq).toString());
+		}
+
+		PresignedUrl upload = new PresignedUrl(null, HttpMethod.PUT.name(),
+				expiration.getTime(), new LinkedHashMap<>(), new LinkedHashMap<>());
+		upload.setUploadId(uploadId);
+		upload.setPartSize(size);
+		upload.setPartUrls(partUrls);
+		return upload;
+	}
+
+	/**
+	 * Completes a multipart upload from the parts S3 holds for it. The
+	 * upload is aborted instead if its parts do not add up to the
+	 * declared length of the file.
+	 *
+	 * @param bucketName the bucket uploaded to
+	 * @param keyName the key of the new file
+	 * @param uploadId the upload to complete
+	 * @param contentLength the declared length of the file
+	 * @return CompleteMultipartUploadResult
+	 * @throws RequestValidationException if the upload was aborted
+	 * @throws AmazonClientException
+	 */
+	public CompleteMultipartUploadResult complete(String bucketName, String keyName,
+			String uploadId, long contentLength)
+			throws RequestValidationException, AmazonClientException {
+		// Parts are listed in part number order, up to 1000 per page
+		List<PartETag> partETags = new ArrayList<>();
+		long uploadedLength = 0;
+		ListPartsRequest listReq = new ListPartsRequest(bucketName, keyName, uploadId);
+		PartListing listing;
+		do {
+			listing = this.s3Client.listParts(listReq);
+			for (PartSummary part : listing.getParts()) {
+				partETags.add(new PartETag(part.getPartNumber(), part.getETag()));
+				uploadedLength += part.getSize();
+			}
+			listReq.setPartNumberMarker(listing.getNextPartNumberMarker());
+		} while (listing.isTruncated());
+
+		if (partETags.isEmpty() || uploadedLength != contentLength) {
+			this.abort(bucketName, keyName, uploadId);
+			throw new RequestValidationException("Chatter File Service request ERROR: "
+					+ "upload " + uploadId + " holds " + uploadedLength
+					+ " bytes instead of the declared " + contentLength + " and was aborted.");
+		}
+
+		return this.s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(
+				bucketName, keyName, uploadId, partETags));
+	}
+
+	/**
+	 * Aborts a multipart upload, so S3 drops its parts.
+	 *
+	 * @param bucketName the bucket uploaded to
+	 * @param keyName the key of the new file
+	 * @param uploadId the upload to abort
+	 * @throws AmazonClientException
+	 */
+	public void abort(String bucketName, String keyName, String uploadId)
+			throws AmazonClientException {
+		this.s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(
+				bucketName, keyName, uploadId));
+	}
+}
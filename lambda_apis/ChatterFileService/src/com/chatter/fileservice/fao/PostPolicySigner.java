@@ -0,0 +1,153 @@
+package com.chatter.fileservice.fao;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSSessionCredentials;
+
+/**
+ * PostPolicySigner
+ * @author coreym
+ *
+ * Signs S3 POST policies with Signature Version 4, for clients that
+ * upload a file straight to S3 with an HTML form POST. Unlike a
+ * pre-signed PUT, a POST policy can bound the length of the uploaded
+ * body with a content-length-range condition, which S3 enforces.
+ *
+ * Every form field passed to sign() is also added to the policy as an
+ * exact match condition, so the client cannot change any of them.
+ */
+public class PostPolicySigner {
+
+	private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+
+	private static final DateTimeFormatter AMZ_DATE =
+			DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+	private static final DateTimeFormatter EXPIRATION =
+			DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+	private final AWSCredentialsProvider credentialsProvider;
+	private final String region;
+
+	/**
+	 * @param credentialsProvider the credentials to sign with
+	 * @param region the region of the buckets uploaded to
+	 */
+	public PostPolicySigner(AWSCredentialsProvider credentialsProvider, String region) {
+		this.credentialsProvider = credentialsProvider;
+		this.region = region;
+	}
+
+	/**
+	 * @param bucketName the bucket to upload to
+	 * @return the URL the form is posted to
+	 */
+	public String url(String bucketName) {
+		return "https://" + bucketName + ".s3." + this.region + ".amazonaws.com/";
+	}
+
+	/**
+	 * Signs a policy for an upload to the argument bucket.
+	 *
+	 * @param bucketName the bucket to upload to
+	 * @param fields the form fields the client must send, e.g. key and
+	 * 		  Content-Type
+	 * @param minLength the smallest body length accepted, in bytes
+	 * @param maxLength the largest body length accepted, in bytes
+	 * @param signedAt the time of signing
+	 * @param expiration the time the policy expires
+	 * @return the argument fields followed by the policy and signature
+	 * 		   fields, all of which the client sends before the file
+	 */
+	public Map<String, String> sign(String bucketName, Map<String, String> fields,
+			long minLength, long maxLength, Instant signedAt, Instant expiration) {
+		AWSCredentials credentials = this.credentialsProvider.getCredentials();
+		String date = AMZ_DATE.format(signedAt);
+		String scope = date.substring(0, 8) + "/" + this.region + "/s3/aws4_request";
+
+		Map<String, String> signedFields = new LinkedHashMap<>(fields);
+		signedFields.put("x-amz-algorithm", ALGORITHM);
+		signedFields.put("x-amz-credential", credentials.getAWSAccessKeyId() + "/" + scope);
+		signedFields.put("x-amz-date", date);
+		if (credentials instanceof AWSSessionCredentials) {
+			signedFields.put("x-amz-security-token",
+					((AWSSessionCredentials) credentials).getSessionToken());
+		}
+
+		// Policy document, see the S3 POST policy reference
+		StringBuilder policy = new StringBuilder("{\"expiration\":\"")
+				.append(EXPIRATION.format(expiration)).append("\",\"conditions\":[");
+		appendCondition(policy, "bucket", bucketName);
+		for (Map.Entry<String, String> field : signedFields.entrySet()) {
+			policy.append(',');
+			appendCondition(policy, field.getKey(), field.getValue());
+		}
+		policy.append(",[\"content-length-range\",").append(minLength).append(',')
+				.append(maxLength).append("]]}");
+
+		String encodedPolicy = Base64.encodeBase64String(
+				policy.toString().getBytes(StandardCharsets.UTF_8));
+		byte[] key = hmac(("AWS4" + credentials.getAWSSecretKey()).getBytes(StandardCharsets.UTF_8),
+				date.substring(0, 8));
+		key = hmac(key, this.region);
+		key = hmac(key, "s3");
+		key = hmac(key, "aws4_request");
+
+		signedFields.put("policy", encodedPolicy);
+		signedFields.put("x-amz-signature", Hex.encodeHexString(hmac(key, encodedPolicy)));
+		return signedFields;
+	}
+
+	private static void appendCondition(StringBuilder policy, String name, String value) {
+		policy.append('{');
+		appendString(policy, name);
+		policy.append(':');
+		appendString(policy, value);
+		policy.append('}');
+	}
+
+	/**
+	 * Appends a JSON string, escaping the characters JSON requires.
+	 */
+	private static void appendString(StringBuilder json, String value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				json.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				json.append(c);
+			}
+		}
+		json.append('"');
+	}
+
+	private static byte[] hmac(byte[] key, String data) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(key, "HmacSHA256"));
+			return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (NoSuchAlgorithmException | InvalidKeyException e) {
+			throw new IllegalStateException("ERROR: HmacSHA256 is not available.", e);
+		}
+	}
+}
@@ -9,9 +9,12 @@ import com.chatter.fileservice.exceptions.PropertyRetrievalException;
 import com.chatter.fileservice.exceptions.RequestValidationException;
 import com.chatter.fileservice.fao.FileAccessObject;
 import com.chatter.fileservice.fao.FileAccessObjectImpl;
+import com.chatter.fileservice.requests.BucketPolicy;
 import com.chatter.fileservice.requests.ServiceRequest;
 import com.chatter.fileservice.requests.ServiceRequestValidator;
+import com.chatter.fileservice.requests.UploadPolicy;
 import com.chatter.fileservice.responses.FileMetadata;
+import com.chatter.fileservice.responses.PresignedUrl;
 import com.chatter.fileservice.responses.ServiceProps;
 import com.chatter.fileservice.responses.ServiceResponse;
 import com.chatter.fileservice.util.PropertiesResolver;
@@ -46,6 +49,14 @@ public class ChatterFileAPIRequestHandler implements
     					return this.saveFile(input, context);
     				case DELETE_FILE:
     					return this.deleteFile(input, context);
+    				case GENERATE_UPLOAD_URL:
+    					return this.generateUploadUrl(input, context);
+    				case COMPLETE_UPLOAD:
+    					return this.completeUpload(input, context);
+    				case ABORT_UPLOAD:
+    					return this.abortUpload(input, context);
+    				case GENERATE_DOWNLOAD_URL:
+    					return this.generateDownloadUrl(input, context);
     				case SERVICE_INFO:
     					return this.getServiceInfo(input, context);
     				case PING:
@@ -139,7 +150,7 @@ public class ChatterFileAPIRequestHandler implements
     		AmazonClientException {
     	
     	// Ensure request passes service validation
-    	ServiceRequestValidator.validateCreateCommentRequest(req);
+    	ServiceRequestValidator.validateCreateCommentRequest(req, this.bucketPolicy());
     	
     	// Log request data
     	ctx.getLogger().log(req.toString());
@@ -180,7 +191,7 @@ public class ChatterFileAPIRequestHandler implements
     		AmazonClientException { 
     	
     	// Validate request
-    	ServiceRequestValidator.validateDeleteRequest(req);
+    	ServiceRequestValidator.validateDeleteRequest(req, this.bucketPolicy());
     	
     	// Log request data
     	ctx.getLogger().log(req.toString());
@@ -197,6 +208,133 @@ public class ChatterFileAPIRequestHandler implements
     	return response;
     }
     
+    /**
+     * Generate a pre-signed POST the client uses to upload a new file
+     * directly to file storage, so the file data never passes through
+     * the service. Large files get the part URLs of a multipart upload,
+     * which the client completes or aborts once its parts are sent.
+     * @param req
+     * @param ctx
+     * @return
+     * @throws RequestValidationException
+     */
+    private ServiceResponse<PresignedUrl> generateUploadUrl(ServiceRequest req, Context ctx) 
+    	throws RequestValidationException, PropertyRetrievalException,
+    		AmazonClientException {
+    	
+    	// Ensure request passes service validation and upload policy
+    	UploadPolicy policy = UploadPolicy.fromProperties(
+    			new PropertiesResolver("service.properties"));
+    	ServiceRequestValidator.validateUploadUrlRequest(req, this.bucketPolicy(), policy);
+    	
+    	// Log request data
+    	ctx.getLogger().log(req.toString());
+    	
+    	// Generate upload url
+    	ServiceResponse<PresignedUrl> response = new ServiceResponse<>();
+    	response.setPayload(this.fao.generateUploadUrl(req));
+    	response.setStatus(true);
+    	response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
+    	response.setExceptionThrown(false);
+    	response.setExceptionMessage(null);
+    	return response;
+    }
+    
+    /**
+     * Complete a multipart upload whose parts the client has uploaded
+     * @param req
+     * @param ctx
+     * @return
+     * @throws RequestValidationException
+     */
+    private ServiceResponse<FileMetadata> completeUpload(ServiceRequest req, Context ctx) 
+    	throws RequestValidationException, PropertyRetrievalException,
+    		AmazonClientException {
+    	
+    	// Ensure request passes service validation and upload policy
+    	UploadPolicy policy = UploadPolicy.fromProperties(
+    			new PropertiesResolver("service.properties"));
+    	ServiceRequestValidator.validateCompleteUploadRequest(req, this.bucketPolicy(), policy);
+    	
+    	// Log request data
+    	ctx.getLogger().log(req.toString());
+    	
+    	// Complete upload
+    	ServiceResponse<FileMetadata> response = new ServiceResponse<>();
+    	response.setPayload(this.fao.completeUpload(req));
+    	response.setStatus(true);
+    	response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
+    	response.setExceptionThrown(false);
+    	response.setExceptionMessage(null);
+    	return response;
+    }
+    
+    /**
+     * Abort a multipart upload, dropping any parts the client uploaded
+     * @param req
+     * @param ctx
+     * @return
+     * @throws RequestValidationException
+     */
+    private ServiceResponse<Void> abortUpload(ServiceRequest req, Context ctx) 
+    	throws RequestValidationException, PropertyRetrievalException,
+    		AmazonClientException {
+    	
+    	// Validate request
+    	ServiceRequestValidator.validateAbortUploadRequest(req, this.bucketPolicy());
+    	
+    	// Log request data
+    	ctx.getLogger().log(req.toString());
+    	
+    	// Abort upload
+    	ServiceResponse<Void> response = new ServiceResponse<>();
+    	this.fao.abortUpload(req);
+    	
+    	response.setPayload(null);
+    	response.setStatus(true);
+    	response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
+    	response.setExceptionThrown(false);
+    	response.setExceptionMessage(null);
+    	return response;
+    }
+    
+    /**
+     * Generate a pre-signed URL the client uses to download a file
+     * directly from file storage
+     * @param req
+     * @param ctx
+     * @return
+     * @throws RequestValidationException
+     */
+    private ServiceResponse<PresignedUrl> generateDownloadUrl(ServiceRequest req, Context ctx) 
+    	throws RequestValidationException, PropertyRetrievalException,
+    		AmazonClientException {
+    	
+    	// Validate request
+    	ServiceRequestValidator.validateDownloadUrlRequest(req, this.bucketPolicy());
+    	
+    	// Log request data
+    	ctx.getLogger().log(req.toString());
+    	
+    	// Generate download url
+    	ServiceResponse<PresignedUrl> response = new ServiceResponse<>();
+    	response.setPayload(this.fao.generateDownloadUrl(req));
+    	response.setStatus(true);
+    	response.setMessage(ServiceMessages.OPERATION_SUCCESS.toString());
+    	response.setExceptionThrown(false);
+    	response.setExceptionMessage(null);
+    	return response;
+    }
+    
+    /**
+     * Reads the buckets the service may read and write files in
+     * @return
+     * @throws PropertyRetrievalException
+     */
+    private BucketPolicy bucketPolicy() throws PropertyRetrievalException {
+    	return BucketPolicy.fromProperties(new PropertiesResolver("service.properties"));
+    }
+    
     /**
      * Retrieves service information and returns in response
      * @param req
@@ -0,0 +1,102 @@
+package com.chatter.fileservice.requests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.chatter.fileservice.exceptions.RequestValidationException;
+
+/**
+ * ArgRules
+ * @author coreym
+ *
+ * The argument rules of one service operation, declared once with the
+ * builder and compiled into flat arrays. Arguments are read from the
+ * typed request arguments through their getters. A check stops at the
+ * first argument that breaks a rule, reporting that argument by name.
+ * Checks of valid arguments allocate nothing.
+ */
+public final class ArgRules {
+
+	static final String ERROR_PREFIX = "Chatter File Service request ERROR: ";
+
+	private final Function<FileArgs, String>[] getters;
+	private final String[] errors;
+
+	@SuppressWarnings("unchecked")
+	private ArgRules(Builder builder) {
+		int count = builder.names.size();
+		this.getters = (Function<FileArgs, String>[]) builder.getters.toArray(
+				new Function<?, ?>[count]);
+		this.errors = new String[count];
+		for (int i = 0; i < count; i++) {
+			this.errors[i] = ERROR_PREFIX + builder.names.get(i)
+					+ " is required and must be a non empty string.";
+		}
+	}
+
+	/**
+	 * @return a builder for a new set of rules
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Checks request arguments against the rules.
+	 *
+	 * @param args the request arguments, may be NULL
+	 * @throws RequestValidationException naming the first argument that
+	 * breaks a rule
+	 */
+	public void check(FileArgs args) throws RequestValidationException {
+		if (args == null) {
+			throw new RequestValidationException(ERROR_PREFIX
+					+ "request contained no arguments.");
+		}
+
+		for (int i = 0; i < this.getters.length; i++) {
+			String value = this.getters[i].apply(args);
+			if (value == null || value.isEmpty()) {
+				throw new RequestValidationException(this.errors[i]);
+			}
+		}
+	}
+
+	/**
+	 * Rejects a request whose file data is missing or empty.
+	 *
+	 * @param fileData the file data of the request
+	 * @throws RequestValidationException
+	 */
+	public static void checkFileData(byte[] fileData) throws RequestValidationException {
+		if (fileData == null || fileData.length == 0) {
+			throw new RequestValidationException(ERROR_PREFIX
+					+ "fileData is required and must not be empty.");
+		}
+	}
+
+	/**
+	 * Declares the rules of one operation. Arguments are checked in the
+	 * order they are declared.
+	 */
+	public static final class Builder {
+		private final List<String> names = new ArrayList<>();
+		private final List<Function<FileArgs, String>> getters = new ArrayList<>();
+
+		private Builder() { }
+
+		/**
+		 * The argument must be a non empty string.
+		 */
+		public Builder requireString(String name, Function<FileArgs, String> getter) {
+			this.names.add(name);
+			this.getters.add(getter);
+			return this;
+		}
+
+		public ArgRules build() {
+			return new ArgRules(this);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.chatter.fileservice.requests;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.chatter.fileservice.exceptions.PropertyRetrievalException;
+import com.chatter.fileservice.exceptions.RequestValidationException;
+import com.chatter.fileservice.util.PropertiesResolver;
+
+/**
+ * BucketPolicy
+ * @author coreym
+ *
+ * The S3 buckets the service reads and writes files in. Requests for
+ * any other bucket are rejected before S3 is called, so a caller can
+ * neither store files in nor get a pre-signed URL for a bucket that
+ * the service role happens to be able to reach.
+ */
+public final class BucketPolicy {
+
+	private final Set<String> bucketNames;
+
+	public BucketPolicy(Set<String> bucketNames) {
+		this.bucketNames = new HashSet<>();
+		for (String bucketName : bucketNames) {
+			this.bucketNames.add(bucketName.trim());
+		}
+	}
+
+	/**
+	 * Reads the policy from the comma separated fileBuckets service
+	 * property.
+	 *
+	 * @param propsResolver the service properties
+	 * @return BucketPolicy
+	 * @throws PropertyRetrievalException
+	 */
+	public static BucketPolicy fromProperties(PropertiesResolver propsResolver)
+			throws PropertyRetrievalException {
+		Set<String> bucketNames = new HashSet<>();
+		for (String bucketName : propsResolver.getProperty("fileBuckets").split(",")) {
+			if (!bucketName.trim().isEmpty()) {
+				bucketNames.add(bucketName);
+			}
+		}
+		return new BucketPolicy(bucketNames);
+	}
+
+	/**
+	 * Checks the bucket of a request against the policy.
+	 *
+	 * @param args the request arguments
+	 * @throws RequestValidationException if the bucket is not allowed
+	 */
+	public void check(FileArgs args) throws RequestValidationException {
+		if (!this.bucketNames.contains(args.getBucketName())) {
+			throw new RequestValidationException(ArgRules.ERROR_PREFIX
+					+ "bucketName " + args.getBucketName() + " is not a file bucket.");
+		}
+	}
+}
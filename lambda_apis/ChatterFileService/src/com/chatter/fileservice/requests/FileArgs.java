@@ -0,0 +1,131 @@
+package com.chatter.fileservice.requests;
+
+/**
+ * FileArgs
+ * @author coreym
+ *
+ * The arguments of a file service request, bound from the request JSON
+ * when the request is deserialized. The optional commentId and forumId
+ * arguments are stored with the file metadata when present.
+ *
+ * contentType, contentLength and contentMd5 describe a file the client
+ * uploads itself with a pre-signed upload URL. uploadId names a multipart
+ * upload started for a large file.
+ */
+public class FileArgs {
+
+	private String createdBy;
+	private String bucketName;
+	private String keyName;
+	private String dateCreated;
+	private String commentId;
+	private String forumId;
+	private String contentType;
+	private Long contentLength;
+	private String contentMd5;
+	private String uploadId;
+
+	public FileArgs() { }
+
+	public String getCreatedBy() {
+		return createdBy;
+	}
+
+	public void setCreatedBy(String createdBy) {
+		this.createdBy = createdBy;
+	}
+
+	public String getBucketName() {
+		return bucketName;
+	}
+
+	public void setBucketName(String bucketName) {
+		this.bucketName = bucketName;
+	}
+
+	public String getKeyName() {
+		return keyName;
+	}
+
+	public void setKeyName(String keyName) {
+		this.keyName = keyName;
+	}
+
+	public String getDateCreated() {
+		return dateCreated;
+	}
+
+	public void setDateCreated(String dateCreated) {
+		this.dateCreated = dateCreated;
+	}
+
+	public String getCommentId() {
+		return commentId;
+	}
+
+	public void setCommentId(String commentId) {
+		this.commentId = commentId;
+	}
+
+	public String getForumId() {
+		return forumId;
+	}
+
+	public void setForumId(String forumId) {
+		this.forumId = forumId;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public Long getContentLength() {
+		return contentLength;
+	}
+
+	public void setContentLength(Long contentLength) {
+		this.contentLength = contentLength;
+	}
+
+	public String getContentMd5() {
+		return contentMd5;
+	}
+
+	public void setContentMd5(String contentMd5) {
+		this.contentMd5 = contentMd5;
+	}
+
+	public String getUploadId() {
+		return uploadId;
+	}
+
+	public void setUploadId(String uploadId) {
+		this.uploadId = uploadId;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		append(builder, "createdBy", this.createdBy);
+		append(builder, "bucketName", this.bucketName);
+		append(builder, "keyName", this.keyName);
+		append(builder, "dateCreated", this.dateCreated);
+		append(builder, "commentId", this.commentId);
+		append(builder, "forumId", this.forumId);
+		append(builder, "contentType", this.contentType);
+		append(builder, "contentLength", this.contentLength);
+		append(builder, "contentMd5", this.contentMd5);
+		append(builder, "uploadId", this.uploadId);
+		return builder.toString();
+	}
+
+	private static void append(StringBuilder builder, String name, Object value) {
+		if (value != null) {
+			builder.append("\n\t").append(name).append(": ").append(value);
+		}
+	}
+}
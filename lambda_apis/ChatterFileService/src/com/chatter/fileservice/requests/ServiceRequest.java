@@ -1,7 +1,6 @@
 package com.chatter.fileservice.requests;
 
 import java.util.Date;
-import java.util.Map;
 
 import com.chatter.fileservice.util.ServiceOps;
 
@@ -16,13 +15,13 @@ public class ServiceRequest {
 
 	private ServiceOps operation;
 	private Long reqDate;
-	private Map<String, ?> args;
+	private FileArgs args;
 	private byte[] fileData;
 	
 	public ServiceRequest() { }
 	
 	public ServiceRequest(ServiceOps operation, Long reqDate, 
-			Map<String, ?> args, byte[] fileData) {
+			FileArgs args, byte[] fileData) {
 		this.operation = operation;
 		this.reqDate = reqDate;
 		this.args = args;
@@ -45,11 +44,11 @@ public class ServiceRequest {
 		this.reqDate = reqDate;
 	}
 
-	public Map<String, ?> getArgs() {
+	public FileArgs getArgs() {
 		return args;
 	}
 
-	public void setArgs(Map<String, ?> args) {
+	public void setArgs(FileArgs args) {
 		this.args = args;
 	}
 	
@@ -69,14 +68,8 @@ public class ServiceRequest {
 		builder.append("\nRequest Date: ").append(new Date(this.reqDate).toString());
 		builder.append("\nArguments: ");
 		
-		if (this.args != null && !args.isEmpty()) {
-			for (String key : args.keySet()) {
-				builder.append("\n\t").append(key).append(": ").append(this.args.get(key));
-			}
-		}
-		else {
-			builder.append("\n\tNo args found in request...");
-		}
+		String args = this.args != null ? this.args.toString() : "";
+		builder.append(args.isEmpty() ? "\n\tNo args found in request..." : args);
 		
 		if (this.fileData != null) {
 			builder.append("\n\tFile Data size: ").append(this.fileData.length);
@@ -6,11 +6,43 @@ import com.chatter.fileservice.exceptions.RequestValidationException;
  * ServiceRequestValidator
  * @author coreym
  *
- * Contains methods for validating incoming request data for 
- * service operations.
+ * Contains methods for validating incoming request data for
+ * service operations. The rules of each operation are declared
+ * once below.
  */
 public class ServiceRequestValidator {
-	
+
+	private static final ArgRules CREATE = ArgRules.builder()
+			.requireString("createdBy", FileArgs::getCreatedBy)
+			.requireString("bucketName", FileArgs::getBucketName)
+			.requireString("keyName", FileArgs::getKeyName)
+			.requireString("dateCreated", FileArgs::getDateCreated)
+			.build();
+
+	private static final ArgRules DELETE = ArgRules.builder()
+			.requireString("bucketName", FileArgs::getBucketName)
+			.requireString("keyName", FileArgs::getKeyName)
+			.build();
+
+	private static final ArgRules UPLOAD_URL = ArgRules.builder()
+			.requireString("createdBy", FileArgs::getCreatedBy)
+			.requireString("bucketName", FileArgs::getBucketName)
+			.requireString("keyName", FileArgs::getKeyName)
+			.requireString("dateCreated", FileArgs::getDateCreated)
+			.requireString("contentType", FileArgs::getContentType)
+			.build();
+
+	private static final ArgRules MULTIPART_UPLOAD = ArgRules.builder()
+			.requireString("bucketName", FileArgs::getBucketName)
+			.requireString("keyName", FileArgs::getKeyName)
+			.requireString("uploadId", FileArgs::getUploadId)
+			.build();
+
+	private static final ArgRules DOWNLOAD_URL = ArgRules.builder()
+			.requireString("bucketName", FileArgs::getBucketName)
+			.requireString("keyName", FileArgs::getKeyName)
+			.build();
+
 	/**
 	 * Validate a request to create and save a new file to S3.
 	 * Requests to create and save a new file must contain some
@@ -19,99 +51,113 @@ public class ServiceRequestValidator {
 	 * - bucketName
 	 * - keyName
 	 * - dateCreated (this is the date the comment was created)
-	 * 
+	 * The bucket must be one of the service's file buckets.
+	 *
 	 * @param req
+	 * @param buckets the file buckets
 	 * @throws RequestValidationException
 	 */
-	public static void validateCreateCommentRequest(ServiceRequest req) throws
-		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			// Check map of request arguments
-			if (req.getArgs() != null) {
-				try {
-					String createdBy = (String) req.getArgs().get("createdBy");
-					String bucketName = (String) req.getArgs().get("bucketName");
-					String keyName = (String) req.getArgs().get("keyName");
-					String dateCreated = (String) req.getArgs().get("dateCreated");
-					
-					if (createdBy == null || createdBy.isEmpty())
-						validReq = false;
-					if (bucketName == null || bucketName.isEmpty())
-						validReq = false;
-					if (keyName == null || keyName.isEmpty())
-						validReq = false;
-					if (dateCreated == null || dateCreated.isEmpty())
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter File Service request "
-							+ "ERROR: request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-			
-			// Check for file byte array
-			if (req.getFileData() == null || req.getFileData().length == 0)
-				validReq = false;
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq) {
-			throw new RequestValidationException("Chatter File Service request ERROR: "
-					+ "incoming request data contained NULL or invalid values for required "
-					+ "parameters.");
-		}
+	public static void validateCreateCommentRequest(ServiceRequest req, BucketPolicy buckets)
+		throws RequestValidationException {
+		CREATE.check(req != null ? req.getArgs() : null);
+		buckets.check(req.getArgs());
+		ArgRules.checkFileData(req.getFileData());
 	}
-	
+
 	/**
 	 * Validates a request to delete an existing file from S3.
 	 * Requests to delete an existing file must contain some required
 	 * metadata:
 	 * - bucketName
 	 * - keyName
+	 * The bucket must be one of the service's file buckets.
 	 * @param req
+	 * @param buckets the file buckets
 	 * @throws RequestValidationException
 	 */
-	public static void validateDeleteRequest(ServiceRequest req) throws
+	public static void validateDeleteRequest(ServiceRequest req, BucketPolicy buckets) throws
 		RequestValidationException {
-		
-		boolean validReq = true;
-		
-		if (req != null) {
-			if (req.getArgs() != null) {
-				try {
-					String bucketName = (String) req.getArgs().get("bucketName");
-					String keyName = (String) req.getArgs().get("keyName");
-					
-					if (bucketName == null || bucketName.isEmpty())
-						validReq = false;
-					if (keyName == null || keyName.isEmpty()) 
-						validReq = false;
-				}
-				catch (ClassCastException cce) {
-					throw new RequestValidationException("Chatter File Service request "
-							+ "ERROR: request data failed to cast to proper type.");
-				}
-			}
-			else {
-				validReq = false;
-			}
-		}
-		else {
-			validReq = false;
-		}
-		
-		if (!validReq) {
-			throw new RequestValidationException("Chatter File Service request ERROR: "
-					+ "incoming request data contained NULL or invalid values for required "
-					+ "parameters.");
-		}
+		DELETE.check(req != null ? req.getArgs() : null);
+		buckets.check(req.getArgs());
+	}
+
+	/**
+	 * Validates a request for a pre-signed URL to upload a new file
+	 * directly to S3. Requests must contain the metadata required to
+	 * save a file, the bucket must be one of the service's file buckets
+	 * and the declared file must pass the upload policy:
+	 * - createdBy
+	 * - bucketName
+	 * - keyName
+	 * - dateCreated
+	 * - contentType
+	 * - contentLength
+	 *
+	 * @param req
+	 * @param buckets the file buckets
+	 * @param policy the upload policy
+	 * @throws RequestValidationException
+	 */
+	public static void validateUploadUrlRequest(ServiceRequest req, BucketPolicy buckets,
+		UploadPolicy policy) throws RequestValidationException {
+		UPLOAD_URL.check(req != null ? req.getArgs() : null);
+		buckets.check(req.getArgs());
+		policy.check(req.getArgs());
+	}
+
+	/**
+	 * Validates a request to complete a multipart upload started by a
+	 * request for an upload URL. Requests must contain some required
+	 * metadata:
+	 * - bucketName
+	 * - keyName
+	 * - uploadId
+	 * - contentLength (the length declared for the upload URL)
+	 * The bucket must be one of the service's file buckets and the
+	 * length must be within the upload policy.
+	 * @param req
+	 * @param buckets the file buckets
+	 * @param policy the upload policy
+	 * @throws RequestValidationException
+	 */
+	public static void validateCompleteUploadRequest(ServiceRequest req, BucketPolicy buckets,
+		UploadPolicy policy) throws RequestValidationException {
+		MULTIPART_UPLOAD.check(req != null ? req.getArgs() : null);
+		buckets.check(req.getArgs());
+		policy.checkLength(req.getArgs());
+	}
+
+	/**
+	 * Validates a request to abort a multipart upload. Requests must
+	 * contain some required metadata:
+	 * - bucketName
+	 * - keyName
+	 * - uploadId
+	 * The bucket must be one of the service's file buckets.
+	 * @param req
+	 * @param buckets the file buckets
+	 * @throws RequestValidationException
+	 */
+	public static void validateAbortUploadRequest(ServiceRequest req, BucketPolicy buckets)
+		throws RequestValidationException {
+		MULTIPART_UPLOAD.check(req != null ? req.getArgs() : null);
+		buckets.check(req.getArgs());
+	}
+
+	/**
+	 * Validates a request for a pre-signed URL to download an existing
+	 * file directly from S3. Requests must contain some required
+	 * metadata:
+	 * - bucketName
+	 * - keyName
+	 * The bucket must be one of the service's file buckets.
+	 * @param req
+	 * @param buckets the file buckets
+	 * @throws RequestValidationException
+	 */
+	public static void validateDownloadUrlRequest(ServiceRequest req, BucketPolicy buckets)
+		throws RequestValidationException {
+		DOWNLOAD_URL.check(req != null ? req.getArgs() : null);
+		buckets.check(req.getArgs());
 	}
 }
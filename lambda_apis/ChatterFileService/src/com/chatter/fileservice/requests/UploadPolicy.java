@@ -0,0 +1,90 @@
+package com.chatter.fileservice.requests;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import com.chatter.fileservice.exceptions.PropertyRetrievalException;
+import com.chatter.fileservice.exceptions.RequestValidationException;
+import com.chatter.fileservice.util.PropertiesResolver;
+
+/**
+ * UploadPolicy
+ * @author coreym
+ *
+ * Limits on the files clients may upload with a pre-signed POST. The
+ * client declares the length and content type of the file when it asks
+ * for the POST. One is only issued for a file within the maximum length
+ * that has one of the allowed content types. Both are signed into the
+ * POST policy, so S3 rejects an upload of another length or type. A
+ * multipart upload is only completed if its parts add up to the
+ * declared length, which must also be within the maximum.
+ */
+public final class UploadPolicy {
+
+	private final long maxContentLength;
+	private final Set<String> contentTypes;
+
+	public UploadPolicy(long maxContentLength, Set<String> contentTypes) {
+		this.maxContentLength = maxContentLength;
+		this.contentTypes = new HashSet<>();
+		for (String contentType : contentTypes) {
+			this.contentTypes.add(contentType.trim().toLowerCase(Locale.ROOT));
+		}
+	}
+
+	/**
+	 * Reads the policy from the uploadMaxContentLength and the comma
+	 * separated uploadContentTypes service properties.
+	 *
+	 * @param propsResolver the service properties
+	 * @return UploadPolicy
+	 * @throws PropertyRetrievalException
+	 */
+	public static UploadPolicy fromProperties(PropertiesResolver propsResolver)
+			throws PropertyRetrievalException {
+		long maxContentLength = Long.parseLong(
+				propsResolver.getProperty("uploadMaxContentLength").trim());
+		Set<String> contentTypes = new HashSet<>();
+		for (String contentType : propsResolver.getProperty("uploadContentTypes").split(",")) {
+			if (!contentType.trim().isEmpty()) {
+				contentTypes.add(contentType);
+			}
+		}
+		return new UploadPolicy(maxContentLength, contentTypes);
+	}
+
+	/**
+	 * Checks the declared length and content type of a file against
+	 * the policy.
+	 *
+	 * @param args the request arguments
+	 * @throws RequestValidationException if the file breaks the policy
+	 */
+	public void check(FileArgs args) throws RequestValidationException {
+		this.checkLength(args);
+
+		String contentType = args.getContentType();
+		if (contentType == null
+				|| !this.contentTypes.contains(contentType.trim().toLowerCase(Locale.ROOT))) {
+			throw new RequestValidationException(ArgRules.ERROR_PREFIX
+					+ "contentType " + contentType + " is not an accepted file type.");
+		}
+	}
+
+	/**
+	 * Checks the declared length of a file against the policy.
+	 *
+	 * @param args the request arguments
+	 * @throws RequestValidationException if the file is too large
+	 */
+	public void checkLength(FileArgs args) throws RequestValidationException {
+		Long contentLength = args.getContentLength();
+		if (contentLength == null || contentLength.longValue() <= 0
+				|| contentLength.longValue() > this.maxContentLength) {
+			throw new RequestValidationException(ArgRules.ERROR_PREFIX
+					+ "contentLength is required and must be between 1 and "
+					+ this.maxContentLength + " bytes.");
+		}
+	}
+}
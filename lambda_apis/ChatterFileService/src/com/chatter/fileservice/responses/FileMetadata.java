@@ -16,6 +16,9 @@ public class FileMetadata {
 	private Long contentLength;
 	private String contentType;
 	
+	// Base64 SHA-256 of the file, only computed when enabled
+	private String sha256;
+	
 	// Custom user defined metadata
 	private Map<String, String> userMetadata;
 	
@@ -45,6 +48,14 @@ public class FileMetadata {
 		this.contentType = contentType;
 	}
 	
+	public String getSha256() {
+		return sha256;
+	}
+	
+	public void setSha256(String sha256) {
+		this.sha256 = sha256;
+	}
+	
 	public Map<String, String> getUserMetadata() {
 		return userMetadata;
 	}
@@ -0,0 +1,120 @@
+package com.chatter.fileservice.responses;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PresignedUrl
+ * @author coreym
+ *
+ * A pre-signed S3 request that lets the client transfer a file
+ * directly with S3. The client must send the returned headers with the
+ * request, since they are part of the signature. A POST is sent as a
+ * multipart form holding the returned fields, followed by the file.
+ *
+ * A large file is uploaded with a multipart upload instead, which has
+ * no single URL. Part n of the file, counting from 1, is PUT to the
+ * n-th part URL, and the upload id is passed back to complete or abort
+ * the upload.
+ */
+public class PresignedUrl {
+
+	private String url;
+	private String httpMethod;
+	private Long expiration;
+	private Map<String, String> headers;
+	private Map<String, String> fields;
+	private String uploadId;
+	private Long partSize;
+	private List<String> partUrls;
+
+	public PresignedUrl() { }
+
+	public PresignedUrl(String url, String httpMethod, Long expiration,
+			Map<String, String> headers, Map<String, String> fields) {
+		this.url = url;
+		this.httpMethod = httpMethod;
+		this.expiration = expiration;
+		this.headers = headers;
+		this.fields = fields;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public String getHttpMethod() {
+		return httpMethod;
+	}
+
+	public void setHttpMethod(String httpMethod) {
+		this.httpMethod = httpMethod;
+	}
+
+	/**
+	 * @return the time the URL expires, in milliseconds since the epoch
+	 */
+	public Long getExpiration() {
+		return expiration;
+	}
+
+	public void setExpiration(Long expiration) {
+		this.expiration = expiration;
+	}
+
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	public void setHeaders(Map<String, String> headers) {
+		this.headers = headers;
+	}
+
+	/**
+	 * @return the form fields of a POST, in the order they must be sent
+	 */
+	public Map<String, String> getFields() {
+		return fields;
+	}
+
+	public void setFields(Map<String, String> fields) {
+		this.fields = fields;
+	}
+
+	/**
+	 * @return the id of a multipart upload, NULL for a single request
+	 */
+	public String getUploadId() {
+		return uploadId;
+	}
+
+	public void setUploadId(String uploadId) {
+		this.uploadId = uploadId;
+	}
+
+	/**
+	 * @return the size of every part of a multipart upload but the last
+	 */
+	public Long getPartSize() {
+		return partSize;
+	}
+
+	public void setPartSize(Long partSize) {
+		this.partSize = partSize;
+	}
+
+	/**
+	 * @return the pre-signed PUT URL of each part, in part number order
+	 */
+	public List<String> getPartUrls() {
+		return partUrls;
+	}
+
+	public void setPartUrls(List<String> partUrls) {
+		this.partUrls = partUrls;
+	}
+}
@@ -1,5 +1,6 @@
 package com.chatter.fileservice.util;
 
 public enum ServiceOps {
-	SAVE_FILE, DELETE_FILE, PING, SERVICE_INFO
+	SAVE_FILE, DELETE_FILE, GENERATE_UPLOAD_URL, COMPLETE_UPLOAD, ABORT_UPLOAD,
+	GENERATE_DOWNLOAD_URL, PING, SERVICE_INFO
 }
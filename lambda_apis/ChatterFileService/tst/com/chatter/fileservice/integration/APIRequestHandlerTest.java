@@ -7,7 +7,6 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.file.Files;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Test;
@@ -15,8 +14,10 @@ import org.junit.Assert;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.chatter.fileservice.handlers.ChatterFileAPIRequestHandler;
+import com.chatter.fileservice.requests.FileArgs;
 import com.chatter.fileservice.requests.ServiceRequest;
 import com.chatter.fileservice.responses.FileMetadata;
+import com.chatter.fileservice.responses.PresignedUrl;
 import com.chatter.fileservice.responses.ServiceProps;
 import com.chatter.fileservice.responses.ServiceResponse;
 import com.chatter.fileservice.util.ServiceMessages;
@@ -96,12 +97,12 @@ public class APIRequestHandlerTest {
      * @return
      */
     private ServiceRequest generateSampleSaveRequest(TestFile testFile) {
-    	// Map of arguments for save request
-    	Map<String, String> args = new HashMap<>();
-    	args.put("createdBy", "FileServiceTest");
-    	args.put("bucketName", "chatter-test-data");
-    	args.put("keyName", testFile.getFileName());
-    	args.put("dateCreated", new Date().toString());
+    	// Arguments for save request
+    	FileArgs args = new FileArgs();
+    	args.setCreatedBy("FileServiceTest");
+    	args.setBucketName("chatter-test-data");
+    	args.setKeyName(testFile.getFileName());
+    	args.setDateCreated(new Date().toString());
     	
     	ServiceRequest request = new ServiceRequest();
     	request.setOperation(ServiceOps.SAVE_FILE);
@@ -116,10 +117,10 @@ public class APIRequestHandlerTest {
      * @return
      */
     private ServiceRequest generateSampleDeleteRequest(TestFile testFile) {
-    	// Map of arguments for delete request
-    	Map<String, String> args = new HashMap<>();
-    	args.put("bucketName", "chatter-test-data");
-    	args.put("keyName", testFile.getFileName());
+    	// Arguments for delete request
+    	FileArgs args = new FileArgs();
+    	args.setBucketName("chatter-test-data");
+    	args.setKeyName(testFile.getFileName());
     	
     	ServiceRequest request = new ServiceRequest();
     	request.setOperation(ServiceOps.DELETE_FILE);
@@ -128,6 +129,46 @@ public class APIRequestHandlerTest {
     	return request;
     }
     
+    /**
+     * Generates sample upload url request
+     * @return
+     */
+    private ServiceRequest generateSampleUploadUrlRequest(String contentType,
+    		Long contentLength) {
+    	// Arguments for upload url request
+    	FileArgs args = new FileArgs();
+    	args.setCreatedBy("FileServiceTest");
+    	args.setBucketName("chatter-test-data");
+    	args.setKeyName("chatter_test_upload.m4a");
+    	args.setDateCreated(new Date().toString());
+    	args.setCommentId("test-comment");
+    	args.setContentType(contentType);
+    	args.setContentLength(contentLength);
+    	
+    	ServiceRequest request = new ServiceRequest();
+    	request.setOperation(ServiceOps.GENERATE_UPLOAD_URL);
+    	request.setReqDate(new Date().getTime());
+    	request.setArgs(args);
+    	return request;
+    }
+    
+    /**
+     * Generates sample download url request
+     * @return
+     */
+    private ServiceRequest generateSampleDownloadUrlRequest(String bucketName) {
+    	// Arguments for download url request
+    	FileArgs args = new FileArgs();
+    	args.setBucketName(bucketName);
+    	args.setKeyName("chatter_test_upload.m4a");
+    	
+    	ServiceRequest request = new ServiceRequest();
+    	request.setOperation(ServiceOps.GENERATE_DOWNLOAD_URL);
+    	request.setReqDate(new Date().getTime());
+    	request.setArgs(args);
+    	return request;
+    }
+    
     /**
      * Generates a test file to use for uploading purposes.
      * Saves the file to the project resources directory.
@@ -239,4 +280,91 @@ public class APIRequestHandlerTest {
     	Assert.assertFalse(deleteResp.getExceptionThrown());
     	Assert.assertNull(deleteResp.getExceptionMessage());
     }
+    
+    @Test
+    public void testGenerateUploadAndDownloadUrl() {
+    	ServiceRequest uploadReq = this.generateSampleUploadUrlRequest("audio/mp4", 1024L);
+    	
+    	@SuppressWarnings("unchecked")
+    	ServiceResponse<PresignedUrl> uploadResp = (ServiceResponse<PresignedUrl>)
+    		this.handler.handleRequest(uploadReq, this.ctx);
+    	
+    	// Upload url response assertions
+    	Assert.assertTrue(uploadResp.getStatus());
+    	Assert.assertTrue(uploadResp.getMessage().equals(
+    			ServiceMessages.OPERATION_SUCCESS.toString()));
+    	Assert.assertEquals("POST", uploadResp.getPayload().getHttpMethod());
+    	Assert.assertTrue(uploadResp.getPayload().getUrl().startsWith("https://chatter-test-data."));
+    	Map<String, String> fields = uploadResp.getPayload().getFields();
+    	Assert.assertEquals("chatter_test_upload.m4a", fields.get("key"));
+    	Assert.assertEquals("audio/mp4", fields.get("Content-Type"));
+    	Assert.assertEquals("FileServiceTest", fields.get("x-amz-meta-createdBy"));
+    	Assert.assertEquals("test-comment", fields.get("x-amz-meta-commentId"));
+    	Assert.assertNotNull(fields.get("policy"));
+    	Assert.assertNotNull(fields.get("x-amz-signature"));
+    	Assert.assertTrue(uploadResp.getPayload().getExpiration() > new Date().getTime());
+    	
+    	ServiceRequest downloadReq = this.generateSampleDownloadUrlRequest("chatter-test-data");
+    	
+    	@SuppressWarnings("unchecked")
+    	ServiceResponse<PresignedUrl> downloadResp = (ServiceResponse<PresignedUrl>)
+    		this.handler.handleRequest(downloadReq, this.ctx);
+    	
+    	// Download url response assertions
+    	Assert.assertTrue(downloadResp.getStatus());
+    	Assert.assertEquals("GET", downloadResp.getPayload().getHttpMethod());
+    	Assert.assertTrue(downloadResp.getPayload().getUrl().contains("chatter_test_upload.m4a"));
+    }
+    
+    @Test
+    public void testMultipartUploadUrl() {
+    	ServiceRequest uploadReq = this.generateSampleUploadUrlRequest("audio/mp4",
+    			20L * 1024 * 1024);
+    	
+    	@SuppressWarnings("unchecked")
+    	ServiceResponse<PresignedUrl> uploadResp = (ServiceResponse<PresignedUrl>)
+    		this.handler.handleRequest(uploadReq, this.ctx);
+    	
+    	// Multipart upload response assertions
+    	Assert.assertTrue(uploadResp.getStatus());
+    	Assert.assertEquals("PUT", uploadResp.getPayload().getHttpMethod());
+    	Assert.assertNotNull(uploadResp.getPayload().getUploadId());
+    	Assert.assertEquals(3, uploadResp.getPayload().getPartUrls().size());
+    	Assert.assertTrue(uploadResp.getPayload().getPartUrls().get(0).contains("partNumber=1"));
+    	
+    	// Abort the upload so no parts are left behind
+    	FileArgs abortArgs = new FileArgs();
+    	abortArgs.setBucketName("chatter-test-data");
+    	abortArgs.setKeyName("chatter_test_upload.m4a");
+    	abortArgs.setUploadId(uploadResp.getPayload().getUploadId());
+    	ServiceRequest abortReq = new ServiceRequest();
+    	abortReq.setOperation(ServiceOps.ABORT_UPLOAD);
+    	abortReq.setReqDate(new Date().getTime());
+    	abortReq.setArgs(abortArgs);
+    	
+    	ServiceResponse<? extends Object> abortResp = this.handler.handleRequest(abortReq, this.ctx);
+    	Assert.assertTrue(abortResp.getStatus());
+    	Assert.assertFalse(abortResp.getExceptionThrown());
+    }
+    
+    @Test
+    public void testUploadUrlPolicy() {
+    	ServiceRequest[] invalidReqs = {
+    		this.generateSampleUploadUrlRequest("application/x-sh", 1024L),
+    		this.generateSampleUploadUrlRequest("audio/mp4", 100L * 1024 * 1024),
+    		this.generateSampleUploadUrlRequest("audio/mp4", null),
+    		this.generateSampleDownloadUrlRequest("another-bucket")
+    	};
+    	
+    	for (ServiceRequest invalidReq : invalidReqs) {
+    		ServiceResponse<? extends Object> resp = 
+    			this.handler.handleRequest(invalidReq, this.ctx);
+    		
+    		Assert.assertFalse(resp.getStatus());
+    		Assert.assertTrue(resp.getMessage().equals(
+    				ServiceMessages.INVALID_REQUEST.toString()));
+    		Assert.assertTrue(resp.getExceptionThrown());
+    		Assert.assertNull(resp.getPayload());
+    	}
+    }
 }
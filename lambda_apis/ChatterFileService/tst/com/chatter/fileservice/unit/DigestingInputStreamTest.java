@@ -0,0 +1,70 @@
+package com.chatter.fileservice.unit;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chatter.fileservice.fao.DigestingInputStream;
+
+/**
+ * DigestingInputStreamTest
+ * @author coreym
+ *
+ * Unit tests for digesting file data while it is read
+ */
+public class DigestingInputStreamTest {
+
+	private final byte[] data = "This is just a test file being uploaded to AWS S3!".getBytes();
+
+	private DigestingInputStream stream() throws NoSuchAlgorithmException {
+		return new DigestingInputStream(new ByteArrayInputStream(this.data),
+				MessageDigest.getInstance("SHA-256"));
+	}
+
+	private void drain(DigestingInputStream input) throws IOException {
+		byte[] buffer = new byte[7];
+		while (input.read(buffer, 0, buffer.length) != -1) { }
+	}
+
+	/**
+	 * Test that single byte, bulk and skipped reads are all digested
+	 */
+	@Test
+	public void testDigestReads() throws Exception {
+		DigestingInputStream input = this.stream();
+		Assert.assertEquals(this.data[0], input.read());
+		Assert.assertEquals(5, input.skip(5));
+		Assert.assertEquals(0, input.skip(0));
+		Assert.assertEquals(0, input.skip(-3));
+		this.drain(input);
+		Assert.assertTrue(Arrays.equals(DigestUtils.sha256(this.data), input.digest()));
+	}
+
+	/**
+	 * Test that a reset rewinds the digest along with the stream, as
+	 * when the S3 client retries a request
+	 */
+	@Test
+	public void testResetRewindsDigest() throws Exception {
+		DigestingInputStream input = this.stream();
+		Assert.assertTrue(input.markSupported());
+		this.drain(input);
+		input.reset();
+		this.drain(input);
+		Assert.assertTrue(Arrays.equals(DigestUtils.sha256(this.data), input.digest()));
+
+		input = this.stream();
+		input.read(new byte[10], 0, 10);
+		input.mark(this.data.length);
+		this.drain(input);
+		input.reset();
+		this.drain(input);
+		Assert.assertTrue(Arrays.equals(DigestUtils.sha256(this.data), input.digest()));
+	}
+}
@@ -0,0 +1,191 @@
+package com.chatter.fileservice.unit;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PartSummary;
+import com.chatter.fileservice.exceptions.RequestValidationException;
+import com.chatter.fileservice.fao.MultipartUploads;
+import com.chatter.fileservice.responses.PresignedUrl;
+
+/**
+ * MultipartUploadsTest
+ * @author coreym
+ *
+ * Unit tests for client side multipart uploads, run against an in
+ * memory S3 stand-in
+ */
+public class MultipartUploadsTest {
+
+	private static final long MB = 1024 * 1024;
+
+	/**
+	 * Keeps the parts of a single upload in memory, listing them two
+	 * per page
+	 */
+	private static class PartStore extends AbstractAmazonS3 {
+		private final List<PartSummary> parts = new ArrayList<>();
+		private ObjectMetadata metadata;
+		private List<PartETag> completedParts;
+		private boolean aborted;
+
+		void addPart(long size) {
+			PartSummary part = new PartSummary();
+			part.setPartNumber(this.parts.size() + 1);
+			part.setETag("etag-" + part.getPartNumber());
+			part.setSize(size);
+			this.parts.add(part);
+		}
+
+		@Override
+		public InitiateMultipartUploadResult initiateMultipartUpload(
+				InitiateMultipartUploadRequest req) {
+			this.metadata = req.getObjectMetadata();
+			InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+			result.setUploadId("upload-1");
+			return result;
+		}
+
+		@Override
+		public URL generatePresignedUrl(GeneratePresignedUrlRequest req) {
+			Map<String, String> params = req.getRequestParameters();
+			try {
+				return new URL("https://" + req.getBucketName() + ".s3.amazonaws.com/"
+						+ req.getKey() + "?uploadId=" + params.get("uploadId")
+						+ "&partNumber=" + params.get("partNumber"));
+			}
+			catch (MalformedURLException mue) {
+				throw new IllegalStateException(mue);
+			}
+		}
+
+		@Override
+		public PartListing listParts(ListPartsRequest req) {
+			Assert.assertEquals("upload-1", req.getUploadId());
+			int start = req.getPartNumberMarker() != null ? req.getPartNumberMarker() : 0;
+			int end = Math.min(start + 2, this.parts.size());
+			PartListing listing = new PartListing();
+			listing.setParts(new ArrayList<>(this.parts.subList(start, end)));
+			listing.setTruncated(end < this.parts.size());
+			listing.setNextPartNumberMarker(end);
+			return listing;
+		}
+
+		@Override
+		public CompleteMultipartUploadResult completeMultipartUpload(
+				CompleteMultipartUploadRequest req) {
+			this.completedParts = req.getPartETags();
+			CompleteMultipartUploadResult result = new CompleteMultipartUploadResult();
+			result.setETag("etag-complete");
+			return result;
+		}
+
+		@Override
+		public void abortMultipartUpload(AbortMultipartUploadRequest req) {
+			Assert.assertEquals("upload-1", req.getUploadId());
+			this.aborted = true;
+		}
+	}
+
+	/**
+	 * Test that starting an upload signs one PUT URL per part, with
+	 * the file metadata set on the new upload
+	 */
+	@Test
+	public void testStartSignsEveryPart() {
+		PartStore store = new PartStore();
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentType("audio/mp4");
+
+		PresignedUrl upload = new MultipartUploads(store, 8 * MB).start("bucket",
+				"audio.m4a", metadata, 20 * MB, new Date(System.currentTimeMillis() + 60000));
+
+		Assert.assertEquals("audio/mp4", store.metadata.getContentType());
+		Assert.assertEquals("upload-1", upload.getUploadId());
+		Assert.assertEquals("PUT", upload.getHttpMethod());
+		Assert.assertEquals(Long.valueOf(8 * MB), upload.getPartSize());
+		Assert.assertEquals(3, upload.getPartUrls().size());
+		for (int i = 0; i < 3; i++) {
+			Assert.assertEquals("https://bucket.s3.amazonaws.com/audio.m4a?uploadId=upload-1"
+					+ "&partNumber=" + (i + 1), upload.getPartUrls().get(i));
+		}
+	}
+
+	/**
+	 * Test that parts are raised to the S3 minimum size, and grown to
+	 * keep a file within the S3 part count limit
+	 */
+	@Test
+	public void testPartSize() {
+		Assert.assertEquals(5 * MB, new MultipartUploads(new PartStore(), MB).partSize(20 * MB));
+
+		MultipartUploads uploads = new MultipartUploads(new PartStore(), 8 * MB);
+		long contentLength = 10000 * 8 * MB + 1;
+		long partSize = uploads.partSize(contentLength);
+		Assert.assertTrue(partSize > 8 * MB);
+		Assert.assertTrue((contentLength + partSize - 1) / partSize <= 10000);
+	}
+
+	/**
+	 * Test that an upload is completed with every part across listing
+	 * pages, in part number order
+	 */
+	@Test
+	public void testComplete() throws Exception {
+		PartStore store = new PartStore();
+		for (int i = 0; i < 4; i++) {
+			store.addPart(5 * MB);
+		}
+		store.addPart(MB);
+
+		CompleteMultipartUploadResult result = new MultipartUploads(store, 5 * MB).complete(
+				"bucket", "audio.m4a", "upload-1", 21 * MB);
+
+		Assert.assertEquals("etag-complete", result.getETag());
+		Assert.assertFalse(store.aborted);
+		Assert.assertEquals(5, store.completedParts.size());
+		for (int i = 0; i < 5; i++) {
+			Assert.assertEquals(i + 1, store.completedParts.get(i).getPartNumber());
+			Assert.assertEquals("etag-" + (i + 1), store.completedParts.get(i).getETag());
+		}
+	}
+
+	/**
+	 * Test that an upload whose parts do not add up to the declared
+	 * length is aborted instead of completed
+	 */
+	@Test
+	public void testAbortOnLengthMismatch() {
+		PartStore store = new PartStore();
+		store.addPart(5 * MB);
+		store.addPart(5 * MB);
+
+		try {
+			new MultipartUploads(store, 5 * MB).complete("bucket", "audio.m4a", "upload-1",
+					6 * MB);
+			Assert.fail("Expected the upload to be rejected");
+		}
+		catch (RequestValidationException rve) {
+			Assert.assertTrue(store.aborted);
+			Assert.assertNull(store.completedParts);
+		}
+	}
+}